@@ -0,0 +1,97 @@
+package io.nem.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.nem.core.connect.HttpJsonPostRequest;
+import org.nem.core.crypto.KeyPair;
+import org.nem.core.messages.SecureMessage;
+import org.nem.core.model.Account;
+import org.nem.core.model.Transaction;
+import org.nem.core.model.TransferTransactionAttachment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.nem.factories.AttachmentFactory;
+import io.nem.model.SignedTransaction;
+import io.nem.model.SwiftTransaction;
+import io.nem.service.BlockchainTransactionService;
+import io.nem.service.Globals;
+import io.nem.swift.crypto.SecureMessageSwiftPayloadEncoder;
+
+
+
+/**
+ * Serialization of a signed transfer into the body of an announce, through
+ * the nem-core JSON tree and straight from the serialized bytes. Compare the
+ * gc.alloc.rate.norm of the GC profiler for the bytes allocated per
+ * announce.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnounceBenchmark {
+
+	/** The message size in bytes. */
+	@Param({ "512", "1024", "4096" })
+	public int size;
+
+	/** The signed transaction. */
+	private Transaction signed;
+
+	/**
+	 * Builds and signs the transaction.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		final Account sender = new Account(new KeyPair());
+		final Account recipient = new Account(new KeyPair(new KeyPair().getPublicKey()));
+		final SecureMessage message = SecureMessageSwiftPayloadEncoder.encodeAndGzipCompress(sender, recipient,
+				SwiftSamples.message("103", this.size));
+		final TransferTransactionAttachment attachment = AttachmentFactory.createTransferTransactionAttachment(message);
+
+		final SwiftTransaction tBlock = new SwiftTransaction();
+		tBlock.setSenderAccount(sender);
+		tBlock.setRecipientAccount(recipient);
+		tBlock.setAmount(0L);
+		tBlock.setAttachment(attachment);
+		tBlock.setTimeInstant(Globals.TIME_PROVIDER.getCurrentTime());
+		this.signed = BlockchainTransactionService.createSignedTransaction(tBlock);
+	}
+
+	/**
+	 * Serializes the transaction and builds the body through the JSON tree,
+	 * as announces were sent before.
+	 *
+	 * @return the body
+	 */
+	@Benchmark
+	public byte[] jsonTree() {
+		return new HttpJsonPostRequest(new SignedTransaction(this.signed).toRequestAnnounce()).getPayload();
+	}
+
+	/**
+	 * Serializes the transaction and hex encodes the body straight from the
+	 * serialized bytes, as announces are sent now.
+	 *
+	 * @return the body
+	 */
+	@Benchmark
+	public byte[] direct() {
+		return new SignedTransaction(this.signed).toAnnounceRequest().getPayload();
+	}
+}
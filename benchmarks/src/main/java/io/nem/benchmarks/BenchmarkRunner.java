@@ -0,0 +1,32 @@
+package io.nem.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+
+/**
+ * Runs the benchmarks selected on the command line, which takes the usual
+ * JMH options, with the GC profiler added so every result comes with its
+ * allocation rate and bytes allocated per operation.
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * The main method.
+	 *
+	 * @param args the JMH command line
+	 * @throws RunnerException the runner exception
+	 * @throws CommandLineOptionException the command line option exception
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		final CommandLineOptions commandLine = new CommandLineOptions(args);
+		final Options options = new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class).build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,121 @@
+package io.nem.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.nem.util.GzipUtils;
+import io.nem.util.SwiftDictionaryCodec;
+import io.nem.util.SwiftPayloadEnvelope;
+
+
+
+/**
+ * Compression and decompression of a message by MT type and size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+	/** The MT type. */
+	@Param({ "103", "202", "940", "950", "798" })
+	public String type;
+
+	/** The message size in bytes. */
+	@Param({ "512", "4096", "32768" })
+	public int size;
+
+	/** The message. */
+	private String message;
+
+	/** The message bytes. */
+	private byte[] messageBytes;
+
+	/** The gzip compressed message. */
+	private byte[] gzipped;
+
+	/** The dictionary compressed message. */
+	private byte[] dictionaryCompressed;
+
+	/**
+	 * Builds the message.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		this.message = SwiftSamples.message(this.type, this.size);
+		this.messageBytes = this.message.getBytes(StandardCharsets.UTF_8);
+		this.gzipped = GzipUtils.compress(this.message);
+		this.dictionaryCompressed = SwiftDictionaryCodec.compress(this.messageBytes);
+	}
+
+	/**
+	 * Gzip compress.
+	 *
+	 * @return the compressed message
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public byte[] gzipCompress() throws IOException {
+		return GzipUtils.compress(this.message);
+	}
+
+	/**
+	 * Gzip decompress.
+	 *
+	 * @return the message
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public String gzipDecompress() throws IOException {
+		return GzipUtils.decompress(this.gzipped);
+	}
+
+	/**
+	 * Dictionary compress.
+	 *
+	 * @return the compressed message
+	 */
+	@Benchmark
+	public byte[] dictionaryCompress() {
+		return SwiftDictionaryCodec.compress(this.messageBytes);
+	}
+
+	/**
+	 * Dictionary decompress.
+	 *
+	 * @return the message
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public byte[] dictionaryDecompress() throws IOException {
+		return SwiftDictionaryCodec.decompress(this.dictionaryCompressed);
+	}
+
+	/**
+	 * Adaptive encode, trying the codecs within the budget.
+	 *
+	 * @return the payload
+	 */
+	@Benchmark
+	public byte[] adaptiveEncode() {
+		return SwiftPayloadEnvelope.encode(this.messageBytes);
+	}
+}
@@ -0,0 +1,159 @@
+package io.nem.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.nem.core.crypto.KeyPair;
+import org.nem.core.messages.SecureMessage;
+import org.nem.core.model.Account;
+import org.nem.core.utils.HexEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.nem.swift.crypto.SecureMessageSwiftPayloadDecoder;
+import io.nem.swift.crypto.SecureMessageSwiftPayloadEncoder;
+import io.nem.swift.crypto.SwiftCryptoSession;
+
+
+
+/**
+ * Encrypting and decrypting a gzip compressed message, the way the builders
+ * and the incoming poller do. The crypto session of the account pair is
+ * cached after the first call, as in a long running sender; the
+ * <code>coldSession</code> variants evict it first and include the key
+ * agreement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CryptoBenchmark {
+
+	/** The MT type. */
+	@Param({ "103", "940" })
+	public String type;
+
+	/** The message size in bytes. */
+	@Param({ "512", "4096", "32768" })
+	public int size;
+
+	/** The sender. */
+	private Account sender;
+
+	/** The recipient as seen by the sender. */
+	private Account recipient;
+
+	/** The sender as seen by the recipient. */
+	private Account senderPublic;
+
+	/** The recipient with its private key. */
+	private Account recipientPrivate;
+
+	/** The message. */
+	private String message;
+
+	/** The encrypted payload, hex encoded. */
+	private String encryptedHex;
+
+	/** The encrypted payload. */
+	private byte[] encrypted;
+
+	/** The decode output. */
+	private ByteBuffer output;
+
+	/**
+	 * Creates the accounts and an encrypted payload.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		final KeyPair senderKeyPair = new KeyPair();
+		final KeyPair recipientKeyPair = new KeyPair();
+		this.sender = new Account(senderKeyPair);
+		this.recipient = new Account(new KeyPair(recipientKeyPair.getPublicKey()));
+		this.senderPublic = new Account(new KeyPair(senderKeyPair.getPublicKey()));
+		this.recipientPrivate = new Account(recipientKeyPair);
+		this.message = SwiftSamples.message(this.type, this.size);
+
+		final SecureMessage encrypted = SecureMessageSwiftPayloadEncoder.encodeAndGzipCompress(this.sender,
+				this.recipient, this.message);
+		this.encrypted = encrypted.getEncodedPayload();
+		this.encryptedHex = HexEncoder.getString(this.encrypted);
+		this.output = ByteBuffer.allocate(2 * this.message.length());
+	}
+
+	/**
+	 * Encode and gzip compress.
+	 *
+	 * @return the secure message
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public SecureMessage encodeAndGzipCompress() throws IOException {
+		return SecureMessageSwiftPayloadEncoder.encodeAndGzipCompress(this.sender, this.recipient, this.message);
+	}
+
+	/**
+	 * Decode and gzip uncompress.
+	 *
+	 * @return the message
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public String decodeAndGzipUncompress() throws IOException {
+		return SecureMessageSwiftPayloadDecoder.decodeAndGzipUncompress(this.senderPublic, this.recipientPrivate,
+				this.encryptedHex);
+	}
+
+	/**
+	 * Decode and uncompress the raw payload into a reused buffer, without
+	 * hex or intermediate copies.
+	 *
+	 * @return the number of bytes decoded
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public int decodeIntoBuffer() throws IOException {
+		this.output.clear();
+		return SecureMessageSwiftPayloadDecoder.decodeAndUncompress(this.senderPublic, this.recipientPrivate,
+				this.encrypted, this.output);
+	}
+
+	/**
+	 * Encode and gzip compress without a cached session.
+	 *
+	 * @return the secure message
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public SecureMessage coldSessionEncodeAndGzipCompress() throws IOException {
+		SwiftCryptoSession.evict(this.sender, this.recipient);
+		return SecureMessageSwiftPayloadEncoder.encodeAndGzipCompress(this.sender, this.recipient, this.message);
+	}
+
+	/**
+	 * Decode and gzip uncompress without a cached session.
+	 *
+	 * @return the message
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public String coldSessionDecodeAndGzipUncompress() throws IOException {
+		SwiftCryptoSession.evict(this.recipientPrivate, this.senderPublic);
+		return SecureMessageSwiftPayloadDecoder.decodeAndGzipUncompress(this.senderPublic, this.recipientPrivate,
+				this.encryptedHex);
+	}
+}
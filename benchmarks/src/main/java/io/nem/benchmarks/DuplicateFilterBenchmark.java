@@ -0,0 +1,136 @@
+package io.nem.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.nem.service.SwiftDuplicateFilter;
+
+
+
+/**
+ * Marking and checking references in a duplicate filter holding the given
+ * number of references, sized for twice as many.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DuplicateFilterBenchmark {
+
+	/** The references held by the filter. */
+	@Param({ "100000", "1000000" })
+	public int references;
+
+	/** The directory of the index file. */
+	private Path directory;
+
+	/** The filter. */
+	private SwiftDuplicateFilter filter;
+
+	/** The references marked in the filter. */
+	private byte[][] known;
+
+	/** The references not in the filter. */
+	private byte[][] unknown;
+
+	/** The next reference to use. */
+	private int next;
+
+	/** The next new reference to mark. */
+	private long fresh;
+
+	/**
+	 * Builds a reference.
+	 *
+	 * @param reference the field 20 reference
+	 * @return the reference
+	 */
+	private static byte[] reference(String reference) {
+		return SwiftDuplicateFilter.referenceOf("BANKBEBBAXXX", "103", reference, new byte[] { 1 });
+	}
+
+	/**
+	 * Creates the filter and marks the known references.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		this.directory = Files.createTempDirectory("dedup");
+		this.filter = new SwiftDuplicateFilter(this.directory.resolve("index"), 2L * this.references,
+				TimeUnit.DAYS.toMillis(30));
+		this.known = new byte[this.references][];
+		this.unknown = new byte[this.references][];
+		for (int i = 0; i < this.references; i++) {
+			this.known[i] = reference("KNOWN" + i);
+			this.unknown[i] = reference("UNKNOWN" + i);
+			this.filter.markIfNew(this.known[i]);
+		}
+	}
+
+	/**
+	 * Closes the filter and deletes the index.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@TearDown
+	public void tearDown() throws IOException {
+		this.filter.close();
+		try (Stream<Path> files = Files.walk(this.directory)) {
+			for (final Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	/**
+	 * Checks a reference the filter does not hold.
+	 *
+	 * @return true, if it is a duplicate
+	 */
+	@Benchmark
+	public boolean checkNew() {
+		this.next = (this.next + 1) % this.references;
+		return this.filter.isDuplicate(this.unknown[this.next]);
+	}
+
+	/**
+	 * Marks a reference the filter already holds.
+	 *
+	 * @return true, if it was new
+	 */
+	@Benchmark
+	public boolean markDuplicate() {
+		this.next = (this.next + 1) % this.references;
+		return this.filter.markIfNew(this.known[this.next]);
+	}
+
+	/**
+	 * Marks a new reference, including computing the reference.
+	 *
+	 * @return true, if it was new
+	 */
+	@Benchmark
+	public boolean markNew() {
+		return this.filter.markIfNew(reference("NEW" + this.fresh++));
+	}
+}
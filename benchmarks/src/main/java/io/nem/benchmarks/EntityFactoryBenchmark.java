@@ -0,0 +1,90 @@
+package io.nem.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.nem.core.crypto.KeyPair;
+import org.nem.core.model.Account;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.nem.factories.EntityFactory;
+
+
+
+/**
+ * Parsing accounts from hex keys, from the key cache and from scratch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityFactoryBenchmark {
+
+	/** The private key hex. */
+	private String privateKey;
+
+	/** The public key hex. */
+	private String publicKey;
+
+	/**
+	 * Creates the keys.
+	 */
+	@Setup
+	public void setUp() {
+		final KeyPair keyPair = new KeyPair();
+		this.privateKey = keyPair.getPrivateKey().toString();
+		this.publicKey = keyPair.getPublicKey().toString();
+	}
+
+	/**
+	 * Builds an account from a cached private key.
+	 *
+	 * @return the account
+	 */
+	@Benchmark
+	public Account cachedPrivateKey() {
+		return EntityFactory.buildAccountFromPrivateKey(this.privateKey);
+	}
+
+	/**
+	 * Builds an account from a cached public key.
+	 *
+	 * @return the account
+	 */
+	@Benchmark
+	public Account cachedPublicKey() {
+		return EntityFactory.buildAccountFromPublicKey(this.publicKey);
+	}
+
+	/**
+	 * Builds an account from a private key that is not cached.
+	 *
+	 * @return the account
+	 */
+	@Benchmark
+	public Account uncachedPrivateKey() {
+		EntityFactory.evictKey(this.privateKey);
+		return EntityFactory.buildAccountFromPrivateKey(this.privateKey);
+	}
+
+	/**
+	 * Builds an account from a public key that is not cached.
+	 *
+	 * @return the account
+	 */
+	@Benchmark
+	public Account uncachedPublicKey() {
+		EntityFactory.evictKey(this.publicKey);
+		return EntityFactory.buildAccountFromPublicKey(this.publicKey);
+	}
+}
@@ -0,0 +1,419 @@
+package io.nem.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.nem.core.crypto.KeyPair;
+import org.nem.core.model.Account;
+import org.nem.core.model.ValidationResult;
+
+import io.nem.factories.AttachmentFactory;
+import io.nem.factories.EntityFactory;
+import io.nem.metrics.LatencyHistogram;
+import io.nem.model.SwiftAnnounceResult;
+import io.nem.model.SwiftTransaction;
+import io.nem.service.BlockchainTransactionService;
+import io.nem.service.Globals;
+import io.nem.swift.crypto.SecureMessageSwiftPayloadEncoder;
+import io.nem.util.RetryPolicy;
+
+
+
+/**
+ * Sends SWIFT messages through the library at a fixed rate and reports the
+ * latency distribution and the throughput achieved.
+ *
+ * The load is open loop: message <i>n</i> is due at <code>start + n / rate</code>
+ * whether or not earlier messages are done, and its latency is measured from
+ * that due time to the node answer. When the library falls behind (all
+ * <code>--concurrency</code> slots busy, a saturated signing pool, a slow
+ * node), the wait before a message could start counts as latency, as it
+ * would for a real gateway whose traffic does not slow down with it. The
+ * time from the actual start is reported as service time, so the gap
+ * between the two shows the queueing. Each message is encoded, compressed,
+ * encrypted, signed and announced like a production send.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar io.nem.benchmarks.LoadGenerator \
+ *     --rate 200 --duration 60 --warmup 10 --mix 103:60,202:30,940:10 --sizes 512,4096
+ * </pre>
+ *
+ * The node is taken from app.properties; with <code>node.mock.enabled=true</code>
+ * the run needs no network. Random senders and recipients are generated
+ * unless key files (one hex key per line) are given, which a real node needs
+ * for its balance checks.
+ */
+public class LoadGenerator {
+
+	/** The target rate in messages per second. */
+	private double rate = 100;
+
+	/** The measured duration in seconds. */
+	private long durationSeconds = 60;
+
+	/** The warmup in seconds, sent but not reported. */
+	private long warmupSeconds = 10;
+
+	/** The most messages in progress at once. */
+	private int concurrency = 256;
+
+	/** The threads that encode and sign. */
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	/** The MT types and their weights. */
+	private final Map<String, Integer> mix = new TreeMap<>();
+
+	/** The sum of the mix weights. */
+	private int totalWeight;
+
+	/** The message sizes. */
+	private final List<Integer> sizes = new ArrayList<>();
+
+	/** The senders. */
+	private final List<Account> senders = new ArrayList<>();
+
+	/** The recipients. */
+	private final List<Account> recipients = new ArrayList<>();
+
+	/** The latency from the due time, in nanoseconds. */
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	/** The latency from the actual start, in nanoseconds. */
+	private final LatencyHistogram serviceTime = new LatencyHistogram();
+
+	/** The node answers by result. */
+	private final Map<String, LongAdder> results = new ConcurrentHashMap<>();
+
+	/** The measured messages accepted by the node. */
+	private final LongAdder succeeded = new LongAdder();
+
+	/** The measured messages that failed or were rejected. */
+	private final LongAdder failed = new LongAdder();
+
+	/** The time the last measured message completed. */
+	private final AtomicLong lastCompletion = new AtomicLong();
+
+	/** The sample messages by type and size. */
+	private final Map<String, String> samples = new HashMap<>();
+
+	/**
+	 * The main method.
+	 *
+	 * @param args the command line, see {@link #usage()}
+	 * @throws Exception the exception
+	 */
+	public static void main(String[] args) throws Exception {
+		final LoadGenerator generator = new LoadGenerator();
+		try {
+			generator.configure(args);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(usage());
+			System.exit(2);
+		}
+		generator.run();
+		System.exit(0);
+	}
+
+	/**
+	 * Gets the command line help.
+	 *
+	 * @return the usage
+	 */
+	static String usage() {
+		return "usage: LoadGenerator [options]\n"
+				+ "  --rate <per second>        target send rate (100)\n"
+				+ "  --duration <seconds>       measured run time (60)\n"
+				+ "  --warmup <seconds>         unreported run time before it (10)\n"
+				+ "  --mix <type:weight,...>    MT mix, e.g. 103:60,202:30,940:10 (103:1)\n"
+				+ "  --sizes <bytes,...>        message sizes, picked at random (1024)\n"
+				+ "  --senders <count|file>     random senders, or a file of private keys (1)\n"
+				+ "  --recipients <count|file>  random recipients, or a file of public keys (1)\n"
+				+ "  --concurrency <count>      most messages in progress at once (256)\n"
+				+ "  --threads <count>          encoding and signing threads (cores)";
+	}
+
+	/**
+	 * Reads the command line.
+	 *
+	 * @param args the command line
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	void configure(String[] args) throws IOException {
+		String senderOption = "1";
+		String recipientOption = "1";
+		String mixOption = "103:1";
+		String sizeOption = "1024";
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("missing value for " + args[i]);
+			}
+			final String value = args[i + 1];
+			switch (args[i]) {
+			case "--rate":
+				this.rate = Double.parseDouble(value);
+				break;
+			case "--duration":
+				this.durationSeconds = Long.parseLong(value);
+				break;
+			case "--warmup":
+				this.warmupSeconds = Long.parseLong(value);
+				break;
+			case "--mix":
+				mixOption = value;
+				break;
+			case "--sizes":
+				sizeOption = value;
+				break;
+			case "--senders":
+				senderOption = value;
+				break;
+			case "--recipients":
+				recipientOption = value;
+				break;
+			case "--concurrency":
+				this.concurrency = Integer.parseInt(value);
+				break;
+			case "--threads":
+				this.threads = Integer.parseInt(value);
+				break;
+			default:
+				throw new IllegalArgumentException("unknown option " + args[i]);
+			}
+		}
+		if (this.rate <= 0 || this.durationSeconds <= 0 || this.warmupSeconds < 0 || this.concurrency < 1
+				|| this.threads < 1) {
+			throw new IllegalArgumentException("rate, duration, concurrency and threads must be positive");
+		}
+
+		for (final String entry : mixOption.split(",")) {
+			final String[] typeAndWeight = entry.trim().split(":");
+			final int weight = typeAndWeight.length > 1 ? Integer.parseInt(typeAndWeight[1]) : 1;
+			if (weight > 0) {
+				this.mix.put(typeAndWeight[0], weight);
+				this.totalWeight += weight;
+			}
+		}
+		for (final String size : sizeOption.split(",")) {
+			this.sizes.add(Integer.valueOf(size.trim()));
+		}
+		if (this.mix.isEmpty() || this.sizes.isEmpty()) {
+			throw new IllegalArgumentException("the mix and the sizes must not be empty");
+		}
+		for (final String type : this.mix.keySet()) {
+			for (final int size : this.sizes) {
+				this.samples.put(type + "/" + size, SwiftSamples.message(type, size));
+			}
+		}
+
+		this.senders.addAll(accounts(senderOption, true));
+		this.recipients.addAll(accounts(recipientOption, false));
+	}
+
+	/**
+	 * Sends for the warmup and the measured duration, waits for the messages
+	 * in progress and prints the report.
+	 *
+	 * @throws InterruptedException the interrupted exception
+	 */
+	void run() throws InterruptedException {
+		final ExecutorService workers = Executors.newFixedThreadPool(this.threads, r -> {
+			final Thread thread = new Thread(r, "nem-load");
+			thread.setDaemon(true);
+			return thread;
+		});
+		final Semaphore slots = new Semaphore(this.concurrency);
+		final double intervalNanos = TimeUnit.SECONDS.toNanos(1) / this.rate;
+		final long total = (long) Math.ceil((this.warmupSeconds + this.durationSeconds) * this.rate);
+		final long start = System.nanoTime();
+		final long measureStart = start + TimeUnit.SECONDS.toNanos(this.warmupSeconds);
+
+		System.out.println(String.format("sending %d messages at %.1f/s to %s (%ds warmup, %ds measured)", total,
+				this.rate, Globals.NODE_ENDPOINT, this.warmupSeconds, this.durationSeconds));
+		for (long n = 0; n < total; n++) {
+			final long due = start + (long) (n * intervalNanos);
+			long wait;
+			while ((wait = due - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			slots.acquire();
+			workers.execute(() -> this.send(due, due >= measureStart, slots));
+		}
+		slots.acquire(this.concurrency);
+		workers.shutdown();
+
+		this.report(measureStart);
+	}
+
+	/**
+	 * Encodes, signs and announces one message.
+	 *
+	 * @param due the time the message was due
+	 * @param measured whether the message is reported
+	 * @param slots the slots of the messages in progress
+	 */
+	private void send(long due, boolean measured, Semaphore slots) {
+		final long started = System.nanoTime();
+		try {
+			final ThreadLocalRandom random = ThreadLocalRandom.current();
+			final Account sender = this.senders.get(random.nextInt(this.senders.size()));
+			final Account recipient = this.recipients.get(random.nextInt(this.recipients.size()));
+			final String sample = this.samples
+					.get(this.pickType(random) + "/" + this.sizes.get(random.nextInt(this.sizes.size())));
+
+			final SwiftTransaction tBlock = new SwiftTransaction();
+			tBlock.setSenderAccount(sender);
+			tBlock.setRecipientAccount(recipient);
+			tBlock.setAmount(0L);
+			tBlock.setAttachment(AttachmentFactory.createTransferTransactionAttachment(
+					SecureMessageSwiftPayloadEncoder.encodeAndGzipCompress(sender, recipient, sample)));
+			tBlock.setTimeInstant(Globals.TIME_PROVIDER.getCurrentTime());
+
+			BlockchainTransactionService.createAndSendTransactionAsync(tBlock, Runnable::run)
+					.whenComplete((result, failure) -> {
+						this.complete(due, started, measured, result, failure);
+						slots.release();
+					});
+		} catch (Exception e) {
+			this.complete(due, started, measured, null, e);
+			slots.release();
+		}
+	}
+
+	/**
+	 * Records a completed message.
+	 *
+	 * @param due the time the message was due
+	 * @param started the time the message was started
+	 * @param measured whether the message is reported
+	 * @param result the node answer, null on failure
+	 * @param failure the failure, null on an answer
+	 */
+	private void complete(long due, long started, boolean measured, SwiftAnnounceResult result, Throwable failure) {
+		if (!measured) {
+			return;
+		}
+		final long now = System.nanoTime();
+		this.latency.record(now - due);
+		this.serviceTime.record(now - started);
+		this.lastCompletion.accumulateAndGet(now, Math::max);
+
+		final String outcome;
+		if (failure != null) {
+			outcome = RetryPolicy.unwrap(failure).getClass().getSimpleName();
+		} else {
+			outcome = resultName(result.getAnnounceResult().getCode());
+		}
+		this.results.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+		(failure == null && result.isSuccessful() ? this.succeeded : this.failed).increment();
+	}
+
+	/**
+	 * Prints the report of the measured messages.
+	 *
+	 * @param measureStart the start of the measured duration
+	 */
+	private void report(long measureStart) {
+		final long count = this.latency.getCount();
+		final double elapsedSeconds = Math.max(1, this.lastCompletion.get() - measureStart) / 1e9;
+		System.out.println(String.format("target     %10.1f msg/s", this.rate));
+		System.out.println(String.format("achieved   %10.1f msg/s (%d sent, %d accepted, %d failed)",
+				this.succeeded.sum() / elapsedSeconds, count, this.succeeded.sum(), this.failed.sum()));
+		System.out.println(String.format("%-10s %10s %10s %10s %10s %10s", "ms", "mean", "p50", "p99", "p99.9",
+				"max"));
+		printLatency("latency", this.latency);
+		printLatency("service", this.serviceTime);
+		for (final Map.Entry<String, LongAdder> result : new TreeMap<>(this.results).entrySet()) {
+			System.out.println(String.format("  %-50s %10d", result.getKey(), result.getValue().sum()));
+		}
+	}
+
+	/**
+	 * Prints a latency line.
+	 *
+	 * @param name the name
+	 * @param histogram the histogram in nanoseconds
+	 */
+	private static void printLatency(String name, LatencyHistogram histogram) {
+		System.out.println(String.format("%-10s %10.2f %10.2f %10.2f %10.2f %10.2f", name, histogram.getMean() / 1e6,
+				histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+				histogram.getValueAtPercentile(99.9) / 1e6, histogram.getMax() / 1e6));
+	}
+
+	/**
+	 * Picks an MT type by its weight in the mix.
+	 *
+	 * @param random the random
+	 * @return the type
+	 */
+	private String pickType(ThreadLocalRandom random) {
+		int pick = random.nextInt(this.totalWeight);
+		for (final Map.Entry<String, Integer> entry : this.mix.entrySet()) {
+			pick -= entry.getValue();
+			if (pick < 0) {
+				return entry.getKey();
+			}
+		}
+		throw new IllegalStateException("empty mix");
+	}
+
+	/**
+	 * Gets the name of a result code.
+	 *
+	 * @param code the code
+	 * @return the name
+	 */
+	private static String resultName(int code) {
+		try {
+			return ValidationResult.fromValue(code).name();
+		} catch (IllegalArgumentException e) {
+			return "code " + code;
+		}
+	}
+
+	/**
+	 * Generates accounts, or reads them from a file of hex keys.
+	 *
+	 * @param option a count, or the path of the key file
+	 * @param privateKeys whether the file holds private keys
+	 * @return the accounts
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static List<Account> accounts(String option, boolean privateKeys) throws IOException {
+		final List<Account> accounts = new ArrayList<>();
+		if (option.matches("\\d+")) {
+			for (int i = Integer.parseInt(option); i > 0; i--) {
+				final KeyPair keyPair = new KeyPair();
+				accounts.add(privateKeys ? new Account(keyPair) : new Account(new KeyPair(keyPair.getPublicKey())));
+			}
+		} else {
+			for (final String line : Files.readAllLines(Paths.get(option), StandardCharsets.UTF_8)) {
+				final String key = line.trim();
+				if (!key.isEmpty() && !key.startsWith("#")) {
+					accounts.add(privateKeys ? EntityFactory.buildAccountFromPrivateKey(key)
+							: EntityFactory.buildAccountFromPublicKey(key));
+				}
+			}
+		}
+		if (accounts.isEmpty()) {
+			throw new IllegalArgumentException("no accounts in " + option);
+		}
+		return accounts;
+	}
+}
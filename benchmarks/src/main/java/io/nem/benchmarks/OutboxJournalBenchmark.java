@@ -0,0 +1,101 @@
+package io.nem.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.nem.core.crypto.Hash;
+import org.nem.core.crypto.Hashes;
+import org.nem.core.model.ncc.RequestAnnounce;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.nem.service.OutboxJournal;
+
+
+
+/**
+ * Durable appends to the outbox journal from concurrent producers, which
+ * share fsyncs by group commit. The appends and fsyncs of every iteration are
+ * printed when the journal is closed; change the producers with -t.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class OutboxJournalBenchmark {
+
+	/** The transaction size in bytes. */
+	@Param({ "512", "4096" })
+	public int size;
+
+	/** The directory of the journal. */
+	private Path directory;
+
+	/** The journal. */
+	private OutboxJournal journal;
+
+	/** The number of the next transaction. */
+	private final AtomicLong next = new AtomicLong();
+
+	/**
+	 * Opens an empty journal for the iteration.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Setup(Level.Iteration)
+	public void setUp() throws IOException {
+		this.directory = Files.createTempDirectory("outbox");
+		this.journal = new OutboxJournal(this.directory, OutboxJournal.DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Closes and deletes the journal.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@TearDown(Level.Iteration)
+	public void tearDown() throws IOException {
+		System.out.println(this.journal.getAppends() + " appends, " + this.journal.getCommits() + " fsyncs");
+		this.journal.close();
+		try (Stream<Path> files = Files.walk(this.directory)) {
+			for (final Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	/**
+	 * Appends a transaction and waits until it is durable.
+	 *
+	 * @return the sequence
+	 */
+	@Benchmark
+	public long append() {
+		final byte[] data = new byte[this.size];
+		final long number = this.next.getAndIncrement();
+		for (int i = 0; i < 8; i++) {
+			data[i] = (byte) (number >>> (8 * i));
+		}
+		return this.journal.append(new Hash(Hashes.sha3_256(data)), new RequestAnnounce(data, new byte[64])).join();
+	}
+}
@@ -0,0 +1,62 @@
+package io.nem.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+
+
+/**
+ * Prowide parsing of a message by MT type and size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+	/** The MT type. */
+	@Param({ "103", "202", "940", "950", "798" })
+	public String type;
+
+	/** The message size in bytes. */
+	@Param({ "512", "4096", "32768" })
+	public int size;
+
+	/** The message. */
+	private String message;
+
+	/**
+	 * Builds the message.
+	 */
+	@Setup
+	public void setUp() {
+		this.message = SwiftSamples.message(this.type, this.size);
+	}
+
+	/**
+	 * Parses the message.
+	 *
+	 * @return the message
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public AbstractMT parse() throws IOException {
+		return AbstractMT.parse(this.message);
+	}
+}
@@ -0,0 +1,48 @@
+package io.nem.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+
+import io.nem.util.GzipUtils;
+import io.nem.util.SwiftPayloadEnvelope;
+import io.nem.util.SwiftPayloadEnvelope.Codec;
+
+
+
+/**
+ * Prints the payload size of each sample MT type and message size by codec,
+ * next to the codec the envelope picks, and the share of the gzip size the
+ * envelope saves. The deflate and dictionary sizes include the one byte
+ * envelope header.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar io.nem.benchmarks.PayloadSizeReport 512,4096,32768
+ * </pre>
+ */
+public class PayloadSizeReport {
+
+	/** The Constant DEFAULT_SIZES. */
+	private static final String DEFAULT_SIZES = "512,4096,32768";
+
+	/**
+	 * The main method.
+	 *
+	 * @param args the comma separated message sizes, optional
+	 */
+	public static void main(String[] args) {
+		final String sizes = args.length > 0 ? args[0] : DEFAULT_SIZES;
+		System.out.println(String.format("%-6s %6s %6s %6s %8s %10s %9s %-10s %6s", "type", "size", "raw", "gzip",
+				"deflate", "dictionary", "envelope", "codec", "saved"));
+		for (final String type : SwiftSamples.TYPES) {
+			for (final String size : sizes.split(",")) {
+				final byte[] message = SwiftSamples.message(type, Integer.parseInt(size.trim()))
+						.getBytes(StandardCharsets.UTF_8);
+				final int gzip = GzipUtils.compress(message).length;
+				final byte[] envelope = SwiftPayloadEnvelope.encode(message);
+				System.out.println(String.format("%-6s %6s %6d %6d %8d %10d %9d %-10s %5d%%", type, size.trim(),
+						message.length, gzip, SwiftPayloadEnvelope.encode(message, Codec.DEFLATE).length,
+						SwiftPayloadEnvelope.encode(message, Codec.DICTIONARY).length, envelope.length,
+						SwiftPayloadEnvelope.getCodec(envelope), 100 - 100 * envelope.length / gzip));
+			}
+		}
+	}
+}
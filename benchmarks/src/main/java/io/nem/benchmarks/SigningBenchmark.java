@@ -0,0 +1,93 @@
+package io.nem.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.nem.core.crypto.KeyPair;
+import org.nem.core.model.Account;
+import org.nem.core.time.TimeInstant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.nem.model.SignedTransaction;
+import io.nem.model.SwiftTransaction;
+import io.nem.service.BlockchainTransactionService;
+import io.nem.service.Globals;
+
+
+
+/**
+ * Signing a batch of transfer transactions in parallel, by pool size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SigningBenchmark {
+
+	/** The pool size. */
+	@Param({ "1", "2", "4", "8" })
+	public int parallelism;
+
+	/** The batch size. */
+	@Param({ "2000" })
+	public int batch;
+
+	/** The signing pool. */
+	private ForkJoinPool pool;
+
+	/** The transaction descriptions. */
+	private List<SwiftTransaction> tBlocks;
+
+	/**
+	 * Creates the pool and the transactions.
+	 */
+	@Setup
+	public void setUp() {
+		this.pool = new ForkJoinPool(this.parallelism);
+		final Account sender = new Account(new KeyPair());
+		final TimeInstant timeInstant = Globals.TIME_PROVIDER.getCurrentTime();
+		this.tBlocks = new ArrayList<>(this.batch);
+		for (int i = 0; i < this.batch; i++) {
+			final SwiftTransaction tBlock = new SwiftTransaction();
+			tBlock.setSenderAccount(sender);
+			tBlock.setRecipientAccount(new Account(new KeyPair()));
+			tBlock.setAmount((long) i);
+			tBlock.setTimeInstant(timeInstant);
+			this.tBlocks.add(tBlock);
+		}
+	}
+
+	/**
+	 * Shuts the pool down.
+	 */
+	@TearDown
+	public void tearDown() {
+		this.pool.shutdown();
+	}
+
+	/**
+	 * Signs the batch.
+	 *
+	 * @return the signed transactions
+	 */
+	@Benchmark
+	public List<SignedTransaction> signAll() {
+		return BlockchainTransactionService.signAll(this.tBlocks, BlockchainTransactionService::createSignedTransaction,
+				this.pool);
+	}
+}
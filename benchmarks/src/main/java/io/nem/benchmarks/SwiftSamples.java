@@ -0,0 +1,87 @@
+package io.nem.benchmarks;
+
+import java.util.function.IntFunction;
+
+
+
+/**
+ * Builds sample SWIFT messages of the common MT types, padded to a target
+ * size with the repeating part of each type (statement lines, narrative) so
+ * that size and type can be varied independently. The padding is meant for
+ * parsing and compression work, not for network validation rules.
+ */
+public final class SwiftSamples {
+
+	/** The Constant TYPES, the MT types a sample can be built for. */
+	public static final String[] TYPES = { "103", "202", "940", "950", "798" };
+
+	/**
+	 * Instantiates a new swift samples.
+	 */
+	private SwiftSamples() {
+	}
+
+	/**
+	 * Builds a message of an MT type with a text block of about the given
+	 * size; the fixed fields of the type are kept when they are larger.
+	 *
+	 * @param type the MT type, see {@link #TYPES}
+	 * @param size the approximate message size in bytes
+	 * @return the message
+	 */
+	public static String message(String type, int size) {
+		final StringBuilder message = new StringBuilder(size + 256);
+		switch (type) {
+		case "103":
+			message.append("{1:F01BICFOOYYAXXX8683497519}{2:I103ESPBESMMXXXXN}{3:{108:0510280182794665}{119:STP}}{4:\r\n")
+					.append(":20:0061350113089908\r\n:13C:/RNCTIME/1534+0000\r\n:23B:CRED\r\n:23E:SDVA\r\n")
+					.append(":32A:061028EUR100000,\r\n:33B:EUR100000,\r\n:50K:/12345678\r\n")
+					.append("AGENTES DE BOLSA FOO AGENCIA\r\nAV XXXXX 123 BIS 9 PL\r\n12345 BARCELONA\r\n")
+					.append(":52A:/2337\r\nFOOAESMMXXX\r\n:53A:FOOAESMMXXX\r\n:57A:BICFOOYYXXX\r\n")
+					.append(":59:/ES0123456789012345671234\r\nFOO AGENTES DE BOLSA ASOC\r\n:71A:OUR\r\n");
+			pad(message, size, i -> ":72:/BNF/INVOICE " + (100000 + i) + " TRANSF. BCO. FOO\r\n");
+			break;
+		case "202":
+			message.append("{1:F01BANKBEBBAXXX2222123456}{2:I202BANKDEFFXXXXN}{3:{108:MUR0001}}{4:\r\n")
+					.append(":20:TRN0001202\r\n:21:RELREF0001\r\n:32A:170315EUR1250000,\r\n:52A:BANKBEBB\r\n")
+					.append(":57A:BANKDEFF\r\n:58A:BANKGB2L\r\n");
+			pad(message, size, i -> ":72:/INS/BANKBEBB/REF" + (100000 + i) + "\r\n");
+			break;
+		case "940":
+			message.append("{1:F01FOOLHKH0AXXX0304009999}{2:I940BANKDEFFXXXXN}{4:\r\n")
+					.append(":20:USD940NO1\r\n:21:123456/DEV\r\n:25:USD234567\r\n:28C:1/1\r\n:60F:C160418USD672,\r\n");
+			pad(message, size, i -> ":61:1608" + String.format("%02d", 1 + i % 28) + (i % 2 == 0 ? "C" : "D") + (i + 1)
+					+ "42,S103REF" + i + "\r\n:86:/PURP/SALA/REMI/INVOICE " + (100000 + i) + "\r\n");
+			message.append(":62F:C160418USD1872,\r\n:64:C160418USD1872,\r\n");
+			break;
+		case "950":
+			message.append("{1:F01BANKBEBBAXXX2222123456}{2:I950BANKDEFFXXXXN}{4:\r\n")
+					.append(":20:STMT0001\r\n:25:123456789\r\n:28C:102/1\r\n:60F:C170314EUR1000000,\r\n");
+			pad(message, size, i -> ":61:1703" + String.format("%02d", 1 + i % 28) + (i % 2 == 0 ? "D" : "C")
+					+ (250000 + i) + ",S202TRN" + (1000 + i) + "\r\n");
+			message.append(":62F:C170315EUR875000,\r\n");
+			break;
+		case "798":
+			message.append("{1:F01FOOSEDR0AXXX0000000000}{2:I798FOORECV0XXXXN}{4:\r\n")
+					.append(":20:FOOI102794-02\r\n:12:700\r\n:77E:\r\n:27A:2/2\r\n:21A:FOOBAR\r\n");
+			pad(message, size, i -> ":45A:GOODS DESCRIPTION LINE " + (100000 + i) + " AS PER PROFORMA\r\n");
+			break;
+		default:
+			throw new IllegalArgumentException("no sample for MT" + type);
+		}
+		return message.append("-}").toString();
+	}
+
+	/**
+	 * Appends repeating lines until the message reaches the size.
+	 *
+	 * @param message the message
+	 * @param size the size
+	 * @param line the line for a repetition
+	 */
+	private static void pad(StringBuilder message, int size, IntFunction<String> line) {
+		for (int i = 0; message.length() + 2 < size; i++) {
+			message.append(line.apply(i));
+		}
+	}
+}
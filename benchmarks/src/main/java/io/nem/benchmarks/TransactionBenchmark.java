@@ -0,0 +1,119 @@
+package io.nem.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.nem.core.crypto.KeyPair;
+import org.nem.core.messages.SecureMessage;
+import org.nem.core.model.Account;
+import org.nem.core.model.Transaction;
+import org.nem.core.model.TransferTransactionAttachment;
+import org.nem.core.serialization.BinarySerializer;
+import org.nem.core.time.TimeInstant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.nem.factories.AttachmentFactory;
+import io.nem.model.SignedTransaction;
+import io.nem.model.SwiftTransaction;
+import io.nem.service.BlockchainTransactionService;
+import io.nem.service.Globals;
+import io.nem.swift.crypto.SecureMessageSwiftPayloadEncoder;
+
+
+
+/**
+ * Building, signing and binary serialization of transfer transactions that
+ * carry an encrypted message of the given size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionBenchmark {
+
+	/** The message size in bytes. */
+	@Param({ "512", "1024" })
+	public int size;
+
+	/** The transaction description. */
+	private SwiftTransaction tBlock;
+
+	/** The signed transaction. */
+	private Transaction signed;
+
+	/**
+	 * Builds the transaction.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		final Account sender = new Account(new KeyPair());
+		final Account recipient = new Account(new KeyPair(new KeyPair().getPublicKey()));
+		final SecureMessage message = SecureMessageSwiftPayloadEncoder.encodeAndGzipCompress(sender, recipient,
+				SwiftSamples.message("103", this.size));
+		final TransferTransactionAttachment attachment = AttachmentFactory.createTransferTransactionAttachment(message);
+
+		this.tBlock = new SwiftTransaction();
+		this.tBlock.setSenderAccount(sender);
+		this.tBlock.setRecipientAccount(recipient);
+		this.tBlock.setAmount(0L);
+		this.tBlock.setAttachment(attachment);
+		this.tBlock.setTimeInstant(Globals.TIME_PROVIDER.getCurrentTime());
+		this.signed = BlockchainTransactionService.createSignedTransaction(this.tBlock);
+	}
+
+	/**
+	 * Builds the transaction without signing it.
+	 *
+	 * @return the transaction
+	 */
+	@Benchmark
+	public Transaction build() {
+		final TimeInstant timeInstant = this.tBlock.getTimeInstant();
+		return BlockchainTransactionService.createTransaction(timeInstant, this.tBlock.getSenderAccount(),
+				this.tBlock.getRecipientAccount(), this.tBlock.getAmount(), this.tBlock.getAttachment());
+	}
+
+	/**
+	 * Builds and signs the transaction.
+	 *
+	 * @return the transaction
+	 */
+	@Benchmark
+	public Transaction buildAndSign() {
+		return BlockchainTransactionService.createSignedTransaction(this.tBlock);
+	}
+
+	/**
+	 * Serializes the signed transaction.
+	 *
+	 * @return the bytes
+	 */
+	@Benchmark
+	public byte[] serializeToBytes() {
+		return BinarySerializer.serializeToBytes(this.signed.asNonVerifiable());
+	}
+
+	/**
+	 * Serializes and hashes the signed transaction, as done before announcing.
+	 *
+	 * @return the signed transaction
+	 */
+	@Benchmark
+	public SignedTransaction serializeAndHash() {
+		return new SignedTransaction(this.signed);
+	}
+}
@@ -1,5 +1,8 @@
 package io.nem.builders;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 import org.nem.core.crypto.Signature;
 import org.nem.core.model.Account;
 import org.nem.core.model.MultisigSignatureTransaction;
@@ -9,6 +12,7 @@ import org.nem.core.model.TransferTransactionAttachment;
 import org.nem.core.model.primitive.Amount;
 import org.nem.core.time.TimeInstant;
 import io.nem.model.SwiftMultisigTransaction;
+import io.nem.model.SwiftAnnounceResult;
 import io.nem.service.Globals;
 import io.nem.service.BlockchainTransactionService;
 
@@ -128,6 +132,15 @@ public class SwiftMultisigTransactionBuilder {
 		 * @return the swift multisig transaction
 		 */
 		SwiftMultisigTransaction buildAndSendMultisigTransaction();
+
+		/**
+		 * Builds and sends the multisig transaction without blocking the
+		 * calling thread.
+		 *
+		 * @param executor the executor that parses the node response
+		 * @return the future announce result
+		 */
+		CompletableFuture<SwiftAnnounceResult> buildAndSendMultisigTransactionAsync(Executor executor);
 	}
 
 	/**
@@ -212,6 +225,17 @@ public class SwiftMultisigTransactionBuilder {
 			return instance;
 		}
 
+		/* (non-Javadoc)
+		 * @see io.nem.builders.SwiftMultisigTransactionBuilder.IBuild#buildAndSendMultisigTransactionAsync(java.util.concurrent.Executor)
+		 */
+		@Override
+		public CompletableFuture<SwiftAnnounceResult> buildAndSendMultisigTransactionAsync(Executor executor) {
+			if (instance.getTimeInstant() == null) {
+				instance.setTimeInstant(Globals.TIME_PROVIDER.getCurrentTime());
+			}
+			return BlockchainTransactionService.createAndSendMultisigTransactionAsync(instance, executor);
+		}
+
 		/* (non-Javadoc)
 		 * @see io.nem.builders.SwiftMultisigTransactionBuilder.IBuild#fee(org.nem.core.model.primitive.Amount)
 		 */
@@ -1,5 +1,9 @@
 package io.nem.builders;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 import org.nem.core.crypto.Signature;
 import org.nem.core.model.Account;
 import org.nem.core.model.TransferTransaction;
@@ -7,8 +11,11 @@ import org.nem.core.model.TransferTransactionAttachment;
 import org.nem.core.model.primitive.Amount;
 import org.nem.core.time.TimeInstant;
 import io.nem.model.SwiftTransaction;
+import io.nem.model.SwiftAnnounceResult;
 import io.nem.service.Globals;
 import io.nem.service.BlockchainTransactionService;
+import io.nem.service.TransactionAnnouncePipeline.Outcome;
+import io.nem.swift.transport.SwiftPayloadChunker;
 
 
 /**
@@ -99,6 +106,25 @@ public class SwiftTransactionBuilder {
 		 * @return the swift transaction
 		 */
 		SwiftTransaction buildAndSendTransaction();
+
+		/**
+		 * Builds and sends the transaction without blocking the calling thread.
+		 *
+		 * @param executor the executor that parses the node response
+		 * @return the future announce result
+		 */
+		CompletableFuture<SwiftAnnounceResult> buildAndSendTransactionAsync(Executor executor);
+
+		/**
+		 * Builds and sends the transaction, split into fragments announced
+		 * concurrently when its message exceeds the message size limit.
+		 *
+		 * @param maxInFlight the maximum number of fragments announced at once
+		 * @param executor the executor that parses the node responses
+		 * @return the outcomes in fragment order
+		 * @throws InterruptedException if interrupted while waiting for the window
+		 */
+		List<Outcome> buildAndSendChunkedTransaction(int maxInFlight, Executor executor) throws InterruptedException;
 	}
 
 	/**
@@ -158,6 +184,26 @@ public class SwiftTransactionBuilder {
 			return instance;
 		}
 
+		/* (non-Javadoc)
+		 * @see io.nem.builders.SwiftTransactionBuilder.IBuild#buildAndSendTransactionAsync(java.util.concurrent.Executor)
+		 */
+		@Override
+		public CompletableFuture<SwiftAnnounceResult> buildAndSendTransactionAsync(Executor executor) {
+			if (instance.getTimeInstant() == null) {
+				instance.setTimeInstant(Globals.TIME_PROVIDER.getCurrentTime());
+			}
+			return BlockchainTransactionService.createAndSendTransactionAsync(instance, executor);
+		}
+
+		/* (non-Javadoc)
+		 * @see io.nem.builders.SwiftTransactionBuilder.IBuild#buildAndSendChunkedTransaction(int, java.util.concurrent.Executor)
+		 */
+		@Override
+		public List<Outcome> buildAndSendChunkedTransaction(int maxInFlight, Executor executor)
+				throws InterruptedException {
+			return SwiftPayloadChunker.announce(instance, maxInFlight, executor);
+		}
+
 		/* (non-Javadoc)
 		 * @see io.nem.builders.SwiftTransactionBuilder.IBuild#fee(org.nem.core.model.primitive.Amount)
 		 */
@@ -0,0 +1,156 @@
+package io.nem.connect;
+
+import java.nio.charset.StandardCharsets;
+
+import org.nem.core.connect.HttpPostRequest;
+import org.nem.core.model.ncc.RequestAnnounce;
+
+
+
+/**
+ * The body of a transaction announce, hex encoded straight from the
+ * serialized transaction and signature into an array of the exact size.
+ * {@link org.nem.core.connect.HttpJsonPostRequest} builds the same body
+ * through a JSON tree of hex strings, copying every transaction several
+ * times. The body is encoded once and reused by every retry.
+ */
+public class AnnounceRequest implements HttpPostRequest {
+
+	/** The Constant CONTENT_TYPE. */
+	private static final String CONTENT_TYPE = "application/json; charset=UTF-8";
+
+	/** The Constant DATA_PREFIX. */
+	private static final byte[] DATA_PREFIX = "{\"data\":\"".getBytes(StandardCharsets.US_ASCII);
+
+	/** The Constant SIGNATURE_PREFIX. */
+	private static final byte[] SIGNATURE_PREFIX = "\",\"signature\":\"".getBytes(StandardCharsets.US_ASCII);
+
+	/** The Constant SUFFIX. */
+	private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.US_ASCII);
+
+	/** The Constant HEX_DIGITS. */
+	private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+	/** The serialized non verifiable transaction. */
+	private final byte[] data;
+
+	/** The signature. */
+	private final byte[] signature;
+
+	/** The encoded body, null until first sent. */
+	private volatile byte[] payload;
+
+	/**
+	 * Instantiates a new announce request.
+	 *
+	 * @param data the serialized non verifiable transaction
+	 * @param signature the signature
+	 */
+	public AnnounceRequest(byte[] data, byte[] signature) {
+		this.data = data;
+		this.signature = signature;
+	}
+
+	/**
+	 * Instantiates a new announce request.
+	 *
+	 * @param request the request announce
+	 */
+	public AnnounceRequest(RequestAnnounce request) {
+		this(request.getData(), request.getSignature());
+	}
+
+	/**
+	 * Gets the serialized non verifiable transaction.
+	 *
+	 * @return the data
+	 */
+	public byte[] getData() {
+		return data;
+	}
+
+	/**
+	 * Gets the signature.
+	 *
+	 * @return the signature
+	 */
+	public byte[] getSignature() {
+		return signature;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.nem.core.connect.HttpPostRequest#getPayload()
+	 */
+	@Override
+	public byte[] getPayload() {
+		byte[] body = this.payload;
+		if (body == null) {
+			body = encode(this.data, this.signature);
+			this.payload = body;
+		}
+		return body;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.nem.core.connect.HttpPostRequest#getContentType()
+	 */
+	@Override
+	public String getContentType() {
+		return CONTENT_TYPE;
+	}
+
+	/**
+	 * Encodes the announce body.
+	 *
+	 * @param data the data
+	 * @param signature the signature
+	 * @return the body
+	 */
+	static byte[] encode(byte[] data, byte[] signature) {
+		final byte[] body = new byte[DATA_PREFIX.length + 2 * data.length + SIGNATURE_PREFIX.length
+				+ 2 * signature.length + SUFFIX.length];
+		int position = copy(DATA_PREFIX, body, 0);
+		position = hex(data, body, position);
+		position = copy(SIGNATURE_PREFIX, body, position);
+		position = hex(signature, body, position);
+		copy(SUFFIX, body, position);
+		return body;
+	}
+
+	/**
+	 * Copies bytes into the body.
+	 *
+	 * @param source the source
+	 * @param body the body
+	 * @param position the position in the body
+	 * @return the position after the copied bytes
+	 */
+	private static int copy(byte[] source, byte[] body, int position) {
+		System.arraycopy(source, 0, body, position, source.length);
+		return position + source.length;
+	}
+
+	/**
+	 * Hex encodes bytes into the body, lower case like the nem-core encoder.
+	 *
+	 * @param source the source
+	 * @param body the body
+	 * @param position the position in the body
+	 * @return the position after the encoded bytes
+	 */
+	private static int hex(byte[] source, byte[] body, int position) {
+		for (final byte b : source) {
+			body[position++] = HEX_DIGITS[(b >> 4) & 0x0f];
+			body[position++] = HEX_DIGITS[b & 0x0f];
+		}
+		return position;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "AnnounceRequest [data=" + data.length + " bytes]";
+	}
+}
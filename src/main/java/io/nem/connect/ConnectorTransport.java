@@ -0,0 +1,56 @@
+package io.nem.connect;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.nem.core.connect.HttpPostRequest;
+import org.nem.core.connect.client.DefaultAsyncNemConnector;
+import org.nem.core.node.ApiId;
+import org.nem.core.node.NodeEndpoint;
+import org.nem.core.serialization.Deserializer;
+
+
+
+/**
+ * The default transport, sending through the nem-core connector and its
+ * {@link org.nem.core.connect.HttpMethodClient}. The client pools
+ * connections, but does not expose them, so no connection metrics are
+ * recorded.
+ */
+public class ConnectorTransport implements NisTransport {
+
+	/** The connector. */
+	private final DefaultAsyncNemConnector<ApiId> connector;
+
+	/**
+	 * Instantiates a new connector transport.
+	 *
+	 * @param connector the connector
+	 */
+	public ConnectorTransport(DefaultAsyncNemConnector<ApiId> connector) {
+		this.connector = connector;
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.connect.NisTransport#get(org.nem.core.node.NodeEndpoint, org.nem.core.node.ApiId, java.lang.String)
+	 */
+	@Override
+	public CompletableFuture<Deserializer> get(NodeEndpoint endpoint, ApiId apiId, String query) {
+		return this.connector.getAsync(endpoint, apiId, query);
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.connect.NisTransport#post(org.nem.core.node.NodeEndpoint, org.nem.core.node.ApiId, org.nem.core.connect.HttpPostRequest)
+	 */
+	@Override
+	public CompletableFuture<Deserializer> post(NodeEndpoint endpoint, ApiId apiId, HttpPostRequest request) {
+		return this.connector.postAsync(endpoint, apiId, request);
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.connect.NisTransport#close()
+	 */
+	@Override
+	public void close() {
+		// the connector client is shared and lives as long as the application
+	}
+}
@@ -0,0 +1,310 @@
+package io.nem.connect;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.nem.core.connect.HttpPostRequest;
+import org.nem.core.node.ApiId;
+import org.nem.core.node.NodeEndpoint;
+import org.nem.core.serialization.Deserializer;
+
+import io.nem.metrics.TransportMetrics;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+
+
+/**
+ * A transport on OkHttp that multiplexes the requests to a node as HTTP/2
+ * streams over one connection, instead of holding a connection per request
+ * in flight. Over TLS, HTTP/2 is negotiated and nodes that only speak
+ * HTTP/1.1 keep working; over plain HTTP, HTTP/2 is used only with prior
+ * knowledge that the node, or the proxy in front of it, speaks it.
+ *
+ * Every request records in {@link TransportMetrics} whether it got an open
+ * connection and how long it waited for it, queued behind the stream limit
+ * included, and the connection pool occupancy is published with them.
+ */
+public class Http2Transport implements NisTransport {
+
+	/** The connections, shared by all nodes. */
+	private final ConnectionPool pool;
+
+	/** The dispatcher, queueing requests above the stream limits. */
+	private final Dispatcher dispatcher;
+
+	/** The client. */
+	private final OkHttpClient client;
+
+	/**
+	 * Instantiates a new HTTP/2 transport.
+	 *
+	 * @param settings the settings
+	 * @param metrics the metrics to record connections into
+	 */
+	public Http2Transport(Settings settings, TransportMetrics metrics) {
+		this.pool = new ConnectionPool(settings.maxIdleConnections, settings.keepAliveMillis, TimeUnit.MILLISECONDS);
+		this.dispatcher = new Dispatcher();
+		this.dispatcher.setMaxRequests(settings.maxStreams);
+		this.dispatcher.setMaxRequestsPerHost(settings.maxStreamsPerNode);
+		metrics.bindPool(() -> this.pool.connectionCount() - this.pool.idleConnectionCount(),
+				this.dispatcher::queuedCallsCount, this.pool::idleConnectionCount);
+
+		this.client = new OkHttpClient.Builder()
+				.protocols(settings.priorKnowledge ? Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE)
+						: Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+				.connectionPool(this.pool)
+				.dispatcher(this.dispatcher)
+				.connectTimeout(settings.connectTimeoutMillis, TimeUnit.MILLISECONDS)
+				.readTimeout(settings.socketTimeoutMillis, TimeUnit.MILLISECONDS)
+				.writeTimeout(settings.socketTimeoutMillis, TimeUnit.MILLISECONDS)
+				.callTimeout(settings.requestTimeoutMillis, TimeUnit.MILLISECONDS)
+				.eventListenerFactory(call -> new ConnectionListener(metrics))
+				.build();
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.connect.NisTransport#get(org.nem.core.node.NodeEndpoint, org.nem.core.node.ApiId, java.lang.String)
+	 */
+	@Override
+	public CompletableFuture<Deserializer> get(NodeEndpoint endpoint, ApiId apiId, String query) {
+		return this.execute(new Request.Builder().url(PooledHttpTransport.url(endpoint, apiId, query)).get().build());
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.connect.NisTransport#post(org.nem.core.node.NodeEndpoint, org.nem.core.node.ApiId, org.nem.core.connect.HttpPostRequest)
+	 */
+	@Override
+	public CompletableFuture<Deserializer> post(NodeEndpoint endpoint, ApiId apiId, HttpPostRequest request) {
+		final RequestBody body = RequestBody.create(MediaType.parse(request.getContentType()), request.getPayload());
+		return this.execute(new Request.Builder().url(PooledHttpTransport.url(endpoint, apiId, null)).post(body)
+				.build());
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.connect.NisTransport#close()
+	 */
+	@Override
+	public void close() {
+		this.dispatcher.executorService().shutdown();
+		this.pool.evictAll();
+	}
+
+	/**
+	 * Sends a request.
+	 *
+	 * @param request the request
+	 * @return the future response
+	 */
+	private CompletableFuture<Deserializer> execute(Request request) {
+		final CompletableFuture<Deserializer> future = new CompletableFuture<>();
+		this.client.newCall(request).enqueue(new Callback() {
+
+			@Override
+			public void onResponse(Call call, Response response) {
+				try (ResponseBody body = response.body()) {
+					future.complete(PooledHttpTransport.deserialize(request.url(), response.code(),
+							body == null ? "" : body.string()));
+				} catch (IOException | RuntimeException e) {
+					future.completeExceptionally(e);
+				}
+			}
+
+			@Override
+			public void onFailure(Call call, IOException e) {
+				future.completeExceptionally(e);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Records the connection a call is put on.
+	 */
+	private static class ConnectionListener extends EventListener {
+
+		/** The metrics. */
+		private final TransportMetrics metrics;
+
+		/** The time the call started. */
+		private long started;
+
+		/** Whether the call opened a connection. */
+		private boolean connected;
+
+		/** Whether the connection is recorded. */
+		private boolean recorded;
+
+		/**
+		 * Instantiates a new connection listener.
+		 *
+		 * @param metrics the metrics
+		 */
+		ConnectionListener(TransportMetrics metrics) {
+			this.metrics = metrics;
+		}
+
+		/* (non-Javadoc)
+		 * @see okhttp3.EventListener#callStart(okhttp3.Call)
+		 */
+		@Override
+		public void callStart(Call call) {
+			this.started = System.nanoTime();
+		}
+
+		/* (non-Javadoc)
+		 * @see okhttp3.EventListener#connectStart(okhttp3.Call, java.net.InetSocketAddress, java.net.Proxy)
+		 */
+		@Override
+		public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+			this.connected = true;
+		}
+
+		/* (non-Javadoc)
+		 * @see okhttp3.EventListener#connectionAcquired(okhttp3.Call, okhttp3.Connection)
+		 */
+		@Override
+		public void connectionAcquired(Call call, Connection connection) {
+			if (!this.recorded) {
+				this.recorded = true;
+				this.metrics.recordConnection(!this.connected, System.nanoTime() - this.started);
+			}
+		}
+	}
+
+	/**
+	 * The transport settings.
+	 */
+	public static class Settings {
+
+		/** The connect timeout. */
+		private int connectTimeoutMillis = 4000;
+
+		/** The socket timeout. */
+		private int socketTimeoutMillis = 10000;
+
+		/** The timeout of a whole request, queueing included. */
+		private int requestTimeoutMillis = 30000;
+
+		/** The limit of requests in flight. */
+		private int maxStreams = 256;
+
+		/** The limit of requests in flight per node. */
+		private int maxStreamsPerNode = 100;
+
+		/** The idle connections kept open. */
+		private int maxIdleConnections = 5;
+
+		/** The longest an idle connection is kept open. */
+		private long keepAliveMillis = 30000;
+
+		/** Whether plain HTTP nodes are known to speak HTTP/2. */
+		private boolean priorKnowledge;
+
+		/**
+		 * Sets the connect timeout.
+		 *
+		 * @param connectTimeoutMillis the connect timeout
+		 * @return the settings
+		 */
+		public Settings connectTimeoutMillis(int connectTimeoutMillis) {
+			this.connectTimeoutMillis = connectTimeoutMillis;
+			return this;
+		}
+
+		/**
+		 * Sets the socket timeout.
+		 *
+		 * @param socketTimeoutMillis the socket timeout
+		 * @return the settings
+		 */
+		public Settings socketTimeoutMillis(int socketTimeoutMillis) {
+			this.socketTimeoutMillis = socketTimeoutMillis;
+			return this;
+		}
+
+		/**
+		 * Sets the timeout of a whole request, queueing included.
+		 *
+		 * @param requestTimeoutMillis the request timeout
+		 * @return the settings
+		 */
+		public Settings requestTimeoutMillis(int requestTimeoutMillis) {
+			this.requestTimeoutMillis = requestTimeoutMillis;
+			return this;
+		}
+
+		/**
+		 * Sets the limit of requests in flight; more are queued.
+		 *
+		 * @param maxStreams the max streams
+		 * @return the settings
+		 */
+		public Settings maxStreams(int maxStreams) {
+			this.maxStreams = maxStreams;
+			return this;
+		}
+
+		/**
+		 * Sets the limit of requests in flight per node; more are queued. A
+		 * node allowing fewer concurrent streams gets a second connection.
+		 *
+		 * @param maxStreamsPerNode the max streams per node
+		 * @return the settings
+		 */
+		public Settings maxStreamsPerNode(int maxStreamsPerNode) {
+			this.maxStreamsPerNode = maxStreamsPerNode;
+			return this;
+		}
+
+		/**
+		 * Sets the idle connections kept open.
+		 *
+		 * @param maxIdleConnections the max idle connections
+		 * @return the settings
+		 */
+		public Settings maxIdleConnections(int maxIdleConnections) {
+			this.maxIdleConnections = maxIdleConnections;
+			return this;
+		}
+
+		/**
+		 * Sets the longest an idle connection is kept open.
+		 *
+		 * @param keepAliveMillis the keep alive
+		 * @return the settings
+		 */
+		public Settings keepAliveMillis(long keepAliveMillis) {
+			this.keepAliveMillis = keepAliveMillis;
+			return this;
+		}
+
+		/**
+		 * Sets whether plain HTTP nodes are known to speak HTTP/2 (h2c), in
+		 * which case HTTP/1.1 is not tried and HTTPS nodes cannot be used.
+		 *
+		 * @param priorKnowledge the prior knowledge
+		 * @return the settings
+		 */
+		public Settings priorKnowledge(boolean priorKnowledge) {
+			this.priorKnowledge = priorKnowledge;
+			return this;
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package io.nem.connect;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+
+import org.nem.core.connect.HttpPostRequest;
+import org.nem.core.node.ApiId;
+import org.nem.core.node.NodeEndpoint;
+import org.nem.core.serialization.Deserializer;
+
+
+
+/**
+ * Sends requests to a NIS node. This is what the library calls for every
+ * announce, lookup and poll; choose an implementation with
+ * <code>transport.type</code>, see {@link io.nem.factories.ConnectorFactory#createTransport}.
+ *
+ * Futures fail with an {@link java.io.IOException},
+ * {@link org.nem.core.connect.InactivePeerException} or
+ * {@link org.nem.core.connect.BusyPeerException} when the node could not
+ * be reached or did not answer, so that they are retried.
+ */
+public interface NisTransport extends Closeable {
+
+	/**
+	 * Sends a GET request.
+	 *
+	 * @param endpoint the node
+	 * @param apiId the api id
+	 * @param query the query string, null for none
+	 * @return the future response
+	 */
+	CompletableFuture<Deserializer> get(NodeEndpoint endpoint, ApiId apiId, String query);
+
+	/**
+	 * Sends a POST request.
+	 *
+	 * @param endpoint the node
+	 * @param apiId the api id
+	 * @param request the request
+	 * @return the future response
+	 */
+	CompletableFuture<Deserializer> post(NodeEndpoint endpoint, ApiId apiId, HttpPostRequest request);
+
+	/**
+	 * Releases the connections; the transport cannot be used afterwards.
+	 */
+	@Override
+	void close();
+}
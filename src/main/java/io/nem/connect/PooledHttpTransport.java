@@ -0,0 +1,363 @@
+package io.nem.connect;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.apache.http.HttpConnection;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.apache.http.util.EntityUtils;
+import org.nem.core.connect.BusyPeerException;
+import org.nem.core.connect.HttpPostRequest;
+import org.nem.core.connect.InactivePeerException;
+import org.nem.core.model.Account;
+import org.nem.core.node.ApiId;
+import org.nem.core.node.NodeEndpoint;
+import org.nem.core.serialization.DeserializationContext;
+import org.nem.core.serialization.Deserializer;
+import org.nem.core.serialization.JsonDeserializer;
+
+import io.nem.metrics.TransportMetrics;
+import net.minidev.json.JSONObject;
+import net.minidev.json.JSONValue;
+
+
+
+/**
+ * A transport on its own Apache HttpAsyncClient whose connection pool is
+ * sized for high announce rates: total and per-node connection limits, a
+ * bounded wait for a free connection, keep-alive capped to a configured
+ * time, and a background sweep of expired and idle connections so that a
+ * node closing them does not surface as a failed announce.
+ *
+ * Every request records in {@link TransportMetrics} whether it reused a
+ * kept-alive connection and how long it waited for one, and the pool
+ * occupancy is published with them.
+ */
+public class PooledHttpTransport implements NisTransport {
+
+	/** The Constant LOGGER. */
+	private static final Logger LOGGER = Logger.getLogger(PooledHttpTransport.class.getName());
+
+	/** The Constant SUBMITTED, the context attribute holding the submit time. */
+	private static final String SUBMITTED = "io.nem.connect.submitted";
+
+	/** The connection pool. */
+	private final PoolingNHttpClientConnectionManager pool;
+
+	/** The client. */
+	private final CloseableHttpAsyncClient client;
+
+	/** The idle connection sweeper. */
+	private final ScheduledExecutorService sweeper;
+
+	/**
+	 * Instantiates and starts a new pooled HTTP transport.
+	 *
+	 * @param settings the settings
+	 * @param metrics the metrics to record connections into
+	 */
+	public PooledHttpTransport(Settings settings, TransportMetrics metrics) {
+		try {
+			this.pool = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(IOReactorConfig.custom()
+					.setIoThreadCount(settings.ioThreads)
+					.setConnectTimeout(settings.connectTimeoutMillis)
+					.setSoTimeout(settings.socketTimeoutMillis)
+					.setTcpNoDelay(true)
+					.build()));
+		} catch (IOReactorException e) {
+			throw new IllegalStateException("could not start the HTTP transport", e);
+		}
+		this.pool.setMaxTotal(settings.maxConnections);
+		this.pool.setDefaultMaxPerRoute(settings.maxConnectionsPerNode);
+		metrics.bindPool(() -> this.pool.getTotalStats().getLeased(), () -> this.pool.getTotalStats().getPending(),
+				() -> this.pool.getTotalStats().getAvailable());
+
+		final long keepAliveMillis = settings.keepAliveMillis;
+		this.client = HttpAsyncClients.custom()
+				.setConnectionManager(this.pool)
+				.setDefaultRequestConfig(RequestConfig.custom()
+						.setConnectTimeout(settings.connectTimeoutMillis)
+						.setSocketTimeout(settings.socketTimeoutMillis)
+						.setConnectionRequestTimeout(settings.poolWaitMillis)
+						.build())
+				.setKeepAliveStrategy((response, context) -> {
+					final long announced = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response,
+							context);
+					return announced > 0 ? Math.min(announced, keepAliveMillis) : keepAliveMillis;
+				})
+				.addInterceptorLast((HttpRequestInterceptor) (request, context) -> {
+					final Object submitted = context.getAttribute(SUBMITTED);
+					final HttpConnection connection = HttpCoreContext.adapt(context).getConnection();
+					if (submitted instanceof Long && connection != null) {
+						metrics.recordConnection(connection.getMetrics().getRequestCount() > 0,
+								System.nanoTime() - (Long) submitted);
+					}
+				})
+				.build();
+		this.client.start();
+
+		this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+			final Thread thread = new Thread(r, "nem-transport-sweeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		final long sweepMillis = Math.max(1000, keepAliveMillis / 2);
+		this.sweeper.scheduleWithFixedDelay(() -> {
+			this.pool.closeExpiredConnections();
+			this.pool.closeIdleConnections(keepAliveMillis, TimeUnit.MILLISECONDS);
+		}, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.connect.NisTransport#get(org.nem.core.node.NodeEndpoint, org.nem.core.node.ApiId, java.lang.String)
+	 */
+	@Override
+	public CompletableFuture<Deserializer> get(NodeEndpoint endpoint, ApiId apiId, String query) {
+		return this.execute(new HttpGet(url(endpoint, apiId, query)));
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.connect.NisTransport#post(org.nem.core.node.NodeEndpoint, org.nem.core.node.ApiId, org.nem.core.connect.HttpPostRequest)
+	 */
+	@Override
+	public CompletableFuture<Deserializer> post(NodeEndpoint endpoint, ApiId apiId, HttpPostRequest request) {
+		final HttpPost post = new HttpPost(url(endpoint, apiId, null));
+		post.setEntity(new ByteArrayEntity(request.getPayload(), ContentType.parse(request.getContentType())));
+		return this.execute(post);
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.connect.NisTransport#close()
+	 */
+	@Override
+	public void close() {
+		this.sweeper.shutdownNow();
+		try {
+			this.client.close();
+		} catch (IOException e) {
+			LOGGER.warning(String.format("could not close the HTTP transport: %s", e.getMessage()));
+		}
+	}
+
+	/**
+	 * Sends a request.
+	 *
+	 * @param request the request
+	 * @return the future response
+	 */
+	private CompletableFuture<Deserializer> execute(HttpUriRequest request) {
+		final CompletableFuture<Deserializer> future = new CompletableFuture<>();
+		final HttpContext context = new BasicHttpContext();
+		context.setAttribute(SUBMITTED, System.nanoTime());
+		this.client.execute(request, context, new FutureCallback<HttpResponse>() {
+
+			@Override
+			public void completed(HttpResponse response) {
+				try {
+					future.complete(deserialize(request, response));
+				} catch (IOException | RuntimeException e) {
+					future.completeExceptionally(e);
+				}
+			}
+
+			@Override
+			public void failed(Exception e) {
+				future.completeExceptionally(e);
+			}
+
+			@Override
+			public void cancelled() {
+				future.completeExceptionally(new CancellationException(request.getURI().toString()));
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Reads a node answer. Server errors are reported like an unreachable or
+	 * busy node, so that they are retried; other errors are permanent.
+	 *
+	 * @param request the request
+	 * @param response the response
+	 * @return the deserializer
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static Deserializer deserialize(HttpUriRequest request, HttpResponse response) throws IOException {
+		final String body = response.getEntity() == null ? ""
+				: EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+		return deserialize(request.getURI(), response.getStatusLine().getStatusCode(), body);
+	}
+
+	/**
+	 * Reads a node answer, see {@link #deserialize(HttpUriRequest, HttpResponse)}.
+	 *
+	 * @param uri the request uri
+	 * @param status the HTTP status
+	 * @param body the body
+	 * @return the deserializer
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	static Deserializer deserialize(Object uri, int status, String body) throws IOException {
+		if (status == 503) {
+			throw new BusyPeerException(String.format("%s answered HTTP %d", uri, status));
+		}
+		if (status >= 500) {
+			throw new InactivePeerException(String.format("%s answered HTTP %d: %s", uri, status, body));
+		}
+		if (status >= 300) {
+			throw new IllegalStateException(String.format("%s answered HTTP %d: %s", uri, status, body));
+		}
+
+		final Object json = body.isEmpty() ? new JSONObject() : JSONValue.parse(body);
+		if (!(json instanceof JSONObject)) {
+			throw new IOException(String.format("%s answered with no JSON object", uri));
+		}
+		return new JsonDeserializer((JSONObject) json, new DeserializationContext(Account::new));
+	}
+
+	/**
+	 * Builds a request url.
+	 *
+	 * @param endpoint the endpoint
+	 * @param apiId the api id
+	 * @param query the query, null for none
+	 * @return the url
+	 */
+	static String url(NodeEndpoint endpoint, ApiId apiId, String query) {
+		try {
+			return new URL(endpoint.getBaseUrl(), apiId.toString()) + (query == null ? "" : "?" + query);
+		} catch (MalformedURLException e) {
+			throw new IllegalArgumentException("invalid url for " + apiId + " on " + endpoint, e);
+		}
+	}
+
+	/**
+	 * The pool settings.
+	 */
+	public static class Settings {
+
+		/** The connect timeout. */
+		private int connectTimeoutMillis = 4000;
+
+		/** The socket timeout. */
+		private int socketTimeoutMillis = 10000;
+
+		/** The longest wait for a pooled connection. */
+		private int poolWaitMillis = 10000;
+
+		/** The connection limit. */
+		private int maxConnections = 100;
+
+		/** The connection limit per node. */
+		private int maxConnectionsPerNode = 20;
+
+		/** The longest a connection is kept alive. */
+		private long keepAliveMillis = 30000;
+
+		/** The I/O dispatch threads. */
+		private int ioThreads = Runtime.getRuntime().availableProcessors();
+
+		/**
+		 * Sets the connect timeout.
+		 *
+		 * @param connectTimeoutMillis the connect timeout
+		 * @return the settings
+		 */
+		public Settings connectTimeoutMillis(int connectTimeoutMillis) {
+			this.connectTimeoutMillis = connectTimeoutMillis;
+			return this;
+		}
+
+		/**
+		 * Sets the socket timeout.
+		 *
+		 * @param socketTimeoutMillis the socket timeout
+		 * @return the settings
+		 */
+		public Settings socketTimeoutMillis(int socketTimeoutMillis) {
+			this.socketTimeoutMillis = socketTimeoutMillis;
+			return this;
+		}
+
+		/**
+		 * Sets the longest wait for a pooled connection.
+		 *
+		 * @param poolWaitMillis the pool wait
+		 * @return the settings
+		 */
+		public Settings poolWaitMillis(int poolWaitMillis) {
+			this.poolWaitMillis = poolWaitMillis;
+			return this;
+		}
+
+		/**
+		 * Sets the connection limit.
+		 *
+		 * @param maxConnections the max connections
+		 * @return the settings
+		 */
+		public Settings maxConnections(int maxConnections) {
+			this.maxConnections = maxConnections;
+			return this;
+		}
+
+		/**
+		 * Sets the connection limit per node.
+		 *
+		 * @param maxConnectionsPerNode the max connections per node
+		 * @return the settings
+		 */
+		public Settings maxConnectionsPerNode(int maxConnectionsPerNode) {
+			this.maxConnectionsPerNode = maxConnectionsPerNode;
+			return this;
+		}
+
+		/**
+		 * Sets the longest a connection is kept alive.
+		 *
+		 * @param keepAliveMillis the keep alive
+		 * @return the settings
+		 */
+		public Settings keepAliveMillis(long keepAliveMillis) {
+			this.keepAliveMillis = keepAliveMillis;
+			return this;
+		}
+
+		/**
+		 * Sets the I/O dispatch threads.
+		 *
+		 * @param ioThreads the io threads
+		 * @return the settings
+		 */
+		public Settings ioThreads(int ioThreads) {
+			this.ioThreads = ioThreads;
+			return this;
+		}
+	}
+}
@@ -1,11 +1,21 @@
 package io.nem.factories;
 
+import org.nem.core.connect.BusyPeerException;
+import org.nem.core.connect.ErrorResponse;
 import org.nem.core.connect.ErrorResponseDeserializerUnion;
 import org.nem.core.connect.HttpMethodClient;
+import org.nem.core.connect.InactivePeerException;
 import org.nem.core.connect.client.DefaultAsyncNemConnector;
 import org.nem.core.model.Account;
 import org.nem.core.node.ApiId;
 
+import io.nem.connect.ConnectorTransport;
+import io.nem.connect.Http2Transport;
+import io.nem.connect.NisTransport;
+import io.nem.connect.PooledHttpTransport;
+import io.nem.metrics.Metrics;
+import io.nem.util.AppPropertiesUtil;
+
 
 
 /**
@@ -22,22 +32,91 @@ public class ConnectorFactory {
 	 * @return the default async nem connector< api id>
 	 */
 	public static DefaultAsyncNemConnector<ApiId> createConnector() {
-		final DefaultAsyncNemConnector<ApiId> connector = new DefaultAsyncNemConnector<>(CLIENT, r -> {
-			throw new RuntimeException();
-		});
+		final DefaultAsyncNemConnector<ApiId> connector = new DefaultAsyncNemConnector<>(CLIENT,
+				ConnectorFactory::mapError);
 		connector.setAccountLookup(Account::new);
 		return connector;
 	}
 
+	/**
+	 * Maps an error answer of a node to the exception the connector throws,
+	 * the same way {@link PooledHttpTransport} does: a busy node (HTTP 503)
+	 * and other server errors are retriable, any other error is not.
+	 *
+	 * @param response the error response
+	 * @return the exception
+	 */
+	private static RuntimeException mapError(ErrorResponse response) {
+		final String message = String.format("node answered HTTP %d: %s", response.getStatus(),
+				response.getMessage());
+		if (response.getStatus() == 503) {
+			return new BusyPeerException(message);
+		}
+		if (response.getStatus() >= 500) {
+			return new InactivePeerException(message);
+		}
+		return new IllegalStateException(message);
+	}
+
+	/**
+	 * Creates the transport selected by <code>transport.type</code>:
+	 * <code>connector</code> (the default) sends through the given nem-core
+	 * connector, <code>pooled</code> through a {@link PooledHttpTransport}
+	 * sized by <code>transport.max.connections</code>,
+	 * <code>transport.max.connections.per.node</code>,
+	 * <code>transport.pool.wait.millis</code>,
+	 * <code>transport.keepalive.millis</code> and
+	 * <code>transport.io.threads</code>, <code>http2</code> through an
+	 * {@link Http2Transport} limited by <code>transport.http2.max.streams</code>
+	 * and <code>transport.http2.max.streams.per.node</code>, speaking HTTP/2
+	 * to plain HTTP nodes with <code>transport.http2.prior.knowledge</code>.
+	 * All use the <code>transport.*.timeout.millis</code> timeouts.
+	 *
+	 * @param connector the connector of the default transport
+	 * @return the transport
+	 */
+	public static NisTransport createTransport(DefaultAsyncNemConnector<ApiId> connector) {
+		final String type = AppPropertiesUtil.getProperty("transport.type");
+		if (type == null || "connector".equalsIgnoreCase(type.trim())) {
+			return new ConnectorTransport(connector);
+		}
+		if ("http2".equalsIgnoreCase(type.trim())) {
+			return new Http2Transport(new Http2Transport.Settings()
+					.connectTimeoutMillis(AppPropertiesUtil.getIntProperty("transport.connect.timeout.millis", 4000))
+					.socketTimeoutMillis(AppPropertiesUtil.getIntProperty("transport.socket.timeout.millis", 10000))
+					.requestTimeoutMillis(AppPropertiesUtil.getIntProperty("transport.request.timeout.millis", 30000))
+					.maxStreams(AppPropertiesUtil.getIntProperty("transport.http2.max.streams", 256))
+					.maxStreamsPerNode(AppPropertiesUtil.getIntProperty("transport.http2.max.streams.per.node", 100))
+					.keepAliveMillis(AppPropertiesUtil.getLongProperty("transport.keepalive.millis", 30000))
+					.priorKnowledge(
+							Boolean.parseBoolean(AppPropertiesUtil.getProperty("transport.http2.prior.knowledge"))),
+					Metrics.TRANSPORT);
+		}
+		if (!"pooled".equalsIgnoreCase(type.trim())) {
+			throw new IllegalArgumentException("unknown transport.type: " + type);
+		}
+
+		final PooledHttpTransport.Settings settings = new PooledHttpTransport.Settings()
+				.connectTimeoutMillis(AppPropertiesUtil.getIntProperty("transport.connect.timeout.millis", 4000))
+				.socketTimeoutMillis(AppPropertiesUtil.getIntProperty("transport.socket.timeout.millis", 10000))
+				.poolWaitMillis(AppPropertiesUtil.getIntProperty("transport.pool.wait.millis", 10000))
+				.maxConnections(AppPropertiesUtil.getIntProperty("transport.max.connections", 100))
+				.maxConnectionsPerNode(AppPropertiesUtil.getIntProperty("transport.max.connections.per.node", 20))
+				.keepAliveMillis(AppPropertiesUtil.getIntProperty("transport.keepalive.millis", 30000))
+				.ioThreads(AppPropertiesUtil.getIntProperty("transport.io.threads",
+						Runtime.getRuntime().availableProcessors()));
+		return new PooledHttpTransport(settings, Metrics.TRANSPORT);
+	}
+
 	/**
 	 * Creates a new Connector object.
 	 *
 	 * @return the http method client< error response deserializer union>
 	 */
 	private static HttpMethodClient<ErrorResponseDeserializerUnion> createHttpMethodClient() {
-		final int connectionTimeout = 4000;
-		final int socketTimeout = 10000;
-		final int requestTimeout = 30000;
+		final int connectionTimeout = AppPropertiesUtil.getIntProperty("transport.connect.timeout.millis", 4000);
+		final int socketTimeout = AppPropertiesUtil.getIntProperty("transport.socket.timeout.millis", 10000);
+		final int requestTimeout = AppPropertiesUtil.getIntProperty("transport.request.timeout.millis", 30000);
 		return new HttpMethodClient<>(connectionTimeout, socketTimeout, requestTimeout);
 	}
 }
\ No newline at end of file
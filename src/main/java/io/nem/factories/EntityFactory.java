@@ -1,18 +1,36 @@
 package io.nem.factories;
 
+import java.util.Locale;
+
 import org.nem.core.crypto.KeyPair;
 import org.nem.core.crypto.PrivateKey;
 import org.nem.core.crypto.PublicKey;
 import org.nem.core.model.Account;
 import org.nem.core.model.Address;
 
+import io.nem.util.AppPropertiesUtil;
+import io.nem.util.LruCache;
+
 
 
 /**
  * A factory for creating Entity objects.
+ *
+ * Accounts and key pairs built from hex keys are cached, so repeated use of
+ * the same key skips the hex parse, the public key derivation and the address
+ * derivation. The cache size is read from <code>entity.cache.size</code>.
  */
 public class EntityFactory {
 
+	/** The Constant DEFAULT_CACHE_SIZE. */
+	private static final int DEFAULT_CACHE_SIZE = 1024;
+
+	/** The Constant PRIVATE_KEY_CACHE. */
+	private static final LruCache<String, CachedKey> PRIVATE_KEY_CACHE = new LruCache<>(getCacheSize());
+
+	/** The Constant PUBLIC_KEY_CACHE. */
+	private static final LruCache<String, CachedKey> PUBLIC_KEY_CACHE = new LruCache<>(getCacheSize());
+
 	/**
 	 * Creates a new Entity object.
 	 *
@@ -44,7 +62,7 @@ public class EntityFactory {
 	 * @return the account
 	 */
 	public static Account buildAccountFromPrivateKey(String privateKeyHex) {
-		return new Account(new KeyPair(PrivateKey.fromHexString(privateKeyHex)));
+		return getCachedPrivateKey(privateKeyHex).getAccount();
 	}
 
 	/**
@@ -54,7 +72,7 @@ public class EntityFactory {
 	 * @return the account
 	 */
 	public static Account buildAccountFromPublicKey(String publicKeyHex) {
-		return new Account(new KeyPair(PublicKey.fromHexString(publicKeyHex)));
+		return getCachedPublicKey(publicKeyHex).getAccount();
 	}
 
 	/**
@@ -64,17 +82,148 @@ public class EntityFactory {
 	 * @return the key pair
 	 */
 	public static KeyPair buildKeyPairFromPublicKey(String publicKeyHex) {
-		return new KeyPair(PublicKey.fromHexString(publicKeyHex));
+		return getCachedPublicKey(publicKeyHex).getKeyPair();
 	}
 
 	/**
 	 * Builds the key pair from private key.
 	 *
-	 * @param publicKeyHex the public key hex
+	 * @param privateKeyHex the private key hex
 	 * @return the key pair
 	 */
-	public static KeyPair buildKeyPairFromPrivateKey(String publicKeyHex) {
-		return new KeyPair(PrivateKey.fromHexString(publicKeyHex));
+	public static KeyPair buildKeyPairFromPrivateKey(String privateKeyHex) {
+		return getCachedPrivateKey(privateKeyHex).getKeyPair();
+	}
+
+	/**
+	 * Gets the cached key pair, account and address of a private key.
+	 *
+	 * @param privateKeyHex the private key hex
+	 * @return the cached key
+	 */
+	public static CachedKey getCachedPrivateKey(String privateKeyHex) {
+		return PRIVATE_KEY_CACHE.get(normalize(privateKeyHex),
+				hex -> new CachedKey(new KeyPair(PrivateKey.fromHexString(hex))));
+	}
+
+	/**
+	 * Gets the cached key pair, account and address of a public key.
+	 *
+	 * @param publicKeyHex the public key hex
+	 * @return the cached key
+	 */
+	public static CachedKey getCachedPublicKey(String publicKeyHex) {
+		return PUBLIC_KEY_CACHE.get(normalize(publicKeyHex),
+				hex -> new CachedKey(new KeyPair(PublicKey.fromHexString(hex))));
+	}
+
+	/**
+	 * Evicts a private or public key from the cache, e.g. after key rotation.
+	 *
+	 * @param keyHex the key hex
+	 */
+	public static void evictKey(String keyHex) {
+		final String key = normalize(keyHex);
+		PRIVATE_KEY_CACHE.evict(key);
+		PUBLIC_KEY_CACHE.evict(key);
+	}
+
+	/**
+	 * Evicts all cached keys.
+	 */
+	public static void clearKeyCache() {
+		PRIVATE_KEY_CACHE.clear();
+		PUBLIC_KEY_CACHE.clear();
+	}
+
+	/**
+	 * Gets the key cache hits.
+	 *
+	 * @return the key cache hits
+	 */
+	public static long getKeyCacheHits() {
+		return PRIVATE_KEY_CACHE.getHits() + PUBLIC_KEY_CACHE.getHits();
+	}
+
+	/**
+	 * Gets the key cache misses.
+	 *
+	 * @return the key cache misses
+	 */
+	public static long getKeyCacheMisses() {
+		return PRIVATE_KEY_CACHE.getMisses() + PUBLIC_KEY_CACHE.getMisses();
+	}
+
+	/**
+	 * Normalizes a hex key so differently cased input shares one entry.
+	 *
+	 * @param keyHex the key hex
+	 * @return the normalized key hex
+	 */
+	private static String normalize(String keyHex) {
+		return keyHex.trim().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Gets the cache size.
+	 *
+	 * @return the cache size
+	 */
+	private static int getCacheSize() {
+		return AppPropertiesUtil.getIntProperty("entity.cache.size", DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * A parsed key with its derived account and address.
+	 */
+	public static class CachedKey {
+
+		/** The key pair. */
+		private final KeyPair keyPair;
+
+		/** The account. */
+		private final Account account;
+
+		/** The address. */
+		private final Address address;
+
+		/**
+		 * Instantiates a new cached key.
+		 *
+		 * @param keyPair the key pair
+		 */
+		CachedKey(KeyPair keyPair) {
+			this.keyPair = keyPair;
+			this.account = new Account(keyPair);
+			this.address = this.account.getAddress();
+		}
+
+		/**
+		 * Gets the key pair.
+		 *
+		 * @return the key pair
+		 */
+		public KeyPair getKeyPair() {
+			return keyPair;
+		}
+
+		/**
+		 * Gets the account.
+		 *
+		 * @return the account
+		 */
+		public Account getAccount() {
+			return account;
+		}
+
+		/**
+		 * Gets the address.
+		 *
+		 * @return the address
+		 */
+		public Address getAddress() {
+			return address;
+		}
 	}
 
 }
@@ -0,0 +1,109 @@
+package io.nem.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.nem.core.model.ValidationResult;
+
+import io.nem.model.SwiftAnnounceResult;
+
+
+
+/**
+ * Counts node answers to announces by {@link org.nem.core.model.ncc.NemAnnounceResult}
+ * code. Codes are counted in a fixed array, so recording neither locks nor
+ * allocates.
+ */
+public class AnnounceResultMetrics implements AnnounceResultMetricsMXBean {
+
+	/** The Constant CODE_COUNT, codes at or above are counted together. */
+	private static final int CODE_COUNT = 256;
+
+	/** The counts per code, the last slot for codes out of range. */
+	private final AtomicLongArray counts = new AtomicLongArray(CODE_COUNT + 1);
+
+	/**
+	 * Records a node answer.
+	 *
+	 * @param code the result code
+	 */
+	public void record(int code) {
+		this.counts.incrementAndGet(code >= 0 && code < CODE_COUNT ? code : CODE_COUNT);
+	}
+
+	/**
+	 * Gets the number of answers with a code.
+	 *
+	 * @param code the result code
+	 * @return the count
+	 */
+	public long getCount(int code) {
+		return this.counts.get(code >= 0 && code < CODE_COUNT ? code : CODE_COUNT);
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.AnnounceResultMetricsMXBean#getTotal()
+	 */
+	@Override
+	public long getTotal() {
+		long total = 0;
+		for (int i = 0; i < this.counts.length(); i++) {
+			total += this.counts.get(i);
+		}
+		return total;
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.AnnounceResultMetricsMXBean#getErrorRate()
+	 */
+	@Override
+	public double getErrorRate() {
+		final long total = this.getTotal();
+		return total == 0 ? 0
+				: (double) (total - this.getCount(SwiftAnnounceResult.SUCCESS_CODE)
+						- this.getCount(SwiftAnnounceResult.ALREADY_KNOWN_CODE)) / total;
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.AnnounceResultMetricsMXBean#getCounts()
+	 */
+	@Override
+	public Map<String, Long> getCounts() {
+		final Map<String, Long> counts = new TreeMap<>();
+		for (int code = 0; code < CODE_COUNT; code++) {
+			final long count = this.counts.get(code);
+			if (count > 0) {
+				counts.put(nameOf(code), count);
+			}
+		}
+		if (this.counts.get(CODE_COUNT) > 0) {
+			counts.put("OTHER", this.counts.get(CODE_COUNT));
+		}
+		return counts;
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.AnnounceResultMetricsMXBean#reset()
+	 */
+	@Override
+	public void reset() {
+		for (int i = 0; i < this.counts.length(); i++) {
+			this.counts.set(i, 0);
+		}
+	}
+
+	/**
+	 * Gets the validation result name of a code.
+	 *
+	 * @param code the code
+	 * @return the name, the code itself if it is unknown
+	 */
+	private static String nameOf(int code) {
+		try {
+			return ValidationResult.fromValue(code).name();
+		} catch (IllegalArgumentException e) {
+			return String.valueOf(code);
+		}
+	}
+}
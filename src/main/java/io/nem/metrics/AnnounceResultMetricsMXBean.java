@@ -0,0 +1,38 @@
+package io.nem.metrics;
+
+import java.util.Map;
+
+
+
+/**
+ * The JMX view of an {@link AnnounceResultMetrics}.
+ */
+public interface AnnounceResultMetricsMXBean {
+
+	/**
+	 * Gets the number of node answers.
+	 *
+	 * @return the total
+	 */
+	long getTotal();
+
+	/**
+	 * Gets the share of node answers that were neither a success nor an
+	 * already known transaction (NEUTRAL).
+	 *
+	 * @return the error rate, between 0 and 1
+	 */
+	double getErrorRate();
+
+	/**
+	 * Gets the number of node answers per validation result name.
+	 *
+	 * @return the counts
+	 */
+	Map<String, Long> getCounts();
+
+	/**
+	 * Clears the counts.
+	 */
+	void reset();
+}
@@ -0,0 +1,155 @@
+package io.nem.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+
+/**
+ * A lock-free latency histogram with logarithmic buckets.
+ *
+ * Values below 64 get a bucket each; above, every power of two is split into
+ * 32 linear sub-buckets, so a percentile is off by at most 1/32 (about 3%) of
+ * its value over the whole <code>long</code> range, in a fixed array of 1888
+ * counters. Recording is a bucket index computation and an atomic increment:
+ * no lock and no allocation. Readers see a consistent enough view for
+ * monitoring but not an atomic snapshot.
+ */
+public class LatencyHistogram {
+
+	/** The Constant SUB_BUCKET_BITS. */
+	private static final int SUB_BUCKET_BITS = 5;
+
+	/** The Constant SUB_BUCKET_COUNT. */
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	/** The Constant BUCKET_COUNT, enough for any non-negative long. */
+	private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+	/** The counts per bucket. */
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+	/** The sum of the recorded values. */
+	private final LongAdder sum = new LongAdder();
+
+	/** The largest recorded value. */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records a value. Negative values are recorded as 0.
+	 *
+	 * @param value the value
+	 */
+	public void record(long value) {
+		final long recorded = Math.max(0, value);
+		this.counts.incrementAndGet(bucketOf(recorded));
+		this.sum.add(recorded);
+		long current = this.max.get();
+		while (recorded > current && !this.max.compareAndSet(current, recorded)) {
+			current = this.max.get();
+		}
+	}
+
+	/**
+	 * Gets the number of recorded values.
+	 *
+	 * @return the count
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			count += this.counts.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the mean of the recorded values.
+	 *
+	 * @return the mean, 0 if nothing was recorded
+	 */
+	public double getMean() {
+		final long count = this.getCount();
+		return count == 0 ? 0 : (double) this.sum.sum() / count;
+	}
+
+	/**
+	 * Gets the largest recorded value.
+	 *
+	 * @return the max
+	 */
+	public long getMax() {
+		return this.max.get();
+	}
+
+	/**
+	 * Gets the value below or at which the given percentage of the recorded
+	 * values fall, as the upper bound of its bucket.
+	 *
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the value, 0 if nothing was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		final long[] snapshot = new long[BUCKET_COUNT];
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			snapshot[i] = this.counts.get(i);
+			count += snapshot[i];
+		}
+		if (count == 0) {
+			return 0;
+		}
+
+		final long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) {
+				return Math.min(highestValueOf(i), this.max.get());
+			}
+		}
+		return this.max.get();
+	}
+
+	/**
+	 * Removes all recorded values. Values recorded during the reset may be
+	 * partly kept.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			this.counts.set(i, 0);
+		}
+		this.sum.reset();
+		this.max.set(0);
+	}
+
+	/**
+	 * Gets the bucket of a value.
+	 *
+	 * @param value the non-negative value
+	 * @return the bucket index
+	 */
+	static int bucketOf(long value) {
+		if (value < 2 * SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+	}
+
+	/**
+	 * Gets the largest value of a bucket.
+	 *
+	 * @param bucket the bucket index
+	 * @return the largest value
+	 */
+	static long highestValueOf(int bucket) {
+		if (bucket < 2 * SUB_BUCKET_COUNT) {
+			return bucket;
+		}
+		final int shift = bucket / SUB_BUCKET_COUNT - 1;
+		final long lowest = (long) (SUB_BUCKET_COUNT + bucket % SUB_BUCKET_COUNT) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+}
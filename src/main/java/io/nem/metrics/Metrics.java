@@ -0,0 +1,41 @@
+package io.nem.metrics;
+
+
+
+/**
+ * The metrics of the send path, in the order a message goes through it.
+ * Nested stages overlap: an adaptive compression includes the codecs it
+ * tries.
+ */
+public class Metrics {
+
+	/** The Constant PARSE, Prowide parsing of a message. */
+	public static final StageMetrics PARSE = MetricsRegistry.getDefault().stage("parse");
+
+	/** The Constant GZIP, gzip compression. */
+	public static final StageMetrics GZIP = MetricsRegistry.getDefault().stage("gzip");
+
+	/** The Constant DICTIONARY, preset dictionary compression. */
+	public static final StageMetrics DICTIONARY = MetricsRegistry.getDefault().stage("dictionary");
+
+	/** The Constant ADAPTIVE, choosing and applying the smallest codec. */
+	public static final StageMetrics ADAPTIVE = MetricsRegistry.getDefault().stage("adaptive");
+
+	/** The Constant ENCRYPT, secure message encryption. */
+	public static final StageMetrics ENCRYPT = MetricsRegistry.getDefault().stage("encrypt");
+
+	/** The Constant SIGN, transaction signing. */
+	public static final StageMetrics SIGN = MetricsRegistry.getDefault().stage("sign");
+
+	/** The Constant SERIALIZE, binary serialization and hashing of a signed transaction. */
+	public static final StageMetrics SERIALIZE = MetricsRegistry.getDefault().stage("serialize");
+
+	/** The Constant ANNOUNCE, one HTTP announce to a node. */
+	public static final StageMetrics ANNOUNCE = MetricsRegistry.getDefault().stage("announce");
+
+	/** The Constant ANNOUNCE_RESULTS, node answers by result code. */
+	public static final AnnounceResultMetrics ANNOUNCE_RESULTS = MetricsRegistry.getDefault().getAnnounceResults();
+
+	/** The Constant TRANSPORT, connection reuse and waits of the HTTP transport. */
+	public static final TransportMetrics TRANSPORT = MetricsRegistry.getDefault().getTransport();
+}
@@ -0,0 +1,158 @@
+package io.nem.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import io.nem.util.AppPropertiesUtil;
+
+
+
+/**
+ * Holds the metrics by name and publishes each as an MXBean in the
+ * <code>io.nem.swift</code> JMX domain, e.g.
+ * <code>io.nem.swift:type=Stage,name=encrypt</code>. Look metrics up once
+ * and keep the reference; the lookup itself is not meant for the hot path.
+ */
+public class MetricsRegistry {
+
+	/** The Constant LOGGER. */
+	private static final Logger LOGGER = Logger.getLogger(MetricsRegistry.class.getName());
+
+	/** The Constant DOMAIN. */
+	public static final String DOMAIN = "io.nem.swift";
+
+	/** The Constant DEFAULT, published unless <code>metrics.jmx.enabled=false</code>. */
+	private static final MetricsRegistry DEFAULT = new MetricsRegistry(
+			"false".equalsIgnoreCase(AppPropertiesUtil.getProperty("metrics.jmx.enabled")) ? null
+					: ManagementFactory.getPlatformMBeanServer());
+
+	/** The MBean server, null when nothing is published. */
+	private final MBeanServer server;
+
+	/** The stages. */
+	private final ConcurrentMap<String, StageMetrics> stages = new ConcurrentHashMap<>();
+
+	/** The names this registry published. */
+	private final List<ObjectName> registered = new CopyOnWriteArrayList<>();
+
+	/** The announce results. */
+	private final AnnounceResultMetrics announceResults = new AnnounceResultMetrics();
+
+	/** The transport connections. */
+	private final TransportMetrics transport = new TransportMetrics();
+
+	/**
+	 * Instantiates a new metrics registry.
+	 *
+	 * @param server the MBean server, null to publish nothing
+	 */
+	public MetricsRegistry(MBeanServer server) {
+		this.server = server;
+		this.register(this.announceResults, DOMAIN + ":type=AnnounceResults");
+		this.register(this.transport, DOMAIN + ":type=Transport");
+	}
+
+	/**
+	 * Gets the registry of the application.
+	 *
+	 * @return the default registry
+	 */
+	public static MetricsRegistry getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Gets the metrics of a stage, creating and publishing them on first use.
+	 *
+	 * @param name the stage name
+	 * @return the stage metrics
+	 */
+	public StageMetrics stage(String name) {
+		final StageMetrics existing = this.stages.get(name);
+		if (existing != null) {
+			return existing;
+		}
+		final StageMetrics created = new StageMetrics(name);
+		final StageMetrics raced = this.stages.putIfAbsent(name, created);
+		if (raced != null) {
+			return raced;
+		}
+		this.register(created, DOMAIN + ":type=Stage,name=" + ObjectName.quote(name));
+		return created;
+	}
+
+	/**
+	 * Gets the announce result counts.
+	 *
+	 * @return the announce results
+	 */
+	public AnnounceResultMetrics getAnnounceResults() {
+		return announceResults;
+	}
+
+	/**
+	 * Gets the transport connection metrics.
+	 *
+	 * @return the transport metrics
+	 */
+	public TransportMetrics getTransport() {
+		return transport;
+	}
+
+	/**
+	 * Gets the stages.
+	 *
+	 * @return the stages
+	 */
+	public List<StageMetrics> getStages() {
+		return new ArrayList<>(this.stages.values());
+	}
+
+	/**
+	 * Unpublishes every MXBean of this registry.
+	 */
+	public void unregister() {
+		if (this.server == null) {
+			return;
+		}
+		for (final ObjectName name : this.registered) {
+			try {
+				this.server.unregisterMBean(name);
+			} catch (JMException e) {
+				LOGGER.warning(String.format("could not unregister metrics %s: %s", name, e.getMessage()));
+			}
+		}
+		this.registered.clear();
+	}
+
+	/**
+	 * Publishes an MXBean, replacing one registered under the same name.
+	 *
+	 * @param mbean the mbean
+	 * @param name the object name
+	 */
+	private void register(Object mbean, String name) {
+		if (this.server == null) {
+			return;
+		}
+		try {
+			final ObjectName objectName = new ObjectName(name);
+			if (this.server.isRegistered(objectName)) {
+				this.server.unregisterMBean(objectName);
+			}
+			this.server.registerMBean(mbean, objectName);
+			this.registered.add(objectName);
+		} catch (JMException e) {
+			LOGGER.warning(String.format("could not register metrics %s: %s", name, e.getMessage()));
+		}
+	}
+}
@@ -0,0 +1,207 @@
+package io.nem.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+
+
+/**
+ * The latency, throughput, error and in-flight metrics of one processing
+ * stage. A call is measured as:
+ *
+ * <pre>
+ * final long start = stage.start();
+ * try {
+ * 	work();
+ * } catch (RuntimeException e) {
+ * 	stage.fail(start);
+ * 	throw e;
+ * }
+ * stage.stop(start);
+ * </pre>
+ *
+ * None of the recording methods locks or allocates.
+ */
+public class StageMetrics implements StageMetricsMXBean {
+
+	/** The name. */
+	private final String name;
+
+	/** The latencies in nanoseconds. */
+	private final LatencyHistogram latencies = new LatencyHistogram();
+
+	/** The errors. */
+	private final LongAdder errors = new LongAdder();
+
+	/** The calls under way. */
+	private final LongAdder inFlight = new LongAdder();
+
+	/** The time of the last reset. */
+	private volatile long sinceNanos = System.nanoTime();
+
+	/**
+	 * Instantiates a new stage metrics.
+	 *
+	 * @param name the name
+	 */
+	public StageMetrics(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Marks the start of a call.
+	 *
+	 * @return the start time to pass to {@link #stop(long)} or {@link #fail(long)}
+	 */
+	public long start() {
+		this.inFlight.increment();
+		return System.nanoTime();
+	}
+
+	/**
+	 * Marks the successful end of a call.
+	 *
+	 * @param start the start time
+	 */
+	public void stop(long start) {
+		this.latencies.record(System.nanoTime() - start);
+		this.inFlight.decrement();
+	}
+
+	/**
+	 * Marks the failed end of a call.
+	 *
+	 * @param start the start time
+	 */
+	public void fail(long start) {
+		this.errors.increment();
+		this.stop(start);
+	}
+
+	/**
+	 * Gets the latency histogram in nanoseconds.
+	 *
+	 * @return the latencies
+	 */
+	public LatencyHistogram getLatencies() {
+		return latencies;
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.StageMetricsMXBean#getName()
+	 */
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.StageMetricsMXBean#getCount()
+	 */
+	@Override
+	public long getCount() {
+		return this.latencies.getCount();
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.StageMetricsMXBean#getErrors()
+	 */
+	@Override
+	public long getErrors() {
+		return this.errors.sum();
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.StageMetricsMXBean#getErrorRate()
+	 */
+	@Override
+	public double getErrorRate() {
+		final long count = this.getCount();
+		return count == 0 ? 0 : (double) this.getErrors() / count;
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.StageMetricsMXBean#getInFlight()
+	 */
+	@Override
+	public long getInFlight() {
+		return this.inFlight.sum();
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.StageMetricsMXBean#getThroughputPerSecond()
+	 */
+	@Override
+	public double getThroughputPerSecond() {
+		final long elapsed = System.nanoTime() - this.sinceNanos;
+		return elapsed <= 0 ? 0 : this.getCount() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.StageMetricsMXBean#getMeanMicros()
+	 */
+	@Override
+	public double getMeanMicros() {
+		return this.latencies.getMean() / 1000;
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.StageMetricsMXBean#getP50Micros()
+	 */
+	@Override
+	public long getP50Micros() {
+		return TimeUnit.NANOSECONDS.toMicros(this.latencies.getValueAtPercentile(50));
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.StageMetricsMXBean#getP90Micros()
+	 */
+	@Override
+	public long getP90Micros() {
+		return TimeUnit.NANOSECONDS.toMicros(this.latencies.getValueAtPercentile(90));
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.StageMetricsMXBean#getP99Micros()
+	 */
+	@Override
+	public long getP99Micros() {
+		return TimeUnit.NANOSECONDS.toMicros(this.latencies.getValueAtPercentile(99));
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.StageMetricsMXBean#getP999Micros()
+	 */
+	@Override
+	public long getP999Micros() {
+		return TimeUnit.NANOSECONDS.toMicros(this.latencies.getValueAtPercentile(99.9));
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.StageMetricsMXBean#getMaxMicros()
+	 */
+	@Override
+	public long getMaxMicros() {
+		return TimeUnit.NANOSECONDS.toMicros(this.latencies.getMax());
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.StageMetricsMXBean#reset()
+	 */
+	@Override
+	public void reset() {
+		this.latencies.reset();
+		this.errors.reset();
+		this.sinceNanos = System.nanoTime();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("%s: count=%d errors=%d inFlight=%d p50=%dus p99=%dus p99.9=%dus max=%dus", this.name,
+				this.getCount(), this.getErrors(), this.getInFlight(), this.getP50Micros(), this.getP99Micros(),
+				this.getP999Micros(), this.getMaxMicros());
+	}
+}
@@ -0,0 +1,98 @@
+package io.nem.metrics;
+
+
+
+/**
+ * The JMX view of a {@link StageMetrics}. Latencies are in microseconds.
+ */
+public interface StageMetricsMXBean {
+
+	/**
+	 * Gets the stage name.
+	 *
+	 * @return the name
+	 */
+	String getName();
+
+	/**
+	 * Gets the number of completed calls, failed ones included.
+	 *
+	 * @return the count
+	 */
+	long getCount();
+
+	/**
+	 * Gets the number of failed calls.
+	 *
+	 * @return the errors
+	 */
+	long getErrors();
+
+	/**
+	 * Gets the share of failed calls.
+	 *
+	 * @return the error rate, between 0 and 1
+	 */
+	double getErrorRate();
+
+	/**
+	 * Gets the number of calls under way.
+	 *
+	 * @return the in flight count
+	 */
+	long getInFlight();
+
+	/**
+	 * Gets the completed calls per second since the last reset.
+	 *
+	 * @return the throughput
+	 */
+	double getThroughputPerSecond();
+
+	/**
+	 * Gets the mean latency.
+	 *
+	 * @return the mean latency
+	 */
+	double getMeanMicros();
+
+	/**
+	 * Gets the median latency.
+	 *
+	 * @return the median latency
+	 */
+	long getP50Micros();
+
+	/**
+	 * Gets the 90th percentile latency.
+	 *
+	 * @return the latency
+	 */
+	long getP90Micros();
+
+	/**
+	 * Gets the 99th percentile latency.
+	 *
+	 * @return the latency
+	 */
+	long getP99Micros();
+
+	/**
+	 * Gets the 99.9th percentile latency.
+	 *
+	 * @return the latency
+	 */
+	long getP999Micros();
+
+	/**
+	 * Gets the largest latency.
+	 *
+	 * @return the max latency
+	 */
+	long getMaxMicros();
+
+	/**
+	 * Clears the latencies and counts; calls under way are kept.
+	 */
+	void reset();
+}
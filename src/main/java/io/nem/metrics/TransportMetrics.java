@@ -0,0 +1,164 @@
+package io.nem.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+
+
+/**
+ * Connection metrics of the HTTP transport: how many requests reuse a
+ * kept-alive connection, how long requests wait for a connection from the
+ * pool (connecting a new one included) and the current pool occupancy.
+ * Transports that do not expose their connections leave these at zero.
+ */
+public class TransportMetrics implements TransportMetricsMXBean {
+
+	/** The Constant NO_POOL. */
+	private static final IntSupplier NO_POOL = () -> -1;
+
+	/** The requests sent on a new connection. */
+	private final LongAdder opened = new LongAdder();
+
+	/** The requests sent on a kept-alive connection. */
+	private final LongAdder reused = new LongAdder();
+
+	/** The waits for a connection, in nanoseconds. */
+	private final LatencyHistogram queueWaits = new LatencyHistogram();
+
+	/** The leased connections. */
+	private volatile IntSupplier leased = NO_POOL;
+
+	/** The pending requests. */
+	private volatile IntSupplier pending = NO_POOL;
+
+	/** The available connections. */
+	private volatile IntSupplier available = NO_POOL;
+
+	/**
+	 * Records a request put on a connection.
+	 *
+	 * @param reusedConnection whether the connection carried earlier requests
+	 * @param queueWaitNanos the wait for the connection
+	 */
+	public void recordConnection(boolean reusedConnection, long queueWaitNanos) {
+		(reusedConnection ? this.reused : this.opened).increment();
+		this.queueWaits.record(queueWaitNanos);
+	}
+
+	/**
+	 * Reads the pool occupancy from a connection pool.
+	 *
+	 * @param leased the leased connections
+	 * @param pending the pending requests
+	 * @param available the available connections
+	 */
+	public void bindPool(IntSupplier leased, IntSupplier pending, IntSupplier available) {
+		this.leased = leased;
+		this.pending = pending;
+		this.available = available;
+	}
+
+	/**
+	 * Gets the waits for a connection.
+	 *
+	 * @return the queue waits in nanoseconds
+	 */
+	public LatencyHistogram getQueueWaits() {
+		return queueWaits;
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.TransportMetricsMXBean#getConnectionsOpened()
+	 */
+	@Override
+	public long getConnectionsOpened() {
+		return this.opened.sum();
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.TransportMetricsMXBean#getConnectionsReused()
+	 */
+	@Override
+	public long getConnectionsReused() {
+		return this.reused.sum();
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.TransportMetricsMXBean#getReuseRatio()
+	 */
+	@Override
+	public double getReuseRatio() {
+		final long reused = this.reused.sum();
+		final long total = reused + this.opened.sum();
+		return total == 0 ? 0 : (double) reused / total;
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.TransportMetricsMXBean#getQueueWaitP50Micros()
+	 */
+	@Override
+	public long getQueueWaitP50Micros() {
+		return TimeUnit.NANOSECONDS.toMicros(this.queueWaits.getValueAtPercentile(50));
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.TransportMetricsMXBean#getQueueWaitP99Micros()
+	 */
+	@Override
+	public long getQueueWaitP99Micros() {
+		return TimeUnit.NANOSECONDS.toMicros(this.queueWaits.getValueAtPercentile(99));
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.TransportMetricsMXBean#getQueueWaitMaxMicros()
+	 */
+	@Override
+	public long getQueueWaitMaxMicros() {
+		return TimeUnit.NANOSECONDS.toMicros(this.queueWaits.getMax());
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.TransportMetricsMXBean#getLeasedConnections()
+	 */
+	@Override
+	public int getLeasedConnections() {
+		return this.leased.getAsInt();
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.TransportMetricsMXBean#getPendingRequests()
+	 */
+	@Override
+	public int getPendingRequests() {
+		return this.pending.getAsInt();
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.TransportMetricsMXBean#getAvailableConnections()
+	 */
+	@Override
+	public int getAvailableConnections() {
+		return this.available.getAsInt();
+	}
+
+	/* (non-Javadoc)
+	 * @see io.nem.metrics.TransportMetricsMXBean#reset()
+	 */
+	@Override
+	public void reset() {
+		this.opened.reset();
+		this.reused.reset();
+		this.queueWaits.reset();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("transport: reuse %.1f%% (%d opened), queue wait p50=%dus p99=%dus max=%dus",
+				this.getReuseRatio() * 100, this.getConnectionsOpened(), this.getQueueWaitP50Micros(),
+				this.getQueueWaitP99Micros(), this.getQueueWaitMaxMicros());
+	}
+}
@@ -0,0 +1,84 @@
+package io.nem.metrics;
+
+
+
+/**
+ * The JMX view of a {@link TransportMetrics}. Waits are in microseconds.
+ *
+ * With <code>transport.type=connector</code> the nem-core client does not
+ * expose its connections: the connection counts, the reuse ratio and the
+ * queue waits stay at zero and the pool occupancy at -1. The
+ * <code>pooled</code> and <code>http2</code> transports publish all of them;
+ * for <code>http2</code> a reused connection is an open HTTP/2 connection a
+ * new stream was put on.
+ */
+public interface TransportMetricsMXBean {
+
+	/**
+	 * Gets the number of requests sent on a new connection.
+	 *
+	 * @return the connections opened
+	 */
+	long getConnectionsOpened();
+
+	/**
+	 * Gets the number of requests sent on a kept-alive connection.
+	 *
+	 * @return the connections reused
+	 */
+	long getConnectionsReused();
+
+	/**
+	 * Gets the share of requests sent on a kept-alive connection.
+	 *
+	 * @return the reuse ratio, between 0 and 1
+	 */
+	double getReuseRatio();
+
+	/**
+	 * Gets the median wait for a connection.
+	 *
+	 * @return the median queue wait
+	 */
+	long getQueueWaitP50Micros();
+
+	/**
+	 * Gets the 99th percentile wait for a connection.
+	 *
+	 * @return the 99th percentile queue wait
+	 */
+	long getQueueWaitP99Micros();
+
+	/**
+	 * Gets the longest wait for a connection.
+	 *
+	 * @return the max queue wait
+	 */
+	long getQueueWaitMaxMicros();
+
+	/**
+	 * Gets the number of pooled connections in use.
+	 *
+	 * @return the leased connections, -1 without a pool
+	 */
+	int getLeasedConnections();
+
+	/**
+	 * Gets the number of requests waiting for a pooled connection.
+	 *
+	 * @return the pending requests, -1 without a pool
+	 */
+	int getPendingRequests();
+
+	/**
+	 * Gets the number of idle pooled connections.
+	 *
+	 * @return the available connections, -1 without a pool
+	 */
+	int getAvailableConnections();
+
+	/**
+	 * Clears the counts and waits.
+	 */
+	void reset();
+}
@@ -0,0 +1,114 @@
+package io.nem.model;
+
+import org.nem.core.crypto.Hash;
+import org.nem.core.model.Account;
+
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+
+
+/**
+ * A decoded SWIFT message received in a transfer.
+ */
+public class IncomingSwiftMessage {
+
+	/** The transfer id on the node, ascending with chain order. */
+	private final long id;
+
+	/** The transaction hash. */
+	private final Hash transactionHash;
+
+	/** The block height. */
+	private final long height;
+
+	/** The sender. */
+	private final Account sender;
+
+	/** The message text. */
+	private final String swiftMessage;
+
+	/** The parsed message. */
+	private final AbstractMT mt;
+
+	/**
+	 * Instantiates a new incoming swift message.
+	 *
+	 * @param id the transfer id
+	 * @param transactionHash the transaction hash
+	 * @param height the block height
+	 * @param sender the sender
+	 * @param swiftMessage the message text
+	 * @param mt the parsed message
+	 */
+	public IncomingSwiftMessage(long id, Hash transactionHash, long height, Account sender, String swiftMessage,
+			AbstractMT mt) {
+		this.id = id;
+		this.transactionHash = transactionHash;
+		this.height = height;
+		this.sender = sender;
+		this.swiftMessage = swiftMessage;
+		this.mt = mt;
+	}
+
+	/**
+	 * Gets the transfer id.
+	 *
+	 * @return the id
+	 */
+	public long getId() {
+		return id;
+	}
+
+	/**
+	 * Gets the transaction hash.
+	 *
+	 * @return the transaction hash
+	 */
+	public Hash getTransactionHash() {
+		return transactionHash;
+	}
+
+	/**
+	 * Gets the block height.
+	 *
+	 * @return the height
+	 */
+	public long getHeight() {
+		return height;
+	}
+
+	/**
+	 * Gets the sender.
+	 *
+	 * @return the sender
+	 */
+	public Account getSender() {
+		return sender;
+	}
+
+	/**
+	 * Gets the message text.
+	 *
+	 * @return the swift message
+	 */
+	public String getSwiftMessage() {
+		return swiftMessage;
+	}
+
+	/**
+	 * Gets the parsed message.
+	 *
+	 * @return the mt
+	 */
+	public AbstractMT getMt() {
+		return mt;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "IncomingSwiftMessage [id=" + id + ", hash=" + transactionHash + ", type=" + mt.getMessageType() + "]";
+	}
+}
@@ -0,0 +1,103 @@
+package io.nem.model;
+
+import org.nem.core.crypto.Hash;
+import org.nem.core.crypto.Hashes;
+import org.nem.core.model.Transaction;
+import org.nem.core.model.ncc.RequestAnnounce;
+import org.nem.core.serialization.BinarySerializer;
+
+import io.nem.connect.AnnounceRequest;
+import io.nem.metrics.Metrics;
+
+
+
+/**
+ * A signed transaction with its serialized form and hash computed up front,
+ * so announcing it does no further CPU work.
+ */
+public class SignedTransaction {
+
+	/** The transaction. */
+	private final Transaction transaction;
+
+	/** The serialized non verifiable transaction. */
+	private final byte[] data;
+
+	/** The transaction hash. */
+	private final Hash hash;
+
+	/**
+	 * Instantiates a new signed transaction.
+	 *
+	 * @param transaction the signed transaction
+	 */
+	public SignedTransaction(Transaction transaction) {
+		if (transaction.getSignature() == null) {
+			throw new IllegalArgumentException("transaction is not signed");
+		}
+		this.transaction = transaction;
+		final long start = Metrics.SERIALIZE.start();
+		try {
+			this.data = BinarySerializer.serializeToBytes(transaction.asNonVerifiable());
+			this.hash = new Hash(Hashes.sha3_256(this.data));
+		} catch (RuntimeException e) {
+			Metrics.SERIALIZE.fail(start);
+			throw e;
+		}
+		Metrics.SERIALIZE.stop(start);
+	}
+
+	/**
+	 * Gets the transaction.
+	 *
+	 * @return the transaction
+	 */
+	public Transaction getTransaction() {
+		return transaction;
+	}
+
+	/**
+	 * Gets the serialized non verifiable transaction.
+	 *
+	 * @return the data
+	 */
+	public byte[] getData() {
+		return data;
+	}
+
+	/**
+	 * Gets the transaction hash.
+	 *
+	 * @return the hash
+	 */
+	public Hash getHash() {
+		return hash;
+	}
+
+	/**
+	 * Creates the announce request.
+	 *
+	 * @return the request announce
+	 */
+	public RequestAnnounce toRequestAnnounce() {
+		return new RequestAnnounce(this.data, this.transaction.getSignature().getBytes());
+	}
+
+	/**
+	 * Creates the announce request body, hex encoded straight from the
+	 * serialized transaction.
+	 *
+	 * @return the announce request
+	 */
+	public AnnounceRequest toAnnounceRequest() {
+		return new AnnounceRequest(this.data, this.transaction.getSignature().getBytes());
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "SignedTransaction [hash=" + hash + "]";
+	}
+}
@@ -0,0 +1,89 @@
+package io.nem.model;
+
+import org.nem.core.crypto.Hash;
+import org.nem.core.model.ValidationResult;
+import org.nem.core.model.ncc.NemAnnounceResult;
+
+
+
+/**
+ * The Class SwiftAnnounceResult.
+ */
+public class SwiftAnnounceResult {
+
+	/** The Constant SUCCESS_CODE. */
+	public static final int SUCCESS_CODE = 1;
+
+	/** The Constant ALREADY_KNOWN_CODE, NEUTRAL: the node already knows the transaction hash. */
+	public static final int ALREADY_KNOWN_CODE = ValidationResult.NEUTRAL.getValue();
+
+	/** The transaction hash. */
+	private final Hash transactionHash;
+
+	/** The announce result. */
+	private final NemAnnounceResult announceResult;
+
+	/**
+	 * Instantiates a new swift announce result.
+	 *
+	 * @param transactionHash the transaction hash
+	 * @param announceResult the announce result
+	 */
+	public SwiftAnnounceResult(Hash transactionHash, NemAnnounceResult announceResult) {
+		this.transactionHash = transactionHash;
+		this.announceResult = announceResult;
+	}
+
+	/**
+	 * Gets the transaction hash.
+	 *
+	 * @return the transaction hash
+	 */
+	public Hash getTransactionHash() {
+		return transactionHash;
+	}
+
+	/**
+	 * Gets the announce result.
+	 *
+	 * @return the announce result
+	 */
+	public NemAnnounceResult getAnnounceResult() {
+		return announceResult;
+	}
+
+	/**
+	 * Checks if the node accepted the transaction, on this announce or on an
+	 * earlier one, see {@link #isAlreadyKnown()}.
+	 *
+	 * @return true, if successful
+	 */
+	public boolean isSuccessful() {
+		return announceResult != null
+				&& (announceResult.getCode() == SUCCESS_CODE || announceResult.getCode() == ALREADY_KNOWN_CODE);
+	}
+
+	/**
+	 * Checks if the node answered that it already knows the transaction hash,
+	 * e.g. to a retry after an announce that timed out but got through, or to
+	 * the replay of a journaled transaction. The hash covers the signed
+	 * transaction, so the transaction is the one that was sent.
+	 *
+	 * @return true, if already known
+	 */
+	public boolean isAlreadyKnown() {
+		return announceResult != null && announceResult.getCode() == ALREADY_KNOWN_CODE;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "SwiftAnnounceResult [transactionHash=" + transactionHash + ", code="
+				+ (announceResult == null ? null : announceResult.getCode()) + ", message="
+				+ (announceResult == null ? null : announceResult.getMessage()) + "]";
+	}
+}
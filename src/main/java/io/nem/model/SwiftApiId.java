@@ -0,0 +1,41 @@
+package io.nem.model;
+
+import org.nem.core.node.ApiId;
+
+
+
+/**
+ * The NIS endpoints used by this library that {@link org.nem.core.connect.client.NisApiId}
+ * does not cover. The connector takes the path from {@link #toString()}.
+ */
+public enum SwiftApiId implements ApiId {
+
+	/** The incoming transfers of an account, newest first. */
+	ACCOUNT_TRANSFERS_INCOMING(NetworkConstants.ACCOUNT_TRANSFER_INCOMING_ENDPOINT),
+
+	/** A transaction by hash. */
+	TRANSACTION_GET("/transaction/get"),
+
+	/** The unconfirmed transactions of an account, with the multisig transactions it may cosign. */
+	ACCOUNT_UNCONFIRMED_TRANSACTIONS("/account/unconfirmedTransactions");
+
+	/** The path. */
+	private final String path;
+
+	/**
+	 * Instantiates a new swift api id.
+	 *
+	 * @param path the path
+	 */
+	SwiftApiId(String path) {
+		this.path = path;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Enum#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.path;
+	}
+}
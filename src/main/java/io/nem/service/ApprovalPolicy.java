@@ -0,0 +1,141 @@
+package io.nem.service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import io.nem.util.AppPropertiesUtil;
+
+
+
+/**
+ * Decides whether a cosigner approves a pending multisig transaction, see
+ * {@link CosignerApprovalEngine}. Policies combine with {@link #and}.
+ */
+@FunctionalInterface
+public interface ApprovalPolicy {
+
+	/** The key of the limit on the XEM a transfer moves, see {@link #amountLimits}. */
+	String XEM = "XEM";
+
+	/**
+	 * Checks a pending multisig transaction.
+	 *
+	 * @param pending the pending multisig transaction
+	 * @return null to approve it, else the reason it is rejected
+	 */
+	String check(CosignerApprovalEngine.Pending pending);
+
+	/**
+	 * Combines this policy with another one, checked only if this one
+	 * approves.
+	 *
+	 * @param other the other policy
+	 * @return the combined policy
+	 */
+	default ApprovalPolicy and(ApprovalPolicy other) {
+		return pending -> {
+			final String reason = this.check(pending);
+			return reason != null ? reason : other.check(pending);
+		};
+	}
+
+	/**
+	 * Approves every pending transaction.
+	 *
+	 * @return the policy
+	 */
+	static ApprovalPolicy approveAll() {
+		return pending -> null;
+	}
+
+	/**
+	 * Approves the transactions carrying a SWIFT message of one of the given
+	 * types, e.g. "202".
+	 *
+	 * @param messageTypes the message types
+	 * @return the policy
+	 */
+	static ApprovalPolicy messageTypes(String... messageTypes) {
+		final Set<String> types = new HashSet<>(Arrays.asList(messageTypes));
+		return pending -> {
+			if (pending.getMt() == null) {
+				return "no readable SWIFT message";
+			}
+			return types.contains(pending.getMt().getMessageType()) ? null
+					: "message type " + pending.getMt().getMessageType() + " is not approved";
+		};
+	}
+
+	/**
+	 * Approves the transactions whose SWIFT message amount, field 32A or 32B,
+	 * is within the limit of its currency. A currency without a limit is
+	 * rejected. The value the inner transfer itself moves is checked too:
+	 * transfers of mosaics are rejected, and XEM is held against the
+	 * {@link #XEM} limit, so a transfer moving XEM is rejected unless one is
+	 * given.
+	 *
+	 * @param limits the limits by currency code
+	 * @return the policy
+	 */
+	static ApprovalPolicy amountLimits(Map<String, BigDecimal> limits) {
+		final Map<String, BigDecimal> copy = new HashMap<>(limits);
+		return pending -> {
+			if (pending.hasMosaics()) {
+				return "the transfer moves mosaics";
+			}
+			if (pending.getMicroXem() > 0) {
+				final BigDecimal xem = BigDecimal.valueOf(pending.getMicroXem(), 6).stripTrailingZeros();
+				final BigDecimal xemLimit = copy.get(XEM);
+				if (xemLimit == null) {
+					return "the transfer moves " + xem.toPlainString() + " XEM, no limit for " + XEM;
+				}
+				if (xem.compareTo(xemLimit) > 0) {
+					return XEM + " " + xem.toPlainString() + " is over the limit of " + xemLimit.toPlainString();
+				}
+			}
+			if (pending.getAmount() == null) {
+				return "no amount in field 32A or 32B";
+			}
+			final BigDecimal limit = copy.get(pending.getCurrency());
+			if (limit == null) {
+				return "no limit for " + pending.getCurrency();
+			}
+			return pending.getAmount().compareTo(limit) <= 0 ? null
+					: pending.getCurrency() + " " + pending.getAmount().toPlainString() + " is over the limit of "
+							+ limit.toPlainString();
+		};
+	}
+
+	/**
+	 * Creates the policy configured in app.properties:
+	 * <code>cosign.amount.limits</code>, comma separated
+	 * <code>currency:limit</code> pairs, XEM included for transfers moving
+	 * XEM, and optionally
+	 * <code>cosign.message.types</code>. Without limits every transaction is
+	 * rejected.
+	 *
+	 * @return the policy
+	 */
+	static ApprovalPolicy fromProperties() {
+		final Map<String, BigDecimal> limits = new HashMap<>();
+		final String amountLimits = AppPropertiesUtil.getProperty("cosign.amount.limits");
+		if (amountLimits != null) {
+			for (final String limit : amountLimits.split(",")) {
+				final String[] parts = limit.trim().split(":");
+				if (parts.length != 2) {
+					throw new IllegalArgumentException("invalid cosign.amount.limits entry: " + limit);
+				}
+				limits.put(parts[0].trim(), new BigDecimal(parts[1].trim()));
+			}
+		}
+
+		final String messageTypes = AppPropertiesUtil.getProperty("cosign.message.types");
+		final ApprovalPolicy policy = amountLimits(limits);
+		return messageTypes == null || messageTypes.trim().isEmpty() ? policy
+				: messageTypes(messageTypes.trim().split("\\s*,\\s*")).and(policy);
+	}
+}
@@ -1,7 +1,14 @@
 package io.nem.service;
 
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
 import org.nem.core.model.Account;
 import org.nem.core.model.MultisigSignatureTransaction;
 import org.nem.core.model.MultisigTransaction;
@@ -12,6 +19,9 @@ import org.nem.core.model.TransferTransactionAttachment;
 import org.nem.core.model.primitive.Amount;
 import org.nem.core.time.TimeInstant;
 
+import io.nem.metrics.Metrics;
+import io.nem.model.SignedTransaction;
+import io.nem.model.SwiftAnnounceResult;
 import io.nem.model.SwiftMultisigTransaction;
 import io.nem.model.SwiftTransaction;
 import io.nem.model.TransactionBlock;
@@ -58,13 +68,19 @@ public class BlockchainTransactionService {
 	 * @param tBlock the t block
 	 */
 	public static void createAndSendTransaction(final SwiftTransaction tBlock) {
+		TransactionSenderUtil.sendTransaction(createSignedTransaction(tBlock));
+	}
 
-		final Transaction transaction = createTransaction(tBlock.getTimeInstant(), tBlock.getSenderAccount(),
-				tBlock.getRecipientAccount(), tBlock.getAmount(), tBlock.getAttachment());
-		transaction.sign();
-		TransactionSenderUtil.sendTransaction(transaction);
-		
-		
+	/**
+	 * Creates and sends the transaction without blocking the calling thread.
+	 *
+	 * @param tBlock the t block
+	 * @param executor the executor that parses the node response
+	 * @return the future announce result
+	 */
+	public static CompletableFuture<SwiftAnnounceResult> createAndSendTransactionAsync(final SwiftTransaction tBlock,
+			final Executor executor) {
+		return TransactionSenderUtil.sendTransactionAsync(createSignedTransaction(tBlock), executor);
 	}
 
 	/**
@@ -73,6 +89,132 @@ public class BlockchainTransactionService {
 	 * @param tBlock the t block
 	 */
 	public static void createAndSendMultisigTransaction(final SwiftMultisigTransaction tBlock) {
+		TransactionSenderUtil.sendTransaction(createSignedMultisigTransaction(tBlock));
+	}
+
+	/**
+	 * Creates and sends the multisig transaction without blocking the calling
+	 * thread.
+	 *
+	 * @param tBlock the t block
+	 * @param executor the executor that parses the node response
+	 * @return the future announce result
+	 */
+	public static CompletableFuture<SwiftAnnounceResult> createAndSendMultisigTransactionAsync(
+			final SwiftMultisigTransaction tBlock, final Executor executor) {
+		return TransactionSenderUtil.sendTransactionAsync(createSignedMultisigTransaction(tBlock), executor);
+	}
+
+	/**
+	 * Creates the and send multisig signature transaction.
+	 *
+	 * @param tBlock the t block
+	 */
+	public static void createAndSendMultisigSignatureTransaction(final SwiftMultisigTransaction tBlock) {
+		TransactionSenderUtil.sendTransaction(createSignedMultisigSignatureTransaction(tBlock));
+	}
+
+	/**
+	 * Creates and sends the multisig signature transaction without blocking
+	 * the calling thread.
+	 *
+	 * @param tBlock the t block
+	 * @param executor the executor that parses the node response
+	 * @return the future announce result
+	 */
+	public static CompletableFuture<SwiftAnnounceResult> createAndSendMultisigSignatureTransactionAsync(
+			final SwiftMultisigTransaction tBlock, final Executor executor) {
+		return TransactionSenderUtil.sendTransactionAsync(createSignedMultisigSignatureTransaction(tBlock), executor);
+	}
+
+	/**
+	 * Creates and signs the transfer transactions described by the t blocks on
+	 * the {@link Globals#SIGNING_POOL}.
+	 *
+	 * @param tBlocks the t blocks
+	 * @return the signed transactions, in the order of the t blocks
+	 */
+	public static List<SignedTransaction> createSignedTransactions(final List<SwiftTransaction> tBlocks) {
+		return signAll(tBlocks, tBlock -> {
+			if (tBlock.getTimeInstant() == null) {
+				tBlock.setTimeInstant(Globals.TIME_PROVIDER.getCurrentTime());
+			}
+			return createSignedTransaction(tBlock);
+		}, Globals.SIGNING_POOL);
+	}
+
+	/**
+	 * Creates and signs the multisig transactions described by the t blocks on
+	 * the {@link Globals#SIGNING_POOL}.
+	 *
+	 * @param tBlocks the t blocks
+	 * @return the signed transactions, in the order of the t blocks
+	 */
+	public static List<SignedTransaction> createSignedMultisigTransactions(
+			final List<SwiftMultisigTransaction> tBlocks) {
+		return signAll(tBlocks, tBlock -> {
+			if (tBlock.getTimeInstant() == null) {
+				tBlock.setTimeInstant(Globals.TIME_PROVIDER.getCurrentTime());
+			}
+			return createSignedMultisigTransaction(tBlock);
+		}, Globals.SIGNING_POOL);
+	}
+
+	/**
+	 * Creates and signs the multisig signature transactions described by the t
+	 * blocks on the {@link Globals#SIGNING_POOL}.
+	 *
+	 * @param tBlocks the t blocks
+	 * @return the signed transactions, in the order of the t blocks
+	 */
+	public static List<SignedTransaction> createSignedMultisigSignatureTransactions(
+			final List<SwiftMultisigTransaction> tBlocks) {
+		return signAll(tBlocks, tBlock -> {
+			if (tBlock.getTimeInstant() == null) {
+				tBlock.setTimeInstant(Globals.TIME_PROVIDER.getCurrentTime());
+			}
+			return createSignedMultisigSignatureTransaction(tBlock);
+		}, Globals.SIGNING_POOL);
+	}
+
+	/**
+	 * Builds, signs, serializes and hashes a batch in parallel on the given
+	 * pool. The calling thread only waits for the batch.
+	 *
+	 * @param <T> the spec type
+	 * @param specs the specs
+	 * @param factory builds and signs the transaction of a spec
+	 * @param pool the pool
+	 * @return the signed transactions, in the order of the specs
+	 */
+	public static <T> List<SignedTransaction> signAll(final List<T> specs, final Function<T, Transaction> factory,
+			final ForkJoinPool pool) {
+		return pool.submit(() -> specs.parallelStream()
+				.map(spec -> new SignedTransaction(factory.apply(spec)))
+				.collect(Collectors.toList())).join();
+	}
+
+	/**
+	 * Creates and signs the transfer transaction described by the t block.
+	 *
+	 * @param tBlock the t block
+	 * @return the signed transaction
+	 */
+	public static Transaction createSignedTransaction(final SwiftTransaction tBlock) {
+
+		final Transaction transaction = createTransaction(tBlock.getTimeInstant(), tBlock.getSenderAccount(),
+				tBlock.getRecipientAccount(), tBlock.getAmount(), tBlock.getAttachment());
+		sign(transaction);
+		return transaction;
+	}
+
+	/**
+	 * Creates and signs the multisig transaction described by the t block.
+	 *
+	 * @param tBlock the t block
+	 * @return the signed transaction
+	 */
+	public static Transaction createSignedMultisigTransaction(final SwiftMultisigTransaction tBlock) {
 
 		final Transaction transaction = createTransaction(tBlock.getTimeInstant(), tBlock.getMultisigAccount(),
 				tBlock.getRecipientAccount(), tBlock.getAmount(), tBlock.getAttachment());
@@ -80,16 +222,18 @@ public class BlockchainTransactionService {
 		final Transaction multiSigSignedTransaction = createMultisigTransaction(tBlock.getTimeInstant(),
 				tBlock.getSenderAccount(), tBlock.getRecipientAccount(), tBlock.getAmount(), transaction);
 		
-		multiSigSignedTransaction.sign();
-		TransactionSenderUtil.sendTransaction(multiSigSignedTransaction);
+		sign(multiSigSignedTransaction);
+		return multiSigSignedTransaction;
 	}
 
 	/**
-	 * Creates the and send multisig signature transaction.
+	 * Creates and signs the multisig signature transaction described by the t
+	 * block.
 	 *
 	 * @param tBlock the t block
+	 * @return the signed transaction
 	 */
-	public static void createAndSendMultisigSignatureTransaction(final SwiftMultisigTransaction tBlock) {
+	public static Transaction createSignedMultisigSignatureTransaction(final SwiftMultisigTransaction tBlock) {
 
 		final Transaction transaction = createTransaction(tBlock.getTimeInstant(), tBlock.getMultisigAccount(),
 				tBlock.getRecipientAccount(), tBlock.getAmount(), tBlock.getAttachment());
@@ -97,8 +241,28 @@ public class BlockchainTransactionService {
 		final Transaction multiSigSignedTransaction = createMultisigSignatureTransaction(tBlock.getTimeInstant(),
 				tBlock.getSenderAccount(), tBlock.getMultisigAccount(), tBlock.getAmount(), transaction);
 		
-		multiSigSignedTransaction.sign();
-		TransactionSenderUtil.sendTransaction(multiSigSignedTransaction);
+		sign(multiSigSignedTransaction);
+		return multiSigSignedTransaction;
+	}
+
+	/**
+	 * Creates and signs the signature of a cosigner on a multisig transaction
+	 * fetched from a node, from its inner transaction as is.
+	 *
+	 * @param timeInstant the time instant
+	 * @param cosigner the cosigner
+	 * @param multisig the multisig transaction to cosign
+	 * @return the signed transaction
+	 */
+	public static Transaction createSignedMultisigSignatureTransaction(final TimeInstant timeInstant,
+			final Account cosigner, final MultisigTransaction multisig) {
+
+		final Transaction transaction = multisig.getOtherTransaction();
+		final Transaction multiSigSignedTransaction = createMultisigSignatureTransaction(timeInstant, cosigner,
+				transaction.getSigner(), 0, transaction);
+
+		sign(multiSigSignedTransaction);
+		return multiSigSignedTransaction;
 	}
 	
 	/**
@@ -189,4 +353,20 @@ public class BlockchainTransactionService {
 		
 		return multiSigSignedTransaction;
 	}
+
+	/**
+	 * Signs a transaction, recording the time taken.
+	 *
+	 * @param transaction the transaction
+	 */
+	private static void sign(final Transaction transaction) {
+		final long start = Metrics.SIGN.start();
+		try {
+			transaction.sign();
+		} catch (RuntimeException e) {
+			Metrics.SIGN.fail(start);
+			throw e;
+		}
+		Metrics.SIGN.stop(start);
+	}
 }
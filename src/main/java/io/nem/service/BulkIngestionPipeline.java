@@ -0,0 +1,757 @@
+package io.nem.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import org.nem.core.crypto.Hash;
+import org.nem.core.messages.SecureMessage;
+import org.nem.core.model.Account;
+
+import com.prowidesoftware.swift.io.PPCReader;
+import com.prowidesoftware.swift.io.RJEReader;
+import com.prowidesoftware.swift.model.SwiftBlock4;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import io.nem.factories.AttachmentFactory;
+import io.nem.metrics.Metrics;
+import io.nem.model.SignedTransaction;
+import io.nem.model.SwiftAnnounceResult;
+import io.nem.model.SwiftTransaction;
+import io.nem.swift.crypto.SecureMessageSwiftPayloadEncoder;
+import io.nem.util.AppPropertiesUtil;
+import io.nem.util.MappedRjeSplitter;
+import io.nem.util.RetryPolicy;
+import io.nem.util.TransactionSenderUtil;
+
+
+
+/**
+ * Moves the messages of an RJE or DOS-PCC batch file to the blockchain in
+ * five stages: read, parse, encode (compress and encrypt), sign and announce.
+ *
+ * Reading runs on the calling thread, since the file readers are sequential.
+ * Every other stage has its own worker pool fed by a bounded queue, and a
+ * stage blocks when the queue of the next one is full, so a large file never
+ * piles up in memory. Progress is logged at a fixed interval and
+ * {@link #run(Iterator)} returns a summary with the outcome of every message.
+ *
+ * With a {@link SwiftDuplicateFilter} set, a message already sent within
+ * its retention window fails at {@link Stage#DEDUP} instead of being sent
+ * again. A message is forgotten by the filter, so that a re-run retries it,
+ * only if it failed before it was announced or the node rejected it for
+ * good; after a failed or timed out announce it may still reach the chain.
+ *
+ * Pools are sized by <code>ingest.workers</code> (parse, encode and sign,
+ * one thread per core by default), <code>ingest.announce.concurrency</code>
+ * and <code>ingest.queue.capacity</code>.
+ */
+public class BulkIngestionPipeline {
+
+	/** The Constant LOGGER. */
+	private static final Logger LOGGER = Logger.getLogger(BulkIngestionPipeline.class.getName());
+
+	/** The Constant DEFAULT_ANNOUNCE_CONCURRENCY. */
+	private static final int DEFAULT_ANNOUNCE_CONCURRENCY = 16;
+
+	/** The Constant DEFAULT_QUEUE_CAPACITY. */
+	private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+	/** The Constant DEFAULT_PROGRESS_INTERVAL_MILLIS. */
+	private static final long DEFAULT_PROGRESS_INTERVAL_MILLIS = 5000;
+
+	/** Runs the result handling on the announce worker. */
+	private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+	/**
+	 * The pipeline stages.
+	 */
+	public enum Stage {
+
+		/** Reading raw messages from the file. */
+		READ,
+
+		/** Parsing them into MT objects. */
+		PARSE,
+
+		/** Skipping messages already sent, when a duplicate filter is set. */
+		DEDUP,
+
+		/** Compressing and encrypting the payload. */
+		ENCODE,
+
+		/** Building and signing the transaction. */
+		SIGN,
+
+		/** Announcing it to a node. */
+		ANNOUNCE
+	}
+
+	/** The sender. */
+	private final Account sender;
+
+	/** Resolves the recipient account of a message, e.g. by receiver BIC. */
+	private final Function<AbstractMT, Account> recipientResolver;
+
+	/** The workers of the parse, encode and sign stages. */
+	private final int workers;
+
+	/** The announce workers. */
+	private final int announceConcurrency;
+
+	/** The capacity of each stage queue. */
+	private final int queueCapacity;
+
+	/** The progress interval. */
+	private final long progressIntervalMillis;
+
+	/** Announces a signed transaction. */
+	private final Function<SignedTransaction, CompletableFuture<SwiftAnnounceResult>> announcer;
+
+	/** The messages that passed each stage. */
+	private final Map<Stage, AtomicLong> passed = new EnumMap<>(Stage.class);
+
+	/** The failed messages. */
+	private final AtomicLong failed = new AtomicLong();
+
+	/** The duplicate filter, null if none. */
+	private volatile SwiftDuplicateFilter duplicateFilter;
+
+	/**
+	 * Instantiates a new bulk ingestion pipeline.
+	 *
+	 * @param sender the sender
+	 * @param recipientResolver resolves the recipient account of a message
+	 * @param workers the workers of the parse, encode and sign stages
+	 * @param announceConcurrency the announce workers
+	 * @param queueCapacity the capacity of each stage queue
+	 * @param progressIntervalMillis the progress interval, 0 disables progress logging
+	 */
+	public BulkIngestionPipeline(Account sender, Function<AbstractMT, Account> recipientResolver, int workers,
+			int announceConcurrency, int queueCapacity, long progressIntervalMillis) {
+		this(sender, recipientResolver, workers, announceConcurrency, queueCapacity, progressIntervalMillis,
+				signed -> TransactionSenderUtil.sendTransactionAsync(signed, DIRECT_EXECUTOR));
+	}
+
+	/**
+	 * Instantiates a new bulk ingestion pipeline announcing through the given
+	 * function instead of the configured nodes.
+	 *
+	 * @param sender the sender
+	 * @param recipientResolver resolves the recipient account of a message
+	 * @param workers the workers of the parse, encode and sign stages
+	 * @param announceConcurrency the announce workers
+	 * @param queueCapacity the capacity of each stage queue
+	 * @param progressIntervalMillis the progress interval, 0 disables progress logging
+	 * @param announcer announces a signed transaction
+	 */
+	public BulkIngestionPipeline(Account sender, Function<AbstractMT, Account> recipientResolver, int workers,
+			int announceConcurrency, int queueCapacity, long progressIntervalMillis,
+			Function<SignedTransaction, CompletableFuture<SwiftAnnounceResult>> announcer) {
+		if (workers < 1 || announceConcurrency < 1 || queueCapacity < 1) {
+			throw new IllegalArgumentException("workers, announce concurrency and queue capacity must be positive");
+		}
+		this.sender = sender;
+		this.recipientResolver = recipientResolver;
+		this.workers = workers;
+		this.announceConcurrency = announceConcurrency;
+		this.queueCapacity = queueCapacity;
+		this.progressIntervalMillis = progressIntervalMillis;
+		this.announcer = announcer;
+		for (final Stage stage : Stage.values()) {
+			this.passed.put(stage, new AtomicLong());
+		}
+	}
+
+	/**
+	 * Creates a pipeline sized from app.properties.
+	 *
+	 * @param sender the sender
+	 * @param recipientResolver resolves the recipient account of a message
+	 * @return the bulk ingestion pipeline
+	 */
+	public static BulkIngestionPipeline fromProperties(Account sender,
+			Function<AbstractMT, Account> recipientResolver) {
+		return new BulkIngestionPipeline(sender, recipientResolver,
+				AppPropertiesUtil.getIntProperty("ingest.workers", Runtime.getRuntime().availableProcessors()),
+				AppPropertiesUtil.getIntProperty("ingest.announce.concurrency", DEFAULT_ANNOUNCE_CONCURRENCY),
+				AppPropertiesUtil.getIntProperty("ingest.queue.capacity", DEFAULT_QUEUE_CAPACITY),
+				DEFAULT_PROGRESS_INTERVAL_MILLIS);
+	}
+
+	/**
+	 * Sets the duplicate filter checked after parsing.
+	 *
+	 * @param duplicateFilter the duplicate filter, null for none
+	 */
+	public void setDuplicateFilter(SwiftDuplicateFilter duplicateFilter) {
+		this.duplicateFilter = duplicateFilter;
+	}
+
+	/**
+	 * Ingests an RJE file.
+	 *
+	 * @param file the file
+	 * @return the summary
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws InterruptedException if interrupted while waiting for a stage
+	 */
+	public Summary ingestRje(File file) throws IOException, InterruptedException {
+		return this.run(new RJEReader(file));
+	}
+
+	/**
+	 * Ingests an RJE file through a {@link MappedRjeSplitter}, for files too
+	 * large to stream through a reader.
+	 *
+	 * @param file the file
+	 * @return the summary
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws InterruptedException if interrupted while waiting for a stage
+	 */
+	public Summary ingestRjeMapped(Path file) throws IOException, InterruptedException {
+		try (MappedRjeSplitter splitter = new MappedRjeSplitter(file)) {
+			return this.run(splitter.stringIterator());
+		}
+	}
+
+	/**
+	 * Ingests a DOS-PCC file.
+	 *
+	 * @param file the file
+	 * @return the summary
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws InterruptedException if interrupted while waiting for a stage
+	 */
+	public Summary ingestPpc(File file) throws IOException, InterruptedException {
+		return this.run(new PPCReader(file));
+	}
+
+	/**
+	 * Runs every raw message of the source through the pipeline. Runs do not
+	 * overlap; a second caller waits for the first run to finish.
+	 *
+	 * @param source the raw messages
+	 * @return the summary
+	 * @throws InterruptedException if interrupted while waiting for a stage
+	 */
+	public synchronized Summary run(Iterator<String> source) throws InterruptedException {
+		this.passed.values().forEach(counter -> counter.set(0));
+		this.failed.set(0);
+
+		final long start = System.nanoTime();
+		final ConcurrentLinkedQueue<Outcome> outcomes = new ConcurrentLinkedQueue<>();
+		final ThreadPoolExecutor parse = this.stageExecutor(Stage.PARSE, this.workers);
+		final ThreadPoolExecutor encode = this.stageExecutor(Stage.ENCODE, this.workers);
+		final ThreadPoolExecutor sign = this.stageExecutor(Stage.SIGN, this.workers);
+		final ThreadPoolExecutor announce = this.stageExecutor(Stage.ANNOUNCE, this.announceConcurrency);
+		final List<ThreadPoolExecutor> stages = new ArrayList<>();
+		Collections.addAll(stages, parse, encode, sign, announce);
+		final ScheduledExecutorService progress = this.startProgress();
+
+		try {
+			int index = 0;
+			while (source.hasNext()) {
+				final Item item = new Item(index++, source.next());
+				this.passed.get(Stage.READ).incrementAndGet();
+				parse.execute(() -> this.process(item, Stage.PARSE, outcomes, () -> {
+					this.parse(item);
+					this.process(item, Stage.DEDUP, outcomes, () -> {
+						this.deduplicate(item);
+						encode.execute(() -> this.process(item, Stage.ENCODE, outcomes, () -> {
+							this.encode(item);
+							sign.execute(() -> this.process(item, Stage.SIGN, outcomes, () -> {
+								item.signed = new SignedTransaction(
+										BlockchainTransactionService.createSignedTransaction(item.tBlock));
+								announce.execute(() -> this.process(item, Stage.ANNOUNCE, outcomes, () -> {
+									item.result = this.announcer.apply(item.signed).get();
+									if (RetryPolicy.isDefinitiveRejection(item.result.getAnnounceResult())) {
+										this.forget(item);
+									}
+									outcomes.add(new Outcome(item, null, null));
+								}));
+							}));
+						}));
+					});
+				}));
+			}
+
+			for (final ThreadPoolExecutor stage : stages) {
+				stage.shutdown();
+				stage.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			}
+		} catch (InterruptedException | RuntimeException e) {
+			stages.forEach(ThreadPoolExecutor::shutdownNow);
+			throw e;
+		} finally {
+			if (progress != null) {
+				progress.shutdownNow();
+			}
+		}
+
+		final List<Outcome> sorted = new ArrayList<>(outcomes);
+		sorted.sort(Comparator.comparingInt(Outcome::getIndex));
+		final Summary summary = new Summary(sorted, System.nanoTime() - start);
+		LOGGER.info(summary.toString());
+		return summary;
+	}
+
+	/**
+	 * Gets the number of messages that passed a stage in the current run.
+	 *
+	 * @param stage the stage
+	 * @return the passed count
+	 */
+	public long getPassed(Stage stage) {
+		return this.passed.get(stage).get();
+	}
+
+	/**
+	 * Gets the number of failed messages in the current run.
+	 *
+	 * @return the failed count
+	 */
+	public long getFailed() {
+		return this.failed.get();
+	}
+
+	/**
+	 * Parses the message.
+	 *
+	 * @param item the item
+	 * @throws IOException if the message is not an MT message
+	 */
+	private void parse(final Item item) throws IOException {
+		final long start = Metrics.PARSE.start();
+		try {
+			item.mt = AbstractMT.parse(item.raw);
+		} catch (IOException | RuntimeException e) {
+			Metrics.PARSE.fail(start);
+			throw e;
+		}
+		Metrics.PARSE.stop(start);
+		if (item.mt == null) {
+			throw new IOException("not an MT message");
+		}
+	}
+
+	/**
+	 * Records the message with the duplicate filter, failing if it was sent
+	 * before.
+	 *
+	 * @param item the item
+	 * @throws IOException if the message is a duplicate
+	 */
+	private void deduplicate(final Item item) throws IOException {
+		final SwiftDuplicateFilter filter = this.duplicateFilter;
+		if (filter != null) {
+			item.reference = SwiftDuplicateFilter.referenceOf(item.mt);
+			if (!filter.markIfNew(item.reference)) {
+				throw new IOException("duplicate of a message already sent");
+			}
+			item.filter = filter;
+		}
+	}
+
+	/**
+	 * Forgets a message recorded with the duplicate filter, so that it can be
+	 * sent again.
+	 *
+	 * @param item the item
+	 */
+	private void forget(final Item item) {
+		if (item.filter != null) {
+			item.filter.forget(item.reference);
+		}
+	}
+
+	/**
+	 * Compresses and encrypts the message and describes its transfer.
+	 *
+	 * @param item the item
+	 */
+	private void encode(final Item item) {
+		final Account recipient = this.recipientResolver.apply(item.mt);
+		final SecureMessage message = SecureMessageSwiftPayloadEncoder.encodeAndCompress(this.sender, recipient,
+				item.raw);
+
+		final SwiftTransaction tBlock = new SwiftTransaction();
+		tBlock.setSenderAccount(this.sender);
+		tBlock.setRecipientAccount(recipient);
+		tBlock.setAmount(0L);
+		tBlock.setAttachment(AttachmentFactory.createTransferTransactionAttachment(message));
+		tBlock.setTimeInstant(Globals.TIME_PROVIDER.getCurrentTime());
+		item.tBlock = tBlock;
+	}
+
+	/**
+	 * Runs one stage of an item, recording a failure as its outcome. An item
+	 * the next stage did not take, when interrupted while waiting for its
+	 * queue, fails at this stage and is forgotten, since it was never
+	 * announced.
+	 *
+	 * @param item the item
+	 * @param stage the stage
+	 * @param outcomes the outcomes
+	 * @param work the work of the stage
+	 */
+	private void process(final Item item, final Stage stage, final ConcurrentLinkedQueue<Outcome> outcomes,
+			final StageWork work) {
+		try {
+			work.run();
+			this.passed.get(stage).incrementAndGet();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			this.fail(item, stage, e, outcomes);
+		} catch (Exception e) {
+			this.fail(item, stage, e, outcomes);
+		}
+	}
+
+	/**
+	 * Records a failed item.
+	 *
+	 * @param item the item
+	 * @param stage the stage
+	 * @param error the error
+	 * @param outcomes the outcomes
+	 */
+	private void fail(final Item item, final Stage stage, final Throwable error,
+			final ConcurrentLinkedQueue<Outcome> outcomes) {
+		this.failed.incrementAndGet();
+		if (stage == Stage.ENCODE || stage == Stage.SIGN || error instanceof RejectedExecutionException) {
+			this.forget(item);
+		}
+		outcomes.add(new Outcome(item, stage, error.getCause() != null ? error.getCause() : error));
+	}
+
+	/**
+	 * Creates the executor of a stage. Submitting to a full queue blocks the
+	 * submitting stage.
+	 *
+	 * @param stage the stage
+	 * @param threads the threads
+	 * @return the thread pool executor
+	 */
+	private ThreadPoolExecutor stageExecutor(final Stage stage, final int threads) {
+		final AtomicInteger counter = new AtomicInteger();
+		final String name = "nem-ingest-" + stage.name().toLowerCase(Locale.ROOT) + "-";
+		return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(this.queueCapacity), r -> {
+					final Thread thread = new Thread(r, name + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, (r, executor) -> {
+					try {
+						executor.getQueue().put(r);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new RejectedExecutionException("interrupted while waiting for stage " + stage, e);
+					}
+				});
+	}
+
+	/**
+	 * Starts logging progress.
+	 *
+	 * @return the progress scheduler, null when progress logging is disabled
+	 */
+	private ScheduledExecutorService startProgress() {
+		if (this.progressIntervalMillis <= 0) {
+			return null;
+		}
+
+		final ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(r -> {
+			final Thread thread = new Thread(r, "nem-ingest-progress");
+			thread.setDaemon(true);
+			return thread;
+		});
+		progress.scheduleAtFixedRate(() -> LOGGER.info(String.format(
+				"ingest progress: read %d, parsed %d, encoded %d, signed %d, announced %d, failed %d",
+				this.getPassed(Stage.READ), this.getPassed(Stage.PARSE), this.getPassed(Stage.ENCODE),
+				this.getPassed(Stage.SIGN), this.getPassed(Stage.ANNOUNCE), this.getFailed())),
+				this.progressIntervalMillis, this.progressIntervalMillis, TimeUnit.MILLISECONDS);
+		return progress;
+	}
+
+	/**
+	 * The work of one stage.
+	 */
+	@FunctionalInterface
+	private interface StageWork {
+
+		/**
+		 * Runs the work.
+		 *
+		 * @throws Exception the exception
+		 */
+		void run() throws Exception;
+	}
+
+	/**
+	 * A message on its way through the stages.
+	 */
+	private static class Item {
+
+		/** The index in the file. */
+		private final int index;
+
+		/** The raw message. */
+		private final String raw;
+
+		/** The parsed message. */
+		private AbstractMT mt;
+
+		/** The reference recorded with the duplicate filter. */
+		private byte[] reference;
+
+		/** The duplicate filter that recorded the message, null if none. */
+		private SwiftDuplicateFilter filter;
+
+		/** The transaction description. */
+		private SwiftTransaction tBlock;
+
+		/** The signed transaction. */
+		private SignedTransaction signed;
+
+		/** The announce result. */
+		private SwiftAnnounceResult result;
+
+		/**
+		 * Instantiates a new item.
+		 *
+		 * @param index the index
+		 * @param raw the raw
+		 */
+		Item(int index, String raw) {
+			this.index = index;
+			this.raw = raw;
+		}
+	}
+
+	/**
+	 * The outcome of one message of the file.
+	 */
+	public static class Outcome {
+
+		/** The index in the file. */
+		private final int index;
+
+		/** The message type, null if the message did not parse. */
+		private final String messageType;
+
+		/** The transaction reference, field 20. */
+		private final String reference;
+
+		/** The transaction hash, null if the message was not signed. */
+		private final Hash transactionHash;
+
+		/** The announce result, null if the message was not announced. */
+		private final SwiftAnnounceResult result;
+
+		/** The stage that failed, null if none did. */
+		private final Stage failedStage;
+
+		/** The error, null if no stage failed. */
+		private final Throwable error;
+
+		/**
+		 * Instantiates a new outcome.
+		 *
+		 * @param item the item
+		 * @param failedStage the failed stage
+		 * @param error the error
+		 */
+		Outcome(Item item, Stage failedStage, Throwable error) {
+			this.index = item.index;
+			this.messageType = item.mt == null ? null : item.mt.getMessageType();
+			this.reference = item.mt == null ? null : reference(item.mt);
+			this.transactionHash = item.signed == null ? null : item.signed.getHash();
+			this.result = item.result;
+			this.failedStage = failedStage;
+			this.error = error;
+		}
+
+		/**
+		 * Reads field 20 of a message.
+		 *
+		 * @param mt the mt
+		 * @return the reference, null if absent
+		 */
+		private static String reference(AbstractMT mt) {
+			final SwiftBlock4 block4 = mt.getSwiftMessage().getBlock4();
+			return block4 == null ? null : block4.getTagValue("20");
+		}
+
+		/**
+		 * Gets the index in the file.
+		 *
+		 * @return the index
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * Gets the message type.
+		 *
+		 * @return the message type
+		 */
+		public String getMessageType() {
+			return messageType;
+		}
+
+		/**
+		 * Gets the transaction reference.
+		 *
+		 * @return the reference
+		 */
+		public String getReference() {
+			return reference;
+		}
+
+		/**
+		 * Gets the transaction hash.
+		 *
+		 * @return the transaction hash
+		 */
+		public Hash getTransactionHash() {
+			return transactionHash;
+		}
+
+		/**
+		 * Gets the announce result.
+		 *
+		 * @return the result
+		 */
+		public SwiftAnnounceResult getResult() {
+			return result;
+		}
+
+		/**
+		 * Gets the stage that failed.
+		 *
+		 * @return the failed stage
+		 */
+		public Stage getFailedStage() {
+			return failedStage;
+		}
+
+		/**
+		 * Gets the error.
+		 *
+		 * @return the error
+		 */
+		public Throwable getError() {
+			return error;
+		}
+
+		/**
+		 * Checks if the node accepted the transaction.
+		 *
+		 * @return true, if successful
+		 */
+		public boolean isSuccessful() {
+			return error == null && result != null && result.isSuccessful();
+		}
+	}
+
+	/**
+	 * The summary of a run.
+	 */
+	public static class Summary {
+
+		/** The outcomes in file order. */
+		private final List<Outcome> outcomes;
+
+		/** The elapsed nanos. */
+		private final long elapsedNanos;
+
+		/**
+		 * Instantiates a new summary.
+		 *
+		 * @param outcomes the outcomes in file order
+		 * @param elapsedNanos the elapsed nanos
+		 */
+		Summary(List<Outcome> outcomes, long elapsedNanos) {
+			this.outcomes = Collections.unmodifiableList(outcomes);
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		/**
+		 * Gets the outcomes in file order.
+		 *
+		 * @return the outcomes
+		 */
+		public List<Outcome> getOutcomes() {
+			return outcomes;
+		}
+
+		/**
+		 * Gets the number of messages accepted by the node.
+		 *
+		 * @return the succeeded count
+		 */
+		public long getSucceeded() {
+			return outcomes.stream().filter(Outcome::isSuccessful).count();
+		}
+
+		/**
+		 * Gets the number of failed or rejected messages per stage, node
+		 * rejections counted under {@link Stage#ANNOUNCE}.
+		 *
+		 * @return the failures by stage
+		 */
+		public Map<Stage, Long> getFailuresByStage() {
+			final Map<Stage, Long> failures = new EnumMap<>(Stage.class);
+			for (final Outcome outcome : outcomes) {
+				if (!outcome.isSuccessful()) {
+					final Stage stage = outcome.getFailedStage() == null ? Stage.ANNOUNCE : outcome.getFailedStage();
+					failures.merge(stage, 1L, Long::sum);
+				}
+			}
+			return failures;
+		}
+
+		/**
+		 * Gets the elapsed millis.
+		 *
+		 * @return the elapsed millis
+		 */
+		public long getElapsedMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+		}
+
+		/* (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			final double seconds = Math.max(elapsedNanos, 1) / 1e9;
+			return String.format("ingested %d messages in %.1f s (%.0f msg/s): %d accepted, failures %s",
+					outcomes.size(), seconds, outcomes.size() / seconds, this.getSucceeded(),
+					this.getFailuresByStage());
+		}
+	}
+}
@@ -0,0 +1,541 @@
+package io.nem.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.nem.core.crypto.Hash;
+import org.nem.core.model.Account;
+import org.nem.core.model.Message;
+import org.nem.core.model.MultisigSignatureTransaction;
+import org.nem.core.model.MultisigTransaction;
+import org.nem.core.model.Transaction;
+import org.nem.core.model.TransactionFactory;
+import org.nem.core.model.TransferTransaction;
+import org.nem.core.node.NodeEndpoint;
+import org.nem.core.time.TimeInstant;
+
+import com.prowidesoftware.swift.model.SwiftBlock4;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import io.nem.model.SignedTransaction;
+import io.nem.model.SwiftAnnounceResult;
+import io.nem.model.SwiftApiId;
+import io.nem.util.RetryPolicy;
+import io.nem.util.TransactionSenderUtil;
+
+
+
+/**
+ * Approves the pending multisig transactions of a cosigner in one batch,
+ * e.g. the transfers waiting for treasury at cut-off.
+ *
+ * The pending transactions are fetched through
+ * <code>/account/unconfirmedTransactions</code> and indexed by the hash of
+ * their inner transaction, so nothing has to be rebuilt to cosign them. The
+ * SWIFT message of each is decoded where it can be and checked against an
+ * {@link ApprovalPolicy}. The approved ones are signed in parallel on the
+ * {@link Globals#SIGNING_POOL} and announced concurrently, and
+ * {@link #approvePending(Executor)} reports the outcome of every pending
+ * transaction.
+ */
+public class CosignerApprovalEngine {
+
+	/** The Constant LOGGER. */
+	private static final Logger LOGGER = Logger.getLogger(CosignerApprovalEngine.class.getName());
+
+	/** The Constant AMOUNT, field 32A or 32B: an optional date, the currency and the amount. */
+	private static final Pattern AMOUNT = Pattern.compile("^(?:\\d{6})?([A-Z]{3})(\\d+(?:,\\d*)?)$");
+
+	/**
+	 * The outcome of a pending transaction.
+	 */
+	public enum Status {
+
+		/** Cosigned, and the node accepted the signature. */
+		COSIGNED,
+
+		/** Cosigned, but the node rejected the signature. */
+		NODE_REJECTED,
+
+		/** Rejected by the approval policy. */
+		POLICY_REJECTED,
+
+		/** Initiated or cosigned by this cosigner before. */
+		ALREADY_SIGNED,
+
+		/** Signing or announcing failed. */
+		FAILED
+	}
+
+	/** The cosigner, holding the private key. */
+	private final Account cosigner;
+
+	/** The account decrypting secure messages, null for the cosigner. */
+	private final Account reader;
+
+	/** The policy. */
+	private final ApprovalPolicy policy;
+
+	/**
+	 * Instantiates a new cosigner approval engine.
+	 *
+	 * @param cosigner the cosigner, holding the private key
+	 * @param reader the account decrypting secure messages, e.g. the
+	 *            recipient, null for the cosigner
+	 * @param policy the policy
+	 */
+	public CosignerApprovalEngine(Account cosigner, Account reader, ApprovalPolicy policy) {
+		this.cosigner = cosigner;
+		this.reader = reader;
+		this.policy = policy;
+	}
+
+	/**
+	 * Fetches the pending multisig transactions of the cosigner, checks them
+	 * against the policy, and cosigns and announces the approved ones.
+	 *
+	 * @param executor the executor that parses the node responses
+	 * @return the outcomes, in the order the node listed the transactions
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public CompletableFuture<List<Outcome>> approvePending(Executor executor) throws IOException {
+		return this.approve(this.fetchPending().values(), executor);
+	}
+
+	/**
+	 * Fetches the pending multisig transactions of the cosigner.
+	 *
+	 * @return the pending transactions by inner transaction hash
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public Map<Hash, Pending> fetchPending() throws IOException {
+		final NodeEndpoint endpoint = Globals.NODE_ENDPOINT_POOL.select();
+		final long start = System.nanoTime();
+		final List<Transaction> transactions;
+		try {
+			transactions = Globals.TRANSPORT
+					.get(endpoint, SwiftApiId.ACCOUNT_UNCONFIRMED_TRANSACTIONS,
+							"address=" + this.cosigner.getAddress().getEncoded())
+					.join().readObjectArray("data", d -> d.readObject("transaction", TransactionFactory.VERIFIABLE));
+			Globals.NODE_ENDPOINT_POOL.recordSuccess(endpoint, System.nanoTime() - start);
+		} catch (CompletionException e) {
+			Globals.NODE_ENDPOINT_POOL.recordFailure(endpoint);
+			throw new IOException("could not fetch pending transactions", e.getCause());
+		}
+
+		final Map<Hash, Pending> pending = new LinkedHashMap<>();
+		for (final Transaction transaction : transactions) {
+			if (transaction instanceof MultisigTransaction) {
+				final Pending item = this.read((MultisigTransaction) transaction);
+				pending.put(item.getInnerHash(), item);
+			}
+		}
+		return pending;
+	}
+
+	/**
+	 * Checks pending multisig transactions against the policy, and cosigns and
+	 * announces the approved ones.
+	 *
+	 * @param pending the pending transactions
+	 * @param executor the executor that parses the node responses
+	 * @return the outcomes, in the order of the pending transactions
+	 */
+	public CompletableFuture<List<Outcome>> approve(Collection<Pending> pending, Executor executor) {
+		final List<CompletableFuture<Outcome>> outcomes = new ArrayList<>(pending.size());
+		final List<Pending> approved = new ArrayList<>();
+		final List<CompletableFuture<Outcome>> approvedOutcomes = new ArrayList<>();
+		for (final Pending item : pending) {
+			if (this.isSignedBy(item.getMultisig())) {
+				outcomes.add(CompletableFuture.completedFuture(new Outcome(item, Status.ALREADY_SIGNED, null, null)));
+				continue;
+			}
+			final String reason = this.check(item);
+			if (reason != null) {
+				outcomes.add(CompletableFuture.completedFuture(new Outcome(item, Status.POLICY_REJECTED, reason, null)));
+				continue;
+			}
+			final CompletableFuture<Outcome> outcome = new CompletableFuture<>();
+			approved.add(item);
+			approvedOutcomes.add(outcome);
+			outcomes.add(outcome);
+		}
+
+		if (!approved.isEmpty()) {
+			this.cosign(approved, approvedOutcomes, executor);
+		}
+		return CompletableFuture.allOf(outcomes.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+			final List<Outcome> results = outcomes.stream().map(CompletableFuture::join).collect(Collectors.toList());
+			LOGGER.info(String.format("cosigned %d of %d pending multisig transactions",
+					results.stream().filter(Outcome::isCosigned).count(), results.size()));
+			return results;
+		});
+	}
+
+	/**
+	 * Signs the approved transactions in parallel and announces them.
+	 *
+	 * @param approved the approved transactions
+	 * @param outcomes the outcomes to complete, in the same order
+	 * @param executor the executor that parses the node responses
+	 */
+	private void cosign(final List<Pending> approved, final List<CompletableFuture<Outcome>> outcomes,
+			final Executor executor) {
+		final TimeInstant timeInstant = Globals.TIME_PROVIDER.getCurrentTime();
+		final List<SignedTransaction> signed;
+		try {
+			signed = BlockchainTransactionService.signAll(approved,
+					item -> BlockchainTransactionService.createSignedMultisigSignatureTransaction(timeInstant,
+							this.cosigner, item.getMultisig()),
+					Globals.SIGNING_POOL);
+		} catch (RuntimeException e) {
+			LOGGER.warning(String.format("could not cosign: %s", RetryPolicy.unwrap(e).getMessage()));
+			for (int i = 0; i < approved.size(); i++) {
+				outcomes.get(i).complete(
+						new Outcome(approved.get(i), Status.FAILED, RetryPolicy.unwrap(e).getMessage(), null));
+			}
+			return;
+		}
+
+		for (int i = 0; i < signed.size(); i++) {
+			final Pending item = approved.get(i);
+			final CompletableFuture<Outcome> outcome = outcomes.get(i);
+			TransactionSenderUtil.sendTransactionAsync(signed.get(i), executor).whenComplete((result, e) -> {
+				if (e != null) {
+					outcome.complete(new Outcome(item, Status.FAILED, RetryPolicy.unwrap(e).getMessage(), null));
+				} else if (result.isSuccessful()) {
+					outcome.complete(new Outcome(item, Status.COSIGNED, null, result));
+				} else {
+					outcome.complete(new Outcome(item, Status.NODE_REJECTED,
+							result.getAnnounceResult().getMessage(), result));
+				}
+			});
+		}
+	}
+
+	/**
+	 * Checks a pending transaction against the policy.
+	 *
+	 * @param item the item
+	 * @return null if approved, else the reason it is rejected
+	 */
+	private String check(final Pending item) {
+		try {
+			return this.policy.check(item);
+		} catch (RuntimeException e) {
+			return "policy failed: " + e.getMessage();
+		}
+	}
+
+	/**
+	 * Checks if the cosigner initiated or already cosigned a multisig
+	 * transaction.
+	 *
+	 * @param multisig the multisig
+	 * @return true, if signed by the cosigner
+	 */
+	private boolean isSignedBy(final MultisigTransaction multisig) {
+		if (multisig.getSigner().getAddress().equals(this.cosigner.getAddress())) {
+			return true;
+		}
+		for (final MultisigSignatureTransaction signature : multisig.getCosignerSignatures()) {
+			if (signature.getSigner().getAddress().equals(this.cosigner.getAddress())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reads the SWIFT message of a pending transaction, where it can be
+	 * decoded.
+	 *
+	 * @param multisig the multisig
+	 * @return the pending transaction
+	 */
+	private Pending read(final MultisigTransaction multisig) {
+		final TransferTransaction transfer = SwiftTransfers.getTransfer(multisig);
+		String swiftMessage = null;
+		AbstractMT mt = null;
+		if (transfer != null) {
+			final Message message = transfer.getMessage();
+			try {
+				swiftMessage = SwiftTransfers.decode(message.getType(), message.getEncodedPayload(),
+						SwiftTransfers.getSender(multisig), this.reader == null ? this.cosigner : this.reader);
+				mt = AbstractMT.parse(swiftMessage);
+			} catch (IOException | RuntimeException e) {
+				LOGGER.fine(String.format("could not read the message of %s: %s", multisig.getOtherTransactionHash(),
+						e.getMessage()));
+			}
+		}
+		return new Pending(multisig, transfer, swiftMessage, mt);
+	}
+
+	/**
+	 * A multisig transaction waiting for cosignatures.
+	 */
+	public static class Pending {
+
+		/** The multisig transaction. */
+		private final MultisigTransaction multisig;
+
+		/** The inner transfer, null if the inner transaction is no transfer with a message. */
+		private final TransferTransaction transfer;
+
+		/** The SWIFT message text, null if it could not be decoded. */
+		private final String swiftMessage;
+
+		/** The SWIFT message, null if it could not be parsed. */
+		private final AbstractMT mt;
+
+		/** The currency of field 32A or 32B, null if absent. */
+		private final String currency;
+
+		/** The amount of field 32A or 32B, null if absent. */
+		private final BigDecimal amount;
+
+		/** The XEM the inner transfer moves, in micro XEM. */
+		private final long microXem;
+
+		/** Whether the inner transfer moves mosaics. */
+		private final boolean mosaics;
+
+		/**
+		 * Instantiates a new pending transaction.
+		 *
+		 * @param multisig the multisig transaction
+		 * @param transfer the inner transfer
+		 * @param swiftMessage the SWIFT message text
+		 * @param mt the SWIFT message
+		 */
+		public Pending(MultisigTransaction multisig, TransferTransaction transfer, String swiftMessage, AbstractMT mt) {
+			this.multisig = multisig;
+			this.transfer = transfer;
+			this.swiftMessage = swiftMessage;
+			this.mt = mt;
+
+			final SwiftBlock4 block4 = mt == null ? null : mt.getSwiftMessage().getBlock4();
+			String value = block4 == null ? null : block4.getTagValue("32A");
+			if (value == null && block4 != null) {
+				value = block4.getTagValue("32B");
+			}
+			final Matcher matcher = value == null ? null : AMOUNT.matcher(value.trim());
+			if (matcher != null && matcher.matches()) {
+				this.currency = matcher.group(1);
+				this.amount = new BigDecimal(matcher.group(2).replace(',', '.'));
+			} else {
+				this.currency = null;
+				this.amount = null;
+			}
+
+			final Transaction inner = multisig.getOtherTransaction();
+			if (inner instanceof TransferTransaction) {
+				final TransferTransaction innerTransfer = (TransferTransaction) inner;
+				this.mosaics = innerTransfer.getAttachment() != null
+						&& !innerTransfer.getAttachment().getMosaics().isEmpty();
+				// with mosaics attached the amount is a multiplier of their quantities, not XEM
+				this.microXem = this.mosaics ? 0L : innerTransfer.getAmount().getNumMicroNem();
+			} else {
+				this.mosaics = false;
+				this.microXem = 0L;
+			}
+		}
+
+		/**
+		 * Gets the multisig transaction.
+		 *
+		 * @return the multisig
+		 */
+		public MultisigTransaction getMultisig() {
+			return multisig;
+		}
+
+		/**
+		 * Gets the hash of the inner transaction, which cosignatures refer to.
+		 *
+		 * @return the inner hash
+		 */
+		public Hash getInnerHash() {
+			return multisig.getOtherTransactionHash();
+		}
+
+		/**
+		 * Gets the inner transfer.
+		 *
+		 * @return the transfer
+		 */
+		public TransferTransaction getTransfer() {
+			return transfer;
+		}
+
+		/**
+		 * Gets the SWIFT message text.
+		 *
+		 * @return the swift message
+		 */
+		public String getSwiftMessage() {
+			return swiftMessage;
+		}
+
+		/**
+		 * Gets the SWIFT message.
+		 *
+		 * @return the mt
+		 */
+		public AbstractMT getMt() {
+			return mt;
+		}
+
+		/**
+		 * Gets the currency of field 32A or 32B.
+		 *
+		 * @return the currency
+		 */
+		public String getCurrency() {
+			return currency;
+		}
+
+		/**
+		 * Gets the amount of field 32A or 32B.
+		 *
+		 * @return the amount
+		 */
+		public BigDecimal getAmount() {
+			return amount;
+		}
+
+		/**
+		 * Gets the XEM the inner transfer moves, in micro XEM.
+		 *
+		 * @return the micro xem
+		 */
+		public long getMicroXem() {
+			return microXem;
+		}
+
+		/**
+		 * Checks whether the inner transfer moves mosaics.
+		 *
+		 * @return true, if it has mosaics
+		 */
+		public boolean hasMosaics() {
+			return mosaics;
+		}
+
+		/* (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return "Pending [innerHash=" + getInnerHash() + ", currency=" + currency + ", amount=" + amount
+					+ ", microXem=" + microXem + ", mosaics=" + mosaics + "]";
+		}
+	}
+
+	/**
+	 * The outcome of a pending transaction.
+	 */
+	public static class Outcome {
+
+		/** The pending transaction. */
+		private final Pending pending;
+
+		/** The status. */
+		private final Status status;
+
+		/** The reason of a rejection or failure, null otherwise. */
+		private final String reason;
+
+		/** The announce result of the cosignature, null if it was not announced. */
+		private final SwiftAnnounceResult result;
+
+		/**
+		 * Instantiates a new outcome.
+		 *
+		 * @param pending the pending transaction
+		 * @param status the status
+		 * @param reason the reason
+		 * @param result the result
+		 */
+		Outcome(Pending pending, Status status, String reason, SwiftAnnounceResult result) {
+			this.pending = pending;
+			this.status = status;
+			this.reason = reason;
+			this.result = result;
+		}
+
+		/**
+		 * Gets the pending transaction.
+		 *
+		 * @return the pending
+		 */
+		public Pending getPending() {
+			return pending;
+		}
+
+		/**
+		 * Gets the hash of the inner transaction.
+		 *
+		 * @return the inner hash
+		 */
+		public Hash getInnerHash() {
+			return pending.getInnerHash();
+		}
+
+		/**
+		 * Gets the status.
+		 *
+		 * @return the status
+		 */
+		public Status getStatus() {
+			return status;
+		}
+
+		/**
+		 * Gets the reason of a rejection or failure.
+		 *
+		 * @return the reason
+		 */
+		public String getReason() {
+			return reason;
+		}
+
+		/**
+		 * Gets the announce result of the cosignature.
+		 *
+		 * @return the result
+		 */
+		public SwiftAnnounceResult getResult() {
+			return result;
+		}
+
+		/**
+		 * Checks if the node accepted the cosignature.
+		 *
+		 * @return true, if cosigned
+		 */
+		public boolean isCosigned() {
+			return status == Status.COSIGNED;
+		}
+
+		/* (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return "Outcome [innerHash=" + getInnerHash() + ", status=" + status + ", reason=" + reason + "]";
+		}
+	}
+}
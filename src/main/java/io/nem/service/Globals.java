@@ -1,11 +1,16 @@
 package io.nem.service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ForkJoinPool;
+
 import org.nem.core.connect.client.DefaultAsyncNemConnector;
 import org.nem.core.node.ApiId;
 import org.nem.core.node.NodeEndpoint;
 import org.nem.core.time.SystemTimeProvider;
 import org.nem.core.time.TimeProvider;
 
+import io.nem.connect.NisTransport;
 import io.nem.factories.ConnectorFactory;
 import io.nem.util.AppPropertiesUtil;
 
@@ -19,12 +24,77 @@ public class Globals {
 	/** The Constant TIME_PROVIDER. */
 	public static final TimeProvider TIME_PROVIDER = new SystemTimeProvider();
 	
-	/** The Constant NODE_ENDPOINT. */
-	public static final NodeEndpoint NODE_ENDPOINT = new NodeEndpoint(
+	/** The Constant MOCK_NODE, started when <code>node.mock.enabled=true</code>. */
+	private static final MockNisNode MOCK_NODE = MockNisNode.fromProperties();
+
+	/** The Constant NODE_ENDPOINT, the mock node when one is enabled. */
+	public static final NodeEndpoint NODE_ENDPOINT = MOCK_NODE != null ? MOCK_NODE.getEndpoint()
+			: new NodeEndpoint(
 			AppPropertiesUtil.getProperty("node.endpoint.protocol"),
 			AppPropertiesUtil.getProperty("node.endpoint.uri"), 
 			Integer.valueOf(AppPropertiesUtil.getProperty("node.endpoint.port")));
 	
 	/** The Constant CONNECTOR. */
 	public static final DefaultAsyncNemConnector<ApiId> CONNECTOR = ConnectorFactory.createConnector();
+
+	/** The Constant TRANSPORT, the connection to the nodes selected by <code>transport.type</code>. */
+	public static final NisTransport TRANSPORT = ConnectorFactory.createTransport(CONNECTOR);
+
+	/** The Constant NODE_ENDPOINT_POOL. */
+	public static final NodeEndpointPool NODE_ENDPOINT_POOL = MOCK_NODE != null
+			? NodeEndpointPool.forEndpoint(NODE_ENDPOINT)
+			: NodeEndpointPool.fromProperties(NODE_ENDPOINT);
+
+	/** The Constant SIGNING_POOL, sized by <code>signing.parallelism</code>. */
+	public static final ForkJoinPool SIGNING_POOL = new ForkJoinPool(getSigningParallelism());
+
+	/**
+	 * Gets the embedded mock NIS node all requests go to.
+	 *
+	 * @return the mock node, null unless <code>node.mock.enabled=true</code>
+	 */
+	public static MockNisNode getMockNode() {
+		return MOCK_NODE;
+	}
+
+	/**
+	 * Gets the outbox journal configured by <code>outbox.dir</code>, opened on
+	 * first use.
+	 *
+	 * @return the outbox journal, null if none is configured
+	 */
+	public static OutboxJournal getOutboxJournal() {
+		return OutboxHolder.JOURNAL;
+	}
+
+	/**
+	 * Gets the signing parallelism, one thread per core by default.
+	 *
+	 * @return the signing parallelism
+	 */
+	private static int getSigningParallelism() {
+		return AppPropertiesUtil.getIntProperty("signing.parallelism", Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Holds the outbox journal, so that it is opened only when used.
+	 */
+	private static class OutboxHolder {
+
+		/** The Constant JOURNAL. */
+		private static final OutboxJournal JOURNAL = open();
+
+		/**
+		 * Opens the journal.
+		 *
+		 * @return the outbox journal, null if none is configured
+		 */
+		private static OutboxJournal open() {
+			try {
+				return OutboxJournal.fromProperties();
+			} catch (IOException e) {
+				throw new UncheckedIOException("could not open outbox journal", e);
+			}
+		}
+	}
 }
\ No newline at end of file
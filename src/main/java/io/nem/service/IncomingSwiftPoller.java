@@ -0,0 +1,583 @@
+package io.nem.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import org.nem.core.crypto.Hash;
+import org.nem.core.messages.MessageTypes;
+import org.nem.core.model.Account;
+import org.nem.core.model.Message;
+import org.nem.core.model.TransferTransaction;
+import org.nem.core.model.ncc.TransactionMetaDataPair;
+import org.nem.core.node.NodeEndpoint;
+
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import io.nem.model.IncomingSwiftMessage;
+import io.nem.model.SwiftApiId;
+import io.nem.swift.transport.SwiftFragmentReassembler;
+import io.nem.swift.transport.SwiftPayloadFragment;
+import io.nem.util.AppPropertiesUtil;
+
+
+
+/**
+ * Polls the incoming transfers of an account and hands each SWIFT message
+ * found in them to a callback, oldest first.
+ *
+ * A poll pages <code>/account/transfers/incoming</code> from the newest
+ * transfer back to the cursor, the id of the last transfer read, and starts
+ * decrypting and parsing each page on the decode executor while the next one
+ * is fetched. Fragmented payloads are reassembled before decoding.
+ *
+ * After each poll the cursor is written to a file, held back before the first
+ * fragment of any message still being reassembled and before a message the
+ * callback failed on, so a restart reads them again. Delivery is at least
+ * once: a restart may deliver a message twice. A message whose callback
+ * throws is retried on the next poll before any later one is delivered. A
+ * fragment arriving after its message timed out in the reassembler makes the
+ * next poll read the earlier fragments again.
+ *
+ * Polls run back to back while transfers keep arriving. Once the chain head
+ * is reached the interval doubles up to the maximum, so an idle poller costs
+ * one request per maximum interval.
+ */
+public class IncomingSwiftPoller {
+
+	/** The Constant LOGGER. */
+	private static final Logger LOGGER = Logger.getLogger(IncomingSwiftPoller.class.getName());
+
+	/** The Constant PAGE_SIZE, the transfers NIS returns per page. */
+	private static final int PAGE_SIZE = 25;
+
+	/** The Constant DEFAULT_CURSOR_FILE. */
+	private static final String DEFAULT_CURSOR_FILE = "incoming.cursor";
+
+	/** The Constant DEFAULT_MIN_INTERVAL_MILLIS. */
+	private static final long DEFAULT_MIN_INTERVAL_MILLIS = 200;
+
+	/** The Constant DEFAULT_MAX_INTERVAL_MILLIS. */
+	private static final long DEFAULT_MAX_INTERVAL_MILLIS = 15000;
+
+	/** The Constant FRAGMENT_TIMEOUT_MILLIS. */
+	private static final long FRAGMENT_TIMEOUT_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+	/** The Constant MAX_PENDING_FRAGMENTED. */
+	private static final int MAX_PENDING_FRAGMENTED = 1024;
+
+	/** The recipient, holding the private key. */
+	private final Account recipient;
+
+	/** The cursor file. */
+	private final Path cursorFile;
+
+	/** The callback. */
+	private final Consumer<IncomingSwiftMessage> callback;
+
+	/** The nodes to poll. */
+	private final NodeEndpointPool endpoints;
+
+	/** The decode executor. */
+	private final Executor decodeExecutor;
+
+	/** The min interval. */
+	private final long minIntervalMillis;
+
+	/** The max interval. */
+	private final long maxIntervalMillis;
+
+	/** The reassembler of fragmented payloads. */
+	private final SwiftFragmentReassembler reassembler = new SwiftFragmentReassembler(MAX_PENDING_FRAGMENTED,
+			FRAGMENT_TIMEOUT_MILLIS);
+
+	/** The delivered message count. */
+	private final AtomicLong delivered = new AtomicLong();
+
+	/** The skipped transfer count. */
+	private final AtomicLong skipped = new AtomicLong();
+
+	/** The id of the first transfer of each message being reassembled, by message key. */
+	private final Map<String, Long> incomplete = new HashMap<>();
+
+	/** The id of the first transfer of each message dropped incomplete, by message key. */
+	private final Map<String, Long> dropped = new LinkedHashMap<String, Long>() {
+
+		/** The Constant serialVersionUID. */
+		private static final long serialVersionUID = 1L;
+
+		/* (non-Javadoc)
+		 * @see java.util.LinkedHashMap#removeEldestEntry(java.util.Map.Entry)
+		 */
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+			return this.size() > MAX_PENDING_FRAGMENTED;
+		}
+	};
+
+	/** The keys of dropped messages whose earlier fragments are read again. */
+	private final Set<String> recovering = new HashSet<>();
+
+	/** The cursor, the id of the last transfer read. */
+	private volatile long cursor;
+
+	/** The id of the newest transfer read, above the cursor while reading again. */
+	private long newest;
+
+	/** The cursor to read again from, Long.MAX_VALUE if none. */
+	private long rewindTo = Long.MAX_VALUE;
+
+	/** The cursor last written to the file. */
+	private long savedCursor;
+
+	/** The message the callback failed on, null if none. */
+	private IncomingSwiftMessage retry;
+
+	/** The id of the first transfer of the message the callback failed on. */
+	private long retryFrom;
+
+	/** The scheduler, null until started. */
+	private ScheduledExecutorService scheduler;
+
+	/** The current interval. */
+	private long intervalMillis;
+
+	/**
+	 * Instantiates a new incoming swift poller.
+	 *
+	 * @param recipient the recipient, holding the private key
+	 * @param cursorFile the cursor file, created on the first poll
+	 * @param callback the callback, called in transfer order on the polling thread
+	 * @param decodeExecutor the executor that decrypts and parses
+	 * @param minIntervalMillis the interval while transfers keep arriving
+	 * @param maxIntervalMillis the interval at the chain head
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public IncomingSwiftPoller(Account recipient, Path cursorFile, Consumer<IncomingSwiftMessage> callback,
+			Executor decodeExecutor, long minIntervalMillis, long maxIntervalMillis) throws IOException {
+		this(recipient, cursorFile, callback, Globals.NODE_ENDPOINT_POOL, decodeExecutor, minIntervalMillis,
+				maxIntervalMillis);
+	}
+
+	/**
+	 * Instantiates a new incoming swift poller reading from the given nodes.
+	 *
+	 * @param recipient the recipient, holding the private key
+	 * @param cursorFile the cursor file, created on the first poll
+	 * @param callback the callback, called in transfer order on the polling thread
+	 * @param endpoints the nodes to poll
+	 * @param decodeExecutor the executor that decrypts and parses
+	 * @param minIntervalMillis the interval while transfers keep arriving
+	 * @param maxIntervalMillis the interval at the chain head
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public IncomingSwiftPoller(Account recipient, Path cursorFile, Consumer<IncomingSwiftMessage> callback,
+			NodeEndpointPool endpoints, Executor decodeExecutor, long minIntervalMillis, long maxIntervalMillis)
+			throws IOException {
+		this.recipient = recipient;
+		this.cursorFile = cursorFile;
+		this.callback = callback;
+		this.endpoints = endpoints;
+		this.decodeExecutor = decodeExecutor;
+		this.minIntervalMillis = minIntervalMillis;
+		this.maxIntervalMillis = Math.max(minIntervalMillis, maxIntervalMillis);
+		this.intervalMillis = minIntervalMillis;
+		this.cursor = Files.exists(cursorFile)
+				? Long.parseLong(new String(Files.readAllBytes(cursorFile), StandardCharsets.UTF_8).trim())
+				: 0L;
+		this.newest = this.cursor;
+		this.savedCursor = this.cursor;
+	}
+
+	/**
+	 * Creates a poller configured from app.properties.
+	 *
+	 * @param recipient the recipient, holding the private key
+	 * @param callback the callback
+	 * @param decodeExecutor the executor that decrypts and parses
+	 * @return the incoming swift poller
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static IncomingSwiftPoller fromProperties(Account recipient, Consumer<IncomingSwiftMessage> callback,
+			Executor decodeExecutor) throws IOException {
+		final String cursorFile = AppPropertiesUtil.getProperty("incoming.cursor.file");
+		return new IncomingSwiftPoller(recipient, Paths.get(cursorFile == null ? DEFAULT_CURSOR_FILE : cursorFile.trim()),
+				callback, decodeExecutor,
+				AppPropertiesUtil.getLongProperty("incoming.poll.min.millis", DEFAULT_MIN_INTERVAL_MILLIS),
+				AppPropertiesUtil.getLongProperty("incoming.poll.max.millis", DEFAULT_MAX_INTERVAL_MILLIS));
+	}
+
+	/**
+	 * Starts polling on a daemon thread.
+	 */
+	public synchronized void start() {
+		if (this.scheduler != null) {
+			return;
+		}
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			final Thread thread = new Thread(r, "nem-incoming-poller");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.scheduler.execute(this::pollAndReschedule);
+	}
+
+	/**
+	 * Stops polling.
+	 */
+	public synchronized void stop() {
+		if (this.scheduler != null) {
+			this.scheduler.shutdownNow();
+			this.scheduler = null;
+		}
+	}
+
+	/**
+	 * Delivers every transfer newer than the cursor and moves the cursor. A
+	 * message the callback failed on in the last poll is delivered first.
+	 *
+	 * @return the number of transfers read
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws RuntimeException the callback failed again on the message it failed on in the last poll
+	 */
+	public synchronized int pollOnce() throws IOException {
+		if (this.retry != null) {
+			this.callback.accept(this.retry);
+			this.delivered.incrementAndGet();
+			this.retry = null;
+		}
+
+		final long from = this.cursor;
+		final List<CompletableFuture<Received>> received = new ArrayList<>();
+		Long pageId = null;
+		boolean reachedCursor = false;
+		while (!reachedCursor) {
+			final List<TransactionMetaDataPair> page = this.fetch(pageId);
+			for (final TransactionMetaDataPair pair : page) {
+				if (pair.getMetaData().getId() <= from) {
+					reachedCursor = true;
+					break;
+				}
+				received.add(CompletableFuture.supplyAsync(() -> this.decode(pair), this.decodeExecutor));
+			}
+			if (page.size() < PAGE_SIZE) {
+				break;
+			}
+			pageId = page.get(page.size() - 1).getMetaData().getId();
+		}
+
+		Collections.reverse(received);
+		try {
+			for (final CompletableFuture<Received> future : received) {
+				if (!this.deliver(future.join())) {
+					break;
+				}
+			}
+		} finally {
+			if (this.rewindTo < this.cursor) {
+				this.cursor = this.rewindTo;
+			}
+			this.rewindTo = Long.MAX_VALUE;
+			this.releaseDropped();
+			this.saveCursor();
+		}
+		return received.size();
+	}
+
+	/**
+	 * Gets the cursor, the id of the last transfer read. The cursor file may
+	 * hold an earlier one, see the class comment.
+	 *
+	 * @return the cursor
+	 */
+	public long getCursor() {
+		return cursor;
+	}
+
+	/**
+	 * Gets the number of delivered messages.
+	 *
+	 * @return the delivered count
+	 */
+	public long getDelivered() {
+		return delivered.get();
+	}
+
+	/**
+	 * Gets the number of transfers skipped as not carrying a SWIFT message
+	 * for this account.
+	 *
+	 * @return the skipped count
+	 */
+	public long getSkipped() {
+		return skipped.get();
+	}
+
+	/**
+	 * Polls and schedules the next poll, sooner while transfers arrive.
+	 */
+	private void pollAndReschedule() {
+		try {
+			this.reassembler.expire();
+			this.intervalMillis = this.pollOnce() > 0 ? this.minIntervalMillis
+					: Math.min(this.intervalMillis * 2, this.maxIntervalMillis);
+		} catch (IOException | RuntimeException e) {
+			LOGGER.warning(String.format("incoming poll failed: %s", e.getMessage()));
+			this.intervalMillis = Math.min(this.intervalMillis * 2, this.maxIntervalMillis);
+		}
+
+		synchronized (this) {
+			if (this.scheduler != null) {
+				this.scheduler.schedule(this::pollAndReschedule, this.intervalMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+
+	/**
+	 * Fetches one page of incoming transfers, newest first.
+	 *
+	 * @param id the id to page back from, null for the newest page
+	 * @return the page
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private List<TransactionMetaDataPair> fetch(final Long id) throws IOException {
+		final String query = "address=" + this.recipient.getAddress().getEncoded() + (id == null ? "" : "&id=" + id);
+		final NodeEndpoint endpoint = this.endpoints.select();
+		final long start = System.nanoTime();
+		try {
+			final List<TransactionMetaDataPair> page = Globals.TRANSPORT
+					.get(endpoint, SwiftApiId.ACCOUNT_TRANSFERS_INCOMING, query).join()
+					.readObjectArray("data", TransactionMetaDataPair::new);
+			this.endpoints.recordSuccess(endpoint, System.nanoTime() - start);
+			return page;
+		} catch (CompletionException e) {
+			this.endpoints.recordFailure(endpoint);
+			throw new IOException("could not fetch incoming transfers", e.getCause());
+		}
+	}
+
+	/**
+	 * Decodes a transfer; runs on the decode executor.
+	 *
+	 * @param pair the transfer with its meta data
+	 * @return the received transfer
+	 */
+	private Received decode(final TransactionMetaDataPair pair) {
+		final Received received = new Received(pair);
+		final TransferTransaction transfer = SwiftTransfers.getTransfer(pair.getEntity());
+		if (transfer == null) {
+			return received;
+		}
+
+		final Message message = transfer.getMessage();
+		final byte[] payload = message.getEncodedPayload();
+		if (message.getType() == MessageTypes.PLAIN && SwiftPayloadFragment.isFragment(payload)) {
+			try {
+				received.fragment = SwiftPayloadFragment.fromBytes(payload);
+			} catch (IllegalArgumentException e) {
+				LOGGER.warning(String.format("corrupt fragment in transfer %d: %s", received.id, e.getMessage()));
+			}
+			return received;
+		}
+
+		received.message = this.decode(received, message.getType(), payload);
+		return received;
+	}
+
+	/**
+	 * Decrypts, uncompresses and parses a payload.
+	 *
+	 * @param received the received transfer
+	 * @param messageType the message type
+	 * @param payload the payload
+	 * @return the message, null if the payload holds no SWIFT message for this account
+	 */
+	private IncomingSwiftMessage decode(final Received received, final int messageType, final byte[] payload) {
+		try {
+			final String swiftMessage = SwiftTransfers.decode(messageType, payload, received.sender, this.recipient);
+			final AbstractMT mt = AbstractMT.parse(swiftMessage);
+			return mt == null ? null
+					: new IncomingSwiftMessage(received.id, received.hash, received.height, received.sender,
+							swiftMessage, mt);
+		} catch (IOException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Hands a received transfer to the callback and moves the cursor past it.
+	 * Transfers read again after a rewind only feed the fragments of the
+	 * messages being recovered.
+	 *
+	 * @param received the received transfer
+	 * @return false if the callback failed, ending the poll
+	 */
+	private boolean deliver(final Received received) {
+		final boolean readBefore = received.id <= this.newest;
+		this.newest = Math.max(this.newest, received.id);
+		IncomingSwiftMessage message = received.message;
+		long from = received.id;
+		if (received.fragment != null) {
+			final String sender = received.sender.getAddress().getEncoded();
+			final String key = SwiftFragmentReassembler.key(sender, received.fragment.getMessageId());
+			if (readBefore && !this.recovering.contains(key)) {
+				this.cursor = received.id;
+				return true;
+			}
+
+			this.reassembler.expire();
+			Long first = this.incomplete.get(key);
+			if (first != null && !this.reassembler.isPending(key)) {
+				this.incomplete.remove(key);
+				this.dropped.put(key, first);
+			}
+			final Long droppedFrom = this.dropped.remove(key);
+			if (droppedFrom != null) {
+				LOGGER.warning(String.format("late fragment of message %s in transfer %d, reading from transfer %d again",
+						key, received.id, droppedFrom));
+				this.recovering.add(key);
+				this.rewindTo = Math.min(this.rewindTo, droppedFrom - 1);
+				first = droppedFrom;
+			}
+			from = first == null ? received.id : Math.min(first, received.id);
+
+			final byte[] payload = this.reassembler.offer(sender, received.fragment);
+			if (payload == null && this.reassembler.isPending(key)) {
+				this.incomplete.put(key, from);
+				this.cursor = received.id;
+				return true;
+			}
+			this.incomplete.remove(key);
+			this.recovering.remove(key);
+			if (payload == null) {
+				this.cursor = received.id;
+				return true;
+			}
+			message = this.decode(received, received.fragment.getMessageType(), payload);
+		} else if (readBefore) {
+			this.cursor = received.id;
+			return true;
+		}
+
+		if (message == null) {
+			this.skipped.incrementAndGet();
+		} else {
+			try {
+				this.callback.accept(message);
+				this.delivered.incrementAndGet();
+			} catch (RuntimeException e) {
+				LOGGER.warning(String.format("incoming callback failed for transfer %d: %s", received.id,
+						e.getMessage()));
+				this.retry = message;
+				this.retryFrom = from;
+				this.cursor = received.id;
+				return false;
+			}
+		}
+		this.cursor = received.id;
+		return true;
+	}
+
+	/**
+	 * Moves the messages the reassembler dropped, on timeout or on a full
+	 * buffer, from the incomplete to the dropped ones.
+	 */
+	private void releaseDropped() {
+		final Iterator<Map.Entry<String, Long>> iterator = this.incomplete.entrySet().iterator();
+		while (iterator.hasNext()) {
+			final Map.Entry<String, Long> entry = iterator.next();
+			if (!this.reassembler.isPending(entry.getKey())) {
+				iterator.remove();
+				this.recovering.remove(entry.getKey());
+				this.dropped.put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Gets the cursor to write, before the first transfer of every message
+	 * being reassembled and of the message the callback failed on.
+	 *
+	 * @return the cursor to write
+	 */
+	private long getSafeCursor() {
+		long safe = this.cursor;
+		for (final long first : this.incomplete.values()) {
+			safe = Math.min(safe, first - 1);
+		}
+		return this.retry == null ? safe : Math.min(safe, this.retryFrom - 1);
+	}
+
+	/**
+	 * Writes the safe cursor if it moved, replacing the file atomically.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private void saveCursor() throws IOException {
+		final long safe = this.getSafeCursor();
+		if (safe == this.savedCursor) {
+			return;
+		}
+		final Path temp = this.cursorFile.resolveSibling(this.cursorFile.getFileName() + ".tmp");
+		Files.write(temp, Long.toString(safe).getBytes(StandardCharsets.UTF_8));
+		Files.move(temp, this.cursorFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		this.savedCursor = safe;
+	}
+
+	/**
+	 * A transfer read from the node.
+	 */
+	private static class Received {
+
+		/** The id. */
+		private final long id;
+
+		/** The hash. */
+		private final Hash hash;
+
+		/** The height. */
+		private final long height;
+
+		/** The sender. */
+		private final Account sender;
+
+		/** The decoded message, null if none. */
+		private IncomingSwiftMessage message;
+
+		/** The fragment, null if the transfer holds a whole payload. */
+		private SwiftPayloadFragment fragment;
+
+		/**
+		 * Instantiates a new received transfer.
+		 *
+		 * @param pair the pair
+		 */
+		Received(TransactionMetaDataPair pair) {
+			this.id = pair.getMetaData().getId();
+			this.hash = pair.getMetaData().getHash();
+			this.height = pair.getMetaData().getHeight().getRaw();
+			this.sender = SwiftTransfers.getSender(pair.getEntity());
+		}
+	}
+}
@@ -0,0 +1,650 @@
+package io.nem.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.nem.core.crypto.Hash;
+import org.nem.core.crypto.Hashes;
+import org.nem.core.crypto.Signature;
+import org.nem.core.model.Account;
+import org.nem.core.model.MultisigSignatureTransaction;
+import org.nem.core.model.MultisigTransaction;
+import org.nem.core.model.Transaction;
+import org.nem.core.model.TransactionFactory;
+import org.nem.core.model.TransferTransaction;
+import org.nem.core.model.ValidationResult;
+import org.nem.core.model.ncc.NemAnnounceResult;
+import org.nem.core.model.ncc.RequestAnnounce;
+import org.nem.core.model.ncc.TransactionMetaData;
+import org.nem.core.model.ncc.TransactionMetaDataPair;
+import org.nem.core.model.primitive.BlockHeight;
+import org.nem.core.node.NodeEndpoint;
+import org.nem.core.serialization.BinaryDeserializer;
+import org.nem.core.serialization.BinarySerializer;
+import org.nem.core.serialization.DeserializationContext;
+import org.nem.core.serialization.JsonDeserializer;
+import org.nem.core.serialization.JsonSerializer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.nem.util.AppPropertiesUtil;
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import net.minidev.json.JSONValue;
+
+
+
+/**
+ * An embedded stand-in for a NIS node, for load tests and offline runs.
+ *
+ * It serves <code>/transaction/announce</code>,
+ * <code>/account/transfers/incoming</code>, <code>/transaction/get</code> and
+ * <code>/account/unconfirmedTransactions</code> on the loopback interface.
+ * Announced transactions are checked like NIS does for the parts this
+ * library relies on (signature, deadline, duplicate hash) and kept in an
+ * in-memory ledger in which every accepted transaction is confirmed at once,
+ * in a block of its own. A multisig transaction stays unconfirmed until one
+ * cosignature for it is announced, as for a 2 of n multisig account; the mock
+ * knows no multisig accounts, so it lists every unconfirmed multisig
+ * transaction to any account that asks. Responses can be delayed by a
+ * fixed latency plus random jitter, a share of requests can fail with an HTTP
+ * 500, and announces can be capped to a number per second: excess announces
+ * are queued, and answered with a full transaction cache once the queue is
+ * longer than its limit. Delays are served by a scheduler, so a slow mock
+ * does not hold request threads.
+ *
+ * With <code>node.mock.enabled=true</code>, {@link Globals} starts one and
+ * sends every request to it instead of the configured nodes.
+ */
+public class MockNisNode implements Closeable {
+
+	/** The Constant LOGGER. */
+	private static final Logger LOGGER = Logger.getLogger(MockNisNode.class.getName());
+
+	/** The Constant PAGE_SIZE, as served by NIS. */
+	private static final int PAGE_SIZE = 25;
+
+	/** The Constant DEFAULT_QUEUE_MILLIS. */
+	private static final long DEFAULT_QUEUE_MILLIS = 5000;
+
+	/** The latency. */
+	private final long latencyMillis;
+
+	/** The jitter added to the latency at random. */
+	private final long jitterMillis;
+
+	/** The share of requests that fail. */
+	private final double errorRate;
+
+	/** The time between two announces at the throughput cap, 0 for no cap. */
+	private final long announceIntervalNanos;
+
+	/** The longest an announce may be queued by the throughput cap. */
+	private final long maxQueueNanos;
+
+	/** The server. */
+	private final HttpServer server;
+
+	/** The request threads. */
+	private final ExecutorService requestExecutor;
+
+	/** The response scheduler. */
+	private final ScheduledExecutorService responseScheduler;
+
+	/** The time the next capped announce may be served. */
+	private final AtomicLong nextAnnounceNanos = new AtomicLong(System.nanoTime());
+
+	/** The ledger by hash. */
+	private final Map<Hash, TransactionMetaDataPair> ledger = new ConcurrentHashMap<>();
+
+	/** The unconfirmed multisig transactions by inner transaction hash, oldest first. */
+	private final Map<Hash, MultisigTransaction> unconfirmed = new LinkedHashMap<>();
+
+	/** The incoming transfers by recipient address, oldest first. */
+	private final Map<String, List<TransactionMetaDataPair>> incoming = new ConcurrentHashMap<>();
+
+	/** The last block height, one block per accepted transaction. */
+	private final AtomicLong height = new AtomicLong(1);
+
+	/** The announces accepted. */
+	private final AtomicLong accepted = new AtomicLong();
+
+	/** The announces rejected. */
+	private final AtomicLong rejected = new AtomicLong();
+
+	/** The requests failed on purpose. */
+	private final AtomicLong injectedErrors = new AtomicLong();
+
+	/**
+	 * Instantiates and starts a new mock NIS node.
+	 *
+	 * @param port the port, 0 for any free port
+	 * @param latencyMillis the response latency
+	 * @param jitterMillis the most random latency added
+	 * @param errorRate the share of requests that fail, between 0 and 1
+	 * @param maxAnnouncesPerSecond the throughput cap, 0 for none
+	 * @param maxQueueMillis the longest an announce may wait for the cap
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public MockNisNode(int port, long latencyMillis, long jitterMillis, double errorRate, int maxAnnouncesPerSecond,
+			long maxQueueMillis) throws IOException {
+		this.latencyMillis = latencyMillis;
+		this.jitterMillis = jitterMillis;
+		this.errorRate = errorRate;
+		this.announceIntervalNanos = maxAnnouncesPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxAnnouncesPerSecond
+				: 0;
+		this.maxQueueNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueMillis);
+
+		final AtomicInteger threads = new AtomicInteger();
+		this.requestExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+			final Thread thread = new Thread(r, "nem-mock-nis-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.responseScheduler = Executors.newScheduledThreadPool(2, r -> {
+			final Thread thread = new Thread(r, "nem-mock-nis-response");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+		this.server.createContext("/transaction/announce", this::handleAnnounce);
+		this.server.createContext("/account/transfers/incoming", this::handleIncoming);
+		this.server.createContext("/transaction/get", this::handleGet);
+		this.server.createContext("/account/unconfirmedTransactions", this::handleUnconfirmed);
+		this.server.setExecutor(this.requestExecutor);
+		this.server.start();
+		LOGGER.info(String.format("mock NIS node listening on %s", this.getEndpoint()));
+	}
+
+	/**
+	 * Starts the mock node configured in app.properties when
+	 * <code>node.mock.enabled=true</code>: <code>node.mock.port</code>,
+	 * <code>node.mock.latency.millis</code>,
+	 * <code>node.mock.jitter.millis</code>, <code>node.mock.error.rate</code>,
+	 * <code>node.mock.max.tps</code> and <code>node.mock.queue.millis</code>.
+	 *
+	 * @return the mock node, null if it is not enabled
+	 */
+	public static MockNisNode fromProperties() {
+		if (!"true".equalsIgnoreCase(AppPropertiesUtil.getProperty("node.mock.enabled"))) {
+			return null;
+		}
+
+		try {
+			return new MockNisNode(AppPropertiesUtil.getIntProperty("node.mock.port", 0),
+					AppPropertiesUtil.getLongProperty("node.mock.latency.millis", 0),
+					AppPropertiesUtil.getLongProperty("node.mock.jitter.millis", 0),
+					AppPropertiesUtil.getDoubleProperty("node.mock.error.rate", 0),
+					AppPropertiesUtil.getIntProperty("node.mock.max.tps", 0),
+					AppPropertiesUtil.getLongProperty("node.mock.queue.millis", DEFAULT_QUEUE_MILLIS));
+		} catch (IOException e) {
+			throw new IllegalStateException("could not start mock NIS node", e);
+		}
+	}
+
+	/**
+	 * Gets the endpoint to send requests to.
+	 *
+	 * @return the endpoint
+	 */
+	public NodeEndpoint getEndpoint() {
+		return new NodeEndpoint("http", "localhost", this.server.getAddress().getPort());
+	}
+
+	/**
+	 * Gets a transaction of the ledger.
+	 *
+	 * @param hash the hash
+	 * @return the transaction with its meta data, null if unknown
+	 */
+	public TransactionMetaDataPair getTransaction(Hash hash) {
+		return this.ledger.get(hash);
+	}
+
+	/**
+	 * Gets the number of transactions in the ledger.
+	 *
+	 * @return the ledger size
+	 */
+	public int getLedgerSize() {
+		return this.ledger.size();
+	}
+
+	/**
+	 * Gets the number of multisig transactions waiting for a cosignature.
+	 *
+	 * @return the unconfirmed count
+	 */
+	public int getUnconfirmedSize() {
+		synchronized (this.unconfirmed) {
+			return this.unconfirmed.size();
+		}
+	}
+
+	/**
+	 * Gets the number of announces accepted.
+	 *
+	 * @return the accepted count
+	 */
+	public long getAccepted() {
+		return accepted.get();
+	}
+
+	/**
+	 * Gets the number of announces rejected.
+	 *
+	 * @return the rejected count
+	 */
+	public long getRejected() {
+		return rejected.get();
+	}
+
+	/**
+	 * Gets the number of requests failed on purpose.
+	 *
+	 * @return the injected errors
+	 */
+	public long getInjectedErrors() {
+		return injectedErrors.get();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() {
+		this.server.stop(0);
+		this.responseScheduler.shutdownNow();
+		this.requestExecutor.shutdownNow();
+	}
+
+	/**
+	 * Handles <code>POST /transaction/announce</code>.
+	 *
+	 * @param exchange the exchange
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private void handleAnnounce(HttpExchange exchange) throws IOException {
+		if (this.injectError(exchange)) {
+			return;
+		}
+
+		final long queuedNanos = this.reserveAnnounceSlot();
+		final NemAnnounceResult result;
+		if (queuedNanos < 0) {
+			result = new NemAnnounceResult(ValidationResult.FAILURE_TRANSACTION_CACHE_TOO_FULL);
+		} else {
+			try {
+				result = this.announce(new RequestAnnounce(deserializer(readBody(exchange))));
+			} catch (RuntimeException e) {
+				this.respond(exchange, 400, error(400, "Bad Request", e.getMessage()), 0);
+				return;
+			}
+		}
+
+		(result.getCode() == ValidationResult.SUCCESS.getValue() ? this.accepted : this.rejected).incrementAndGet();
+		this.respond(exchange, 200, JsonSerializer.serializeToJson(result), Math.max(0, queuedNanos));
+	}
+
+	/**
+	 * Handles <code>GET /account/transfers/incoming?address=...[&amp;id=...]</code>,
+	 * newest first.
+	 *
+	 * @param exchange the exchange
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private void handleIncoming(HttpExchange exchange) throws IOException {
+		if (this.injectError(exchange)) {
+			return;
+		}
+
+		final Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+		final String address = query.get("address");
+		final Long id;
+		try {
+			id = query.containsKey("id") ? Long.valueOf(query.get("id")) : null;
+		} catch (NumberFormatException e) {
+			this.respond(exchange, 400, error(400, "Bad Request", "invalid id: " + query.get("id")), 0);
+			return;
+		}
+		final List<TransactionMetaDataPair> transfers = address == null ? null : this.incoming.get(address);
+
+		final JSONArray page = new JSONArray();
+		if (transfers != null) {
+			synchronized (transfers) {
+				for (int i = transfers.size() - 1; i >= 0 && page.size() < PAGE_SIZE; i--) {
+					final TransactionMetaDataPair pair = transfers.get(i);
+					if (id == null || pair.getMetaData().getId() < id) {
+						page.add(JsonSerializer.serializeToJson(pair));
+					}
+				}
+			}
+		}
+
+		final JSONObject response = new JSONObject();
+		response.put("data", page);
+		this.respond(exchange, 200, response, 0);
+	}
+
+	/**
+	 * Handles <code>GET /transaction/get?hash=...</code>.
+	 *
+	 * @param exchange the exchange
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private void handleGet(HttpExchange exchange) throws IOException {
+		if (this.injectError(exchange)) {
+			return;
+		}
+
+		final String hash = parseQuery(exchange.getRequestURI().getRawQuery()).get("hash");
+		if (hash == null) {
+			this.respond(exchange, 400, error(400, "Bad Request", "Neither transaction id nor hash was supplied"), 0);
+			return;
+		}
+
+		final TransactionMetaDataPair pair;
+		try {
+			pair = this.ledger.get(Hash.fromHexString(hash));
+		} catch (RuntimeException e) {
+			this.respond(exchange, 400, error(400, "Bad Request", "invalid hash: " + hash), 0);
+			return;
+		}
+		if (pair == null) {
+			this.respond(exchange, 404, error(404, "Not Found", "Hash was not found in cache"), 0);
+		} else {
+			this.respond(exchange, 200, JsonSerializer.serializeToJson(pair), 0);
+		}
+	}
+
+	/**
+	 * Handles <code>GET /account/unconfirmedTransactions?address=...</code>.
+	 *
+	 * @param exchange the exchange
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private void handleUnconfirmed(HttpExchange exchange) throws IOException {
+		if (this.injectError(exchange)) {
+			return;
+		}
+
+		if (parseQuery(exchange.getRequestURI().getRawQuery()).get("address") == null) {
+			this.respond(exchange, 400, error(400, "Bad Request", "address was not supplied"), 0);
+			return;
+		}
+
+		final JSONArray data = new JSONArray();
+		synchronized (this.unconfirmed) {
+			for (final Map.Entry<Hash, MultisigTransaction> entry : this.unconfirmed.entrySet()) {
+				final JSONObject meta = new JSONObject();
+				meta.put("data", entry.getKey().toString());
+				final JSONObject pair = new JSONObject();
+				pair.put("meta", meta);
+				pair.put("transaction", JsonSerializer.serializeToJson(entry.getValue()));
+				data.add(pair);
+			}
+		}
+
+		final JSONObject response = new JSONObject();
+		response.put("data", data);
+		this.respond(exchange, 200, response, 0);
+	}
+
+	/**
+	 * Validates an announce and adds it to the ledger.
+	 *
+	 * @param request the request
+	 * @return the result
+	 */
+	private NemAnnounceResult announce(RequestAnnounce request) {
+		final DeserializationContext context = new DeserializationContext(Account::new);
+		final Transaction transaction = TransactionFactory.NON_VERIFIABLE
+				.deserialize(new BinaryDeserializer(request.getData(), context));
+		transaction.setSignature(new Signature(request.getSignature()));
+		final Hash hash = new Hash(Hashes.sha3_256(request.getData()));
+
+		if (!transaction.verify()) {
+			return new NemAnnounceResult(ValidationResult.FAILURE_SIGNATURE_NOT_VERIFIABLE);
+		}
+		if (transaction.getDeadline().compareTo(Globals.TIME_PROVIDER.getCurrentTime()) < 0) {
+			return new NemAnnounceResult(ValidationResult.FAILURE_PAST_DEADLINE);
+		}
+
+		if (transaction instanceof MultisigSignatureTransaction) {
+			return this.cosign(((MultisigSignatureTransaction) transaction).getOtherTransactionHash(), hash);
+		}
+		if (transaction instanceof MultisigTransaction) {
+			final Hash innerHash = ((MultisigTransaction) transaction).getOtherTransactionHash();
+			synchronized (this.unconfirmed) {
+				if (this.ledger.containsKey(hash) || this.unconfirmed.putIfAbsent(innerHash,
+						(MultisigTransaction) transaction) != null) {
+					return new NemAnnounceResult(ValidationResult.NEUTRAL);
+				}
+			}
+			return new NemAnnounceResult(ValidationResult.SUCCESS, hash, innerHash);
+		}
+		return this.confirm(transaction, hash);
+	}
+
+	/**
+	 * Confirms the multisig transaction a cosignature is for.
+	 *
+	 * @param innerHash the hash of the inner transaction
+	 * @param hash the hash of the cosignature
+	 * @return the result
+	 */
+	private NemAnnounceResult cosign(Hash innerHash, Hash hash) {
+		final MultisigTransaction multisig;
+		synchronized (this.unconfirmed) {
+			multisig = this.unconfirmed.remove(innerHash);
+		}
+		if (multisig == null) {
+			return new NemAnnounceResult(ValidationResult.FAILURE_MULTISIG_NO_MATCHING_MULTISIG);
+		}
+		this.confirm(multisig, new Hash(Hashes.sha3_256(BinarySerializer.serializeToBytes(multisig.asNonVerifiable()))));
+		return new NemAnnounceResult(ValidationResult.SUCCESS, hash, innerHash);
+	}
+
+	/**
+	 * Adds a transaction to the ledger, in a block of its own.
+	 *
+	 * @param transaction the transaction
+	 * @param hash the hash
+	 * @return the result
+	 */
+	private NemAnnounceResult confirm(Transaction transaction, Hash hash) {
+		final long blockHeight = this.height.incrementAndGet();
+		final TransactionMetaDataPair pair = new TransactionMetaDataPair(transaction,
+				new TransactionMetaData(new BlockHeight(blockHeight), blockHeight, hash));
+		if (this.ledger.putIfAbsent(hash, pair) != null) {
+			return new NemAnnounceResult(ValidationResult.NEUTRAL);
+		}
+
+		final Transaction inner = transaction instanceof MultisigTransaction
+				? ((MultisigTransaction) transaction).getOtherTransaction()
+				: transaction;
+		if (inner instanceof TransferTransaction) {
+			final String recipient = ((TransferTransaction) inner).getRecipient().getAddress().getEncoded();
+			final List<TransactionMetaDataPair> transfers = this.incoming.computeIfAbsent(recipient,
+					k -> new ArrayList<>());
+			synchronized (transfers) {
+				transfers.add(pair);
+			}
+		}
+		return new NemAnnounceResult(ValidationResult.SUCCESS, hash, null);
+	}
+
+	/**
+	 * Takes the next announce slot of the throughput cap.
+	 *
+	 * @return the time to wait for the slot, -1 if the queue is full
+	 */
+	private long reserveAnnounceSlot() {
+		if (this.announceIntervalNanos == 0) {
+			return 0;
+		}
+		while (true) {
+			final long now = System.nanoTime();
+			final long next = this.nextAnnounceNanos.get();
+			final long slot = Math.max(now, next);
+			if (slot - now > this.maxQueueNanos) {
+				return -1;
+			}
+			if (this.nextAnnounceNanos.compareAndSet(next, slot + this.announceIntervalNanos)) {
+				return slot - now;
+			}
+		}
+	}
+
+	/**
+	 * Fails the request with an HTTP 500 at the configured rate.
+	 *
+	 * @param exchange the exchange
+	 * @return true, if the request was failed
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private boolean injectError(HttpExchange exchange) throws IOException {
+		if (this.errorRate <= 0 || ThreadLocalRandom.current().nextDouble() >= this.errorRate) {
+			return false;
+		}
+		this.injectedErrors.incrementAndGet();
+		readBody(exchange);
+		this.respond(exchange, 500, error(500, "Internal Server Error", "injected failure"), 0);
+		return true;
+	}
+
+	/**
+	 * Sends a JSON response after the configured latency and the given delay.
+	 *
+	 * @param exchange the exchange
+	 * @param status the HTTP status
+	 * @param body the body
+	 * @param extraDelayNanos the delay on top of the latency
+	 */
+	private void respond(HttpExchange exchange, int status, JSONObject body, long extraDelayNanos) {
+		final byte[] bytes = body.toJSONString().getBytes(StandardCharsets.UTF_8);
+		final long delayNanos = extraDelayNanos + TimeUnit.MILLISECONDS.toNanos(this.latencyMillis
+				+ (this.jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(this.jitterMillis + 1) : 0));
+		if (delayNanos <= 0) {
+			send(exchange, status, bytes);
+		} else {
+			this.responseScheduler.schedule(() -> send(exchange, status, bytes), delayNanos, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Writes a response and closes the exchange.
+	 *
+	 * @param exchange the exchange
+	 * @param status the HTTP status
+	 * @param bytes the body
+	 */
+	private static void send(HttpExchange exchange, int status, byte[] bytes) {
+		try {
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status, bytes.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		} catch (IOException e) {
+			LOGGER.fine(String.format("could not answer %s: %s", exchange.getRequestURI(), e.getMessage()));
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Reads a request body.
+	 *
+	 * @param exchange the exchange
+	 * @return the body
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static String readBody(HttpExchange exchange) throws IOException {
+		final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[4096];
+		try (InputStream in = exchange.getRequestBody()) {
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				body.write(buffer, 0, read);
+			}
+		}
+		return new String(body.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Creates a deserializer of a JSON body.
+	 *
+	 * @param body the body
+	 * @return the deserializer
+	 */
+	private static JsonDeserializer deserializer(String body) {
+		final Object json = JSONValue.parse(body);
+		if (!(json instanceof JSONObject)) {
+			throw new IllegalArgumentException("request body is not a JSON object");
+		}
+		return new JsonDeserializer((JSONObject) json, new DeserializationContext(Account::new));
+	}
+
+	/**
+	 * Parses a query string.
+	 *
+	 * @param rawQuery the raw query, may be null
+	 * @return the parameters
+	 * @throws UnsupportedEncodingException the unsupported encoding exception
+	 */
+	private static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+		final Map<String, String> parameters = new HashMap<>();
+		if (rawQuery != null) {
+			for (final String parameter : rawQuery.split("&")) {
+				final int separator = parameter.indexOf('=');
+				if (separator > 0) {
+					parameters.put(URLDecoder.decode(parameter.substring(0, separator), "UTF-8"),
+							URLDecoder.decode(parameter.substring(separator + 1), "UTF-8"));
+				}
+			}
+		}
+		return parameters;
+	}
+
+	/**
+	 * Creates a NIS error response.
+	 *
+	 * @param status the HTTP status
+	 * @param error the error
+	 * @param message the message
+	 * @return the error response
+	 */
+	private static JSONObject error(int status, String error, String message) {
+		final JSONObject response = new JSONObject();
+		response.put("timeStamp", System.currentTimeMillis());
+		response.put("error", error);
+		response.put("message", message);
+		response.put("status", status);
+		return response;
+	}
+}
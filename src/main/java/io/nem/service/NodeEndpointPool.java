@@ -0,0 +1,517 @@
+package io.nem.service;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+import org.nem.core.connect.client.NisApiId;
+import org.nem.core.node.NodeEndpoint;
+
+import io.nem.util.AppPropertiesUtil;
+import io.nem.util.CircuitBreaker;
+
+
+
+/**
+ * A pool of NIS endpoints that routes each request to a fast healthy node.
+ * Latency is tracked per node as an exponentially weighted moving average of
+ * requests and background health probes. Each request goes to the faster of
+ * two healthy nodes drawn at random, so slower nodes keep being sampled and
+ * a node that got faster is noticed. A node is ejected after consecutive
+ * failures and re-admitted once a probe succeeds again. Each node also has a
+ * circuit breaker, see {@link #acquire()}, so that callers fail fast instead
+ * of queueing behind a node that is down; probes never count against it.
+ */
+public class NodeEndpointPool {
+
+	/** The Constant LOGGER. */
+	private static final Logger LOGGER = Logger.getLogger(NodeEndpointPool.class.getName());
+
+	/** The Constant DEFAULT_PROBE_INTERVAL_MILLIS. */
+	private static final long DEFAULT_PROBE_INTERVAL_MILLIS = 5000;
+
+	/** The Constant DEFAULT_EJECT_AFTER_FAILURES. */
+	private static final int DEFAULT_EJECT_AFTER_FAILURES = 3;
+
+	/** The Constant DEFAULT_EWMA_WEIGHT. */
+	private static final double DEFAULT_EWMA_WEIGHT = 0.2;
+
+	/** The Constant DEFAULT_BREAKER_FAILURES. */
+	private static final int DEFAULT_BREAKER_FAILURES = 5;
+
+	/** The Constant DEFAULT_BREAKER_OPEN_MILLIS. */
+	private static final long DEFAULT_BREAKER_OPEN_MILLIS = 10000;
+
+	/** The nodes. */
+	private final List<Node> nodes;
+
+	/** The number of consecutive failures that ejects a node. */
+	private final int ejectAfterFailures;
+
+	/** The weight of the newest sample in the latency average. */
+	private final double ewmaWeight;
+
+	/** The health probe scheduler, null when probing is disabled. */
+	private final ScheduledExecutorService prober;
+
+	/**
+	 * Instantiates a new node endpoint pool.
+	 *
+	 * @param endpoints the endpoints
+	 * @param probeIntervalMillis the health probe interval, 0 disables probing
+	 * @param ejectAfterFailures the number of consecutive failures that ejects a node
+	 * @param ewmaWeight the weight of the newest latency sample, between 0 and 1
+	 */
+	public NodeEndpointPool(List<NodeEndpoint> endpoints, long probeIntervalMillis, int ejectAfterFailures,
+			double ewmaWeight) {
+		this(endpoints, probeIntervalMillis, ejectAfterFailures, ewmaWeight, DEFAULT_BREAKER_FAILURES,
+				DEFAULT_BREAKER_OPEN_MILLIS);
+	}
+
+	/**
+	 * Instantiates a new node endpoint pool.
+	 *
+	 * @param endpoints the endpoints
+	 * @param probeIntervalMillis the health probe interval, 0 disables probing
+	 * @param ejectAfterFailures the number of consecutive failures that ejects a node
+	 * @param ewmaWeight the weight of the newest latency sample, between 0 and 1
+	 * @param breakerFailures the number of consecutive failures that opens a node circuit breaker
+	 * @param breakerOpenMillis the time an open circuit breaker rejects requests
+	 */
+	public NodeEndpointPool(List<NodeEndpoint> endpoints, long probeIntervalMillis, int ejectAfterFailures,
+			double ewmaWeight, int breakerFailures, long breakerOpenMillis) {
+		if (endpoints.isEmpty()) {
+			throw new IllegalArgumentException("at least one node endpoint is required");
+		}
+
+		final List<Node> nodes = new ArrayList<>(endpoints.size());
+		for (final NodeEndpoint endpoint : endpoints) {
+			nodes.add(new Node(endpoint, new CircuitBreaker(breakerFailures, breakerOpenMillis)));
+		}
+		this.nodes = Collections.unmodifiableList(nodes);
+		this.ejectAfterFailures = ejectAfterFailures;
+		this.ewmaWeight = ewmaWeight;
+
+		if (probeIntervalMillis > 0 && nodes.size() > 1) {
+			this.prober = Executors.newSingleThreadScheduledExecutor(r -> {
+				final Thread thread = new Thread(r, "nem-node-probe");
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.prober.scheduleWithFixedDelay(this::probe, probeIntervalMillis, probeIntervalMillis,
+					TimeUnit.MILLISECONDS);
+		} else {
+			this.prober = null;
+		}
+	}
+
+	/**
+	 * Creates the pool from app.properties. The comma separated
+	 * <code>node.endpoints</code> list (e.g.
+	 * <code>http://node1:7890,http://node2:7890</code>) is used when present,
+	 * otherwise the pool holds the single <code>node.endpoint.*</code> node.
+	 *
+	 * @param fallback the endpoint used when no list is configured
+	 * @return the node endpoint pool
+	 */
+	public static NodeEndpointPool fromProperties(NodeEndpoint fallback) {
+		final List<NodeEndpoint> endpoints = new ArrayList<>();
+		final String configured = AppPropertiesUtil.getProperty("node.endpoints");
+		if (configured != null && !configured.trim().isEmpty()) {
+			for (final String url : configured.split(",")) {
+				endpoints.add(parseEndpoint(url.trim()));
+			}
+		} else {
+			endpoints.add(fallback);
+		}
+		return create(endpoints);
+	}
+
+	/**
+	 * Creates a pool of a single node, ignoring <code>node.endpoints</code>,
+	 * with the other settings from app.properties.
+	 *
+	 * @param endpoint the endpoint
+	 * @return the node endpoint pool
+	 */
+	public static NodeEndpointPool forEndpoint(NodeEndpoint endpoint) {
+		return create(Collections.singletonList(endpoint));
+	}
+
+	/**
+	 * Creates a pool with the settings from app.properties.
+	 *
+	 * @param endpoints the endpoints
+	 * @return the node endpoint pool
+	 */
+	private static NodeEndpointPool create(List<NodeEndpoint> endpoints) {
+		return new NodeEndpointPool(endpoints,
+				AppPropertiesUtil.getLongProperty("node.endpoints.probe.interval", DEFAULT_PROBE_INTERVAL_MILLIS),
+				AppPropertiesUtil.getIntProperty("node.endpoints.eject.failures", DEFAULT_EJECT_AFTER_FAILURES),
+				DEFAULT_EWMA_WEIGHT,
+				AppPropertiesUtil.getIntProperty("node.breaker.failures", DEFAULT_BREAKER_FAILURES),
+				AppPropertiesUtil.getLongProperty("node.breaker.open.millis", DEFAULT_BREAKER_OPEN_MILLIS));
+	}
+
+	/**
+	 * Selects the faster of two healthy nodes drawn at random. When every
+	 * node is ejected, the node with the fewest consecutive failures is
+	 * returned so callers always have somewhere to send.
+	 *
+	 * @return the node endpoint
+	 */
+	public NodeEndpoint select() {
+		return this.select(e -> true);
+	}
+
+	/**
+	 * Selects a node like {@link #select()} among the nodes accepted by the
+	 * filter.
+	 *
+	 * @param filter the filter
+	 * @return the node endpoint
+	 */
+	public NodeEndpoint select(Predicate<NodeEndpoint> filter) {
+		final Node node = this.choose(n -> filter.test(n.endpoint));
+		return node == null ? this.nodes.get(0).endpoint : node.endpoint;
+	}
+
+	/**
+	 * Selects a node like {@link #select()} among the nodes whose circuit
+	 * breaker lets a request through, and takes that permission, moving on
+	 * to the next node when another caller took the last one first. Every
+	 * request sent to the returned node must be recorded with
+	 * {@link #recordSuccess(NodeEndpoint, long)} or
+	 * {@link #recordFailure(NodeEndpoint)}.
+	 *
+	 * @return the node endpoint, null if the breaker of every node is open
+	 */
+	public NodeEndpoint acquire() {
+		final List<Node> tried = new ArrayList<>(this.nodes.size());
+		while (true) {
+			Node node = this.choose(n -> !tried.contains(n) && n.breaker.isAvailable());
+			if (node == null) {
+				node = tried.isEmpty() ? this.choose(n -> true) : null;
+				return node != null && node.breaker.tryAcquire() ? node.endpoint : null;
+			}
+			if (node.breaker.tryAcquire()) {
+				return node.endpoint;
+			}
+			tried.add(node);
+		}
+	}
+
+	/**
+	 * Records a successful request.
+	 *
+	 * @param endpoint the endpoint
+	 * @param latencyNanos the request latency in nanoseconds
+	 */
+	public void recordSuccess(NodeEndpoint endpoint, long latencyNanos) {
+		final Node node = this.find(endpoint);
+		if (node == null) {
+			return;
+		}
+
+		this.sample(node, latencyNanos);
+		node.failures.set(0);
+		node.breaker.recordSuccess();
+		this.admit(node);
+	}
+
+	/**
+	 * Records a failed request. The node is ejected once it reaches the
+	 * configured number of consecutive failures.
+	 *
+	 * @param endpoint the endpoint
+	 */
+	public void recordFailure(NodeEndpoint endpoint) {
+		final Node node = this.find(endpoint);
+		if (node == null) {
+			return;
+		}
+
+		node.breaker.recordFailure();
+		this.countFailure(node);
+	}
+
+	/**
+	 * Checks if the node is currently routable.
+	 *
+	 * @param endpoint the endpoint
+	 * @return true, if healthy
+	 */
+	public boolean isHealthy(NodeEndpoint endpoint) {
+		final Node node = this.find(endpoint);
+		return node != null && node.healthy;
+	}
+
+	/**
+	 * Gets the circuit breaker of the node.
+	 *
+	 * @param endpoint the endpoint
+	 * @return the circuit breaker, null if the endpoint is not pooled
+	 */
+	public CircuitBreaker getCircuitBreaker(NodeEndpoint endpoint) {
+		final Node node = this.find(endpoint);
+		return node == null ? null : node.breaker;
+	}
+
+	/**
+	 * Gets the average latency of the node.
+	 *
+	 * @param endpoint the endpoint
+	 * @return the average latency in nanoseconds, 0 if never sampled
+	 */
+	public long getAverageLatencyNanos(NodeEndpoint endpoint) {
+		final Node node = this.find(endpoint);
+		return node == null ? 0 : (long) node.ewmaNanos;
+	}
+
+	/**
+	 * Gets the number of failed health probes of the node. Probe failures
+	 * count towards ejection but not against the circuit breaker.
+	 *
+	 * @param endpoint the endpoint
+	 * @return the probe failure count
+	 */
+	public long getProbeFailures(NodeEndpoint endpoint) {
+		final Node node = this.find(endpoint);
+		return node == null ? 0 : node.probeFailures.get();
+	}
+
+	/**
+	 * Gets the endpoints.
+	 *
+	 * @return the endpoints
+	 */
+	public List<NodeEndpoint> getEndpoints() {
+		final List<NodeEndpoint> endpoints = new ArrayList<>(this.nodes.size());
+		for (final Node node : this.nodes) {
+			endpoints.add(node.endpoint);
+		}
+		return endpoints;
+	}
+
+	/**
+	 * Stops the background health probes.
+	 */
+	public void shutdown() {
+		if (this.prober != null) {
+			this.prober.shutdownNow();
+		}
+	}
+
+	/**
+	 * Probes every node, records the probe latency and re-admits ejected
+	 * nodes that answer again. The circuit breakers are left alone, so a
+	 * probe never takes or fails the trial request of a half-open breaker.
+	 */
+	private void probe() {
+		for (final Node node : this.nodes) {
+			final long start = System.nanoTime();
+			try {
+				Globals.TRANSPORT.get(node.endpoint, NisApiId.NIS_REST_CHAIN_HEIGHT, null)
+						.whenComplete((d, e) -> {
+							if (e == null) {
+								this.recordProbeSuccess(node.endpoint, System.nanoTime() - start);
+							} else {
+								this.recordProbeFailure(node.endpoint);
+							}
+						});
+			} catch (RuntimeException e) {
+				this.recordProbeFailure(node.endpoint);
+			}
+		}
+	}
+
+	/**
+	 * Records a successful health probe.
+	 *
+	 * @param endpoint the endpoint
+	 * @param latencyNanos the probe latency in nanoseconds
+	 */
+	public void recordProbeSuccess(NodeEndpoint endpoint, long latencyNanos) {
+		final Node node = this.find(endpoint);
+		if (node == null) {
+			return;
+		}
+
+		this.sample(node, latencyNanos);
+		node.failures.set(0);
+		this.admit(node);
+	}
+
+	/**
+	 * Records a failed health probe, which counts towards ejection but not
+	 * against the circuit breaker.
+	 *
+	 * @param endpoint the endpoint
+	 */
+	public void recordProbeFailure(NodeEndpoint endpoint) {
+		final Node node = this.find(endpoint);
+		if (node == null) {
+			return;
+		}
+
+		node.probeFailures.incrementAndGet();
+		this.countFailure(node);
+	}
+
+	/**
+	 * Chooses the faster of two healthy nodes drawn at random among the nodes
+	 * accepted by the filter, or the one with the fewest consecutive failures
+	 * when none is healthy.
+	 *
+	 * @param filter the filter
+	 * @return the node, null if the filter accepts none
+	 */
+	private Node choose(Predicate<Node> filter) {
+		final List<Node> healthy = new ArrayList<>(this.nodes.size());
+		Node fallback = null;
+		for (final Node node : this.nodes) {
+			if (!filter.test(node)) {
+				continue;
+			}
+
+			if (node.healthy) {
+				healthy.add(node);
+			}
+
+			if (fallback == null || node.failures.get() < fallback.failures.get()) {
+				fallback = node;
+			}
+		}
+
+		if (healthy.size() <= 1) {
+			return healthy.isEmpty() ? fallback : healthy.get(0);
+		}
+		final int first = ThreadLocalRandom.current().nextInt(healthy.size());
+		int second = ThreadLocalRandom.current().nextInt(healthy.size() - 1);
+		if (second >= first) {
+			second++;
+		}
+		final Node a = healthy.get(first);
+		final Node b = healthy.get(second);
+		return b.ewmaNanos < a.ewmaNanos ? b : a;
+	}
+
+	/**
+	 * Adds a latency sample to the average of the node.
+	 *
+	 * @param node the node
+	 * @param latencyNanos the latency in nanoseconds
+	 */
+	private void sample(Node node, long latencyNanos) {
+		synchronized (node) {
+			node.ewmaNanos = node.sampled
+					? this.ewmaWeight * latencyNanos + (1 - this.ewmaWeight) * node.ewmaNanos
+					: latencyNanos;
+			node.sampled = true;
+		}
+	}
+
+	/**
+	 * Counts a consecutive failure and ejects the node once it reaches the
+	 * configured number.
+	 *
+	 * @param node the node
+	 */
+	private void countFailure(Node node) {
+		if (node.failures.incrementAndGet() >= this.ejectAfterFailures && node.healthy) {
+			node.healthy = false;
+			LOGGER.warning(String.format("ejected node %s after %d failures", node.endpoint, node.failures.get()));
+		}
+	}
+
+	/**
+	 * Marks the node as routable.
+	 *
+	 * @param node the node
+	 */
+	private void admit(Node node) {
+		if (!node.healthy) {
+			node.healthy = true;
+			LOGGER.info(String.format("re-admitted node %s", node.endpoint));
+		}
+	}
+
+	/**
+	 * Finds the node of an endpoint.
+	 *
+	 * @param endpoint the endpoint
+	 * @return the node, null if the endpoint is not pooled
+	 */
+	private Node find(NodeEndpoint endpoint) {
+		for (final Node node : this.nodes) {
+			if (node.endpoint.equals(endpoint)) {
+				return node;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Parses an endpoint url such as <code>http://node1:7890</code>.
+	 *
+	 * @param url the url
+	 * @return the node endpoint
+	 */
+	private static NodeEndpoint parseEndpoint(String url) {
+		try {
+			final URL parsed = new URL(url);
+			return new NodeEndpoint(parsed.getProtocol(), parsed.getHost(),
+					parsed.getPort() == -1 ? parsed.getDefaultPort() : parsed.getPort());
+		} catch (MalformedURLException e) {
+			throw new IllegalArgumentException("invalid node endpoint: " + url, e);
+		}
+	}
+
+	/**
+	 * The routing state of a single node.
+	 */
+	private static class Node {
+
+		/** The endpoint. */
+		private final NodeEndpoint endpoint;
+
+		/** The circuit breaker. */
+		private final CircuitBreaker breaker;
+
+		/** The consecutive failures. */
+		private final AtomicInteger failures = new AtomicInteger();
+
+		/** The failed health probes. */
+		private final AtomicLong probeFailures = new AtomicLong();
+
+		/** The average latency in nanoseconds. */
+		private volatile double ewmaNanos;
+
+		/** Whether a latency sample was recorded. */
+		private boolean sampled;
+
+		/** Whether the node is routable. */
+		private volatile boolean healthy = true;
+
+		/**
+		 * Instantiates a new node.
+		 *
+		 * @param endpoint the endpoint
+		 * @param breaker the circuit breaker
+		 */
+		Node(NodeEndpoint endpoint, CircuitBreaker breaker) {
+			this.endpoint = endpoint;
+			this.breaker = breaker;
+		}
+	}
+}
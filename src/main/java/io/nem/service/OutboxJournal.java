@@ -0,0 +1,635 @@
+package io.nem.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import org.nem.core.crypto.Hash;
+import org.nem.core.model.ncc.RequestAnnounce;
+
+import io.nem.util.AppPropertiesUtil;
+
+
+
+/**
+ * An append-only journal of outgoing transactions, written before they are
+ * announced and acknowledged once the node answered, so that nothing signed
+ * is lost to a failed announce or a crash.
+ *
+ * Each record carries its length and CRC32. Records go to segment files of
+ * about the configured size; a segment is deleted once it and every older
+ * segment hold no unacknowledged entry. On open, all segments are read back,
+ * a torn record at the end of the last one is cut off, and the entries never
+ * acknowledged become {@link #getPending() pending} for a replay.
+ *
+ * A single writer thread takes every append queued since its last fsync,
+ * writes them and syncs once, completing all their futures together. Under
+ * concurrent producers the cost of an fsync is shared by the whole batch.
+ */
+public class OutboxJournal implements Closeable {
+
+	/** The Constant LOGGER. */
+	private static final Logger LOGGER = Logger.getLogger(OutboxJournal.class.getName());
+
+	/** The Constant DEFAULT_SEGMENT_SIZE. */
+	public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+	/** The Constant ENTRY, a record of a transaction to announce. */
+	private static final byte ENTRY = 1;
+
+	/** The Constant ACK, a record of an announced transaction. */
+	private static final byte ACK = 2;
+
+	/** The Constant RECORD_HEADER_SIZE, the length and the crc. */
+	private static final int RECORD_HEADER_SIZE = 8;
+
+	/** The Constant MAX_RECORD_SIZE. */
+	private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+
+	/** The Constant MAX_BATCH. */
+	private static final int MAX_BATCH = 4096;
+
+	/** The Constant SEGMENT_PREFIX. */
+	private static final String SEGMENT_PREFIX = "outbox-";
+
+	/** The Constant SEGMENT_SUFFIX. */
+	private static final String SEGMENT_SUFFIX = ".log";
+
+	/** The directory. */
+	private final Path directory;
+
+	/** The segment size. */
+	private final long segmentSize;
+
+	/** The segments, oldest first. */
+	private final Deque<Segment> segments = new ArrayDeque<>();
+
+	/** The segment of each unacknowledged entry. */
+	private final Map<Long, Segment> segmentOf = new HashMap<>();
+
+	/** The unacknowledged entries in sequence order. */
+	private final ConcurrentSkipListMap<Long, Entry> pending = new ConcurrentSkipListMap<>();
+
+	/** The queued writes. */
+	private final BlockingQueue<Write> queue = new LinkedBlockingQueue<>();
+
+	/** The next sequence. */
+	private final AtomicLong nextSequence;
+
+	/** The appends. */
+	private final AtomicLong appends = new AtomicLong();
+
+	/** The commits, one per fsync. */
+	private final AtomicLong commits = new AtomicLong();
+
+	/** The writer thread. */
+	private final Thread writer;
+
+	/** The channel of the newest segment. */
+	private FileChannel channel;
+
+	/** Whether close was called. */
+	private volatile boolean closed;
+
+	/**
+	 * Opens a journal, reading back the segments found in the directory.
+	 *
+	 * @param directory the directory
+	 * @param segmentSize the size at which a new segment is started
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public OutboxJournal(Path directory, long segmentSize) throws IOException {
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		Files.createDirectories(directory);
+
+		long maxSequence = 0;
+		final List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+			stream.forEach(files::add);
+		}
+		files.sort(null);
+		for (int i = 0; i < files.size(); i++) {
+			maxSequence = Math.max(maxSequence, this.recover(files.get(i), i == files.size() - 1));
+		}
+		this.nextSequence = new AtomicLong(maxSequence + 1);
+		this.deleteAcknowledgedSegments();
+
+		if (this.segments.isEmpty()) {
+			this.startSegment(0);
+		} else {
+			this.channel = FileChannel.open(this.segments.getLast().path, StandardOpenOption.WRITE,
+					StandardOpenOption.APPEND);
+		}
+
+		this.writer = new Thread(this::writeLoop, "nem-outbox-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Opens the journal in the directory set by <code>outbox.dir</code>.
+	 *
+	 * @return the journal, null if no directory is set
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static OutboxJournal fromProperties() throws IOException {
+		final String directory = AppPropertiesUtil.getProperty("outbox.dir");
+		if (directory == null) {
+			return null;
+		}
+		return new OutboxJournal(Paths.get(directory.trim()),
+				AppPropertiesUtil.getLongProperty("outbox.segment.size", DEFAULT_SEGMENT_SIZE));
+	}
+
+	/**
+	 * Appends a transaction to announce.
+	 *
+	 * @param hash the transaction hash
+	 * @param request the announce request
+	 * @return the sequence of the entry, completed once it is on disk
+	 */
+	public CompletableFuture<Long> append(Hash hash, RequestAnnounce request) {
+		final Entry entry = new Entry(this.nextSequence.getAndIncrement(), hash, request.getData(),
+				request.getSignature());
+		final CompletableFuture<Long> future = new CompletableFuture<>();
+		this.enqueue(new Write(entry.sequence, entry, future));
+		this.appends.incrementAndGet();
+		return future;
+	}
+
+	/**
+	 * Marks an entry as announced. It is no longer replayed once the
+	 * acknowledgement is on disk.
+	 *
+	 * @param sequence the sequence
+	 * @return the future, completed once the acknowledgement is on disk
+	 */
+	public CompletableFuture<Long> acknowledge(long sequence) {
+		final CompletableFuture<Long> future = new CompletableFuture<>();
+		this.enqueue(new Write(sequence, null, future));
+		return future;
+	}
+
+	/**
+	 * Gets the entries not acknowledged yet, in sequence order.
+	 *
+	 * @return the pending entries
+	 */
+	public List<Entry> getPending() {
+		return new ArrayList<>(this.pending.values());
+	}
+
+	/**
+	 * Gets the number of entries not acknowledged yet.
+	 *
+	 * @return the pending count
+	 */
+	public int getPendingCount() {
+		return this.pending.size();
+	}
+
+	/**
+	 * Gets the number of segment files.
+	 *
+	 * @return the segment count
+	 */
+	public int getSegmentCount() {
+		synchronized (this.segments) {
+			return this.segments.size();
+		}
+	}
+
+	/**
+	 * Gets the number of appends.
+	 *
+	 * @return the appends
+	 */
+	public long getAppends() {
+		return appends.get();
+	}
+
+	/**
+	 * Gets the number of fsyncs, at most one per batch of queued writes.
+	 *
+	 * @return the commits
+	 */
+	public long getCommits() {
+		return commits.get();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		this.queue.add(Write.CLOSE);
+		try {
+			this.writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.channel.close();
+	}
+
+	/**
+	 * Queues a write.
+	 *
+	 * @param write the write
+	 */
+	private void enqueue(final Write write) {
+		if (this.closed) {
+			write.future.completeExceptionally(new IOException("outbox journal is closed"));
+			return;
+		}
+		this.queue.add(write);
+	}
+
+	/**
+	 * Writes batches of queued writes with one fsync each, until closed.
+	 */
+	private void writeLoop() {
+		final List<Write> batch = new ArrayList<>();
+		boolean running = true;
+		while (running) {
+			try {
+				batch.add(this.queue.take());
+			} catch (InterruptedException e) {
+				break;
+			}
+			this.queue.drainTo(batch, MAX_BATCH - 1);
+			running = !batch.remove(Write.CLOSE);
+
+			try {
+				for (final Write write : batch) {
+					this.write(write);
+				}
+				this.channel.force(false);
+				this.commits.incrementAndGet();
+			} catch (IOException e) {
+				LOGGER.warning(String.format("could not write outbox journal: %s", e.getMessage()));
+				for (final Write write : batch) {
+					write.future.completeExceptionally(e);
+				}
+				batch.clear();
+				continue;
+			}
+
+			for (final Write write : batch) {
+				if (write.entry != null) {
+					this.pending.put(write.sequence, write.entry);
+				} else {
+					this.pending.remove(write.sequence);
+					this.release(write.sequence);
+				}
+			}
+			this.deleteAcknowledgedSegments();
+			for (final Write write : batch) {
+				write.future.complete(write.sequence);
+			}
+			batch.clear();
+		}
+
+		for (Write write = this.queue.poll(); write != null; write = this.queue.poll()) {
+			write.future.completeExceptionally(new IOException("outbox journal is closed"));
+		}
+	}
+
+	/**
+	 * Writes one record, starting a new segment when the current one is full.
+	 *
+	 * @param write the write
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private void write(final Write write) throws IOException {
+		final ByteBuffer record = encode(write);
+		final Segment current = this.segments.getLast();
+		if (current.size > 0 && current.size + record.remaining() > this.segmentSize) {
+			this.channel.force(false);
+			this.channel.close();
+			this.startSegment(current.index + 1);
+		}
+
+		final Segment segment = this.segments.getLast();
+		segment.size += record.remaining();
+		while (record.hasRemaining()) {
+			this.channel.write(record);
+		}
+		if (write.entry != null) {
+			segment.live++;
+			this.segmentOf.put(write.sequence, segment);
+		}
+	}
+
+	/**
+	 * Starts a new segment and makes it current.
+	 *
+	 * @param index the index
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private void startSegment(final long index) throws IOException {
+		final Segment segment = new Segment(index,
+				this.directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX)));
+		this.channel = FileChannel.open(segment.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		synchronized (this.segments) {
+			this.segments.addLast(segment);
+		}
+	}
+
+	/**
+	 * Counts an acknowledgement against the segment of its entry.
+	 *
+	 * @param sequence the sequence
+	 */
+	private void release(final long sequence) {
+		final Segment segment = this.segmentOf.remove(sequence);
+		if (segment != null) {
+			segment.live--;
+		}
+	}
+
+	/**
+	 * Deletes the oldest segments while they hold no unacknowledged entry,
+	 * never the current one. Segments go strictly oldest first, so an
+	 * acknowledgement is never deleted before the entry it refers to.
+	 */
+	private void deleteAcknowledgedSegments() {
+		synchronized (this.segments) {
+			while (this.segments.size() > 1 && this.segments.getFirst().live == 0) {
+				final Segment segment = this.segments.removeFirst();
+				try {
+					Files.deleteIfExists(segment.path);
+				} catch (IOException e) {
+					LOGGER.warning(String.format("could not delete outbox segment: %s", e.getMessage()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads a segment back, cutting off a torn record at the end of the last
+	 * segment.
+	 *
+	 * @param path the path
+	 * @param last whether this is the newest segment
+	 * @return the highest sequence found
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private long recover(final Path path, final boolean last) throws IOException {
+		final String name = path.getFileName().toString();
+		final Segment segment = new Segment(
+				Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())), path);
+		this.segments.addLast(segment);
+
+		long maxSequence = 0;
+		final ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(path));
+		while (content.remaining() >= RECORD_HEADER_SIZE) {
+			final int position = content.position();
+			final int length = content.getInt();
+			final int crc = content.getInt();
+			if (length < 9 || length > MAX_RECORD_SIZE || length > content.remaining()
+					|| crc(content.array(), content.position(), length) != crc) {
+				content.position(position);
+				break;
+			}
+
+			final byte type = content.get();
+			final long sequence = content.getLong();
+			maxSequence = Math.max(maxSequence, sequence);
+			if (type == ENTRY) {
+				final Entry entry = new Entry(sequence, new Hash(readBytes(content)), readBytes(content),
+						readBytes(content));
+				this.pending.put(sequence, entry);
+				this.segmentOf.put(sequence, segment);
+				segment.live++;
+			} else if (this.pending.remove(sequence) != null) {
+				this.release(sequence);
+			}
+			content.position(position + RECORD_HEADER_SIZE + length);
+		}
+
+		segment.size = content.position();
+		if (content.hasRemaining()) {
+			if (last) {
+				LOGGER.warning(String.format("truncating torn outbox record at %d in %s", content.position(), name));
+				try (FileChannel truncate = FileChannel.open(path, StandardOpenOption.WRITE)) {
+					truncate.truncate(content.position());
+				}
+			} else {
+				LOGGER.warning(String.format("skipping corrupt outbox records from %d in %s", content.position(), name));
+			}
+		}
+		return maxSequence;
+	}
+
+	/**
+	 * Encodes a record.
+	 *
+	 * @param write the write
+	 * @return the record, ready to be written
+	 */
+	private static ByteBuffer encode(final Write write) {
+		final Entry entry = write.entry;
+		final int length = 1 + 8 + (entry == null ? 0
+				: 12 + entry.hash.getRaw().length + entry.data.length + entry.signature.length);
+		final ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+		record.putInt(length).putInt(0);
+		record.put(entry == null ? ACK : ENTRY).putLong(write.sequence);
+		if (entry != null) {
+			writeBytes(record, entry.hash.getRaw());
+			writeBytes(record, entry.data);
+			writeBytes(record, entry.signature);
+		}
+		record.putInt(4, crc(record.array(), RECORD_HEADER_SIZE, length));
+		record.flip();
+		return record;
+	}
+
+	/**
+	 * Computes the crc of a record body.
+	 *
+	 * @param bytes the bytes
+	 * @param offset the offset
+	 * @param length the length
+	 * @return the crc
+	 */
+	private static int crc(final byte[] bytes, final int offset, final int length) {
+		final CRC32 crc = new CRC32();
+		crc.update(bytes, offset, length);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Writes a length-prefixed byte array.
+	 *
+	 * @param buffer the buffer
+	 * @param bytes the bytes
+	 */
+	private static void writeBytes(final ByteBuffer buffer, final byte[] bytes) {
+		buffer.putInt(bytes.length).put(bytes);
+	}
+
+	/**
+	 * Reads a length-prefixed byte array.
+	 *
+	 * @param buffer the buffer
+	 * @return the bytes
+	 */
+	private static byte[] readBytes(final ByteBuffer buffer) {
+		final byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * A segment file.
+	 */
+	private static class Segment {
+
+		/** The index, ascending with age. */
+		private final long index;
+
+		/** The path. */
+		private final Path path;
+
+		/** The bytes written. */
+		private long size;
+
+		/** The unacknowledged entries. */
+		private int live;
+
+		/**
+		 * Instantiates a new segment.
+		 *
+		 * @param index the index
+		 * @param path the path
+		 */
+		Segment(long index, Path path) {
+			this.index = index;
+			this.path = path;
+		}
+	}
+
+	/**
+	 * A queued write, an entry or an acknowledgement.
+	 */
+	private static class Write {
+
+		/** The Constant CLOSE, stops the writer. */
+		private static final Write CLOSE = new Write(-1, null, new CompletableFuture<>());
+
+		/** The sequence. */
+		private final long sequence;
+
+		/** The entry, null for an acknowledgement. */
+		private final Entry entry;
+
+		/** The future. */
+		private final CompletableFuture<Long> future;
+
+		/**
+		 * Instantiates a new write.
+		 *
+		 * @param sequence the sequence
+		 * @param entry the entry
+		 * @param future the future
+		 */
+		Write(long sequence, Entry entry, CompletableFuture<Long> future) {
+			this.sequence = sequence;
+			this.entry = entry;
+			this.future = future;
+		}
+	}
+
+	/**
+	 * A journaled transaction.
+	 */
+	public static class Entry {
+
+		/** The sequence. */
+		private final long sequence;
+
+		/** The transaction hash. */
+		private final Hash hash;
+
+		/** The serialized transaction. */
+		private final byte[] data;
+
+		/** The signature. */
+		private final byte[] signature;
+
+		/**
+		 * Instantiates a new entry.
+		 *
+		 * @param sequence the sequence
+		 * @param hash the hash
+		 * @param data the data
+		 * @param signature the signature
+		 */
+		Entry(long sequence, Hash hash, byte[] data, byte[] signature) {
+			this.sequence = sequence;
+			this.hash = hash;
+			this.data = data;
+			this.signature = signature;
+		}
+
+		/**
+		 * Gets the sequence.
+		 *
+		 * @return the sequence
+		 */
+		public long getSequence() {
+			return sequence;
+		}
+
+		/**
+		 * Gets the transaction hash.
+		 *
+		 * @return the hash
+		 */
+		public Hash getHash() {
+			return hash;
+		}
+
+		/**
+		 * Rebuilds the announce request from the stored bytes.
+		 *
+		 * @return the request announce
+		 */
+		public RequestAnnounce toRequestAnnounce() {
+			return new RequestAnnounce(this.data, this.signature);
+		}
+
+		/* (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return "Entry [sequence=" + sequence + ", hash=" + hash + "]";
+		}
+	}
+}
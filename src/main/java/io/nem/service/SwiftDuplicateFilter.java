@@ -0,0 +1,684 @@
+package io.nem.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import org.nem.core.crypto.Hashes;
+
+import com.prowidesoftware.swift.model.SwiftBlock4;
+import com.prowidesoftware.swift.model.Tag;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import io.nem.model.SwiftAnnounceResult;
+import io.nem.util.AppPropertiesUtil;
+import io.nem.util.BloomFilter;
+import io.nem.util.RetryPolicy;
+
+
+
+/**
+ * Detects SWIFT messages that were already sent, so that retries and re-runs
+ * of a batch file do not announce the same message twice.
+ *
+ * A message is identified by its reference: a 128 bit digest of the sender
+ * BIC, the MT type, field 20 and a digest of the text block. References are
+ * kept for the retention window in an open addressing hash table in a memory
+ * mapped file, which survives restarts and is the exact answer. In front of
+ * it, one Bloom filter per slice of the retention window answers most new
+ * references without touching the table. When a slice ages out of the
+ * window, its filter is cleared and the table is rewritten without the
+ * expired references.
+ *
+ * The table is written through the mapping without an fsync, so it survives
+ * a crash of the process but may lose the latest references to a crash of the
+ * machine.
+ */
+public class SwiftDuplicateFilter implements Closeable {
+
+	/** The Constant LOGGER. */
+	private static final Logger LOGGER = Logger.getLogger(SwiftDuplicateFilter.class.getName());
+
+	/** The Constant REFERENCE_SIZE. */
+	public static final int REFERENCE_SIZE = 16;
+
+	/** The Constant DEFAULT_EXPECTED_REFERENCES. */
+	private static final long DEFAULT_EXPECTED_REFERENCES = 1_000_000;
+
+	/** The Constant DEFAULT_RETENTION_HOURS. */
+	private static final long DEFAULT_RETENTION_HOURS = 30 * 24;
+
+	/** The Constant DEFAULT_GENERATIONS. */
+	private static final int DEFAULT_GENERATIONS = 4;
+
+	/** The Constant FALSE_POSITIVE_RATE, over all filters together. */
+	private static final double FALSE_POSITIVE_RATE = 0.01;
+
+	/** The Constant MAGIC. */
+	private static final int MAGIC = 0x53444958;
+
+	/** The Constant VERSION. */
+	private static final int VERSION = 1;
+
+	/** The Constant HEADER_SIZE: magic, version, capacity, live references. */
+	private static final int HEADER_SIZE = 16;
+
+	/** The Constant SLOT_SIZE: two longs of reference and the time. */
+	private static final int SLOT_SIZE = 24;
+
+	/** The Constant MIN_CAPACITY. */
+	private static final int MIN_CAPACITY = 1024;
+
+	/** The Constant MAX_CAPACITY, keeping the file within one mapping. */
+	private static final int MAX_CAPACITY = 1 << 26;
+
+	/** The Constant MAX_LOAD. */
+	private static final double MAX_LOAD = 0.7;
+
+	/** The index file. */
+	private final Path indexFile;
+
+	/** The retention window. */
+	private final long retentionMillis;
+
+	/** The length of a slice of the retention window. */
+	private final long generationMillis;
+
+	/** The clock. */
+	private final Clock clock;
+
+	/** The filters, one per slice of the retention window. */
+	private final BloomFilter[] filters;
+
+	/** The slice held by each filter, -1 if none. */
+	private final long[] filterGenerations;
+
+	/** The checks. */
+	private final AtomicLong checks = new AtomicLong();
+
+	/** The checks answered by the filters alone. */
+	private final AtomicLong filterNegatives = new AtomicLong();
+
+	/** The duplicates. */
+	private final AtomicLong duplicates = new AtomicLong();
+
+	/** The channel. */
+	private FileChannel channel;
+
+	/** The table. */
+	private MappedByteBuffer table;
+
+	/** The capacity in slots, a power of two. */
+	private int capacity;
+
+	/** The slots in use, including forgotten and expired references. */
+	private int occupied;
+
+	/** The live references. */
+	private int live;
+
+	/** The current slice of the retention window. */
+	private volatile long generation;
+
+	/**
+	 * Instantiates a new swift duplicate filter.
+	 *
+	 * @param indexFile the index file, created if missing
+	 * @param expectedReferences the references expected within the retention window
+	 * @param retentionMillis the retention window
+	 * @param generations the number of slices of the retention window
+	 * @param clock the clock
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public SwiftDuplicateFilter(Path indexFile, long expectedReferences, long retentionMillis, int generations,
+			Clock clock) throws IOException {
+		if (expectedReferences < 1 || retentionMillis < 1 || generations < 1) {
+			throw new IllegalArgumentException("expected references, retention and generations must be positive");
+		}
+		this.indexFile = indexFile;
+		this.retentionMillis = retentionMillis;
+		this.generationMillis = Math.max(1, retentionMillis / generations);
+		this.clock = clock;
+		// a reference inside the window may date from up to one slice before
+		// the oldest full slice, hence two more filters than slices
+		this.filters = new BloomFilter[generations + 2];
+		this.filterGenerations = new long[generations + 2];
+		for (int i = 0; i < this.filters.length; i++) {
+			this.filters[i] = new BloomFilter(expectedReferences, FALSE_POSITIVE_RATE / this.filters.length);
+		}
+		Arrays.fill(this.filterGenerations, -1L);
+
+		final long now = clock.millis();
+		this.generation = now / this.generationMillis;
+		if (Files.exists(indexFile)) {
+			this.open(indexFile);
+			this.rebuild(this.capacity, now);
+		} else {
+			this.rebuild(tableCapacity(expectedReferences), now);
+		}
+	}
+
+	/**
+	 * Instantiates a new swift duplicate filter on the system clock.
+	 *
+	 * @param indexFile the index file, created if missing
+	 * @param expectedReferences the references expected within the retention window
+	 * @param retentionMillis the retention window
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public SwiftDuplicateFilter(Path indexFile, long expectedReferences, long retentionMillis) throws IOException {
+		this(indexFile, expectedReferences, retentionMillis, DEFAULT_GENERATIONS, Clock.systemUTC());
+	}
+
+	/**
+	 * Opens the filter on the index file set by <code>dedup.index.file</code>.
+	 *
+	 * @return the swift duplicate filter, null if no index file is set
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static SwiftDuplicateFilter fromProperties() throws IOException {
+		final String indexFile = AppPropertiesUtil.getProperty("dedup.index.file");
+		if (indexFile == null) {
+			return null;
+		}
+		return new SwiftDuplicateFilter(Paths.get(indexFile.trim()),
+				AppPropertiesUtil.getLongProperty("dedup.expected.references", DEFAULT_EXPECTED_REFERENCES),
+				TimeUnit.HOURS
+						.toMillis(AppPropertiesUtil.getLongProperty("dedup.retention.hours", DEFAULT_RETENTION_HOURS)));
+	}
+
+	/**
+	 * Computes the reference of a message.
+	 *
+	 * @param mt the message
+	 * @return the reference
+	 */
+	public static byte[] referenceOf(AbstractMT mt) {
+		final SwiftBlock4 block4 = mt.getSwiftMessage().getBlock4();
+		final StringBuilder text = new StringBuilder();
+		if (block4 != null) {
+			for (final Tag tag : block4.getTags()) {
+				text.append(':').append(tag.getName()).append(':').append(tag.getValue()).append('\n');
+			}
+		}
+		return referenceOf(mt.getSender(), mt.getMessageType(), block4 == null ? null : block4.getTagValue("20"),
+				Hashes.sha3_256(text.toString().getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Computes the reference of a message from its parts.
+	 *
+	 * @param senderBic the sender BIC
+	 * @param messageType the MT type
+	 * @param reference the field 20 reference
+	 * @param payloadDigest the digest of the message text
+	 * @return the reference
+	 */
+	public static byte[] referenceOf(String senderBic, String messageType, String reference, byte[] payloadDigest) {
+		final byte[] separator = { 0 };
+		final byte[] digest = Hashes.sha3_256(bytes(senderBic), separator, bytes(messageType), separator,
+				bytes(reference), separator, payloadDigest);
+		return Arrays.copyOf(digest, REFERENCE_SIZE);
+	}
+
+	/**
+	 * Records a message unless it was seen within the retention window.
+	 *
+	 * @param mt the message
+	 * @return true if the message is new and now recorded, false if it is a duplicate
+	 */
+	public boolean markIfNew(AbstractMT mt) {
+		return this.markIfNew(referenceOf(mt));
+	}
+
+	/**
+	 * Records a reference unless it was seen within the retention window.
+	 *
+	 * @param reference the reference
+	 * @return true if the reference is new and now recorded, false if it is a duplicate
+	 */
+	public boolean markIfNew(byte[] reference) {
+		final ByteBuffer key = ByteBuffer.wrap(reference);
+		final long hi = key.getLong();
+		final long lo = key.getLong();
+		final long now = this.clock.millis();
+		this.checks.incrementAndGet();
+		synchronized (this) {
+			this.rotate(now);
+			if (!this.mightContain(hi, lo)) {
+				this.filterNegatives.incrementAndGet();
+			} else if (this.find(hi, lo, now) >= 0) {
+				this.duplicates.incrementAndGet();
+				return false;
+			}
+			this.insert(hi, lo, now);
+			this.filterFor(now / this.generationMillis).put(hi, lo);
+			return true;
+		}
+	}
+
+	/**
+	 * Checks if a message was seen within the retention window, without
+	 * recording it.
+	 *
+	 * @param mt the message
+	 * @return true, if duplicate
+	 */
+	public boolean isDuplicate(AbstractMT mt) {
+		return this.isDuplicate(referenceOf(mt));
+	}
+
+	/**
+	 * Checks if a reference was seen within the retention window, without
+	 * recording it. New references are mostly answered by the filters alone,
+	 * without taking the lock.
+	 *
+	 * @param reference the reference
+	 * @return true, if duplicate
+	 */
+	public boolean isDuplicate(byte[] reference) {
+		final ByteBuffer key = ByteBuffer.wrap(reference);
+		final long hi = key.getLong();
+		final long lo = key.getLong();
+		final long now = this.clock.millis();
+		this.checks.incrementAndGet();
+		if (now / this.generationMillis == this.generation && !this.mightContain(hi, lo)) {
+			this.filterNegatives.incrementAndGet();
+			return false;
+		}
+		synchronized (this) {
+			this.rotate(now);
+			if (this.find(hi, lo, now) < 0) {
+				return false;
+			}
+		}
+		this.duplicates.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * Forgets a message, e.g. because sending it failed and it may be sent
+	 * again.
+	 *
+	 * @param mt the message
+	 */
+	public void forget(AbstractMT mt) {
+		this.forget(referenceOf(mt));
+	}
+
+	/**
+	 * Forgets a reference.
+	 *
+	 * @param reference the reference
+	 */
+	public synchronized void forget(byte[] reference) {
+		final ByteBuffer key = ByteBuffer.wrap(reference);
+		final int slot = this.find(key.getLong(), key.getLong(), this.clock.millis());
+		if (slot >= 0) {
+			this.table.putLong(offset(slot) + 16, 0L);
+			this.live--;
+			this.table.putInt(12, this.live);
+		}
+	}
+
+	/**
+	 * Sends a message unless it is a duplicate. The message is recorded
+	 * before it is sent and forgotten again only if the node rejects it for
+	 * good, see {@link RetryPolicy#isDefinitiveRejection}, so that it can be
+	 * sent again. On any other failure, such as a timeout, the transaction may
+	 * still reach the chain and a re-run would sign it with a new timestamp
+	 * and hash, so the message stays recorded; {@link #forget(AbstractMT)} it
+	 * once it is known not to have been sent. If sending throws before
+	 * anything reaches the node, the message is forgotten and the exception
+	 * rethrown.
+	 *
+	 * @param mt the message
+	 * @param send sends the message, e.g. through {@link BlockchainTransactionService}
+	 * @return the announce result, null if the message is a duplicate and was not sent
+	 */
+	public CompletableFuture<SwiftAnnounceResult> sendIfNew(AbstractMT mt,
+			Supplier<CompletableFuture<SwiftAnnounceResult>> send) {
+		final byte[] reference = referenceOf(mt);
+		if (!this.markIfNew(reference)) {
+			LOGGER.info(String.format("not sending duplicate %s %s", mt.getMessageType(), mt.getSender()));
+			return CompletableFuture.completedFuture(null);
+		}
+
+		final CompletableFuture<SwiftAnnounceResult> sent;
+		try {
+			sent = send.get();
+		} catch (RuntimeException e) {
+			// nothing left for the node, e.g. the message could not be signed
+			this.forget(reference);
+			throw e;
+		}
+		return sent.whenComplete((r, e) -> {
+			if (e == null && r != null && RetryPolicy.isDefinitiveRejection(r.getAnnounceResult())) {
+				this.forget(reference);
+			}
+		});
+	}
+
+	/**
+	 * Gets the number of live references.
+	 *
+	 * @return the size
+	 */
+	public synchronized int size() {
+		return this.live;
+	}
+
+	/**
+	 * Gets the number of checks.
+	 *
+	 * @return the checks
+	 */
+	public long getChecks() {
+		return checks.get();
+	}
+
+	/**
+	 * Gets the number of checks answered by the Bloom filters alone.
+	 *
+	 * @return the filter negatives
+	 */
+	public long getFilterNegatives() {
+		return filterNegatives.get();
+	}
+
+	/**
+	 * Gets the number of duplicates found.
+	 *
+	 * @return the duplicates
+	 */
+	public long getDuplicates() {
+		return duplicates.get();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		this.table.force();
+		this.channel.close();
+	}
+
+	/**
+	 * Checks the filters of the live slices.
+	 *
+	 * @param hi the hi
+	 * @param lo the lo
+	 * @return true, if any may hold the reference
+	 */
+	private boolean mightContain(final long hi, final long lo) {
+		final long oldest = this.generation - this.filters.length + 1;
+		for (int i = 0; i < this.filters.length; i++) {
+			if (this.filterGenerations[i] >= oldest && this.filters[i].mightContain(hi, lo)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the filter of a slice, clearing the filter of the slice it replaces.
+	 *
+	 * @param sliceGeneration the slice
+	 * @return the bloom filter
+	 */
+	private BloomFilter filterFor(final long sliceGeneration) {
+		final int index = (int) (sliceGeneration % this.filters.length);
+		if (this.filterGenerations[index] != sliceGeneration) {
+			this.filters[index].clear();
+			this.filterGenerations[index] = sliceGeneration;
+		}
+		return this.filters[index];
+	}
+
+	/**
+	 * Moves to the current slice, dropping the references that left the
+	 * retention window; the caller holds the lock.
+	 *
+	 * @param now the now
+	 */
+	private void rotate(final long now) {
+		final long current = now / this.generationMillis;
+		if (current > this.generation) {
+			this.generation = current;
+			try {
+				this.rebuild(this.capacity, now);
+			} catch (IOException e) {
+				LOGGER.warning(String.format("could not compact duplicate index: %s", e.getMessage()));
+			}
+		}
+	}
+
+	/**
+	 * Finds the slot of a live reference.
+	 *
+	 * @param hi the hi
+	 * @param lo the lo
+	 * @param now the now
+	 * @return the slot, -1 if the reference is not live
+	 */
+	private int find(final long hi, final long lo, final long now) {
+		final int mask = this.capacity - 1;
+		for (int slot = slotOf(hi, mask);; slot = (slot + 1) & mask) {
+			final int offset = offset(slot);
+			final long slotHi = this.table.getLong(offset);
+			final long slotLo = this.table.getLong(offset + 8);
+			final long time = this.table.getLong(offset + 16);
+			if (slotHi == hi && slotLo == lo) {
+				return this.isLive(time, now) ? slot : -1;
+			}
+			if (slotHi == 0 && slotLo == 0 && time == 0) {
+				return -1;
+			}
+		}
+	}
+
+	/**
+	 * Inserts or refreshes a reference, growing the table when it fills up.
+	 *
+	 * @param hi the hi
+	 * @param lo the lo
+	 * @param now the now
+	 */
+	private void insert(final long hi, final long lo, final long now) {
+		if (this.live >= MAX_CAPACITY * MAX_LOAD) {
+			throw new IllegalStateException("duplicate index is full");
+		}
+		final int mask = this.capacity - 1;
+		int reusable = -1;
+		int slot = slotOf(hi, mask);
+		for (;; slot = (slot + 1) & mask) {
+			final int offset = offset(slot);
+			final long slotHi = this.table.getLong(offset);
+			final long slotLo = this.table.getLong(offset + 8);
+			final long time = this.table.getLong(offset + 16);
+			if (slotHi == hi && slotLo == lo) {
+				if (!this.isLive(time, now)) {
+					this.live++;
+				}
+				this.table.putLong(offset + 16, now);
+				this.table.putInt(12, this.live);
+				return;
+			}
+			if (slotHi == 0 && slotLo == 0 && time == 0) {
+				break;
+			}
+			if (reusable < 0 && !this.isLive(time, now)) {
+				reusable = slot;
+			}
+		}
+
+		if (reusable >= 0) {
+			slot = reusable;
+		} else {
+			this.occupied++;
+		}
+		final int offset = offset(slot);
+		this.table.putLong(offset, hi);
+		this.table.putLong(offset + 8, lo);
+		this.table.putLong(offset + 16, now);
+		this.live++;
+		this.table.putInt(12, this.live);
+
+		if (this.occupied > this.capacity * MAX_LOAD) {
+			try {
+				this.rebuild(this.live > this.capacity * MAX_LOAD / 2 ? Math.min(MAX_CAPACITY, this.capacity * 2)
+						: this.capacity, now);
+			} catch (IOException e) {
+				LOGGER.warning(String.format("could not grow duplicate index: %s", e.getMessage()));
+			}
+		}
+	}
+
+	/**
+	 * Rewrites the table with the live references only and refills the
+	 * filters from it.
+	 *
+	 * @param newCapacity the new capacity
+	 * @param now the now
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private void rebuild(final int newCapacity, final long now) throws IOException {
+		final Path temp = this.indexFile.resolveSibling(this.indexFile.getFileName() + ".tmp");
+		final FileChannel newChannel = FileChannel.open(temp, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		final MappedByteBuffer newTable = newChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+				HEADER_SIZE + (long) newCapacity * SLOT_SIZE);
+		final int mask = newCapacity - 1;
+		final long oldest = this.generation - this.filters.length + 1;
+		for (int i = 0; i < this.filters.length; i++) {
+			if (this.filterGenerations[i] < oldest) {
+				this.filters[i].clear();
+				this.filterGenerations[i] = -1L;
+			}
+		}
+
+		int count = 0;
+		for (int slot = 0; this.table != null && slot < this.capacity; slot++) {
+			final int offset = offset(slot);
+			final long time = this.table.getLong(offset + 16);
+			if (!this.isLive(time, now)) {
+				continue;
+			}
+			final long hi = this.table.getLong(offset);
+			final long lo = this.table.getLong(offset + 8);
+			int target = slotOf(hi, mask);
+			while (newTable.getLong(offset(target) + 16) != 0) {
+				target = (target + 1) & mask;
+			}
+			newTable.putLong(offset(target), hi);
+			newTable.putLong(offset(target) + 8, lo);
+			newTable.putLong(offset(target) + 16, time);
+			this.filterFor(time / this.generationMillis).put(hi, lo);
+			count++;
+		}
+		newTable.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, newCapacity).putInt(12, count);
+		newTable.force();
+
+		if (this.channel != null) {
+			this.channel.close();
+		}
+		Files.move(temp, this.indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		this.channel = newChannel;
+		this.table = newTable;
+		this.capacity = newCapacity;
+		this.occupied = count;
+		this.live = count;
+	}
+
+	/**
+	 * Maps an existing index file.
+	 *
+	 * @param file the file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private void open(final Path file) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		final long size = this.channel.size();
+		if (size < HEADER_SIZE) {
+			this.channel.close();
+			throw new IOException("not a duplicate index: " + file);
+		}
+		this.table = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		this.capacity = this.table.getInt(8);
+		if (this.table.getInt(0) != MAGIC || this.table.getInt(4) != VERSION || Integer.bitCount(this.capacity) != 1
+				|| size != HEADER_SIZE + (long) this.capacity * SLOT_SIZE) {
+			this.channel.close();
+			throw new IOException("not a duplicate index: " + file);
+		}
+	}
+
+	/**
+	 * Checks if a time is within the retention window; forgotten references
+	 * have time 0.
+	 *
+	 * @param time the time
+	 * @param now the now
+	 * @return true, if live
+	 */
+	private boolean isLive(final long time, final long now) {
+		return time != 0 && time > now - this.retentionMillis;
+	}
+
+	/**
+	 * Computes the home slot of a reference.
+	 *
+	 * @param hi the hi
+	 * @param mask the mask
+	 * @return the slot
+	 */
+	private static int slotOf(final long hi, final int mask) {
+		return (int) (hi ^ (hi >>> 32)) & mask;
+	}
+
+	/**
+	 * Computes the offset of a slot.
+	 *
+	 * @param slot the slot
+	 * @return the offset
+	 */
+	private static int offset(final int slot) {
+		return HEADER_SIZE + slot * SLOT_SIZE;
+	}
+
+	/**
+	 * Computes the table capacity for a number of references, at half load.
+	 *
+	 * @param references the references
+	 * @return the capacity
+	 */
+	private static int tableCapacity(final long references) {
+		final long wanted = Math.min(MAX_CAPACITY, Math.max(MIN_CAPACITY, references * 2));
+		return Integer.highestOneBit((int) wanted - 1) << 1;
+	}
+
+	/**
+	 * Encodes a part of a reference.
+	 *
+	 * @param value the value, may be null
+	 * @return the bytes
+	 */
+	private static byte[] bytes(final String value) {
+		return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,196 @@
+package io.nem.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletionException;
+
+import org.nem.core.crypto.Hash;
+import org.nem.core.model.Account;
+import org.nem.core.model.Message;
+import org.nem.core.model.TransferTransaction;
+import org.nem.core.model.ncc.TransactionMetaDataPair;
+import org.nem.core.node.NodeEndpoint;
+import org.nem.core.serialization.BinaryDeserializer;
+import org.nem.core.serialization.BinarySerializer;
+import org.nem.core.serialization.DeserializationContext;
+
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import io.nem.model.IncomingSwiftMessage;
+import io.nem.model.SwiftApiId;
+import io.nem.util.AppPropertiesUtil;
+import io.nem.util.OffHeapLruCache;
+
+
+
+/**
+ * Looks up confirmed SWIFT transfers by hash through
+ * <code>/transaction/get</code>, caching both the transaction and the
+ * decrypted message.
+ *
+ * A confirmed transaction never changes, so once fetched it is kept in an
+ * {@link OffHeapLruCache} in its binary form, next to the message text it
+ * decrypts to. Repeated lookups of the same hash cost neither a node round
+ * trip nor a decrypt. Unconfirmed transactions are not cached.
+ *
+ * The cached message text is readable without the recipient key, so one
+ * lookup, and its cache, serves one recipient, and it is held in memory only,
+ * never spilled to disk. Only a transfer without a message is remembered as
+ * holding none; a message that fails to decrypt or decode is tried again on
+ * the next lookup.
+ */
+public class SwiftTransactionLookup {
+
+	/** The Constant DEFAULT_CACHE_SIZE. */
+	private static final int DEFAULT_CACHE_SIZE = 64 * 1024 * 1024;
+
+	/** The Constant TRANSACTION_KEY_PREFIX. */
+	private static final String TRANSACTION_KEY_PREFIX = "tx:";
+
+	/** The Constant MESSAGE_KEY_PREFIX. */
+	private static final String MESSAGE_KEY_PREFIX = "mt:";
+
+	/** The Constant NO_MESSAGE, cached for transfers without a message. */
+	private static final byte[] NO_MESSAGE = new byte[0];
+
+	/** The recipient, holding the private key. */
+	private final Account recipient;
+
+	/** The cache. */
+	private final OffHeapLruCache cache;
+
+	/**
+	 * Instantiates a new swift transaction lookup.
+	 *
+	 * @param recipient the recipient, holding the private key
+	 * @param cache the cache
+	 */
+	public SwiftTransactionLookup(Account recipient, OffHeapLruCache cache) {
+		this.recipient = recipient;
+		this.cache = cache;
+	}
+
+	/**
+	 * Creates a lookup with a cache configured from app.properties.
+	 *
+	 * @param recipient the recipient, holding the private key
+	 * @return the swift transaction lookup
+	 */
+	public static SwiftTransactionLookup fromProperties(Account recipient) {
+		final String spillDirectory = AppPropertiesUtil.getProperty("lookup.cache.spill.dir");
+		final int capacity = AppPropertiesUtil.getIntProperty("lookup.cache.size", DEFAULT_CACHE_SIZE);
+		return new SwiftTransactionLookup(recipient,
+				new OffHeapLruCache(capacity, OffHeapLruCache.DEFAULT_BLOCK_SIZE,
+						spillDirectory == null ? null : Paths.get(spillDirectory.trim()),
+						AppPropertiesUtil.getLongProperty("lookup.cache.spill.size", 4L * capacity)));
+	}
+
+	/**
+	 * Gets a transaction with its meta data.
+	 *
+	 * @param hash the hash
+	 * @return the transaction with its meta data
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public TransactionMetaDataPair getTransaction(Hash hash) throws IOException {
+		final String key = TRANSACTION_KEY_PREFIX + hash;
+		final byte[] cached = this.cache.get(key);
+		if (cached != null) {
+			return new TransactionMetaDataPair(new BinaryDeserializer(cached, new DeserializationContext(Account::new)));
+		}
+
+		final TransactionMetaDataPair pair = this.fetch(hash);
+		if (isConfirmed(pair)) {
+			this.cache.put(key, BinarySerializer.serializeToBytes(pair));
+		}
+		return pair;
+	}
+
+	/**
+	 * Gets the SWIFT message of a transfer.
+	 *
+	 * @param hash the hash
+	 * @return the message, null if the transfer holds no SWIFT message for the recipient
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public IncomingSwiftMessage getSwiftMessage(Hash hash) throws IOException {
+		final TransactionMetaDataPair pair = this.getTransaction(hash);
+		final String key = MESSAGE_KEY_PREFIX + hash;
+		final byte[] cached = this.cache.get(key);
+		final String swiftMessage;
+		if (cached != null) {
+			swiftMessage = cached.length == 0 ? null : new String(cached, StandardCharsets.UTF_8);
+		} else {
+			final TransferTransaction transfer = SwiftTransfers.getTransfer(pair.getEntity());
+			try {
+				swiftMessage = transfer == null ? null : this.decode(pair, transfer);
+			} catch (IOException | RuntimeException e) {
+				return null;
+			}
+			if (isConfirmed(pair)) {
+				this.cache.put(key, swiftMessage == null ? NO_MESSAGE : swiftMessage.getBytes(StandardCharsets.UTF_8),
+						false);
+			}
+		}
+
+		final AbstractMT mt = swiftMessage == null ? null : AbstractMT.parse(swiftMessage);
+		return mt == null ? null
+				: new IncomingSwiftMessage(pair.getMetaData().getId(), hash, pair.getMetaData().getHeight().getRaw(),
+						SwiftTransfers.getSender(pair.getEntity()), swiftMessage, mt);
+	}
+
+	/**
+	 * Gets the cache.
+	 *
+	 * @return the cache
+	 */
+	public OffHeapLruCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Fetches a transaction from the node.
+	 *
+	 * @param hash the hash
+	 * @return the transaction with its meta data
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private TransactionMetaDataPair fetch(final Hash hash) throws IOException {
+		final NodeEndpoint endpoint = Globals.NODE_ENDPOINT_POOL.select();
+		final long start = System.nanoTime();
+		try {
+			final TransactionMetaDataPair pair = new TransactionMetaDataPair(
+					Globals.TRANSPORT.get(endpoint, SwiftApiId.TRANSACTION_GET, "hash=" + hash).join());
+			Globals.NODE_ENDPOINT_POOL.recordSuccess(endpoint, System.nanoTime() - start);
+			return pair;
+		} catch (CompletionException e) {
+			Globals.NODE_ENDPOINT_POOL.recordFailure(endpoint);
+			throw new IOException("could not fetch transaction " + hash, e.getCause());
+		}
+	}
+
+	/**
+	 * Decrypts the message of a transfer.
+	 *
+	 * @param pair the transfer with its meta data
+	 * @param transfer the transfer
+	 * @return the message text
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private String decode(final TransactionMetaDataPair pair, final TransferTransaction transfer) throws IOException {
+		final Message message = transfer.getMessage();
+		return SwiftTransfers.decode(message.getType(), message.getEncodedPayload(),
+				SwiftTransfers.getSender(pair.getEntity()), this.recipient);
+	}
+
+	/**
+	 * Checks if a transaction is in a block.
+	 *
+	 * @param pair the pair
+	 * @return true, if confirmed
+	 */
+	private static boolean isConfirmed(final TransactionMetaDataPair pair) {
+		return pair.getMetaData().getHeight() != null && pair.getMetaData().getHeight().getRaw() > 0;
+	}
+}
@@ -0,0 +1,72 @@
+package io.nem.service;
+
+import java.io.IOException;
+
+import org.nem.core.messages.MessageTypes;
+import org.nem.core.model.Account;
+import org.nem.core.model.MultisigTransaction;
+import org.nem.core.model.Transaction;
+import org.nem.core.model.TransferTransaction;
+
+import io.nem.swift.crypto.SecureMessageSwiftPayloadDecoder;
+import io.nem.util.SwiftPayloadEnvelope;
+
+
+
+/**
+ * Reads the SWIFT payload of transfers fetched from a node, shared by the
+ * incoming poller and the transaction lookup.
+ */
+final class SwiftTransfers {
+
+	/**
+	 * Instantiates a new swift transfers.
+	 */
+	private SwiftTransfers() {
+	}
+
+	/**
+	 * Gets the transfer, unwrapping a multisig transaction.
+	 *
+	 * @param transaction the transaction
+	 * @return the transfer, null if the transaction is no transfer with a message
+	 */
+	static TransferTransaction getTransfer(final Transaction transaction) {
+		final Transaction inner = transaction instanceof MultisigTransaction
+				? ((MultisigTransaction) transaction).getOtherTransaction()
+				: transaction;
+		return inner instanceof TransferTransaction && ((TransferTransaction) inner).getMessage() != null
+				? (TransferTransaction) inner
+				: null;
+	}
+
+	/**
+	 * Gets the sender, the signer of the inner transaction of a multisig
+	 * transaction.
+	 *
+	 * @param transaction the transaction
+	 * @return the sender
+	 */
+	static Account getSender(final Transaction transaction) {
+		return transaction instanceof MultisigTransaction
+				? ((MultisigTransaction) transaction).getOtherTransaction().getSigner()
+				: transaction.getSigner();
+	}
+
+	/**
+	 * Decrypts and uncompresses a payload.
+	 *
+	 * @param messageType the message type
+	 * @param payload the payload
+	 * @param sender the sender
+	 * @param recipient the recipient, holding the private key
+	 * @return the message text
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	static String decode(final int messageType, final byte[] payload, final Account sender, final Account recipient)
+			throws IOException {
+		return messageType == MessageTypes.SECURE
+				? SecureMessageSwiftPayloadDecoder.decodeAndUncompress(sender, recipient, payload)
+				: SwiftPayloadEnvelope.decodeToString(payload);
+	}
+}
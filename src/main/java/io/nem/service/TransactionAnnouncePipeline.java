@@ -0,0 +1,318 @@
+package io.nem.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import org.nem.core.model.Transaction;
+
+import io.nem.model.SignedTransaction;
+import io.nem.model.SwiftAnnounceResult;
+import io.nem.model.SwiftMultisigTransaction;
+import io.nem.model.SwiftTransaction;
+import io.nem.util.TransactionSenderUtil;
+
+
+
+/**
+ * Announces signed transactions with a bounded number of requests in flight.
+ * Producers calling {@link #submit(Transaction)} block while the window is
+ * full, and the outcome of every item is reported in submission order.
+ *
+ * Outcomes are kept only until they are handed to the listener or, without a
+ * listener, collected by {@link #awaitResults()}, so a long-running pipeline
+ * holds no more than the unreported ones. The listener is called outside any
+ * lock the producers take.
+ */
+public class TransactionAnnouncePipeline {
+
+	/** The Constant LOGGER. */
+	private static final Logger LOGGER = Logger.getLogger(TransactionAnnouncePipeline.class.getName());
+
+	/** The maximum number of announces in flight. */
+	private final int maxInFlight;
+
+	/** The in-flight window. */
+	private final Semaphore window;
+
+	/** The executor that parses node responses. */
+	private final Executor executor;
+
+	/** The listener notified in submission order, may be null. */
+	private final Consumer<Outcome> listener;
+
+	/** The outcomes not reported or collected yet, in submission order. */
+	private final ArrayDeque<CompletableFuture<Outcome>> outcomes = new ArrayDeque<>();
+
+	/** The number of submitted transactions, the index of the next one. */
+	private int submitted;
+
+	/** True while a thread hands outcomes to the listener. */
+	private boolean reporting;
+
+	/**
+	 * Instantiates a new transaction announce pipeline.
+	 *
+	 * @param maxInFlight the maximum number of announces in flight
+	 * @param executor the executor that parses node responses
+	 */
+	public TransactionAnnouncePipeline(int maxInFlight, Executor executor) {
+		this(maxInFlight, executor, null);
+	}
+
+	/**
+	 * Instantiates a new transaction announce pipeline.
+	 *
+	 * @param maxInFlight the maximum number of announces in flight
+	 * @param executor the executor that parses node responses
+	 * @param listener the listener notified of each outcome in submission order
+	 */
+	public TransactionAnnouncePipeline(int maxInFlight, Executor executor, Consumer<Outcome> listener) {
+		if (maxInFlight < 1) {
+			throw new IllegalArgumentException("maxInFlight must be at least 1");
+		}
+		this.maxInFlight = maxInFlight;
+		this.window = new Semaphore(maxInFlight);
+		this.executor = executor;
+		this.listener = listener;
+	}
+
+	/**
+	 * Submits a signed transaction, blocking while the window is full.
+	 *
+	 * @param transaction the signed transaction
+	 * @return the future outcome
+	 * @throws InterruptedException if interrupted while waiting for the window
+	 */
+	public CompletableFuture<Outcome> submit(final Transaction transaction) throws InterruptedException {
+		return this.announce(() -> TransactionSenderUtil.sendTransactionAsync(transaction, this.executor));
+	}
+
+	/**
+	 * Submits a transaction signed and serialized up front, blocking while the
+	 * window is full.
+	 *
+	 * @param signedTransaction the signed transaction
+	 * @return the future outcome
+	 * @throws InterruptedException if interrupted while waiting for the window
+	 */
+	public CompletableFuture<Outcome> submit(final SignedTransaction signedTransaction) throws InterruptedException {
+		return this.announce(() -> TransactionSenderUtil.sendTransactionAsync(signedTransaction, this.executor));
+	}
+
+	/**
+	 * Signs and submits the transaction described by the t block.
+	 *
+	 * @param tBlock the t block
+	 * @return the future outcome
+	 * @throws InterruptedException if interrupted while waiting for the window
+	 */
+	public CompletableFuture<Outcome> submit(final SwiftTransaction tBlock) throws InterruptedException {
+		if (tBlock.getTimeInstant() == null) {
+			tBlock.setTimeInstant(Globals.TIME_PROVIDER.getCurrentTime());
+		}
+		return this.submit(BlockchainTransactionService.createSignedTransaction(tBlock));
+	}
+
+	/**
+	 * Signs and submits the multisig transaction described by the t block.
+	 *
+	 * @param tBlock the t block
+	 * @return the future outcome
+	 * @throws InterruptedException if interrupted while waiting for the window
+	 */
+	public CompletableFuture<Outcome> submit(final SwiftMultisigTransaction tBlock) throws InterruptedException {
+		if (tBlock.getTimeInstant() == null) {
+			tBlock.setTimeInstant(Globals.TIME_PROVIDER.getCurrentTime());
+		}
+		return this.submit(BlockchainTransactionService.createSignedMultisigTransaction(tBlock));
+	}
+
+	/**
+	 * Submits every transaction of the stream, blocking while the window is
+	 * full.
+	 *
+	 * @param transactions the signed transactions
+	 * @throws InterruptedException if interrupted while waiting for the window
+	 */
+	public void submitAll(final Stream<Transaction> transactions) throws InterruptedException {
+		for (final Transaction transaction : (Iterable<Transaction>) transactions::iterator) {
+			this.submit(transaction);
+		}
+	}
+
+	/**
+	 * Waits for every announce submitted so far to finish and collects the
+	 * outcomes not collected by an earlier call. With a listener, the
+	 * outcomes it has been handed already are left out.
+	 *
+	 * @return the outcomes in submission order
+	 */
+	public List<Outcome> awaitResults() {
+		final List<CompletableFuture<Outcome>> snapshot;
+		synchronized (this.outcomes) {
+			snapshot = new ArrayList<>(this.outcomes);
+			if (this.listener == null) {
+				this.outcomes.clear();
+			}
+		}
+
+		final List<Outcome> results = new ArrayList<>(snapshot.size());
+		for (final CompletableFuture<Outcome> outcome : snapshot) {
+			results.add(outcome.join());
+		}
+		return results;
+	}
+
+	/**
+	 * Gets the number of announces currently in flight.
+	 *
+	 * @return the in-flight count
+	 */
+	public int getInFlight() {
+		return this.maxInFlight - this.window.availablePermits();
+	}
+
+	/**
+	 * Takes a window slot and starts an announce, e.g. one the caller sends
+	 * through a transport or to a node of its own.
+	 *
+	 * @param send starts the announce
+	 * @return the future outcome
+	 * @throws InterruptedException if interrupted while waiting for the window
+	 */
+	public CompletableFuture<Outcome> announce(final Supplier<CompletableFuture<SwiftAnnounceResult>> send)
+			throws InterruptedException {
+		this.window.acquire();
+
+		final int index;
+		final CompletableFuture<Outcome> outcome = new CompletableFuture<>();
+		synchronized (this.outcomes) {
+			index = this.submitted++;
+			this.outcomes.add(outcome);
+		}
+
+		CompletableFuture<SwiftAnnounceResult> future;
+		try {
+			future = send.get();
+		} catch (RuntimeException e) {
+			future = new CompletableFuture<>();
+			future.completeExceptionally(e);
+		}
+
+		future.whenComplete((result, error) -> {
+			this.window.release();
+			outcome.complete(new Outcome(index, result, error));
+			this.report();
+		});
+		return outcome;
+	}
+
+	/**
+	 * Hands completed outcomes to the listener without skipping over pending
+	 * ones, so the listener sees them in submission order. One thread reports
+	 * at a time; the others leave the outcomes they completed to it.
+	 */
+	private void report() {
+		if (this.listener == null) {
+			return;
+		}
+
+		synchronized (this.outcomes) {
+			if (this.reporting) {
+				return;
+			}
+			this.reporting = true;
+		}
+		while (true) {
+			final List<Outcome> ready = new ArrayList<>();
+			synchronized (this.outcomes) {
+				while (!this.outcomes.isEmpty() && this.outcomes.peek().isDone()) {
+					ready.add(this.outcomes.poll().join());
+				}
+				if (ready.isEmpty()) {
+					this.reporting = false;
+					return;
+				}
+			}
+			for (final Outcome outcome : ready) {
+				try {
+					this.listener.accept(outcome);
+				} catch (RuntimeException e) {
+					LOGGER.warning(String.format("announce listener failed: %s", e.getMessage()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * The outcome of a single submitted transaction.
+	 */
+	public static class Outcome {
+
+		/** The submission index. */
+		private final int index;
+
+		/** The announce result, null on failure. */
+		private final SwiftAnnounceResult result;
+
+		/** The error, null on success. */
+		private final Throwable error;
+
+		/**
+		 * Instantiates a new outcome.
+		 *
+		 * @param index the submission index
+		 * @param result the announce result
+		 * @param error the error
+		 */
+		Outcome(int index, SwiftAnnounceResult result, Throwable error) {
+			this.index = index;
+			this.result = result;
+			this.error = error;
+		}
+
+		/**
+		 * Gets the submission index.
+		 *
+		 * @return the index
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * Gets the announce result.
+		 *
+		 * @return the result, null if the announce failed
+		 */
+		public SwiftAnnounceResult getResult() {
+			return result;
+		}
+
+		/**
+		 * Gets the error.
+		 *
+		 * @return the error, null if the node answered
+		 */
+		public Throwable getError() {
+			return error;
+		}
+
+		/**
+		 * Checks if the node accepted the transaction.
+		 *
+		 * @return true, if successful
+		 */
+		public boolean isSuccessful() {
+			return error == null && result != null && result.isSuccessful();
+		}
+	}
+}
@@ -1,23 +1,50 @@
 package io.nem.swift.crypto;
 
 import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipException;
 
 import org.nem.core.crypto.KeyPair;
-import org.nem.core.crypto.PrivateKey;
-import org.nem.core.crypto.PublicKey;
 import org.nem.core.messages.SecureMessage;
 import org.nem.core.model.Account;
 import org.nem.core.utils.HexEncoder;
 
+import io.nem.factories.EntityFactory;
 import io.nem.util.GzipUtils;
+import io.nem.util.SwiftDictionaryCodec;
+import io.nem.util.SwiftPayloadEnvelope;
 
 
 
 /**
  * The Class SecureMessageSwiftPayloadDecoder.
+ *
+ * The <code>String</code> overloads take the hex payload of the NIS JSON;
+ * the <code>byte[]</code> and {@link ByteBuffer} overloads take the raw
+ * encrypted payload, e.g. {@link SecureMessage#getEncodedPayload()}, and
+ * decode without a hex round trip. The buffer overloads decrypt into a
+ * per-thread scratch buffer and uncompress straight into the caller's
+ * buffer, so decoding many payloads allocates next to nothing.
  */
 public class SecureMessageSwiftPayloadDecoder {
 
+	/** The Constant MIN_SCRATCH. */
+	private static final int MIN_SCRATCH = 4096;
+
+	/** The Constant MAX_RETAINED_SCRATCH, larger scratch buffers are not kept. */
+	private static final int MAX_RETAINED_SCRATCH = 1 << 20;
+
+	/** The Constant MAX_MESSAGE_SIZE, the largest message decoded into a string. */
+	private static final int MAX_MESSAGE_SIZE = 64 << 20;
+
+	/** The Constant PAYLOAD_SCRATCH, the per-thread decrypted payload. */
+	private static final ThreadLocal<byte[]> PAYLOAD_SCRATCH = ThreadLocal.withInitial(() -> new byte[MIN_SCRATCH]);
+
+	/** The Constant MESSAGE_SCRATCH, the per-thread message of the string overloads. */
+	private static final ThreadLocal<byte[]> MESSAGE_SCRATCH = ThreadLocal.withInitial(() -> new byte[MIN_SCRATCH]);
+
 	/**
 	 * Decode.
 	 *
@@ -27,9 +54,9 @@ public class SecureMessageSwiftPayloadDecoder {
 	 * @return the secure message
 	 */
 	public static SecureMessage decode(String senderPublicKey, String recipientPrivateKey, String encryptedPayload) {
-		final KeyPair senderKeyPair = new KeyPair(PublicKey.fromHexString(senderPublicKey));
-		final KeyPair recipientKeyPairPriv = new KeyPair(PrivateKey.fromHexString(recipientPrivateKey));
-		return SecureMessage.fromEncodedPayload(new Account(senderKeyPair), new Account(recipientKeyPairPriv),
+		final Account senderAccount = EntityFactory.buildAccountFromPublicKey(senderPublicKey);
+		final Account recipientAccount = EntityFactory.buildAccountFromPrivateKey(recipientPrivateKey);
+		return SecureMessage.fromEncodedPayload(senderAccount, recipientAccount,
 				HexEncoder.getBytes(encryptedPayload));
 	}
 
@@ -42,10 +69,10 @@ public class SecureMessageSwiftPayloadDecoder {
 	 * @return the secure message
 	 */
 	public static SecureMessage decode(String senderPublicKey, String recipientPrivateKey, byte[] encryptedPayload) {
-		final KeyPair senderKeyPair = new KeyPair(PublicKey.fromHexString(senderPublicKey));
-		final KeyPair recipientKeyPairPriv = new KeyPair(PrivateKey.fromHexString(recipientPrivateKey));
-		return SecureMessage.fromEncodedPayload(new Account(senderKeyPair), new Account(recipientKeyPairPriv),
-				HexEncoder.getString(encryptedPayload).getBytes());
+		final Account senderAccount = EntityFactory.buildAccountFromPublicKey(senderPublicKey);
+		final Account recipientAccount = EntityFactory.buildAccountFromPrivateKey(recipientPrivateKey);
+		return SecureMessage.fromEncodedPayload(senderAccount, recipientAccount,
+				encryptedPayload);
 	}
 
 	/**
@@ -59,12 +86,11 @@ public class SecureMessageSwiftPayloadDecoder {
 	 */
 	public static String decodeAndGzipUncompress(String senderPublicKey, String recipientPrivateKey,
 			String encryptedPayload) throws IOException {
-		final KeyPair senderKeyPair = new KeyPair(PublicKey.fromHexString(senderPublicKey));
-		final KeyPair recipientKeyPairPriv = new KeyPair(PrivateKey.fromHexString(recipientPrivateKey));
-		SecureMessage secureMessage = SecureMessage.fromEncodedPayload(new Account(senderKeyPair),
-				new Account(recipientKeyPairPriv), HexEncoder.getBytes(encryptedPayload));
-
-		return GzipUtils.decompress(secureMessage.getDecodedPayload());
+		final Account senderAccount = EntityFactory.buildAccountFromPublicKey(senderPublicKey);
+		final Account recipientAccount = EntityFactory.buildAccountFromPrivateKey(recipientPrivateKey);
+		final byte[] payload = SwiftCryptoSession.get(recipientAccount, senderAccount)
+				.decrypt(HexEncoder.getBytes(encryptedPayload));
+		return GzipUtils.decompress(payload);
 	}
 
 	/**
@@ -78,12 +104,11 @@ public class SecureMessageSwiftPayloadDecoder {
 	 */
 	public static String decodeAndGzipUncompress(String senderPublicKey, String recipientPrivateKey,
 			byte[] encryptedPayload) throws IOException {
-		final KeyPair senderKeyPair = new KeyPair(PublicKey.fromHexString(senderPublicKey));
-		final KeyPair recipientKeyPairPriv = new KeyPair(PrivateKey.fromHexString(recipientPrivateKey));
-		SecureMessage secureMessage = SecureMessage.fromEncodedPayload(new Account(senderKeyPair),
-				new Account(recipientKeyPairPriv), HexEncoder.getString(encryptedPayload).getBytes());
-
-		return GzipUtils.decompress(secureMessage.getDecodedPayload());
+		final Account senderAccount = EntityFactory.buildAccountFromPublicKey(senderPublicKey);
+		final Account recipientAccount = EntityFactory.buildAccountFromPrivateKey(recipientPrivateKey);
+		final byte[] payload = SwiftCryptoSession.get(recipientAccount, senderAccount)
+				.decrypt(encryptedPayload);
+		return GzipUtils.decompress(payload);
 	}
 
 	/**
@@ -97,9 +122,9 @@ public class SecureMessageSwiftPayloadDecoder {
 	 */
 	public static String decodeAndGzipUncompress(KeyPair senderPublicKey, KeyPair recipientPrivateKey,
 			String encryptedPayload) throws IOException {
-		SecureMessage secureMessage = SecureMessage.fromEncodedPayload(new Account(senderPublicKey),
-				new Account(recipientPrivateKey), HexEncoder.getBytes(encryptedPayload));
-		return GzipUtils.decompress(secureMessage.getDecodedPayload());
+		final byte[] payload = SwiftCryptoSession.get(new Account(recipientPrivateKey), new Account(senderPublicKey))
+				.decrypt(HexEncoder.getBytes(encryptedPayload));
+		return GzipUtils.decompress(payload);
 	}
 
 	/**
@@ -113,9 +138,9 @@ public class SecureMessageSwiftPayloadDecoder {
 	 */
 	public static String decodeAndGzipUncompress(KeyPair senderPublicKey, KeyPair recipientPrivateKey,
 			byte[] encryptedPayload) throws IOException {
-		SecureMessage secureMessage = SecureMessage.fromEncodedPayload(new Account(senderPublicKey),
-				new Account(recipientPrivateKey), HexEncoder.getString(encryptedPayload).getBytes());
-		return GzipUtils.decompress(secureMessage.getDecodedPayload());
+		final byte[] payload = SwiftCryptoSession.get(new Account(recipientPrivateKey), new Account(senderPublicKey))
+				.decrypt(encryptedPayload);
+		return GzipUtils.decompress(payload);
 	}
 
 	/**
@@ -129,9 +154,9 @@ public class SecureMessageSwiftPayloadDecoder {
 	 */
 	public static String decodeAndGzipUncompress(Account senderPublicKey, Account recipientPrivateKey,
 			String encryptedPayload) throws IOException {
-		SecureMessage secureMessage = SecureMessage.fromEncodedPayload(senderPublicKey, recipientPrivateKey,
-				HexEncoder.getBytes(encryptedPayload));
-		return GzipUtils.decompress(secureMessage.getDecodedPayload());
+		final byte[] payload = SwiftCryptoSession.get(recipientPrivateKey, senderPublicKey)
+				.decrypt(HexEncoder.getBytes(encryptedPayload));
+		return GzipUtils.decompress(payload);
 	}
 
 	/**
@@ -145,9 +170,201 @@ public class SecureMessageSwiftPayloadDecoder {
 	 */
 	public static String decodeAndGzipUncompress(Account senderPublicKey, Account recipientPrivateKey,
 			byte[] encryptedPayload) throws IOException {
-		SecureMessage secureMessage = SecureMessage.fromEncodedPayload(senderPublicKey, recipientPrivateKey,
-				HexEncoder.getString(encryptedPayload).getBytes());
-		return GzipUtils.decompress(secureMessage.getDecodedPayload());
+		final byte[] payload = SwiftCryptoSession.get(recipientPrivateKey, senderPublicKey)
+				.decrypt(encryptedPayload);
+		return GzipUtils.decompress(payload);
+	}
+
+	/**
+	 * Decode and uncompress with the preset dictionary named in the payload.
+	 *
+	 * @param senderPublicKey the sender public key
+	 * @param recipientPrivateKey the recipient private key
+	 * @param encryptedPayload the encrypted payload
+	 * @return the string
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static String decodeAndDictionaryUncompress(String senderPublicKey, String recipientPrivateKey,
+			String encryptedPayload) throws IOException {
+		return decodeAndDictionaryUncompress(EntityFactory.buildAccountFromPublicKey(senderPublicKey),
+				EntityFactory.buildAccountFromPrivateKey(recipientPrivateKey), encryptedPayload);
+	}
+
+	/**
+	 * Decode and uncompress with the preset dictionary named in the payload.
+	 *
+	 * @param senderPublicKey the sender public key
+	 * @param recipientPrivateKey the recipient private key
+	 * @param encryptedPayload the encrypted payload
+	 * @return the string
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static String decodeAndDictionaryUncompress(KeyPair senderPublicKey, KeyPair recipientPrivateKey,
+			String encryptedPayload) throws IOException {
+		return decodeAndDictionaryUncompress(new Account(senderPublicKey), new Account(recipientPrivateKey),
+				encryptedPayload);
+	}
+
+	/**
+	 * Decode and uncompress with the preset dictionary named in the payload.
+	 *
+	 * @param senderPublicKey the sender public key
+	 * @param recipientPrivateKey the recipient private key
+	 * @param encryptedPayload the encrypted payload
+	 * @return the string
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static String decodeAndDictionaryUncompress(Account senderPublicKey, Account recipientPrivateKey,
+			String encryptedPayload) throws IOException {
+		final byte[] payload = SwiftCryptoSession.get(recipientPrivateKey, senderPublicKey)
+				.decrypt(HexEncoder.getBytes(encryptedPayload));
+		return SwiftDictionaryCodec.decompressToString(payload);
+	}
+
+	/**
+	 * Decode and uncompress with the codec named in the envelope header,
+	 * falling back to gzip detection for payloads without one.
+	 *
+	 * @param senderPublicKey the sender public key
+	 * @param recipientPrivateKey the recipient private key
+	 * @param encryptedPayload the encrypted payload
+	 * @return the string
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static String decodeAndUncompress(String senderPublicKey, String recipientPrivateKey,
+			String encryptedPayload) throws IOException {
+		return decodeAndUncompress(EntityFactory.buildAccountFromPublicKey(senderPublicKey),
+				EntityFactory.buildAccountFromPrivateKey(recipientPrivateKey), encryptedPayload);
+	}
+
+	/**
+	 * Decode and uncompress with the codec named in the envelope header,
+	 * falling back to gzip detection for payloads without one.
+	 *
+	 * @param senderPublicKey the sender public key
+	 * @param recipientPrivateKey the recipient private key
+	 * @param encryptedPayload the encrypted payload
+	 * @return the string
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static String decodeAndUncompress(KeyPair senderPublicKey, KeyPair recipientPrivateKey,
+			String encryptedPayload) throws IOException {
+		return decodeAndUncompress(new Account(senderPublicKey), new Account(recipientPrivateKey), encryptedPayload);
+	}
+
+	/**
+	 * Decode and uncompress with the codec named in the envelope header,
+	 * falling back to gzip detection for payloads without one.
+	 *
+	 * @param senderPublicKey the sender public key
+	 * @param recipientPrivateKey the recipient private key
+	 * @param encryptedPayload the encrypted payload
+	 * @return the string
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static String decodeAndUncompress(Account senderPublicKey, Account recipientPrivateKey,
+			String encryptedPayload) throws IOException {
+		return decodeAndUncompress(senderPublicKey, recipientPrivateKey, HexEncoder.getBytes(encryptedPayload));
+	}
+
+	/**
+	 * Decode and uncompress a raw encrypted payload with the codec named in
+	 * the envelope header, falling back to gzip detection for payloads
+	 * without one.
+	 *
+	 * @param senderPublicKey the sender public key
+	 * @param recipientPrivateKey the recipient private key
+	 * @param encryptedPayload the raw encrypted payload
+	 * @return the string
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static String decodeAndUncompress(Account senderPublicKey, Account recipientPrivateKey,
+			byte[] encryptedPayload) throws IOException {
+		final ByteBuffer input = ByteBuffer.wrap(encryptedPayload);
+		int size = Math.max(MIN_SCRATCH, 8 * encryptedPayload.length);
+		while (true) {
+			final byte[] message = scratch(MESSAGE_SCRATCH, size);
+			try {
+				final int length = decodeAndUncompress(senderPublicKey, recipientPrivateKey, input.duplicate(),
+						ByteBuffer.wrap(message));
+				return new String(message, 0, length, StandardCharsets.UTF_8);
+			} catch (BufferOverflowException e) {
+				if (message.length >= MAX_MESSAGE_SIZE) {
+					throw new ZipException("message larger than " + MAX_MESSAGE_SIZE + " bytes");
+				}
+				size = (int) Math.min(MAX_MESSAGE_SIZE, 2L * message.length);
+			}
+		}
+	}
+
+	/**
+	 * Decode and uncompress a raw encrypted payload into the output, see
+	 * {@link #decodeAndUncompress(Account, Account, ByteBuffer, ByteBuffer)}.
+	 *
+	 * @param senderPublicKey the sender public key
+	 * @param recipientPrivateKey the recipient private key
+	 * @param encryptedPayload the raw encrypted payload
+	 * @param output the output
+	 * @return the number of bytes written
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static int decodeAndUncompress(Account senderPublicKey, Account recipientPrivateKey,
+			byte[] encryptedPayload, ByteBuffer output) throws IOException {
+		return decodeAndUncompress(senderPublicKey, recipientPrivateKey, ByteBuffer.wrap(encryptedPayload), output);
+	}
+
+	/**
+	 * Decode and uncompress the remaining bytes of a raw encrypted payload
+	 * into the output, advancing both buffers, with the codec named in the
+	 * envelope header, falling back to gzip detection for payloads without
+	 * one. The output is left unchanged when it is too small.
+	 *
+	 * @param senderPublicKey the sender public key
+	 * @param recipientPrivateKey the recipient private key
+	 * @param encryptedPayload the raw encrypted payload
+	 * @param output the output
+	 * @return the number of bytes written
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws BufferOverflowException if the output is too small
+	 */
+	public static int decodeAndUncompress(Account senderPublicKey, Account recipientPrivateKey,
+			ByteBuffer encryptedPayload, ByteBuffer output) throws IOException {
+		final ByteBuffer payload = ByteBuffer.wrap(scratch(PAYLOAD_SCRATCH, encryptedPayload.remaining()));
+		final ByteBuffer input = encryptedPayload.duplicate();
+		if (SwiftCryptoSession.get(recipientPrivateKey, senderPublicKey).decrypt(input, payload) < 0) {
+			throw new ZipException("payload cannot be decrypted");
+		}
+		payload.flip();
+
+		final int start = output.position();
+		try {
+			final int written = SwiftPayloadEnvelope.decode(payload, output);
+			encryptedPayload.position(encryptedPayload.limit());
+			return written;
+		} catch (BufferOverflowException e) {
+			output.position(start);
+			throw e;
+		}
 	}
 
+	/**
+	 * Gets a per-thread scratch buffer of at least the given size. Buffers
+	 * above the retention limit are handed out once and not kept.
+	 *
+	 * @param holder the holder
+	 * @param minSize the minimum size
+	 * @return the scratch buffer
+	 */
+	private static byte[] scratch(ThreadLocal<byte[]> holder, int minSize) {
+		final byte[] buffer = holder.get();
+		if (buffer.length >= minSize) {
+			return buffer;
+		}
+
+		final byte[] grown = new byte[Math.max(minSize, Math.min(buffer.length * 2, MAX_RETAINED_SCRATCH))];
+		if (grown.length <= MAX_RETAINED_SCRATCH) {
+			holder.set(grown);
+		}
+		return grown;
+	}
 }
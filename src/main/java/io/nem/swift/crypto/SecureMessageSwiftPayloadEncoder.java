@@ -8,6 +8,8 @@ import org.nem.core.model.Account;
 
 import io.nem.factories.EntityFactory;
 import io.nem.util.GzipUtils;
+import io.nem.util.SwiftDictionaryCodec;
+import io.nem.util.SwiftPayloadEnvelope;
 
 
 
@@ -27,7 +29,7 @@ public class SecureMessageSwiftPayloadEncoder {
 	 * @return the secure message
 	 */
 	public static SecureMessage encode(Account senderPrivateKey, Account recipientPublicKey, String swiftMessage) {
-		return SecureMessage.fromDecodedPayload(senderPrivateKey, recipientPublicKey, swiftMessage.getBytes());
+		return SwiftCryptoSession.get(senderPrivateKey, recipientPublicKey).encrypt(swiftMessage.getBytes());
 	}
 
 	/**
@@ -39,7 +41,7 @@ public class SecureMessageSwiftPayloadEncoder {
 	 * @return the secure message
 	 */
 	public static SecureMessage encode(Account senderPrivateKey, Account recipientPublicKey, byte[] swiftMessage) {
-		return SecureMessage.fromDecodedPayload(senderPrivateKey, recipientPublicKey, swiftMessage);
+		return SwiftCryptoSession.get(senderPrivateKey, recipientPublicKey).encrypt(swiftMessage);
 	}
 
 	/**
@@ -53,7 +55,7 @@ public class SecureMessageSwiftPayloadEncoder {
 	public static SecureMessage encode(String senderPrivateKey, String recipientPublicKey, String swiftMessage) {
 		final Account senderAccount = EntityFactory.buildAccountFromPrivateKey(senderPrivateKey);
 		final Account recipientAccount = EntityFactory.buildAccountFromPublicKey(recipientPublicKey);
-		return SecureMessage.fromDecodedPayload(senderAccount, recipientAccount, swiftMessage.getBytes());
+		return SwiftCryptoSession.get(senderAccount, recipientAccount).encrypt(swiftMessage.getBytes());
 	}
 
 	/**
@@ -67,7 +69,7 @@ public class SecureMessageSwiftPayloadEncoder {
 	public static SecureMessage encode(String senderPrivateKey, String recipientPublicKey, byte[] swiftMessage) {
 		final Account senderAccount = EntityFactory.buildAccountFromPrivateKey(senderPrivateKey);
 		final Account recipientAccount = EntityFactory.buildAccountFromPublicKey(recipientPublicKey);
-		return SecureMessage.fromDecodedPayload(senderAccount, recipientAccount, swiftMessage);
+		return SwiftCryptoSession.get(senderAccount, recipientAccount).encrypt(swiftMessage);
 	}
 
 	/**
@@ -81,7 +83,7 @@ public class SecureMessageSwiftPayloadEncoder {
 	 */
 	public static SecureMessage encodeAndGzipCompress(Account senderPrivateKey, Account recipientPublicKey,
 			String swiftMessage) throws IOException {
-		return SecureMessage.fromDecodedPayload(senderPrivateKey, recipientPublicKey, GzipUtils.compress(swiftMessage));
+		return SwiftCryptoSession.get(senderPrivateKey, recipientPublicKey).encrypt(GzipUtils.compress(swiftMessage));
 	}
 
 	/**
@@ -96,7 +98,7 @@ public class SecureMessageSwiftPayloadEncoder {
 	 */
 	public static SecureMessage encodeAndGzipCompress(Account senderPrivateKey, Account recipientPublicKey,
 			byte[] swiftMessage) throws UnsupportedEncodingException, IOException {
-		return SecureMessage.fromDecodedPayload(senderPrivateKey, recipientPublicKey,
+		return SwiftCryptoSession.get(senderPrivateKey, recipientPublicKey).encrypt(
 				GzipUtils.compress(new String(swiftMessage, "UTF-8")));
 	}
 
@@ -113,7 +115,7 @@ public class SecureMessageSwiftPayloadEncoder {
 			String swiftMessage) throws IOException {
 		final Account senderAccount = EntityFactory.buildAccountFromPrivateKey(senderPrivateKey);
 		final Account recipientAccount = EntityFactory.buildAccountFromPublicKey(recipientPublicKey);
-		return SecureMessage.fromDecodedPayload(senderAccount, recipientAccount, GzipUtils.compress(swiftMessage));
+		return SwiftCryptoSession.get(senderAccount, recipientAccount).encrypt(GzipUtils.compress(swiftMessage));
 	}
 
 	/**
@@ -130,7 +132,123 @@ public class SecureMessageSwiftPayloadEncoder {
 			byte[] swiftMessage) throws UnsupportedEncodingException, IOException {
 		final Account senderAccount = EntityFactory.buildAccountFromPrivateKey(senderPrivateKey);
 		final Account recipientAccount = EntityFactory.buildAccountFromPublicKey(recipientPublicKey);
-		return SecureMessage.fromDecodedPayload(senderAccount, recipientAccount,
+		return SwiftCryptoSession.get(senderAccount, recipientAccount).encrypt(
 				GzipUtils.compress(new String(swiftMessage, "UTF-8")));
 	}
+
+	/**
+	 * Encode and compress with the preset dictionary of the MT family.
+	 *
+	 * @param senderPrivateKey the sender private key
+	 * @param recipientPublicKey the recipient public key
+	 * @param swiftMessage the swift message
+	 * @return the secure message
+	 */
+	public static SecureMessage encodeAndDictionaryCompress(Account senderPrivateKey, Account recipientPublicKey,
+			String swiftMessage) {
+		return SwiftCryptoSession.get(senderPrivateKey, recipientPublicKey)
+				.encrypt(SwiftDictionaryCodec.compress(swiftMessage));
+	}
+
+	/**
+	 * Encode and compress with the preset dictionary of the MT family.
+	 *
+	 * @param senderPrivateKey the sender private key
+	 * @param recipientPublicKey the recipient public key
+	 * @param swiftMessage the swift message
+	 * @return the secure message
+	 */
+	public static SecureMessage encodeAndDictionaryCompress(Account senderPrivateKey, Account recipientPublicKey,
+			byte[] swiftMessage) {
+		return SwiftCryptoSession.get(senderPrivateKey, recipientPublicKey)
+				.encrypt(SwiftDictionaryCodec.compress(swiftMessage));
+	}
+
+	/**
+	 * Encode and compress with the preset dictionary of the MT family.
+	 *
+	 * @param senderPrivateKey the sender private key
+	 * @param recipientPublicKey the recipient public key
+	 * @param swiftMessage the swift message
+	 * @return the secure message
+	 */
+	public static SecureMessage encodeAndDictionaryCompress(String senderPrivateKey, String recipientPublicKey,
+			String swiftMessage) {
+		return encodeAndDictionaryCompress(EntityFactory.buildAccountFromPrivateKey(senderPrivateKey),
+				EntityFactory.buildAccountFromPublicKey(recipientPublicKey), swiftMessage);
+	}
+
+	/**
+	 * Encode and compress with the preset dictionary of the MT family.
+	 *
+	 * @param senderPrivateKey the sender private key
+	 * @param recipientPublicKey the recipient public key
+	 * @param swiftMessage the swift message
+	 * @return the secure message
+	 */
+	public static SecureMessage encodeAndDictionaryCompress(String senderPrivateKey, String recipientPublicKey,
+			byte[] swiftMessage) {
+		return encodeAndDictionaryCompress(EntityFactory.buildAccountFromPrivateKey(senderPrivateKey),
+				EntityFactory.buildAccountFromPublicKey(recipientPublicKey), swiftMessage);
+	}
+
+	/**
+	 * Encode and compress with the smallest codec, named in the envelope
+	 * header of the payload.
+	 *
+	 * @param senderPrivateKey the sender private key
+	 * @param recipientPublicKey the recipient public key
+	 * @param swiftMessage the swift message
+	 * @return the secure message
+	 */
+	public static SecureMessage encodeAndCompress(Account senderPrivateKey, Account recipientPublicKey,
+			String swiftMessage) {
+		return SwiftCryptoSession.get(senderPrivateKey, recipientPublicKey)
+				.encrypt(SwiftPayloadEnvelope.encode(swiftMessage));
+	}
+
+	/**
+	 * Encode and compress with the smallest codec, named in the envelope
+	 * header of the payload.
+	 *
+	 * @param senderPrivateKey the sender private key
+	 * @param recipientPublicKey the recipient public key
+	 * @param swiftMessage the swift message
+	 * @return the secure message
+	 */
+	public static SecureMessage encodeAndCompress(Account senderPrivateKey, Account recipientPublicKey,
+			byte[] swiftMessage) {
+		return SwiftCryptoSession.get(senderPrivateKey, recipientPublicKey)
+				.encrypt(SwiftPayloadEnvelope.encode(swiftMessage));
+	}
+
+	/**
+	 * Encode and compress with the smallest codec, named in the envelope
+	 * header of the payload.
+	 *
+	 * @param senderPrivateKey the sender private key
+	 * @param recipientPublicKey the recipient public key
+	 * @param swiftMessage the swift message
+	 * @return the secure message
+	 */
+	public static SecureMessage encodeAndCompress(String senderPrivateKey, String recipientPublicKey,
+			String swiftMessage) {
+		return encodeAndCompress(EntityFactory.buildAccountFromPrivateKey(senderPrivateKey),
+				EntityFactory.buildAccountFromPublicKey(recipientPublicKey), swiftMessage);
+	}
+
+	/**
+	 * Encode and compress with the smallest codec, named in the envelope
+	 * header of the payload.
+	 *
+	 * @param senderPrivateKey the sender private key
+	 * @param recipientPublicKey the recipient public key
+	 * @param swiftMessage the swift message
+	 * @return the secure message
+	 */
+	public static SecureMessage encodeAndCompress(String senderPrivateKey, String recipientPublicKey,
+			byte[] swiftMessage) {
+		return encodeAndCompress(EntityFactory.buildAccountFromPrivateKey(senderPrivateKey),
+				EntityFactory.buildAccountFromPublicKey(recipientPublicKey), swiftMessage);
+	}
 }
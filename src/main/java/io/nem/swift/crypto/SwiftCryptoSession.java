@@ -0,0 +1,319 @@
+package io.nem.swift.crypto;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.nem.core.crypto.Hashes;
+import org.nem.core.crypto.KeyPair;
+import org.nem.core.crypto.ed25519.Ed25519Utils;
+import org.nem.core.crypto.ed25519.arithmetic.Ed25519EncodedGroupElement;
+import org.nem.core.crypto.ed25519.arithmetic.Ed25519GroupElement;
+import org.nem.core.messages.SecureMessage;
+import org.nem.core.model.Account;
+import org.nem.core.utils.HexEncoder;
+
+import io.nem.metrics.Metrics;
+import io.nem.util.AppPropertiesUtil;
+import io.nem.util.LruCache;
+
+
+
+/**
+ * A crypto session between a local account and a counterparty.
+ *
+ * The elliptic curve key agreement is done once per session and the shared
+ * secret is kept in a bounded session cache, so each message only pays for
+ * the salted key hash and the AES cipher. Payloads use the same
+ * salt | iv | AES-CBC layout as {@link SecureMessage} and stay wire
+ * compatible with it in both directions.
+ */
+public class SwiftCryptoSession {
+
+	/** The Constant KEY_LENGTH. */
+	private static final int KEY_LENGTH = 32;
+
+	/** The Constant IV_LENGTH. */
+	private static final int IV_LENGTH = 16;
+
+	/** The Constant TRANSFORMATION. */
+	private static final String TRANSFORMATION = "AES/CBC/PKCS5Padding";
+
+	/** The Constant DEFAULT_CACHE_SIZE. */
+	private static final int DEFAULT_CACHE_SIZE = 256;
+
+	/** The Constant SESSIONS. */
+	private static final LruCache<String, SwiftCryptoSession> SESSIONS = new LruCache<>(getCacheSize());
+
+	/** The Constant RANDOM. */
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	/** The Constant CIPHERS, one reusable cipher per thread for the buffer paths. */
+	private static final ThreadLocal<Cipher> CIPHERS = ThreadLocal.withInitial(() -> {
+		try {
+			return Cipher.getInstance(TRANSFORMATION);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("no " + TRANSFORMATION + " cipher", e);
+		}
+	});
+
+	/** The Constant SALT, the per-thread salt scratch. */
+	private static final ThreadLocal<byte[]> SALT = ThreadLocal.withInitial(() -> new byte[KEY_LENGTH]);
+
+	/** The Constant IV, the per-thread iv scratch. */
+	private static final ThreadLocal<byte[]> IV = ThreadLocal.withInitial(() -> new byte[IV_LENGTH]);
+
+	/** The local account, holding the private key. */
+	private final Account localAccount;
+
+	/** The counterparty account. */
+	private final Account counterpartyAccount;
+
+	/** The unsalted shared secret. */
+	private final byte[] sharedSecret;
+
+	/**
+	 * Instantiates a new swift crypto session.
+	 *
+	 * @param localAccount the local account, must hold a private key
+	 * @param counterpartyAccount the counterparty account
+	 */
+	private SwiftCryptoSession(Account localAccount, Account counterpartyAccount) {
+		final KeyPair localKeyPair = localAccount.getKeyPair();
+		if (localKeyPair == null || !localKeyPair.hasPrivateKey()) {
+			throw new IllegalArgumentException("the local account of a crypto session needs a private key");
+		}
+
+		this.localAccount = localAccount;
+		this.counterpartyAccount = counterpartyAccount;
+
+		final Ed25519GroupElement counterpartyPoint = new Ed25519EncodedGroupElement(
+				counterpartyAccount.getAddress().getPublicKey().getRaw()).decode();
+		counterpartyPoint.precomputeForScalarMultiplication();
+		this.sharedSecret = counterpartyPoint
+				.scalarMultiply(Ed25519Utils.prepareForScalarMultiply(localKeyPair.getPrivateKey())).encode().getRaw();
+	}
+
+	/**
+	 * Gets the cached session of a key pair, creating it if needed.
+	 *
+	 * @param localAccount the local account, must hold a private key
+	 * @param counterpartyAccount the counterparty account
+	 * @return the swift crypto session
+	 */
+	public static SwiftCryptoSession get(Account localAccount, Account counterpartyAccount) {
+		return SESSIONS.get(sessionKey(localAccount, counterpartyAccount),
+				k -> new SwiftCryptoSession(localAccount, counterpartyAccount));
+	}
+
+	/**
+	 * Evicts the cached session of a key pair, e.g. after key rotation.
+	 *
+	 * @param localAccount the local account, must hold a private key
+	 * @param counterpartyAccount the counterparty account
+	 */
+	public static void evict(Account localAccount, Account counterpartyAccount) {
+		SESSIONS.evict(sessionKey(localAccount, counterpartyAccount));
+	}
+
+	/**
+	 * Evicts all cached sessions.
+	 */
+	public static void clear() {
+		SESSIONS.clear();
+	}
+
+	/**
+	 * Gets the session cache hits.
+	 *
+	 * @return the session cache hits
+	 */
+	public static long getCacheHits() {
+		return SESSIONS.getHits();
+	}
+
+	/**
+	 * Gets the session cache misses.
+	 *
+	 * @return the session cache misses
+	 */
+	public static long getCacheMisses() {
+		return SESSIONS.getMisses();
+	}
+
+	/**
+	 * Encrypts a payload sent from the local account to the counterparty.
+	 *
+	 * @param payload the payload
+	 * @return the secure message
+	 */
+	public SecureMessage encrypt(byte[] payload) {
+		final long start = Metrics.ENCRYPT.start();
+		final byte[] salt = new byte[KEY_LENGTH];
+		final byte[] iv = new byte[IV_LENGTH];
+		RANDOM.nextBytes(salt);
+		RANDOM.nextBytes(iv);
+
+		try {
+			final Cipher cipher = this.createCipher(Cipher.ENCRYPT_MODE, salt, iv);
+			final byte[] encoded = new byte[KEY_LENGTH + IV_LENGTH + cipher.getOutputSize(payload.length)];
+			System.arraycopy(salt, 0, encoded, 0, KEY_LENGTH);
+			System.arraycopy(iv, 0, encoded, KEY_LENGTH, IV_LENGTH);
+			final int length = cipher.doFinal(payload, 0, payload.length, encoded, KEY_LENGTH + IV_LENGTH);
+
+			final byte[] result = length == encoded.length - KEY_LENGTH - IV_LENGTH ? encoded
+					: Arrays.copyOf(encoded, KEY_LENGTH + IV_LENGTH + length);
+			final SecureMessage message = SecureMessage.fromEncodedPayload(this.localAccount,
+					this.counterpartyAccount, result);
+			Metrics.ENCRYPT.stop(start);
+			return message;
+		} catch (GeneralSecurityException e) {
+			Metrics.ENCRYPT.fail(start);
+			throw new IllegalStateException("could not encrypt payload", e);
+		} catch (RuntimeException e) {
+			Metrics.ENCRYPT.fail(start);
+			throw e;
+		}
+	}
+
+	/**
+	 * Decrypts a payload sent from the counterparty to the local account.
+	 *
+	 * @param encodedPayload the encoded payload
+	 * @return the decoded payload, null if it cannot be decrypted
+	 */
+	public byte[] decrypt(byte[] encodedPayload) {
+		if (encodedPayload == null || encodedPayload.length < KEY_LENGTH + 2 * IV_LENGTH) {
+			return null;
+		}
+
+		try {
+			final Cipher cipher = this.createCipher(Cipher.DECRYPT_MODE,
+					Arrays.copyOfRange(encodedPayload, 0, KEY_LENGTH),
+					Arrays.copyOfRange(encodedPayload, KEY_LENGTH, KEY_LENGTH + IV_LENGTH));
+			return cipher.doFinal(encodedPayload, KEY_LENGTH + IV_LENGTH,
+					encodedPayload.length - KEY_LENGTH - IV_LENGTH);
+		} catch (GeneralSecurityException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Decrypts the remaining bytes of a payload sent from the counterparty
+	 * into the output, advancing both buffers. Unlike
+	 * {@link #decrypt(byte[])} nothing is copied out of the input and the
+	 * cipher is reused, so a decrypt allocates only the key material.
+	 *
+	 * @param encodedPayload the encoded payload
+	 * @param output the output, with room for the payload length less 48 bytes
+	 * @return the number of bytes written, -1 if the payload cannot be decrypted
+	 * @throws BufferOverflowException if the output is too small
+	 */
+	public int decrypt(ByteBuffer encodedPayload, ByteBuffer output) {
+		if (encodedPayload.remaining() < KEY_LENGTH + 2 * IV_LENGTH) {
+			return -1;
+		}
+
+		final int inputPosition = encodedPayload.position();
+		final int outputPosition = output.position();
+		final byte[] salt = SALT.get();
+		final byte[] iv = IV.get();
+		encodedPayload.get(salt).get(iv);
+		try {
+			final Cipher cipher = CIPHERS.get();
+			this.initCipher(cipher, Cipher.DECRYPT_MODE, salt, iv);
+			return cipher.doFinal(encodedPayload, output);
+		} catch (ShortBufferException e) {
+			encodedPayload.position(inputPosition);
+			throw new BufferOverflowException();
+		} catch (GeneralSecurityException e) {
+			encodedPayload.position(inputPosition);
+			output.position(outputPosition);
+			return -1;
+		}
+	}
+
+	/**
+	 * Gets the local account.
+	 *
+	 * @return the local account
+	 */
+	public Account getLocalAccount() {
+		return localAccount;
+	}
+
+	/**
+	 * Gets the counterparty account.
+	 *
+	 * @return the counterparty account
+	 */
+	public Account getCounterpartyAccount() {
+		return counterpartyAccount;
+	}
+
+	/**
+	 * Creates an AES cipher keyed with the salted shared secret.
+	 *
+	 * @param mode the cipher mode
+	 * @param salt the salt
+	 * @param iv the iv
+	 * @return the cipher
+	 * @throws GeneralSecurityException the general security exception
+	 */
+	Cipher createCipher(int mode, byte[] salt, byte[] iv) throws GeneralSecurityException {
+		final Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+		this.initCipher(cipher, mode, salt, iv);
+		return cipher;
+	}
+
+	/**
+	 * Keys an AES cipher with the salted shared secret.
+	 *
+	 * @param cipher the cipher
+	 * @param mode the cipher mode
+	 * @param salt the salt
+	 * @param iv the iv
+	 * @throws GeneralSecurityException the general security exception
+	 */
+	private void initCipher(Cipher cipher, int mode, byte[] salt, byte[] iv) throws GeneralSecurityException {
+		final byte[] saltedSecret = this.sharedSecret.clone();
+		for (int i = 0; i < KEY_LENGTH; i++) {
+			saltedSecret[i] ^= salt[i];
+		}
+		cipher.init(mode, new SecretKeySpec(Hashes.sha3_256(saltedSecret), "AES"), new IvParameterSpec(iv));
+	}
+
+	/**
+	 * Builds the cache key of a session from a digest of the local private
+	 * key, so an account holding only the public key never reaches a session
+	 * cached for the private one.
+	 *
+	 * @param localAccount the local account, must hold a private key
+	 * @param counterpartyAccount the counterparty account
+	 * @return the session key
+	 */
+	private static String sessionKey(Account localAccount, Account counterpartyAccount) {
+		final KeyPair localKeyPair = localAccount.getKeyPair();
+		if (localKeyPair == null || !localKeyPair.hasPrivateKey()) {
+			throw new IllegalArgumentException("the local account of a crypto session needs a private key");
+		}
+		return HexEncoder.getString(Hashes.sha3_256(localKeyPair.getPrivateKey().getRaw().toByteArray())) + ":"
+				+ counterpartyAccount.getAddress().getPublicKey();
+	}
+
+	/**
+	 * Gets the cache size.
+	 *
+	 * @return the cache size
+	 */
+	private static int getCacheSize() {
+		return AppPropertiesUtil.getIntProperty("crypto.session.cache.size", DEFAULT_CACHE_SIZE);
+	}
+}
@@ -0,0 +1,279 @@
+package io.nem.swift.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+
+
+/**
+ * Reassembles payloads from {@link SwiftPayloadFragment fragments} received in
+ * any order.
+ *
+ * At most <code>maxPending</code> incomplete messages are buffered, the
+ * oldest being dropped when a new one arrives on a full buffer, and a message
+ * still incomplete after <code>timeoutMillis</code> is dropped as well.
+ * Duplicate fragments are ignored, so fragments may be fed from overlapping
+ * polls.
+ */
+public class SwiftFragmentReassembler {
+
+	/** The Constant LOGGER. */
+	private static final Logger LOGGER = Logger.getLogger(SwiftFragmentReassembler.class.getName());
+
+	/** The maximum number of incomplete messages. */
+	private final int maxPending;
+
+	/** The timeout of an incomplete message. */
+	private final long timeoutNanos;
+
+	/** The incomplete messages in arrival order. */
+	private final LinkedHashMap<String, Pending> pending = new LinkedHashMap<>();
+
+	/** The completed count. */
+	private final AtomicLong completed = new AtomicLong();
+
+	/** The dropped count. */
+	private final AtomicLong dropped = new AtomicLong();
+
+	/** The rejected fragment count. */
+	private final AtomicLong rejected = new AtomicLong();
+
+	/**
+	 * Instantiates a new swift fragment reassembler.
+	 *
+	 * @param maxPending the maximum number of incomplete messages
+	 * @param timeoutMillis the timeout of an incomplete message
+	 */
+	public SwiftFragmentReassembler(int maxPending, long timeoutMillis) {
+		if (maxPending < 1) {
+			throw new IllegalArgumentException("maxPending must be at least 1");
+		}
+		this.maxPending = maxPending;
+		this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+	}
+
+	/**
+	 * Offers the bytes of a received plain message.
+	 *
+	 * @param sender the sender, e.g. its address, so ids of different senders never mix
+	 * @param messageBytes the message bytes
+	 * @return the reassembled payload once its last fragment arrived, null otherwise
+	 */
+	public byte[] offer(final String sender, final byte[] messageBytes) {
+		final SwiftPayloadFragment fragment;
+		try {
+			fragment = SwiftPayloadFragment.fromBytes(messageBytes);
+		} catch (IllegalArgumentException e) {
+			this.rejected.incrementAndGet();
+			LOGGER.warning(String.format("rejected fragment from %s: %s", sender, e.getMessage()));
+			return null;
+		}
+		return this.offer(sender, fragment);
+	}
+
+	/**
+	 * Offers a fragment.
+	 *
+	 * @param sender the sender, e.g. its address, so ids of different senders never mix
+	 * @param fragment the fragment
+	 * @return the reassembled payload once its last fragment arrived, null otherwise
+	 */
+	public synchronized byte[] offer(final String sender, final SwiftPayloadFragment fragment) {
+		final long now = System.nanoTime();
+		this.expire(now);
+
+		final String key = key(sender, fragment.getMessageId());
+		Pending message = this.pending.get(key);
+		if (message == null) {
+			if (fragment.getCount() == 1) {
+				return this.complete(new Pending(fragment, now).add(fragment));
+			}
+			if (this.pending.size() >= this.maxPending) {
+				this.dropEldest();
+			}
+			message = new Pending(fragment, now);
+			this.pending.put(key, message);
+		} else if (message.parts.length != fragment.getCount()) {
+			this.rejected.incrementAndGet();
+			return null;
+		}
+
+		if (message.add(fragment).received < message.parts.length) {
+			return null;
+		}
+		this.pending.remove(key);
+		return this.complete(message);
+	}
+
+	/**
+	 * Gets the key of a message, unique across senders.
+	 *
+	 * @param sender the sender, as passed to {@link #offer}
+	 * @param messageId the message id
+	 * @return the key
+	 */
+	public static String key(final String sender, final long messageId) {
+		return sender + ":" + Long.toHexString(messageId);
+	}
+
+	/**
+	 * Checks if a message is incomplete and still buffered, that is neither
+	 * reassembled nor dropped.
+	 *
+	 * @param key the key of the message, see {@link #key}
+	 * @return true, if the message is pending
+	 */
+	public synchronized boolean isPending(final String key) {
+		return this.pending.containsKey(key);
+	}
+
+	/**
+	 * Drops the incomplete messages that timed out.
+	 */
+	public synchronized void expire() {
+		this.expire(System.nanoTime());
+	}
+
+	/**
+	 * Gets the number of incomplete messages.
+	 *
+	 * @return the pending count
+	 */
+	public synchronized int getPending() {
+		return this.pending.size();
+	}
+
+	/**
+	 * Gets the number of reassembled messages.
+	 *
+	 * @return the completed count
+	 */
+	public long getCompleted() {
+		return this.completed.get();
+	}
+
+	/**
+	 * Gets the number of messages dropped on timeout, on a full buffer or on a
+	 * payload hash mismatch.
+	 *
+	 * @return the dropped count
+	 */
+	public long getDropped() {
+		return this.dropped.get();
+	}
+
+	/**
+	 * Gets the number of fragments rejected as corrupt or inconsistent.
+	 *
+	 * @return the rejected count
+	 */
+	public long getRejected() {
+		return this.rejected.get();
+	}
+
+	/**
+	 * Drops timed out messages, which sit at the head of the arrival order.
+	 *
+	 * @param now the now
+	 */
+	private void expire(final long now) {
+		final Iterator<Map.Entry<String, Pending>> iterator = this.pending.entrySet().iterator();
+		while (iterator.hasNext()) {
+			final Map.Entry<String, Pending> entry = iterator.next();
+			if (now - entry.getValue().firstSeen < this.timeoutNanos) {
+				break;
+			}
+			iterator.remove();
+			this.dropped.incrementAndGet();
+			LOGGER.warning(String.format("dropped incomplete message %s with %d of %d fragments", entry.getKey(),
+					entry.getValue().received, entry.getValue().parts.length));
+		}
+	}
+
+	/**
+	 * Drops the oldest incomplete message.
+	 */
+	private void dropEldest() {
+		final Iterator<Map.Entry<String, Pending>> iterator = this.pending.entrySet().iterator();
+		final Map.Entry<String, Pending> eldest = iterator.next();
+		iterator.remove();
+		this.dropped.incrementAndGet();
+		LOGGER.warning(String.format("dropped incomplete message %s, reassembly buffer full", eldest.getKey()));
+	}
+
+	/**
+	 * Joins the parts of a complete message and checks them against the id.
+	 *
+	 * @param message the message
+	 * @return the payload, null if it does not match its id
+	 */
+	private byte[] complete(final Pending message) {
+		final ByteArrayOutputStream payload = new ByteArrayOutputStream(message.length);
+		for (final byte[] part : message.parts) {
+			payload.write(part, 0, part.length);
+		}
+
+		final byte[] bytes = payload.toByteArray();
+		if (SwiftPayloadChunker.messageId(bytes) != message.messageId) {
+			this.dropped.incrementAndGet();
+			LOGGER.warning(String.format("dropped message %s, payload does not match its id",
+					Long.toHexString(message.messageId)));
+			return null;
+		}
+		this.completed.incrementAndGet();
+		return bytes;
+	}
+
+	/**
+	 * An incomplete message.
+	 */
+	private static class Pending {
+
+		/** The message id. */
+		private final long messageId;
+
+		/** The parts by fragment index. */
+		private final byte[][] parts;
+
+		/** The time the first fragment arrived. */
+		private final long firstSeen;
+
+		/** The received fragment count. */
+		private int received;
+
+		/** The received data length. */
+		private int length;
+
+		/**
+		 * Instantiates a new pending message.
+		 *
+		 * @param first the first fragment received
+		 * @param firstSeen the time the first fragment arrived
+		 */
+		Pending(SwiftPayloadFragment first, long firstSeen) {
+			this.messageId = first.getMessageId();
+			this.parts = new byte[first.getCount()][];
+			this.firstSeen = firstSeen;
+		}
+
+		/**
+		 * Adds a fragment, ignoring duplicates.
+		 *
+		 * @param fragment the fragment
+		 * @return this
+		 */
+		Pending add(SwiftPayloadFragment fragment) {
+			if (this.parts[fragment.getIndex()] == null) {
+				this.parts[fragment.getIndex()] = fragment.getData();
+				this.received++;
+				this.length += fragment.getData().length;
+			}
+			return this;
+		}
+	}
+}
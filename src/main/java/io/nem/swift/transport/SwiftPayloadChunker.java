@@ -0,0 +1,144 @@
+package io.nem.swift.transport;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.nem.core.crypto.Hashes;
+import org.nem.core.messages.PlainMessage;
+import org.nem.core.model.Message;
+import org.nem.core.model.TransferTransactionAttachment;
+
+import io.nem.model.SwiftTransaction;
+import io.nem.service.Globals;
+import io.nem.service.TransactionAnnouncePipeline;
+import io.nem.service.TransactionAnnouncePipeline.Outcome;
+import io.nem.util.AppPropertiesUtil;
+
+
+
+/**
+ * Splits payloads too large for one transfer message into
+ * {@link SwiftPayloadFragment fragments} and announces them as separate
+ * transfers.
+ *
+ * A payload is encrypted once as a whole and its encoded bytes are split, so
+ * each fragment travels as a plain message and the receiver decrypts only the
+ * reassembled payload. The message id is taken from the payload hash, which
+ * lets the receiver verify the reassembled payload and makes a resent payload
+ * keep its id. The message size limit is read from
+ * <code>transport.message.max.size</code>.
+ */
+public class SwiftPayloadChunker {
+
+	/** The Constant DEFAULT_MAX_MESSAGE_SIZE, the NIS transfer message limit. */
+	public static final int DEFAULT_MAX_MESSAGE_SIZE = 1024;
+
+	/** The Constant MAX_MESSAGE_SIZE. */
+	private static final int MAX_MESSAGE_SIZE = getMaxMessageSize();
+
+	/**
+	 * Splits a payload into fragments.
+	 *
+	 * @param payload the encoded payload
+	 * @param messageType the message type of the payload
+	 * @param maxMessageSize the maximum size of one message, header included
+	 * @return the fragments
+	 */
+	public static List<SwiftPayloadFragment> split(final byte[] payload, final int messageType,
+			final int maxMessageSize) {
+		final int dataLength = maxMessageSize - SwiftPayloadFragment.HEADER_LENGTH;
+		if (dataLength < 1) {
+			throw new IllegalArgumentException("message size " + maxMessageSize + " leaves no room for data");
+		}
+
+		final int count = Math.max(1, (payload.length + dataLength - 1) / dataLength);
+		if (count > SwiftPayloadFragment.MAX_FRAGMENTS) {
+			throw new IllegalArgumentException("payload of " + payload.length + " bytes needs too many fragments");
+		}
+
+		final long messageId = messageId(payload);
+		final List<SwiftPayloadFragment> fragments = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			final int from = i * dataLength;
+			fragments.add(new SwiftPayloadFragment(messageType, messageId, i, count,
+					Arrays.copyOfRange(payload, from, Math.min(payload.length, from + dataLength))));
+		}
+		return fragments;
+	}
+
+	/**
+	 * Checks if the message of the t block needs to be split.
+	 *
+	 * @param tBlock the t block
+	 * @return true, if the message exceeds the message size limit
+	 */
+	public static boolean needsSplit(final SwiftTransaction tBlock) {
+		final Message message = tBlock.getAttachment() == null ? null : tBlock.getAttachment().getMessage();
+		return message != null && message.getEncodedPayload().length > MAX_MESSAGE_SIZE;
+	}
+
+	/**
+	 * Announces the t block, split into fragments announced concurrently when
+	 * its message exceeds the message size limit. The amount and mosaics
+	 * travel with the first fragment.
+	 *
+	 * @param tBlock the t block
+	 * @param maxInFlight the maximum number of fragments announced at once
+	 * @param executor the executor that parses node responses
+	 * @return the outcomes in fragment order
+	 * @throws InterruptedException if interrupted while waiting for the window
+	 */
+	public static List<Outcome> announce(final SwiftTransaction tBlock, final int maxInFlight,
+			final Executor executor) throws InterruptedException {
+		if (tBlock.getTimeInstant() == null) {
+			tBlock.setTimeInstant(Globals.TIME_PROVIDER.getCurrentTime());
+		}
+
+		final TransactionAnnouncePipeline pipeline = new TransactionAnnouncePipeline(maxInFlight, executor);
+		if (!needsSplit(tBlock)) {
+			pipeline.submit(tBlock);
+			return pipeline.awaitResults();
+		}
+
+		final Message message = tBlock.getAttachment().getMessage();
+		for (final SwiftPayloadFragment fragment : split(message.getEncodedPayload(), message.getType(),
+				MAX_MESSAGE_SIZE)) {
+			final TransferTransactionAttachment attachment = new TransferTransactionAttachment(
+					new PlainMessage(fragment.toBytes()));
+			if (fragment.getIndex() == 0) {
+				tBlock.getAttachment().getMosaics().forEach(attachment::addMosaic);
+			}
+
+			final SwiftTransaction part = new SwiftTransaction();
+			part.setSenderAccount(tBlock.getSenderAccount());
+			part.setRecipientAccount(tBlock.getRecipientAccount());
+			part.setTimeInstant(tBlock.getTimeInstant());
+			part.setAmount(fragment.getIndex() == 0 ? tBlock.getAmount() : 0L);
+			part.setAttachment(attachment);
+			pipeline.submit(part);
+		}
+		return pipeline.awaitResults();
+	}
+
+	/**
+	 * Derives the message id from the payload hash.
+	 *
+	 * @param payload the payload
+	 * @return the message id
+	 */
+	static long messageId(final byte[] payload) {
+		return ByteBuffer.wrap(Hashes.sha3_256(payload)).getLong();
+	}
+
+	/**
+	 * Gets the max message size.
+	 *
+	 * @return the max message size
+	 */
+	private static int getMaxMessageSize() {
+		return AppPropertiesUtil.getIntProperty("transport.message.max.size", DEFAULT_MAX_MESSAGE_SIZE);
+	}
+}
@@ -0,0 +1,181 @@
+package io.nem.swift.transport;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+
+
+/**
+ * One fragment of a payload too large for a single transfer message.
+ *
+ * The wire layout is a 20 byte header followed by the fragment data:
+ * magic (2), version (1), message type of the whole payload (1), message id
+ * (8), fragment index (2), fragment count (2) and the CRC32 of the data (4).
+ * The magic starts with 0xF7, which never starts UTF-8 text, a gzip stream or
+ * a payload envelope.
+ */
+public class SwiftPayloadFragment {
+
+	/** The Constant MAGIC. */
+	static final byte[] MAGIC = { (byte) 0xF7, 'F' };
+
+	/** The Constant VERSION. */
+	public static final int VERSION = 1;
+
+	/** The Constant HEADER_LENGTH. */
+	public static final int HEADER_LENGTH = 20;
+
+	/** The Constant MAX_FRAGMENTS. */
+	public static final int MAX_FRAGMENTS = 0xFFFF;
+
+	/** The message type of the whole payload. */
+	private final int messageType;
+
+	/** The message id. */
+	private final long messageId;
+
+	/** The index. */
+	private final int index;
+
+	/** The count. */
+	private final int count;
+
+	/** The data. */
+	private final byte[] data;
+
+	/**
+	 * Instantiates a new swift payload fragment.
+	 *
+	 * @param messageType the message type of the whole payload
+	 * @param messageId the message id
+	 * @param index the index
+	 * @param count the count
+	 * @param data the data
+	 */
+	public SwiftPayloadFragment(int messageType, long messageId, int index, int count, byte[] data) {
+		if (count < 1 || count > MAX_FRAGMENTS || index < 0 || index >= count) {
+			throw new IllegalArgumentException("invalid fragment " + index + " of " + count);
+		}
+		this.messageType = messageType;
+		this.messageId = messageId;
+		this.index = index;
+		this.count = count;
+		this.data = data;
+	}
+
+	/**
+	 * Checks if the bytes start with a fragment header.
+	 *
+	 * @param bytes the bytes
+	 * @return true, if fragment
+	 */
+	public static boolean isFragment(byte[] bytes) {
+		return bytes != null && bytes.length >= HEADER_LENGTH && bytes[0] == MAGIC[0] && bytes[1] == MAGIC[1];
+	}
+
+	/**
+	 * Reads a fragment.
+	 *
+	 * @param bytes the bytes
+	 * @return the swift payload fragment
+	 * @throws IllegalArgumentException if the bytes are no fragment or the checksum does not match
+	 */
+	public static SwiftPayloadFragment fromBytes(byte[] bytes) {
+		if (!isFragment(bytes)) {
+			throw new IllegalArgumentException("not a payload fragment");
+		}
+
+		final ByteBuffer buffer = ByteBuffer.wrap(bytes, MAGIC.length, HEADER_LENGTH - MAGIC.length);
+		final int version = buffer.get() & 0xFF;
+		if (version != VERSION) {
+			throw new IllegalArgumentException("unsupported fragment version " + version);
+		}
+		final int messageType = buffer.get() & 0xFF;
+		final long messageId = buffer.getLong();
+		final int index = buffer.getShort() & 0xFFFF;
+		final int count = buffer.getShort() & 0xFFFF;
+		final int checksum = buffer.getInt();
+
+		final byte[] data = Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+		if (checksum != crc(data)) {
+			throw new IllegalArgumentException("checksum mismatch in fragment " + index + " of " + count);
+		}
+		return new SwiftPayloadFragment(messageType, messageId, index, count, data);
+	}
+
+	/**
+	 * Writes the fragment with its header.
+	 *
+	 * @return the bytes
+	 */
+	public byte[] toBytes() {
+		return ByteBuffer.allocate(HEADER_LENGTH + this.data.length)
+				.put(MAGIC)
+				.put((byte) VERSION)
+				.put((byte) this.messageType)
+				.putLong(this.messageId)
+				.putShort((short) this.index)
+				.putShort((short) this.count)
+				.putInt(crc(this.data))
+				.put(this.data)
+				.array();
+	}
+
+	/**
+	 * Gets the message type of the whole payload.
+	 *
+	 * @return the message type
+	 */
+	public int getMessageType() {
+		return messageType;
+	}
+
+	/**
+	 * Gets the message id.
+	 *
+	 * @return the message id
+	 */
+	public long getMessageId() {
+		return messageId;
+	}
+
+	/**
+	 * Gets the index.
+	 *
+	 * @return the index
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Gets the count.
+	 *
+	 * @return the count
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the data.
+	 *
+	 * @return the data
+	 */
+	public byte[] getData() {
+		return data;
+	}
+
+	/**
+	 * Computes the CRC32 of the data.
+	 *
+	 * @param data the data
+	 * @return the crc
+	 */
+	private static int crc(byte[] data) {
+		final CRC32 crc = new CRC32();
+		crc.update(data, 0, data.length);
+		return (int) crc.getValue();
+	}
+}
@@ -29,4 +29,40 @@ public class AppPropertiesUtil {
 	public static String getProperty(String key) {
 		return properties.getProperty(key);
 	}
+
+	/**
+	 * Gets an int property.
+	 *
+	 * @param key the key
+	 * @param defaultValue the value if the property is not set
+	 * @return the property
+	 */
+	public static int getIntProperty(String key, int defaultValue) {
+		final String value = getProperty(key);
+		return value == null ? defaultValue : Integer.parseInt(value.trim());
+	}
+
+	/**
+	 * Gets a long property.
+	 *
+	 * @param key the key
+	 * @param defaultValue the value if the property is not set
+	 * @return the property
+	 */
+	public static long getLongProperty(String key, long defaultValue) {
+		final String value = getProperty(key);
+		return value == null ? defaultValue : Long.parseLong(value.trim());
+	}
+
+	/**
+	 * Gets a double property.
+	 *
+	 * @param key the key
+	 * @param defaultValue the value if the property is not set
+	 * @return the property
+	 */
+	public static double getDoubleProperty(String key, double defaultValue) {
+		final String value = getProperty(key);
+		return value == null ? defaultValue : Double.parseDouble(value.trim());
+	}
 }
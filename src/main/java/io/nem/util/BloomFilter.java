@@ -0,0 +1,106 @@
+package io.nem.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+
+/**
+ * A thread-safe Bloom filter over keys that are already uniformly
+ * distributed, such as message digests.
+ *
+ * A key is given as two longs taken from its digest, from which the bit
+ * positions are derived by double hashing, so no further hashing is done per
+ * lookup. Bits are set with compare-and-set, so concurrent puts and lookups
+ * need no lock. A negative answer is exact; a positive one is wrong with about
+ * the configured false positive rate once the expected number of keys is in.
+ */
+public class BloomFilter {
+
+	/** The bits. */
+	private final AtomicLongArray bits;
+
+	/** The number of bits. */
+	private final long bitCount;
+
+	/** The number of hash functions. */
+	private final int hashCount;
+
+	/**
+	 * Instantiates a new bloom filter.
+	 *
+	 * @param expectedInsertions the expected insertions
+	 * @param falsePositiveRate the false positive rate at the expected insertions
+	 */
+	public BloomFilter(final long expectedInsertions, final double falsePositiveRate) {
+		if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+			throw new IllegalArgumentException("expected insertions must be positive and the rate between 0 and 1");
+		}
+		final long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		final int words = (int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64);
+		this.bits = new AtomicLongArray(words);
+		this.bitCount = words * 64L;
+		this.hashCount = Math.max(1, (int) Math.round((double) this.bitCount / expectedInsertions * Math.log(2)));
+	}
+
+	/**
+	 * Adds a key.
+	 *
+	 * @param hash1 the first 64 bits of the key digest
+	 * @param hash2 the next 64 bits of the key digest
+	 */
+	public void put(final long hash1, final long hash2) {
+		for (int i = 0; i < this.hashCount; i++) {
+			final long bit = Math.floorMod(hash1 + i * hash2, this.bitCount);
+			final int word = (int) (bit >>> 6);
+			final long mask = 1L << bit;
+			long current = this.bits.get(word);
+			while ((current & mask) == 0 && !this.bits.compareAndSet(word, current, current | mask)) {
+				current = this.bits.get(word);
+			}
+		}
+	}
+
+	/**
+	 * Checks if a key may have been added.
+	 *
+	 * @param hash1 the first 64 bits of the key digest
+	 * @param hash2 the next 64 bits of the key digest
+	 * @return false if the key was never added, true if it probably was
+	 */
+	public boolean mightContain(final long hash1, final long hash2) {
+		for (int i = 0; i < this.hashCount; i++) {
+			final long bit = Math.floorMod(hash1 + i * hash2, this.bitCount);
+			if ((this.bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Removes all keys. Not atomic with respect to concurrent puts.
+	 */
+	public void clear() {
+		for (int i = 0; i < this.bits.length(); i++) {
+			this.bits.set(i, 0L);
+		}
+	}
+
+	/**
+	 * Gets the number of bits.
+	 *
+	 * @return the bit count
+	 */
+	public long getBitCount() {
+		return bitCount;
+	}
+
+	/**
+	 * Gets the number of hash functions.
+	 *
+	 * @return the hash count
+	 */
+	public int getHashCount() {
+		return hashCount;
+	}
+}
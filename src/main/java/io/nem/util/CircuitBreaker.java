@@ -0,0 +1,194 @@
+package io.nem.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+
+
+/**
+ * A circuit breaker that stops requests to a failing endpoint for a while.
+ *
+ * The breaker opens after a number of consecutive failures and then rejects
+ * every request until the open period is over. The first request after that
+ * is let through as a trial: its success closes the breaker, its failure opens
+ * it again for twice the period, up to a maximum. Callers rejected by an open
+ * breaker fail at once instead of waiting for a connection timeout.
+ */
+public class CircuitBreaker {
+
+	/** The Constant MAX_OPEN_FACTOR, how far repeated failed trials stretch the open period. */
+	private static final int MAX_OPEN_FACTOR = 8;
+
+	/**
+	 * The breaker states.
+	 */
+	public enum State {
+
+		/** Requests pass. */
+		CLOSED,
+
+		/** Requests are rejected. */
+		OPEN,
+
+		/** One trial request is on its way. */
+		HALF_OPEN
+	}
+
+	/** The consecutive failures that open the breaker. */
+	private final int failureThreshold;
+
+	/** The open period. */
+	private final long openMillis;
+
+	/** The clock in milliseconds. */
+	private final LongSupplier clock;
+
+	/** The state. */
+	private State state = State.CLOSED;
+
+	/** The consecutive failures. */
+	private int consecutiveFailures;
+
+	/** The time the breaker may let a trial through. */
+	private long retryAt;
+
+	/** The current open period. */
+	private long currentOpenMillis;
+
+	/** The failures. */
+	private final AtomicLong failures = new AtomicLong();
+
+	/** The rejected requests. */
+	private final AtomicLong rejected = new AtomicLong();
+
+	/** The times the breaker opened. */
+	private final AtomicLong opened = new AtomicLong();
+
+	/**
+	 * Instantiates a new circuit breaker.
+	 *
+	 * @param failureThreshold the consecutive failures that open the breaker
+	 * @param openMillis the open period
+	 */
+	public CircuitBreaker(int failureThreshold, long openMillis) {
+		this(failureThreshold, openMillis, System::currentTimeMillis);
+	}
+
+	/**
+	 * Instantiates a new circuit breaker.
+	 *
+	 * @param failureThreshold the consecutive failures that open the breaker
+	 * @param openMillis the open period
+	 * @param clock the clock in milliseconds
+	 */
+	public CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+		if (failureThreshold < 1 || openMillis < 0) {
+			throw new IllegalArgumentException("failure threshold must be positive and open period not negative");
+		}
+		this.failureThreshold = failureThreshold;
+		this.openMillis = openMillis;
+		this.currentOpenMillis = openMillis;
+		this.clock = clock;
+	}
+
+	/**
+	 * Asks to send a request. An open breaker whose period is over lets this
+	 * one request through as the trial.
+	 *
+	 * @return true if the request may be sent, false if it must fail fast
+	 */
+	public synchronized boolean tryAcquire() {
+		switch (this.state) {
+		case CLOSED:
+			return true;
+		case OPEN:
+			if (this.clock.getAsLong() >= this.retryAt) {
+				this.state = State.HALF_OPEN;
+				return true;
+			}
+			break;
+		default:
+			break;
+		}
+		this.rejected.incrementAndGet();
+		return false;
+	}
+
+	/**
+	 * Records a successful request, closing the breaker.
+	 */
+	public synchronized void recordSuccess() {
+		this.state = State.CLOSED;
+		this.consecutiveFailures = 0;
+		this.currentOpenMillis = this.openMillis;
+	}
+
+	/**
+	 * Records a failed request, opening the breaker at the threshold or after
+	 * a failed trial.
+	 */
+	public synchronized void recordFailure() {
+		this.failures.incrementAndGet();
+		this.consecutiveFailures++;
+		if (this.state == State.HALF_OPEN) {
+			this.currentOpenMillis = Math.min(this.currentOpenMillis * 2, this.openMillis * MAX_OPEN_FACTOR);
+			this.open();
+		} else if (this.state == State.CLOSED && this.consecutiveFailures >= this.failureThreshold) {
+			this.open();
+		}
+	}
+
+	/**
+	 * Checks if a request would be let through now, without taking the trial.
+	 *
+	 * @return true, if available
+	 */
+	public synchronized boolean isAvailable() {
+		return this.state == State.CLOSED || this.state == State.OPEN && this.clock.getAsLong() >= this.retryAt;
+	}
+
+	/**
+	 * Gets the state.
+	 *
+	 * @return the state
+	 */
+	public synchronized State getState() {
+		return state;
+	}
+
+	/**
+	 * Gets the number of failures recorded.
+	 *
+	 * @return the failures
+	 */
+	public long getFailures() {
+		return failures.get();
+	}
+
+	/**
+	 * Gets the number of requests rejected while open.
+	 *
+	 * @return the rejected count
+	 */
+	public long getRejected() {
+		return rejected.get();
+	}
+
+	/**
+	 * Gets the number of times the breaker opened.
+	 *
+	 * @return the opened count
+	 */
+	public long getOpened() {
+		return opened.get();
+	}
+
+	/**
+	 * Opens the breaker for the current period; the caller holds the lock.
+	 */
+	private void open() {
+		this.state = State.OPEN;
+		this.retryAt = this.clock.getAsLong() + this.currentOpenMillis;
+		this.opened.incrementAndGet();
+	}
+}
@@ -0,0 +1,476 @@
+package io.nem.util;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Checksum;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+
+
+/**
+ * Raw deflate (RFC 1951) compression backed by a bounded pool of
+ * {@link Deflater} and {@link Inflater} instances, with optional preset
+ * dictionaries. The <code>byte[]</code> returning methods work in a per-thread
+ * scratch buffer and allocate only the final result; the methods taking an
+ * output buffer allocate nothing and throw {@link BufferOverflowException}
+ * when the output does not fit.
+ */
+public class DeflateCodec {
+
+	/** The Constant MAX_POOLED. */
+	private static final int MAX_POOLED = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+	/** The Constant MAX_RETAINED_SCRATCH. */
+	private static final int MAX_RETAINED_SCRATCH = 1 << 20;
+
+	/** The Constant MIN_SCRATCH. */
+	private static final int MIN_SCRATCH = 8192;
+
+	/** The Constant MAX_DEFLATE_RATIO. */
+	private static final long MAX_DEFLATE_RATIO = 1032;
+
+	/** The Constant DEFLATERS. */
+	private static final ConcurrentLinkedQueue<Deflater> DEFLATERS = new ConcurrentLinkedQueue<>();
+
+	/** The Constant INFLATERS. */
+	private static final ConcurrentLinkedQueue<Inflater> INFLATERS = new ConcurrentLinkedQueue<>();
+
+	/** The Constant POOLED_DEFLATERS. */
+	private static final AtomicInteger POOLED_DEFLATERS = new AtomicInteger();
+
+	/** The Constant POOLED_INFLATERS. */
+	private static final AtomicInteger POOLED_INFLATERS = new AtomicInteger();
+
+	/** The Constant INPUT_SCRATCH. */
+	private static final ThreadLocal<byte[]> INPUT_SCRATCH = ThreadLocal.withInitial(() -> new byte[MIN_SCRATCH]);
+
+	/** The Constant OUTPUT_SCRATCH. */
+	private static final ThreadLocal<byte[]> OUTPUT_SCRATCH = ThreadLocal.withInitial(() -> new byte[MIN_SCRATCH]);
+
+	/**
+	 * Instantiates a new deflate codec.
+	 */
+	private DeflateCodec() {
+	}
+
+	/**
+	 * Gets an upper bound of the deflated size of an input.
+	 *
+	 * @param length the input length
+	 * @return the maximum deflated length
+	 */
+	public static int maxDeflatedLength(int length) {
+		return length + (length >> 3) + (length >> 6) + 64;
+	}
+
+	/**
+	 * Deflates the input.
+	 *
+	 * @param input the input
+	 * @param offset the offset
+	 * @param length the length
+	 * @param dictionary the preset dictionary, may be null
+	 * @return the deflated bytes
+	 */
+	public static byte[] deflate(byte[] input, int offset, int length, byte[] dictionary) {
+		final byte[] output = outputScratch(maxDeflatedLength(length));
+		final int written = deflate(input, offset, length, dictionary, output, 0);
+		return Arrays.copyOf(output, written);
+	}
+
+	/**
+	 * Deflates the input into the output array.
+	 *
+	 * @param input the input
+	 * @param offset the offset
+	 * @param length the length
+	 * @param dictionary the preset dictionary, may be null
+	 * @param output the output
+	 * @param outputOffset the output offset
+	 * @return the number of bytes written
+	 */
+	public static int deflate(byte[] input, int offset, int length, byte[] dictionary, byte[] output,
+			int outputOffset) {
+		return deflate(input, offset, length, dictionary, output, outputOffset, output.length - outputOffset);
+	}
+
+	/**
+	 * Deflates the remaining bytes of the input into the output, advancing
+	 * both buffers.
+	 *
+	 * @param input the input
+	 * @param dictionary the preset dictionary, may be null
+	 * @param output the output
+	 * @return the number of bytes written
+	 */
+	public static int deflate(ByteBuffer input, byte[] dictionary, ByteBuffer output) {
+		final int length = input.remaining();
+		final byte[] source;
+		final int offset;
+		if (input.hasArray()) {
+			source = input.array();
+			offset = input.arrayOffset() + input.position();
+		} else {
+			source = inputScratch(length);
+			offset = 0;
+			input.duplicate().get(source, 0, length);
+		}
+
+		final int written;
+		if (output.hasArray()) {
+			written = deflate(source, offset, length, dictionary, output.array(),
+					output.arrayOffset() + output.position(), output.remaining());
+		} else {
+			final byte[] target = outputScratch(maxDeflatedLength(length));
+			written = deflate(source, offset, length, dictionary, target, 0, target.length);
+			if (written > output.remaining()) {
+				throw new BufferOverflowException();
+			}
+			output.duplicate().put(target, 0, written);
+		}
+
+		input.position(input.position() + length);
+		output.position(output.position() + written);
+		return written;
+	}
+
+	/**
+	 * Inflates the input.
+	 *
+	 * @param input the input
+	 * @param offset the offset
+	 * @param length the length
+	 * @param dictionary the preset dictionary, may be null
+	 * @param sizeHint the expected inflated size, 0 if unknown
+	 * @return the inflated bytes
+	 * @throws DataFormatException if the input is not a valid deflate stream
+	 */
+	public static byte[] inflate(byte[] input, int offset, int length, byte[] dictionary, int sizeHint)
+			throws DataFormatException {
+		final long bound = Math.max(1, Math.min(MAX_DEFLATE_RATIO * length, Integer.MAX_VALUE - 8));
+		final int initial = (int) Math.min(sizeHint > 0 ? sizeHint : Math.max(MIN_SCRATCH, 4L * length), bound);
+
+		final Inflater inflater = borrowInflater();
+		try {
+			byte[] output = new byte[Math.max(1, initial)];
+			int position = 0;
+			inflater.setInput(input, offset, length);
+			if (dictionary != null) {
+				inflater.setDictionary(dictionary);
+			}
+
+			while (!inflater.finished()) {
+				final int inflated = inflater.inflate(output, position, output.length - position);
+				position += inflated;
+				if (inflated == 0 && !inflater.finished()) {
+					if (position == output.length) {
+						output = Arrays.copyOf(output, Math.max(output.length * 2, MIN_SCRATCH));
+					} else {
+						throw new DataFormatException("truncated deflate stream");
+					}
+				}
+			}
+			return position == output.length ? output : Arrays.copyOf(output, position);
+		} finally {
+			release(inflater);
+		}
+	}
+
+	/**
+	 * Inflates the input into the output array.
+	 *
+	 * @param input the input
+	 * @param offset the offset
+	 * @param length the length
+	 * @param dictionary the preset dictionary, may be null
+	 * @param output the output
+	 * @param outputOffset the output offset
+	 * @return the number of bytes written
+	 * @throws DataFormatException if the input is not a valid deflate stream
+	 */
+	public static int inflate(byte[] input, int offset, int length, byte[] dictionary, byte[] output,
+			int outputOffset) throws DataFormatException {
+		return inflate(input, offset, length, dictionary, output, outputOffset, output.length - outputOffset);
+	}
+
+	/**
+	 * Inflates the remaining bytes of the input into the output, advancing
+	 * both buffers.
+	 *
+	 * @param input the input
+	 * @param dictionary the preset dictionary, may be null
+	 * @param output the output
+	 * @return the number of bytes written
+	 * @throws DataFormatException if the input is not a valid deflate stream
+	 */
+	public static int inflate(ByteBuffer input, byte[] dictionary, ByteBuffer output) throws DataFormatException {
+		return inflate(input, dictionary, output, null);
+	}
+
+	/**
+	 * Inflates the remaining bytes of the input into the output, advancing
+	 * both buffers, and adds the inflated bytes to a checksum.
+	 *
+	 * @param input the input
+	 * @param dictionary the preset dictionary, may be null
+	 * @param output the output
+	 * @param checksum the checksum, may be null
+	 * @return the number of bytes written
+	 * @throws DataFormatException if the input is not a valid deflate stream
+	 */
+	static int inflate(ByteBuffer input, byte[] dictionary, ByteBuffer output, Checksum checksum)
+			throws DataFormatException {
+		final int length = input.remaining();
+		final byte[] source;
+		final int offset;
+		if (input.hasArray()) {
+			source = input.array();
+			offset = input.arrayOffset() + input.position();
+		} else {
+			source = inputScratch(length);
+			offset = 0;
+			input.duplicate().get(source, 0, length);
+		}
+
+		final int written;
+		if (output.hasArray()) {
+			written = inflate(source, offset, length, dictionary, output.array(),
+					output.arrayOffset() + output.position(), output.remaining());
+			if (checksum != null) {
+				checksum.update(output.array(), output.arrayOffset() + output.position(), written);
+			}
+		} else {
+			written = inflate(source, offset, length, dictionary, output.duplicate(), checksum);
+		}
+
+		input.position(input.position() + length);
+		output.position(output.position() + written);
+		return written;
+	}
+
+	/**
+	 * Deflates the input into a bounded region of the output array.
+	 *
+	 * @param input the input
+	 * @param offset the offset
+	 * @param length the length
+	 * @param dictionary the preset dictionary, may be null
+	 * @param output the output
+	 * @param outputOffset the output offset
+	 * @param outputLength the space available in the output
+	 * @return the number of bytes written
+	 */
+	private static int deflate(byte[] input, int offset, int length, byte[] dictionary, byte[] output,
+			int outputOffset, int outputLength) {
+		final Deflater deflater = borrowDeflater();
+		try {
+			if (dictionary != null) {
+				deflater.setDictionary(dictionary);
+			}
+			deflater.setInput(input, offset, length);
+			deflater.finish();
+
+			final int end = outputOffset + outputLength;
+			int position = outputOffset;
+			while (!deflater.finished()) {
+				if (position == end) {
+					throw new BufferOverflowException();
+				}
+				position += deflater.deflate(output, position, end - position);
+			}
+			return position - outputOffset;
+		} finally {
+			release(deflater);
+		}
+	}
+
+	/**
+	 * Inflates the input into a bounded region of the output array.
+	 *
+	 * @param input the input
+	 * @param offset the offset
+	 * @param length the length
+	 * @param dictionary the preset dictionary, may be null
+	 * @param output the output
+	 * @param outputOffset the output offset
+	 * @param outputLength the space available in the output
+	 * @return the number of bytes written
+	 * @throws DataFormatException if the input is not a valid deflate stream
+	 */
+	private static int inflate(byte[] input, int offset, int length, byte[] dictionary, byte[] output,
+			int outputOffset, int outputLength) throws DataFormatException {
+		final Inflater inflater = borrowInflater();
+		try {
+			inflater.setInput(input, offset, length);
+			if (dictionary != null) {
+				inflater.setDictionary(dictionary);
+			}
+
+			final int end = outputOffset + outputLength;
+			int position = outputOffset;
+			while (!inflater.finished()) {
+				final int inflated = inflater.inflate(output, position, end - position);
+				position += inflated;
+				if (inflated == 0 && !inflater.finished()) {
+					if (position == end) {
+						throw new BufferOverflowException();
+					}
+					throw new DataFormatException("truncated deflate stream");
+				}
+			}
+			return position - outputOffset;
+		} finally {
+			release(inflater);
+		}
+	}
+
+	/**
+	 * Inflates the input into a buffer without a backing array, through the
+	 * output scratch buffer in chunks of at most the retained scratch size,
+	 * so that a large output does not allocate on every call.
+	 *
+	 * @param input the input
+	 * @param offset the offset
+	 * @param length the length
+	 * @param dictionary the preset dictionary, may be null
+	 * @param output the output, advanced by the bytes written
+	 * @param checksum the checksum, may be null
+	 * @return the number of bytes written
+	 * @throws DataFormatException if the input is not a valid deflate stream
+	 */
+	private static int inflate(byte[] input, int offset, int length, byte[] dictionary, ByteBuffer output,
+			Checksum checksum) throws DataFormatException {
+		final byte[] chunk = outputScratch(Math.min(output.remaining(), MAX_RETAINED_SCRATCH));
+		final Inflater inflater = borrowInflater();
+		try {
+			inflater.setInput(input, offset, length);
+			if (dictionary != null) {
+				inflater.setDictionary(dictionary);
+			}
+
+			int written = 0;
+			while (!inflater.finished()) {
+				final int inflated = inflater.inflate(chunk, 0, Math.min(chunk.length, output.remaining()));
+				if (inflated > 0) {
+					output.put(chunk, 0, inflated);
+					if (checksum != null) {
+						checksum.update(chunk, 0, inflated);
+					}
+					written += inflated;
+				} else if (!inflater.finished()) {
+					if (!output.hasRemaining()) {
+						throw new BufferOverflowException();
+					}
+					throw new DataFormatException("truncated deflate stream");
+				}
+			}
+			return written;
+		} finally {
+			release(inflater);
+		}
+	}
+
+	/**
+	 * Gets the per-thread output scratch buffer of at least the given size.
+	 *
+	 * @param minSize the minimum size
+	 * @return the scratch buffer
+	 */
+	static byte[] outputScratch(int minSize) {
+		return scratch(OUTPUT_SCRATCH, minSize);
+	}
+
+	/**
+	 * Gets the per-thread input scratch buffer of at least the given size.
+	 *
+	 * @param minSize the minimum size
+	 * @return the scratch buffer
+	 */
+	static byte[] inputScratch(int minSize) {
+		return scratch(INPUT_SCRATCH, minSize);
+	}
+
+	/**
+	 * Gets a scratch buffer of at least the given size. Buffers above the
+	 * retention limit are handed out once and not kept.
+	 *
+	 * @param holder the holder
+	 * @param minSize the minimum size
+	 * @return the scratch buffer
+	 */
+	private static byte[] scratch(ThreadLocal<byte[]> holder, int minSize) {
+		final byte[] buffer = holder.get();
+		if (buffer.length >= minSize) {
+			return buffer;
+		}
+
+		final byte[] grown = new byte[Math.max(minSize, Math.min(buffer.length * 2, MAX_RETAINED_SCRATCH))];
+		if (grown.length <= MAX_RETAINED_SCRATCH) {
+			holder.set(grown);
+		}
+		return grown;
+	}
+
+	/**
+	 * Borrows a raw deflater from the pool.
+	 *
+	 * @return the deflater
+	 */
+	private static Deflater borrowDeflater() {
+		final Deflater deflater = DEFLATERS.poll();
+		if (deflater == null) {
+			return new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		}
+		POOLED_DEFLATERS.decrementAndGet();
+		return deflater;
+	}
+
+	/**
+	 * Returns a deflater to the pool, or frees it when the pool is full.
+	 *
+	 * @param deflater the deflater
+	 */
+	private static void release(Deflater deflater) {
+		deflater.reset();
+		if (POOLED_DEFLATERS.incrementAndGet() <= MAX_POOLED) {
+			DEFLATERS.offer(deflater);
+		} else {
+			POOLED_DEFLATERS.decrementAndGet();
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Borrows a raw inflater from the pool.
+	 *
+	 * @return the inflater
+	 */
+	private static Inflater borrowInflater() {
+		final Inflater inflater = INFLATERS.poll();
+		if (inflater == null) {
+			return new Inflater(true);
+		}
+		POOLED_INFLATERS.decrementAndGet();
+		return inflater;
+	}
+
+	/**
+	 * Returns an inflater to the pool, or frees it when the pool is full.
+	 *
+	 * @param inflater the inflater
+	 */
+	private static void release(Inflater inflater) {
+		inflater.reset();
+		if (POOLED_INFLATERS.incrementAndGet() <= MAX_POOLED) {
+			INFLATERS.offer(inflater);
+		} else {
+			POOLED_INFLATERS.decrementAndGet();
+			inflater.end();
+		}
+	}
+}
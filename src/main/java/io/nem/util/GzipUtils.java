@@ -1,21 +1,54 @@
 package io.nem.util;
 
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
 
-import org.apache.commons.io.output.ByteArrayOutputStream;
+import io.nem.metrics.Metrics;
 
 
 
 /**
  * The Class GzipUtils.
+ *
+ * Reads and writes single-member gzip (RFC 1952) payloads on top of the pooled
+ * {@link DeflateCodec}, so no stream, {@link Deflater} or inflater is created
+ * per call and the round trip is byte exact.
  */
 public class GzipUtils {
 
+	/** The Constant HEADER_LENGTH. */
+	private static final int HEADER_LENGTH = 10;
+
+	/** The Constant TRAILER_LENGTH. */
+	private static final int TRAILER_LENGTH = 8;
+
+	/** The gzip header written by {@link java.util.zip.GZIPOutputStream}. */
+	private static final byte[] HEADER = { (byte) GZIPInputStream.GZIP_MAGIC, (byte) (GZIPInputStream.GZIP_MAGIC >> 8),
+			Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+
+	/** The Constant FHCRC. */
+	private static final int FHCRC = 2;
+
+	/** The Constant FEXTRA. */
+	private static final int FEXTRA = 4;
+
+	/** The Constant FNAME. */
+	private static final int FNAME = 8;
+
+	/** The Constant FCOMMENT. */
+	private static final int FCOMMENT = 16;
+
+	/** The Constant CRC. */
+	private static final ThreadLocal<CRC32> CRC = ThreadLocal.withInitial(CRC32::new);
+
 	/**
 	 * Compress.
 	 *
@@ -27,12 +60,92 @@ public class GzipUtils {
 		if ((str == null) || (str.length() == 0)) {
 			return null;
 		}
-		ByteArrayOutputStream obj = new ByteArrayOutputStream();
-		GZIPOutputStream gzip = new GZIPOutputStream(obj);
-		gzip.write(str.getBytes("UTF-8"));
-		gzip.flush();
-		gzip.close();
-		return obj.toByteArray();
+		return compress(str.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Compress.
+	 *
+	 * @param data the data
+	 * @return the gzip bytes
+	 */
+	public static byte[] compress(final byte[] data) {
+		return compress(data, 0, data.length);
+	}
+
+	/**
+	 * Compress.
+	 *
+	 * @param data the data
+	 * @param offset the offset
+	 * @param length the length
+	 * @return the gzip bytes
+	 */
+	public static byte[] compress(final byte[] data, final int offset, final int length) {
+		final long start = Metrics.GZIP.start();
+		final byte[] output = DeflateCodec.outputScratch(maxCompressedLength(length));
+		final int written;
+		try {
+			written = compress(data, offset, length, output, 0);
+		} catch (RuntimeException e) {
+			Metrics.GZIP.fail(start);
+			throw e;
+		}
+		Metrics.GZIP.stop(start);
+		return Arrays.copyOf(output, written);
+	}
+
+	/**
+	 * Compresses the remaining bytes of the input into the output, advancing
+	 * both buffers.
+	 *
+	 * @param input the input
+	 * @param output the output, see {@link #maxCompressedLength(int)}
+	 * @return the number of bytes written
+	 * @throws BufferOverflowException if the output is too small
+	 */
+	public static int compress(final ByteBuffer input, final ByteBuffer output) {
+		final int length = input.remaining();
+		final byte[] source;
+		final int offset;
+		if (input.hasArray()) {
+			source = input.array();
+			offset = input.arrayOffset() + input.position();
+		} else {
+			source = DeflateCodec.inputScratch(length);
+			offset = 0;
+			input.duplicate().get(source, 0, length);
+		}
+
+		final int written;
+		if (output.hasArray()) {
+			if (output.remaining() < HEADER_LENGTH + TRAILER_LENGTH) {
+				throw new BufferOverflowException();
+			}
+			written = compress(source, offset, length, output.array(), output.arrayOffset() + output.position(),
+					output.remaining());
+		} else {
+			final byte[] target = DeflateCodec.outputScratch(maxCompressedLength(length));
+			written = compress(source, offset, length, target, 0);
+			if (written > output.remaining()) {
+				throw new BufferOverflowException();
+			}
+			output.duplicate().put(target, 0, written);
+		}
+
+		input.position(input.position() + length);
+		output.position(output.position() + written);
+		return written;
+	}
+
+	/**
+	 * Gets an upper bound of the compressed size of an input.
+	 *
+	 * @param length the input length
+	 * @return the maximum compressed length
+	 */
+	public static int maxCompressedLength(final int length) {
+		return HEADER_LENGTH + DeflateCodec.maxDeflatedLength(length) + TRAILER_LENGTH;
 	}
 
 	/**
@@ -43,22 +156,78 @@ public class GzipUtils {
 	 * @throws IOException Signals that an I/O exception has occurred.
 	 */
 	public static String decompress(final byte[] compressed) throws IOException {
-		String outStr = "";
 		if ((compressed == null) || (compressed.length == 0)) {
 			return "";
 		}
-		if (isCompressed(compressed)) {
-			GZIPInputStream gis = new GZIPInputStream(new ByteArrayInputStream(compressed));
-			BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(gis, "UTF-8"));
+		return new String(decompressToBytes(compressed), StandardCharsets.UTF_8);
+	}
 
-			String line;
-			while ((line = bufferedReader.readLine()) != null) {
-				outStr += line;
-			}
+	/**
+	 * Decompresses gzip bytes. Input without the gzip magic is returned as is.
+	 *
+	 * @param compressed the compressed
+	 * @return the uncompressed bytes
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static byte[] decompressToBytes(final byte[] compressed) throws IOException {
+		if (!isCompressed(compressed)) {
+			return compressed;
+		}
+
+		final int length = compressed.length;
+		final int headerLength = headerLength(compressed, 0, length);
+		final int expectedSize = readIntLE(compressed, length - 4);
+		try {
+			final byte[] data = DeflateCodec.inflate(compressed, headerLength,
+					length - headerLength - TRAILER_LENGTH, null, expectedSize);
+			verifyTrailer(compressed, length - TRAILER_LENGTH, data, 0, data.length);
+			return data;
+		} catch (DataFormatException e) {
+			throw new ZipException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Decompresses the remaining gzip bytes of the input into the output,
+	 * advancing both buffers.
+	 *
+	 * @param input the input
+	 * @param output the output
+	 * @return the number of bytes written
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws BufferOverflowException if the output is too small
+	 */
+	public static int decompress(final ByteBuffer input, final ByteBuffer output) throws IOException {
+		final int length = input.remaining();
+		final byte[] source;
+		final int offset;
+		if (input.hasArray()) {
+			source = input.array();
+			offset = input.arrayOffset() + input.position();
 		} else {
-			outStr = new String(compressed);
+			source = DeflateCodec.inputScratch(length);
+			offset = 0;
+			input.duplicate().get(source, 0, length);
 		}
-		return outStr;
+
+		final int headerLength = headerLength(source, offset, length);
+		final ByteBuffer deflated = ByteBuffer.wrap(source, offset + headerLength,
+				length - headerLength - TRAILER_LENGTH);
+		final int start = output.position();
+		final CRC32 crc = CRC.get();
+		crc.reset();
+		final int written;
+		try {
+			written = DeflateCodec.inflate(deflated, null, output, crc);
+		} catch (DataFormatException e) {
+			output.position(start);
+			throw new ZipException(e.getMessage());
+		}
+
+		checkTrailer(source, offset + length - TRAILER_LENGTH, crc.getValue(), written);
+
+		input.position(input.position() + length);
+		return written;
 	}
 
 	/**
@@ -68,7 +237,188 @@ public class GzipUtils {
 	 * @return true, if is compressed
 	 */
 	public static boolean isCompressed(final byte[] compressed) {
-		return (compressed[0] == (byte) (GZIPInputStream.GZIP_MAGIC))
+		return (compressed != null) && (compressed.length >= 2)
+				&& (compressed[0] == (byte) (GZIPInputStream.GZIP_MAGIC))
 				&& (compressed[1] == (byte) (GZIPInputStream.GZIP_MAGIC >> 8));
 	}
+
+	/**
+	 * Checks if the remaining bytes start with the gzip magic.
+	 *
+	 * @param compressed the compressed
+	 * @return true, if is compressed
+	 */
+	public static boolean isCompressed(final ByteBuffer compressed) {
+		return (compressed != null) && (compressed.remaining() >= 2)
+				&& (compressed.get(compressed.position()) == (byte) (GZIPInputStream.GZIP_MAGIC))
+				&& (compressed.get(compressed.position() + 1) == (byte) (GZIPInputStream.GZIP_MAGIC >> 8));
+	}
+
+	/**
+	 * Writes a gzip member into the output array.
+	 *
+	 * @param data the data
+	 * @param offset the offset
+	 * @param length the length
+	 * @param output the output
+	 * @param outputOffset the output offset
+	 * @return the number of bytes written
+	 */
+	private static int compress(final byte[] data, final int offset, final int length, final byte[] output,
+			final int outputOffset) {
+		return compress(data, offset, length, output, outputOffset, output.length - outputOffset);
+	}
+
+	/**
+	 * Writes a gzip member into a bounded region of the output array.
+	 *
+	 * @param data the data
+	 * @param offset the offset
+	 * @param length the length
+	 * @param output the output
+	 * @param outputOffset the output offset
+	 * @param outputLength the space available in the output
+	 * @return the number of bytes written
+	 */
+	private static int compress(final byte[] data, final int offset, final int length, final byte[] output,
+			final int outputOffset, final int outputLength) {
+		if (outputLength < HEADER_LENGTH + TRAILER_LENGTH) {
+			throw new BufferOverflowException();
+		}
+
+		System.arraycopy(HEADER, 0, output, outputOffset, HEADER_LENGTH);
+		final ByteBuffer body = ByteBuffer.wrap(output, outputOffset + HEADER_LENGTH,
+				outputLength - HEADER_LENGTH - TRAILER_LENGTH);
+		final int deflated = DeflateCodec.deflate(ByteBuffer.wrap(data, offset, length), null, body);
+
+		final CRC32 crc = CRC.get();
+		crc.reset();
+		crc.update(data, offset, length);
+		final int trailer = outputOffset + HEADER_LENGTH + deflated;
+		writeIntLE(output, trailer, (int) crc.getValue());
+		writeIntLE(output, trailer + 4, length);
+		return HEADER_LENGTH + deflated + TRAILER_LENGTH;
+	}
+
+	/**
+	 * Parses the gzip header.
+	 *
+	 * @param data the data
+	 * @param offset the offset
+	 * @param length the length
+	 * @return the header length
+	 * @throws ZipException if the data is not a gzip member
+	 */
+	private static int headerLength(final byte[] data, final int offset, final int length) throws ZipException {
+		final int end = offset + length - TRAILER_LENGTH;
+		if (length < HEADER_LENGTH + TRAILER_LENGTH || data[offset] != HEADER[0] || data[offset + 1] != HEADER[1]) {
+			throw new ZipException("Not in GZIP format");
+		}
+		if (data[offset + 2] != Deflater.DEFLATED) {
+			throw new ZipException("Unsupported compression method");
+		}
+
+		final int flags = data[offset + 3] & 0xFF;
+		int position = offset + HEADER_LENGTH;
+		if ((flags & FEXTRA) != 0) {
+			if (position + 2 > end) {
+				throw new ZipException("Corrupt GZIP header");
+			}
+			position += 2 + ((data[position] & 0xFF) | ((data[position + 1] & 0xFF) << 8));
+		}
+		if ((flags & FNAME) != 0) {
+			position = skipZeroTerminated(data, position, end);
+		}
+		if ((flags & FCOMMENT) != 0) {
+			position = skipZeroTerminated(data, position, end);
+		}
+		if ((flags & FHCRC) != 0) {
+			position += 2;
+		}
+		if (position > end) {
+			throw new ZipException("Corrupt GZIP header");
+		}
+		return position - offset;
+	}
+
+	/**
+	 * Skips a zero terminated header field.
+	 *
+	 * @param data the data
+	 * @param position the position
+	 * @param end the end
+	 * @return the position after the field
+	 * @throws ZipException if the field is not terminated
+	 */
+	private static int skipZeroTerminated(final byte[] data, int position, final int end) throws ZipException {
+		while (position < end) {
+			if (data[position++] == 0) {
+				return position;
+			}
+		}
+		throw new ZipException("Corrupt GZIP header");
+	}
+
+	/**
+	 * Verifies the trailer against the uncompressed data.
+	 *
+	 * @param compressed the compressed
+	 * @param trailerOffset the trailer offset
+	 * @param data the data
+	 * @param offset the offset
+	 * @param length the length
+	 * @throws ZipException if the trailer does not match
+	 */
+	private static void verifyTrailer(final byte[] compressed, final int trailerOffset, final byte[] data,
+			final int offset, final int length) throws ZipException {
+		final CRC32 crc = CRC.get();
+		crc.reset();
+		crc.update(data, offset, length);
+		checkTrailer(compressed, trailerOffset, crc.getValue(), length);
+	}
+
+	/**
+	 * Checks the trailer values.
+	 *
+	 * @param compressed the compressed
+	 * @param trailerOffset the trailer offset
+	 * @param crc the crc of the uncompressed data
+	 * @param length the uncompressed length
+	 * @throws ZipException if the trailer does not match
+	 */
+	private static void checkTrailer(final byte[] compressed, final int trailerOffset, final long crc,
+			final int length) throws ZipException {
+		if ((readIntLE(compressed, trailerOffset) & 0xFFFFFFFFL) != crc) {
+			throw new ZipException("Corrupt GZIP trailer");
+		}
+		if (readIntLE(compressed, trailerOffset + 4) != length) {
+			throw new ZipException("Corrupt GZIP trailer");
+		}
+	}
+
+	/**
+	 * Reads a little endian int.
+	 *
+	 * @param data the data
+	 * @param offset the offset
+	 * @return the int
+	 */
+	private static int readIntLE(final byte[] data, final int offset) {
+		return (data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8) | ((data[offset + 2] & 0xFF) << 16)
+				| ((data[offset + 3] & 0xFF) << 24);
+	}
+
+	/**
+	 * Writes a little endian int.
+	 *
+	 * @param data the data
+	 * @param offset the offset
+	 * @param value the value
+	 */
+	private static void writeIntLE(final byte[] data, final int offset, final int value) {
+		data[offset] = (byte) value;
+		data[offset + 1] = (byte) (value >>> 8);
+		data[offset + 2] = (byte) (value >>> 16);
+		data[offset + 3] = (byte) (value >>> 24);
+	}
 }
@@ -0,0 +1,162 @@
+package io.nem.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+
+
+/**
+ * A thread-safe, size-bounded cache that evicts the least recently used entry
+ * and counts hits and misses.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class LruCache<K, V> {
+
+	/** The maximum number of entries. */
+	private final int maxSize;
+
+	/** The entries in access order. */
+	private final LinkedHashMap<K, V> entries;
+
+	/** The hits. */
+	private final AtomicLong hits = new AtomicLong();
+
+	/** The misses. */
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Instantiates a new lru cache.
+	 *
+	 * @param maxSize the maximum number of entries
+	 */
+	public LruCache(final int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("maxSize must be at least 1");
+		}
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				return this.size() > LruCache.this.maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Gets the cached value or loads and caches it. The loader runs outside
+	 * the cache lock, so two threads missing the same key may both load it;
+	 * the first value stored wins.
+	 *
+	 * @param key the key
+	 * @param loader the loader
+	 * @return the value
+	 */
+	public V get(final K key, final Function<K, V> loader) {
+		V value;
+		synchronized (this.entries) {
+			value = this.entries.get(key);
+		}
+		if (value != null) {
+			this.hits.incrementAndGet();
+			return value;
+		}
+
+		this.misses.incrementAndGet();
+		final V loaded = loader.apply(key);
+		synchronized (this.entries) {
+			value = this.entries.get(key);
+			if (value == null) {
+				this.entries.put(key, loaded);
+				value = loaded;
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Gets the cached value without loading it.
+	 *
+	 * @param key the key
+	 * @return the value, null if not cached
+	 */
+	public V getIfPresent(final K key) {
+		final V value;
+		synchronized (this.entries) {
+			value = this.entries.get(key);
+		}
+		if (value == null) {
+			this.misses.incrementAndGet();
+		} else {
+			this.hits.incrementAndGet();
+		}
+		return value;
+	}
+
+	/**
+	 * Stores a value.
+	 *
+	 * @param key the key
+	 * @param value the value
+	 */
+	public void put(final K key, final V value) {
+		synchronized (this.entries) {
+			this.entries.put(key, value);
+		}
+	}
+
+	/**
+	 * Evicts a single entry.
+	 *
+	 * @param key the key
+	 * @return the evicted value, null if the key was not cached
+	 */
+	public V evict(final K key) {
+		synchronized (this.entries) {
+			return this.entries.remove(key);
+		}
+	}
+
+	/**
+	 * Evicts all entries.
+	 */
+	public void clear() {
+		synchronized (this.entries) {
+			this.entries.clear();
+		}
+	}
+
+	/**
+	 * Gets the number of cached entries.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	/**
+	 * Gets the hits.
+	 *
+	 * @return the hits
+	 */
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	/**
+	 * Gets the misses.
+	 *
+	 * @return the misses
+	 */
+	public long getMisses() {
+		return this.misses.get();
+	}
+}
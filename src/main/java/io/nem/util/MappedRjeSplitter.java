@@ -0,0 +1,481 @@
+package io.nem.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+
+
+/**
+ * Splits an RJE file into messages without reading it onto the heap.
+ *
+ * The file is memory mapped one window at a time and the <code>$</code>
+ * separators are found with a plain byte scan. Each message is handed out as
+ * a {@link Message} slice of the mapped window, decoded to a string or parsed
+ * into an {@link AbstractMT} only when asked for. A window always starts at a
+ * message boundary, and grows for a message larger than the window, so heap
+ * use depends on the window size and never on the file size.
+ *
+ * For parallel processing the file is cut into {@link Range ranges} ending on
+ * a separator, which can be scanned independently.
+ */
+public class MappedRjeSplitter implements Closeable {
+
+	/** The Constant DEFAULT_WINDOW_SIZE. */
+	public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+	/** The Constant DELIMITER. */
+	private static final byte DELIMITER = '$';
+
+	/** The channel. */
+	private final FileChannel channel;
+
+	/** The file size. */
+	private final long size;
+
+	/** The window size. */
+	private final int windowSize;
+
+	/**
+	 * Instantiates a new mapped rje splitter.
+	 *
+	 * @param file the file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public MappedRjeSplitter(Path file) throws IOException {
+		this(file, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Instantiates a new mapped rje splitter.
+	 *
+	 * @param file the file
+	 * @param windowSize the window size
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public MappedRjeSplitter(Path file, int windowSize) throws IOException {
+		if (windowSize < 1) {
+			throw new IllegalArgumentException("window size must be positive");
+		}
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		this.size = this.channel.size();
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * Iterates the messages of the whole file.
+	 *
+	 * @return the iterator
+	 */
+	public Iterator<Message> iterator() {
+		return this.iterator(new Range(0, this.size));
+	}
+
+	/**
+	 * Iterates the messages of a range.
+	 *
+	 * @param range the range
+	 * @return the iterator
+	 */
+	public Iterator<Message> iterator(Range range) {
+		return new MessageIterator(range);
+	}
+
+	/**
+	 * Iterates the raw messages of the whole file, e.g. as the source of a
+	 * bulk ingestion.
+	 *
+	 * @return the iterator
+	 */
+	public Iterator<String> stringIterator() {
+		final Iterator<Message> messages = this.iterator();
+		return new Iterator<String>() {
+
+			@Override
+			public boolean hasNext() {
+				return messages.hasNext();
+			}
+
+			@Override
+			public String next() {
+				return messages.next().toString();
+			}
+		};
+	}
+
+	/**
+	 * Cuts the file into ranges of about the same size, each ending right
+	 * after a separator.
+	 *
+	 * @param parts the number of parts
+	 * @return the ranges, fewer than the parts for small files
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public List<Range> split(int parts) throws IOException {
+		final List<Range> ranges = new ArrayList<>(parts);
+		long start = 0;
+		for (int i = 1; i < parts && start < this.size; i++) {
+			final long end = this.nextBoundary(Math.max(start, this.size * i / parts));
+			if (end > start && end < this.size) {
+				ranges.add(new Range(start, end));
+				start = end;
+			}
+		}
+		if (start < this.size) {
+			ranges.add(new Range(start, this.size));
+		}
+		return ranges;
+	}
+
+	/**
+	 * Runs the action on every message, scanning the ranges of the file in
+	 * parallel on the pool. Messages of one range are handled in order.
+	 *
+	 * @param parts the number of ranges
+	 * @param action the action, called concurrently
+	 * @param pool the pool
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void parallelForEach(int parts, Consumer<Message> action, ForkJoinPool pool) throws IOException {
+		final List<Range> ranges = this.split(parts);
+		try {
+			pool.submit(() -> ranges.parallelStream().forEach(range -> this.iterator(range).forEachRemaining(action)))
+					.join();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Gets the file size.
+	 *
+	 * @return the size
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+
+	/**
+	 * Finds the position right after the first separator at or after a
+	 * position.
+	 *
+	 * @param from the position
+	 * @return the boundary, the file size if there is no further separator
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private long nextBoundary(long from) throws IOException {
+		final int chunk = Math.min(this.windowSize, 1024 * 1024);
+		for (long position = from; position < this.size; position += chunk) {
+			final int length = (int) Math.min(chunk, this.size - position);
+			final MappedByteBuffer buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+			for (int i = 0; i < length; i++) {
+				if (buffer.get(i) == DELIMITER) {
+					return position + i + 1;
+				}
+			}
+		}
+		return this.size;
+	}
+
+	/**
+	 * Maps a window.
+	 *
+	 * @param position the position
+	 * @param length the length
+	 * @return the mapped byte buffer
+	 */
+	private MappedByteBuffer map(long position, int length) {
+		try {
+			return this.channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Slices a message out of a window, without the whitespace around it.
+	 *
+	 * @param window the window
+	 * @param windowStart the file position of the window
+	 * @param from the first byte
+	 * @param to the end of the message
+	 * @return the message, null if blank
+	 */
+	private static Message slice(ByteBuffer window, long windowStart, int from, int to) {
+		while (from < to && isWhitespace(window.get(from))) {
+			from++;
+		}
+		while (to > from && isWhitespace(window.get(to - 1))) {
+			to--;
+		}
+		if (from == to) {
+			return null;
+		}
+
+		final ByteBuffer slice = window.duplicate();
+		slice.limit(to).position(from);
+		return new Message(windowStart + from, slice.slice());
+	}
+
+	/**
+	 * Checks if a byte is whitespace.
+	 *
+	 * @param b the b
+	 * @return true, if whitespace
+	 */
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\r' || b == '\n' || b == '\t';
+	}
+
+	/**
+	 * Scans a range window by window.
+	 */
+	private class MessageIterator implements Iterator<Message> {
+
+		/** The end of the range. */
+		private final long end;
+
+		/** The file position of the window, always a message boundary. */
+		private long windowStart;
+
+		/** The window, null until mapped. */
+		private MappedByteBuffer window;
+
+		/** The window length. */
+		private int windowLength;
+
+		/** The scan position in the window. */
+		private int scan;
+
+		/** The start of the current message in the window. */
+		private int messageFrom;
+
+		/** The next message, null until found. */
+		private Message next;
+
+		/**
+		 * Instantiates a new message iterator.
+		 *
+		 * @param range the range
+		 */
+		MessageIterator(Range range) {
+			this.windowStart = range.getStart();
+			this.end = range.getEnd();
+		}
+
+		/* (non-Javadoc)
+		 * @see java.util.Iterator#hasNext()
+		 */
+		@Override
+		public boolean hasNext() {
+			if (this.next == null) {
+				this.next = this.advance();
+			}
+			return this.next != null;
+		}
+
+		/* (non-Javadoc)
+		 * @see java.util.Iterator#next()
+		 */
+		@Override
+		public Message next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final Message message = this.next;
+			this.next = null;
+			return message;
+		}
+
+		/**
+		 * Finds the next message, mapping further windows as needed.
+		 *
+		 * @return the message, null at the end of the range
+		 */
+		private Message advance() {
+			long mapLength = MappedRjeSplitter.this.windowSize;
+			while (true) {
+				if (this.window == null) {
+					if (this.windowStart >= this.end) {
+						return null;
+					}
+					this.windowLength = (int) Math.min(mapLength, this.end - this.windowStart);
+					this.window = map(this.windowStart, this.windowLength);
+					this.scan = 0;
+					this.messageFrom = 0;
+				}
+
+				while (this.scan < this.windowLength) {
+					if (this.window.get(this.scan++) == DELIMITER) {
+						final Message message = slice(this.window, this.windowStart, this.messageFrom, this.scan - 1);
+						this.messageFrom = this.scan;
+						if (message != null) {
+							return message;
+						}
+					}
+				}
+
+				if (this.windowStart + this.windowLength >= this.end) {
+					final Message message = slice(this.window, this.windowStart, this.messageFrom, this.windowLength);
+					this.window = null;
+					this.windowStart = this.end;
+					return message;
+				}
+
+				// the last message continues past the window: remap from its start,
+				// growing the window when the message alone fills it
+				mapLength = this.messageFrom == 0 ? Math.min(mapLength * 2, Integer.MAX_VALUE)
+						: MappedRjeSplitter.this.windowSize;
+				this.windowStart += this.messageFrom;
+				this.window = null;
+			}
+		}
+	}
+
+	/**
+	 * A byte range of the file holding whole messages.
+	 */
+	public static class Range {
+
+		/** The start. */
+		private final long start;
+
+		/** The end, exclusive. */
+		private final long end;
+
+		/**
+		 * Instantiates a new range.
+		 *
+		 * @param start the start
+		 * @param end the end, exclusive
+		 */
+		public Range(long start, long end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * Gets the start.
+		 *
+		 * @return the start
+		 */
+		public long getStart() {
+			return start;
+		}
+
+		/**
+		 * Gets the end, exclusive.
+		 *
+		 * @return the end
+		 */
+		public long getEnd() {
+			return end;
+		}
+
+		/* (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return "Range [" + start + ", " + end + ")";
+		}
+	}
+
+	/**
+	 * One message of the file, a slice of the mapped window.
+	 */
+	public static class Message {
+
+		/** The file position. */
+		private final long offset;
+
+		/** The bytes. */
+		private final ByteBuffer bytes;
+
+		/** The parsed message, null until parsed. */
+		private AbstractMT mt;
+
+		/**
+		 * Instantiates a new message.
+		 *
+		 * @param offset the file position
+		 * @param bytes the bytes
+		 */
+		Message(long offset, ByteBuffer bytes) {
+			this.offset = offset;
+			this.bytes = bytes;
+		}
+
+		/**
+		 * Gets the file position of the message.
+		 *
+		 * @return the offset
+		 */
+		public long getOffset() {
+			return offset;
+		}
+
+		/**
+		 * Gets the length in bytes.
+		 *
+		 * @return the length
+		 */
+		public int getLength() {
+			return bytes.remaining();
+		}
+
+		/**
+		 * Gets the bytes, without copying them.
+		 *
+		 * @return a read only view of the bytes
+		 */
+		public ByteBuffer getBytes() {
+			return bytes.asReadOnlyBuffer();
+		}
+
+		/**
+		 * Parses the message on first use.
+		 *
+		 * @return the parsed message, null if it is not an MT message
+		 * @throws IOException Signals that an I/O exception has occurred.
+		 */
+		public AbstractMT toMT() throws IOException {
+			if (this.mt == null) {
+				this.mt = AbstractMT.parse(this.toString());
+			}
+			return this.mt;
+		}
+
+		/**
+		 * Decodes the message.
+		 *
+		 * @return the message text
+		 */
+		@Override
+		public String toString() {
+			return StandardCharsets.UTF_8.decode(bytes.duplicate()).toString();
+		}
+	}
+}
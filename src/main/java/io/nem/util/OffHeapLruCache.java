@@ -0,0 +1,497 @@
+package io.nem.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import org.nem.core.utils.HexEncoder;
+
+
+
+/**
+ * A thread-safe byte array cache held outside the Java heap, bounded by bytes
+ * and evicting the least recently used entry.
+ *
+ * Values are copied into fixed-size blocks of one direct buffer allocated up
+ * front, so cached data neither adds to the heap nor to garbage collection
+ * work, and eviction only returns blocks to a free list. Only the key index
+ * lives on the heap.
+ *
+ * With a spill directory, evicted entries are written to one file each and
+ * read back into memory on their next lookup; the spill directory is bounded
+ * too, dropping the least recently spilled file first. Entries put with
+ * <code>spillable</code> false, such as decrypted data, never reach the
+ * disk and are dropped on eviction.
+ */
+public class OffHeapLruCache {
+
+	/** The Constant LOGGER. */
+	private static final Logger LOGGER = Logger.getLogger(OffHeapLruCache.class.getName());
+
+	/** The Constant DEFAULT_BLOCK_SIZE. */
+	public static final int DEFAULT_BLOCK_SIZE = 256;
+
+	/** The Constant SPILL_SUFFIX. */
+	private static final String SPILL_SUFFIX = ".bin";
+
+	/** The arena. */
+	private final ByteBuffer arena;
+
+	/** The block size. */
+	private final int blockSize;
+
+	/** The free blocks, a stack. */
+	private final int[] freeBlocks;
+
+	/** The number of free blocks. */
+	private int freeCount;
+
+	/** The entries in access order. */
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	/** The spill directory, null if evicted entries are dropped. */
+	private final Path spillDirectory;
+
+	/** The maximum spilled bytes. */
+	private final long maxSpillBytes;
+
+	/** The spilled entries and their sizes in spill order. */
+	private final LinkedHashMap<String, Integer> spilled = new LinkedHashMap<>(16, 0.75f, true);
+
+	/** The spilled bytes. */
+	private long spilledBytes;
+
+	/** The hits. */
+	private final AtomicLong hits = new AtomicLong();
+
+	/** The hits served from the spill directory. */
+	private final AtomicLong spillHits = new AtomicLong();
+
+	/** The misses. */
+	private final AtomicLong misses = new AtomicLong();
+
+	/** The evictions. */
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * Instantiates a new off heap lru cache without a spill directory.
+	 *
+	 * @param capacityBytes the capacity in bytes
+	 */
+	public OffHeapLruCache(final int capacityBytes) {
+		this(capacityBytes, DEFAULT_BLOCK_SIZE, null, 0);
+	}
+
+	/**
+	 * Instantiates a new off heap lru cache.
+	 *
+	 * @param capacityBytes the capacity in bytes
+	 * @param blockSize the block size, the allocation unit
+	 * @param spillDirectory the spill directory, null to drop evicted entries
+	 * @param maxSpillBytes the maximum bytes kept in the spill directory
+	 */
+	public OffHeapLruCache(final int capacityBytes, final int blockSize, final Path spillDirectory,
+			final long maxSpillBytes) {
+		if (blockSize < 1 || capacityBytes < blockSize) {
+			throw new IllegalArgumentException("capacity must hold at least one block");
+		}
+		final int blocks = capacityBytes / blockSize;
+		this.arena = ByteBuffer.allocateDirect(blocks * blockSize);
+		this.blockSize = blockSize;
+		this.freeBlocks = new int[blocks];
+		for (int i = 0; i < blocks; i++) {
+			this.freeBlocks[i] = blocks - 1 - i;
+		}
+		this.freeCount = blocks;
+		this.spillDirectory = spillDirectory;
+		this.maxSpillBytes = maxSpillBytes;
+		if (spillDirectory != null) {
+			try {
+				Files.createDirectories(spillDirectory);
+			} catch (IOException e) {
+				throw new IllegalArgumentException("cannot create spill directory " + spillDirectory, e);
+			}
+		}
+	}
+
+	/**
+	 * Gets a copy of the cached value.
+	 *
+	 * @param key the key
+	 * @return the value, null if not cached
+	 */
+	public byte[] get(final String key) {
+		byte[] value;
+		synchronized (this) {
+			final Entry entry = this.entries.get(key);
+			value = entry == null ? null : this.read(entry);
+		}
+		if (value != null) {
+			this.hits.incrementAndGet();
+			return value;
+		}
+
+		value = this.unspill(key);
+		if (value != null) {
+			this.spillHits.incrementAndGet();
+			this.put(key, value);
+			return value;
+		}
+		this.misses.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Gets the cached value or loads and caches it. The loader runs outside
+	 * the cache lock; a null result is not cached.
+	 *
+	 * @param key the key
+	 * @param loader the loader
+	 * @return the value, null if the loader returned null
+	 */
+	public byte[] get(final String key, final Function<String, byte[]> loader) {
+		final byte[] value = this.get(key);
+		if (value != null) {
+			return value;
+		}
+		final byte[] loaded = loader.apply(key);
+		if (loaded != null) {
+			this.put(key, loaded);
+		}
+		return loaded;
+	}
+
+	/**
+	 * Caches a copy of a value, evicting the least recently used entries to
+	 * make room. A value larger than the capacity is spilled right away, or
+	 * dropped without a spill directory.
+	 *
+	 * @param key the key
+	 * @param value the value
+	 */
+	public void put(final String key, final byte[] value) {
+		this.put(key, value, true);
+	}
+
+	/**
+	 * Caches a copy of a value like {@link #put(String, byte[])}.
+	 *
+	 * @param key the key
+	 * @param value the value
+	 * @param spillable false to drop the value on eviction instead of spilling it
+	 */
+	public void put(final String key, final byte[] value, final boolean spillable) {
+		final List<Map.Entry<String, byte[]>> evicted = new ArrayList<>();
+		final int needed = Math.max(1, (value.length + this.blockSize - 1) / this.blockSize);
+		synchronized (this) {
+			this.release(this.entries.remove(key));
+			if (needed > this.freeBlocks.length) {
+				if (spillable) {
+					evicted.add(new LinkedHashMap.SimpleEntry<>(key, value));
+				}
+			} else {
+				final Iterator<Map.Entry<String, Entry>> eldest = this.entries.entrySet().iterator();
+				while (this.freeCount < needed) {
+					final Map.Entry<String, Entry> victim = eldest.next();
+					if (this.spillDirectory != null && victim.getValue().spillable) {
+						evicted.add(new LinkedHashMap.SimpleEntry<>(victim.getKey(), this.read(victim.getValue())));
+					}
+					this.release(victim.getValue());
+					eldest.remove();
+					this.evictions.incrementAndGet();
+				}
+				this.entries.put(key, this.write(value, needed, spillable));
+			}
+		}
+
+		if (this.spillDirectory != null) {
+			for (final Map.Entry<String, byte[]> entry : evicted) {
+				this.spill(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Removes an entry from memory and from the spill directory.
+	 *
+	 * @param key the key
+	 */
+	public void remove(final String key) {
+		synchronized (this) {
+			this.release(this.entries.remove(key));
+		}
+		synchronized (this.spilled) {
+			this.deleteSpilled(key);
+		}
+	}
+
+	/**
+	 * Removes all entries from memory and from the spill directory.
+	 */
+	public void clear() {
+		synchronized (this) {
+			for (final Entry entry : this.entries.values()) {
+				this.release(entry);
+			}
+			this.entries.clear();
+		}
+		synchronized (this.spilled) {
+			for (final String key : new ArrayList<>(this.spilled.keySet())) {
+				this.deleteSpilled(key);
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of entries in memory.
+	 *
+	 * @return the size
+	 */
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Gets the bytes taken by the entries in memory, in whole blocks.
+	 *
+	 * @return the used bytes
+	 */
+	public synchronized long getUsedBytes() {
+		return (long) (this.freeBlocks.length - this.freeCount) * this.blockSize;
+	}
+
+	/**
+	 * Gets the capacity in bytes.
+	 *
+	 * @return the capacity
+	 */
+	public long getCapacity() {
+		return this.arena.capacity();
+	}
+
+	/**
+	 * Gets the bytes in the spill directory.
+	 *
+	 * @return the spilled bytes
+	 */
+	public long getSpilledBytes() {
+		synchronized (this.spilled) {
+			return this.spilledBytes;
+		}
+	}
+
+	/**
+	 * Gets the hits served from memory.
+	 *
+	 * @return the hits
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Gets the hits served from the spill directory.
+	 *
+	 * @return the spill hits
+	 */
+	public long getSpillHits() {
+		return spillHits.get();
+	}
+
+	/**
+	 * Gets the misses.
+	 *
+	 * @return the misses
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Gets the evictions from memory.
+	 *
+	 * @return the evictions
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	/**
+	 * Writes a value into free blocks; the caller holds the lock.
+	 *
+	 * @param value the value
+	 * @param blockCount the number of blocks
+	 * @param spillable whether the entry may be spilled
+	 * @return the entry
+	 */
+	private Entry write(final byte[] value, final int blockCount, final boolean spillable) {
+		final int[] blocks = new int[blockCount];
+		for (int i = 0, offset = 0; i < blockCount; i++, offset += this.blockSize) {
+			blocks[i] = this.freeBlocks[--this.freeCount];
+			this.arena.position(blocks[i] * this.blockSize);
+			this.arena.put(value, offset, Math.min(this.blockSize, value.length - offset));
+		}
+		return new Entry(blocks, value.length, spillable);
+	}
+
+	/**
+	 * Reads an entry; the caller holds the lock.
+	 *
+	 * @param entry the entry
+	 * @return the value
+	 */
+	private byte[] read(final Entry entry) {
+		final byte[] value = new byte[entry.length];
+		for (int i = 0, offset = 0; i < entry.blocks.length; i++, offset += this.blockSize) {
+			this.arena.position(entry.blocks[i] * this.blockSize);
+			this.arena.get(value, offset, Math.min(this.blockSize, entry.length - offset));
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the blocks of an entry to the free list; the caller holds the lock.
+	 *
+	 * @param entry the entry, may be null
+	 */
+	private void release(final Entry entry) {
+		if (entry != null) {
+			for (final int block : entry.blocks) {
+				this.freeBlocks[this.freeCount++] = block;
+			}
+		}
+	}
+
+	/**
+	 * Writes an evicted entry to the spill directory, deleting the least
+	 * recently spilled files beyond the limit.
+	 *
+	 * @param key the key
+	 * @param value the value
+	 */
+	private void spill(final String key, final byte[] value) {
+		if (value.length > this.maxSpillBytes) {
+			return;
+		}
+		synchronized (this.spilled) {
+			try {
+				Files.write(this.spillFile(key), value);
+			} catch (IOException e) {
+				LOGGER.warning(String.format("could not spill cache entry: %s", e.getMessage()));
+				return;
+			}
+			final Integer previous = this.spilled.put(key, value.length);
+			this.spilledBytes += value.length - (previous == null ? 0 : previous);
+			final Iterator<Map.Entry<String, Integer>> eldest = this.spilled.entrySet().iterator();
+			while (this.spilledBytes > this.maxSpillBytes) {
+				final Map.Entry<String, Integer> victim = eldest.next();
+				eldest.remove();
+				this.spilledBytes -= victim.getValue();
+				this.deleteSpilledFile(victim.getKey());
+			}
+		}
+	}
+
+	/**
+	 * Takes an entry out of the spill directory.
+	 *
+	 * @param key the key
+	 * @return the value, null if not spilled
+	 */
+	private byte[] unspill(final String key) {
+		if (this.spillDirectory == null) {
+			return null;
+		}
+		synchronized (this.spilled) {
+			if (!this.spilled.containsKey(key)) {
+				return null;
+			}
+			try {
+				return Files.readAllBytes(this.spillFile(key));
+			} catch (IOException e) {
+				LOGGER.warning(String.format("could not read spilled cache entry: %s", e.getMessage()));
+				return null;
+			} finally {
+				this.deleteSpilled(key);
+			}
+		}
+	}
+
+	/**
+	 * Deletes a spilled entry; the caller holds the spill lock.
+	 *
+	 * @param key the key
+	 */
+	private void deleteSpilled(final String key) {
+		final Integer size = this.spilled.remove(key);
+		if (size != null) {
+			this.spilledBytes -= size;
+			this.deleteSpilledFile(key);
+		}
+	}
+
+	/**
+	 * Deletes a spill file.
+	 *
+	 * @param key the key
+	 */
+	private void deleteSpilledFile(final String key) {
+		try {
+			Files.delete(this.spillFile(key));
+		} catch (NoSuchFileException e) {
+			// already gone
+		} catch (IOException e) {
+			LOGGER.warning(String.format("could not delete spilled cache entry: %s", e.getMessage()));
+		}
+	}
+
+	/**
+	 * Gets the spill file of a key, named by the hex of the key so any key
+	 * maps to a valid file name.
+	 *
+	 * @param key the key
+	 * @return the path
+	 */
+	private Path spillFile(final String key) {
+		return this.spillDirectory.resolve(HexEncoder.getString(key.getBytes(StandardCharsets.UTF_8)) + SPILL_SUFFIX);
+	}
+
+	/**
+	 * The blocks of a cached value.
+	 */
+	private static class Entry {
+
+		/** The blocks. */
+		private final int[] blocks;
+
+		/** The length. */
+		private final int length;
+
+		/** Whether the entry may be spilled. */
+		private final boolean spillable;
+
+		/**
+		 * Instantiates a new entry.
+		 *
+		 * @param blocks the blocks
+		 * @param length the length
+		 * @param spillable whether the entry may be spilled
+		 */
+		Entry(int[] blocks, int length, boolean spillable) {
+			this.blocks = blocks;
+			this.length = length;
+			this.spillable = spillable;
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package io.nem.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+
+import org.nem.core.connect.BusyPeerException;
+import org.nem.core.connect.InactivePeerException;
+import org.nem.core.model.ValidationResult;
+import org.nem.core.model.ncc.NemAnnounceResult;
+
+
+
+/**
+ * Decides which failed announces are worth another attempt and how long to
+ * wait before it.
+ *
+ * Transport failures (unreachable, busy or timed out nodes) and node answers
+ * that may change on their own (full transaction cache, clock drift) are
+ * retriable; answers about the transaction itself, such as a bad signature or
+ * an expired deadline, are permanent. NEUTRAL, the answer to a hash the node
+ * already knows, is neither: the transaction got through on an earlier
+ * attempt, see
+ * {@link io.nem.model.SwiftAnnounceResult#isAlreadyKnown()}. The wait grows
+ * exponentially with the attempt and is drawn at random below that bound
+ * (full jitter) so that senders failing together do not retry together.
+ */
+public class RetryPolicy {
+
+	/** The Constant DEFAULT_MAX_ATTEMPTS. */
+	public static final int DEFAULT_MAX_ATTEMPTS = 4;
+
+	/** The Constant DEFAULT_BASE_DELAY_MILLIS. */
+	public static final long DEFAULT_BASE_DELAY_MILLIS = 100;
+
+	/** The Constant DEFAULT_MAX_DELAY_MILLIS. */
+	public static final long DEFAULT_MAX_DELAY_MILLIS = 5000;
+
+	/** The Constant RETRIABLE_RESULTS, the validation results a later attempt may turn into success. */
+	private static final Set<String> RETRIABLE_RESULTS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+			"FAILURE_UNKNOWN", "FAILURE_TRANSACTION_CACHE_TOO_FULL", "FAILURE_TIMESTAMP_TOO_FAR_IN_FUTURE",
+			"FAILURE_ENTITY_UNUSABLE_OUT_OF_SYNC")));
+
+	/** The attempts including the first one. */
+	private final int maxAttempts;
+
+	/** The base delay. */
+	private final long baseDelayMillis;
+
+	/** The max delay. */
+	private final long maxDelayMillis;
+
+	/**
+	 * Instantiates a new retry policy.
+	 *
+	 * @param maxAttempts the attempts including the first one
+	 * @param baseDelayMillis the delay bound of the first retry
+	 * @param maxDelayMillis the largest delay bound
+	 */
+	public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+		if (maxAttempts < 1 || baseDelayMillis < 0 || maxDelayMillis < baseDelayMillis) {
+			throw new IllegalArgumentException("invalid retry policy");
+		}
+		this.maxAttempts = maxAttempts;
+		this.baseDelayMillis = baseDelayMillis;
+		this.maxDelayMillis = maxDelayMillis;
+	}
+
+	/**
+	 * Creates the policy from app.properties: <code>retry.max.attempts</code>,
+	 * <code>retry.base.delay.millis</code> and
+	 * <code>retry.max.delay.millis</code>.
+	 *
+	 * @return the retry policy
+	 */
+	public static RetryPolicy fromProperties() {
+		return new RetryPolicy(AppPropertiesUtil.getIntProperty("retry.max.attempts", DEFAULT_MAX_ATTEMPTS),
+				AppPropertiesUtil.getLongProperty("retry.base.delay.millis", DEFAULT_BASE_DELAY_MILLIS),
+				AppPropertiesUtil.getLongProperty("retry.max.delay.millis", DEFAULT_MAX_DELAY_MILLIS));
+	}
+
+	/**
+	 * Checks if another attempt may follow the given one.
+	 *
+	 * @param attempt the attempt that failed, 0 for the first
+	 * @return true, if attempts are left
+	 */
+	public boolean hasAttemptsLeft(int attempt) {
+		return attempt + 1 < this.maxAttempts;
+	}
+
+	/**
+	 * Gets the delay before the retry of the given attempt, random between 0
+	 * and <code>min(max, base * 2^attempt)</code>.
+	 *
+	 * @param attempt the attempt that failed, 0 for the first
+	 * @return the delay in milliseconds
+	 */
+	public long getDelayMillis(int attempt) {
+		final long bound = attempt >= 30 ? this.maxDelayMillis
+				: Math.min(this.maxDelayMillis, this.baseDelayMillis << attempt);
+		return ThreadLocalRandom.current().nextLong(bound + 1);
+	}
+
+	/**
+	 * Checks if a failure to reach a node is worth a retry.
+	 *
+	 * @param failure the failure, possibly wrapped by a future
+	 * @return true, if retriable
+	 */
+	public boolean isRetriable(Throwable failure) {
+		final Throwable cause = unwrap(failure);
+		return cause instanceof InactivePeerException || cause instanceof BusyPeerException
+				|| cause instanceof TimeoutException || cause instanceof IOException;
+	}
+
+	/**
+	 * Checks if a node answer is worth a retry.
+	 *
+	 * @param result the node answer
+	 * @return true, if retriable
+	 */
+	public boolean isRetriable(NemAnnounceResult result) {
+		try {
+			return RETRIABLE_RESULTS.contains(ValidationResult.fromValue(result.getCode()).name());
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Checks if a node answer rejects the transaction for good, so that it
+	 * never reaches the chain: neither a success, nor an already known hash,
+	 * nor an answer a later attempt may turn into success.
+	 *
+	 * @param result the node answer
+	 * @return true, if rejected for good
+	 */
+	public static boolean isDefinitiveRejection(NemAnnounceResult result) {
+		if (result == null || result.getCode() == ValidationResult.SUCCESS.getValue()
+				|| result.getCode() == ValidationResult.NEUTRAL.getValue()) {
+			return false;
+		}
+		try {
+			return !RETRIABLE_RESULTS.contains(ValidationResult.fromValue(result.getCode()).name());
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Gets the attempts including the first one.
+	 *
+	 * @return the max attempts
+	 */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * Removes the wrappers futures put around a failure.
+	 *
+	 * @param failure the failure
+	 * @return the cause
+	 */
+	public static Throwable unwrap(Throwable failure) {
+		Throwable cause = failure;
+		while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+				&& cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		return cause;
+	}
+}
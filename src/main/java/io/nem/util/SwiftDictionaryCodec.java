@@ -0,0 +1,410 @@
+package io.nem.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.logging.Logger;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.ZipException;
+
+import io.nem.metrics.Metrics;
+
+
+
+/**
+ * The Class SwiftDictionaryCodec.
+ *
+ * Compresses SWIFT MT payloads with raw deflate primed by a preset dictionary
+ * of the message family (1xx, 2xx, 5xx, 9xx). Short MT messages are mostly
+ * block headers and field tags, which the dictionary already holds, so they
+ * compress far better than with gzip and without its 18 bytes of framing.
+ *
+ * The payload layout is one id byte, holding the format version in the high
+ * nibble and the family code in the low nibble, the dictionary id, the
+ * big-endian Adler-32 of the dictionary as in the zlib DICTID, and the
+ * deflate stream. Dictionaries are read from
+ * <code>payload.dictionary.dir</code> when configured and from the bundled
+ * <code>dictionaries/*.dict</code> resources otherwise; sender and receiver
+ * must use the same dictionaries, and a payload compressed with another
+ * dictionary is rejected instead of inflating to garbage. Version 1
+ * payloads, without the dictionary id, are still read.
+ */
+public class SwiftDictionaryCodec {
+
+	/** The Constant LOGGER. */
+	private static final Logger LOGGER = Logger.getLogger(SwiftDictionaryCodec.class.getName());
+
+	/** The Constant FORMAT_VERSION. */
+	public static final int FORMAT_VERSION = 2;
+
+	/** The Constant LEGACY_FORMAT_VERSION, without the dictionary id. */
+	private static final int LEGACY_FORMAT_VERSION = 1;
+
+	/** The Constant HEADER_LENGTH, the id byte and the dictionary id. */
+	private static final int HEADER_LENGTH = 5;
+
+	/** The Constant MAX_DICTIONARY_SIZE, the deflate window. */
+	public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+	/** The Constant HEADER_SCAN_LENGTH. */
+	private static final int HEADER_SCAN_LENGTH = 128;
+
+	/** The dictionaries by family code. */
+	private static final byte[][] DICTIONARIES = new byte[16][];
+
+	/** The dictionary ids by family code. */
+	private static final int[] DICTIONARY_IDS = new int[16];
+
+	static {
+		final String dir = AppPropertiesUtil.getProperty("payload.dictionary.dir");
+		for (final MtFamily family : MtFamily.values()) {
+			DICTIONARIES[family.getCode()] = loadDictionary(family, dir);
+			final Adler32 adler = new Adler32();
+			adler.update(DICTIONARIES[family.getCode()]);
+			DICTIONARY_IDS[family.getCode()] = (int) adler.getValue();
+		}
+	}
+
+	/**
+	 * The MT message families with their own dictionary.
+	 */
+	public enum MtFamily {
+
+		/** Messages of any other category. */
+		GENERIC(0, "generic"),
+
+		/** Customer payments and cheques. */
+		MT1XX(1, "mt1xx"),
+
+		/** Financial institution transfers. */
+		MT2XX(2, "mt2xx"),
+
+		/** Securities markets. */
+		MT5XX(5, "mt5xx"),
+
+		/** Cash management and customer status. */
+		MT9XX(9, "mt9xx");
+
+		/** The code. */
+		private final int code;
+
+		/** The dictionary name. */
+		private final String dictionaryName;
+
+		/**
+		 * Instantiates a new mt family.
+		 *
+		 * @param code the code
+		 * @param dictionaryName the dictionary name
+		 */
+		MtFamily(int code, String dictionaryName) {
+			this.code = code;
+			this.dictionaryName = dictionaryName;
+		}
+
+		/**
+		 * Gets the code.
+		 *
+		 * @return the code
+		 */
+		public int getCode() {
+			return code;
+		}
+
+		/**
+		 * Gets the dictionary file name.
+		 *
+		 * @return the dictionary file name
+		 */
+		public String getDictionaryFileName() {
+			return dictionaryName + ".dict";
+		}
+
+		/**
+		 * Gets the family of an MT category digit.
+		 *
+		 * @param category the first digit of the message type
+		 * @return the mt family
+		 */
+		public static MtFamily fromCategory(int category) {
+			for (final MtFamily family : values()) {
+				if (family.code == category) {
+					return family;
+				}
+			}
+			return GENERIC;
+		}
+
+		/**
+		 * Gets the family of a family code.
+		 *
+		 * @param code the code
+		 * @return the mt family, null if unknown
+		 */
+		static MtFamily fromCode(int code) {
+			for (final MtFamily family : values()) {
+				if (family.code == code) {
+					return family;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Compress.
+	 *
+	 * @param swiftMessage the swift message
+	 * @return the compressed payload
+	 */
+	public static byte[] compress(final String swiftMessage) {
+		return compress(swiftMessage.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Compresses with the dictionary of the family found in block 2.
+	 *
+	 * @param swiftMessage the swift message
+	 * @return the compressed payload
+	 */
+	public static byte[] compress(final byte[] swiftMessage) {
+		return compress(swiftMessage, detectFamily(swiftMessage));
+	}
+
+	/**
+	 * Compresses with the dictionary of the given family.
+	 *
+	 * @param swiftMessage the swift message
+	 * @param family the family
+	 * @return the compressed payload
+	 */
+	public static byte[] compress(final byte[] swiftMessage, final MtFamily family) {
+		final long start = Metrics.DICTIONARY.start();
+		final byte[] output = DeflateCodec
+				.outputScratch(HEADER_LENGTH + DeflateCodec.maxDeflatedLength(swiftMessage.length));
+		final int dictionaryId = DICTIONARY_IDS[family.getCode()];
+		output[0] = (byte) ((FORMAT_VERSION << 4) | family.getCode());
+		output[1] = (byte) (dictionaryId >>> 24);
+		output[2] = (byte) (dictionaryId >>> 16);
+		output[3] = (byte) (dictionaryId >>> 8);
+		output[4] = (byte) dictionaryId;
+		final int written;
+		try {
+			written = DeflateCodec.deflate(swiftMessage, 0, swiftMessage.length, DICTIONARIES[family.getCode()],
+					output, HEADER_LENGTH);
+		} catch (RuntimeException e) {
+			Metrics.DICTIONARY.fail(start);
+			throw e;
+		}
+		Metrics.DICTIONARY.stop(start);
+		return Arrays.copyOf(output, HEADER_LENGTH + written);
+	}
+
+	/**
+	 * Decompress.
+	 *
+	 * @param payload the payload
+	 * @return the swift message bytes
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static byte[] decompress(final byte[] payload) throws IOException {
+		if (!isDictionaryCompressed(payload)) {
+			throw new ZipException("Not a dictionary compressed payload");
+		}
+
+		final MtFamily family = MtFamily.fromCode(payload[0] & 0x0F);
+		final int headerLength = headerLength(payload[0]);
+		if (headerLength == HEADER_LENGTH) {
+			checkDictionaryId(family, ByteBuffer.wrap(payload, 1, 4).getInt());
+		}
+		try {
+			return DeflateCodec.inflate(payload, headerLength, payload.length - headerLength,
+					DICTIONARIES[family.getCode()], 0);
+		} catch (DataFormatException e) {
+			throw new ZipException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Decompresses the remaining bytes of a payload into the output,
+	 * advancing both buffers.
+	 *
+	 * @param payload the payload
+	 * @param output the output
+	 * @return the number of bytes written
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws java.nio.BufferOverflowException if the output is too small
+	 */
+	public static int decompress(final ByteBuffer payload, final ByteBuffer output) throws IOException {
+		if (!isDictionaryCompressed(payload)) {
+			throw new ZipException("Not a dictionary compressed payload");
+		}
+
+		final MtFamily family = MtFamily.fromCode(payload.get(payload.position()) & 0x0F);
+		final int headerLength = headerLength(payload.get(payload.position()));
+		if (headerLength == HEADER_LENGTH) {
+			checkDictionaryId(family, payload.getInt(payload.position() + 1));
+		}
+		final ByteBuffer deflated = payload.duplicate();
+		deflated.position(deflated.position() + headerLength);
+		try {
+			final int written = DeflateCodec.inflate(deflated, DICTIONARIES[family.getCode()], output);
+			payload.position(payload.limit());
+			return written;
+		} catch (DataFormatException e) {
+			throw new ZipException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Decompress to string.
+	 *
+	 * @param payload the payload
+	 * @return the swift message
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static String decompressToString(final byte[] payload) throws IOException {
+		return new String(decompress(payload), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Checks if the payload carries a known version and dictionary id.
+	 *
+	 * @param payload the payload
+	 * @return true, if dictionary compressed
+	 */
+	public static boolean isDictionaryCompressed(final byte[] payload) {
+		return payload != null && payload.length > 0 && payload.length > headerLength(payload[0])
+				&& MtFamily.fromCode(payload[0] & 0x0F) != null;
+	}
+
+	/**
+	 * Checks if the remaining bytes carry a known version and dictionary id.
+	 *
+	 * @param payload the payload
+	 * @return true, if dictionary compressed
+	 */
+	public static boolean isDictionaryCompressed(final ByteBuffer payload) {
+		if (payload == null || payload.remaining() == 0) {
+			return false;
+		}
+		final byte id = payload.get(payload.position());
+		return payload.remaining() > headerLength(id) && MtFamily.fromCode(id & 0x0F) != null;
+	}
+
+	/**
+	 * Gets the header length of a payload from its id byte.
+	 *
+	 * @param id the id byte
+	 * @return the header length, Integer.MAX_VALUE for an unknown version
+	 */
+	private static int headerLength(final byte id) {
+		final int version = (id & 0xF0) >>> 4;
+		return version == FORMAT_VERSION ? HEADER_LENGTH : version == LEGACY_FORMAT_VERSION ? 1 : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Checks the dictionary id of a payload against the dictionary in use.
+	 *
+	 * @param family the family
+	 * @param dictionaryId the dictionary id of the payload
+	 * @throws ZipException the payload was compressed with another dictionary
+	 */
+	private static void checkDictionaryId(final MtFamily family, final int dictionaryId) throws ZipException {
+		if (dictionaryId != DICTIONARY_IDS[family.getCode()]) {
+			throw new ZipException(String.format("%s payload compressed with dictionary %08x, not %08x", family,
+					dictionaryId, DICTIONARY_IDS[family.getCode()]));
+		}
+	}
+
+	/**
+	 * Gets the id of the dictionary in use for a family, its Adler-32.
+	 *
+	 * @param family the family
+	 * @return the dictionary id
+	 */
+	public static int getDictionaryId(final MtFamily family) {
+		return DICTIONARY_IDS[family.getCode()];
+	}
+
+	/**
+	 * Detects the family from the message type in block 2.
+	 *
+	 * @param swiftMessage the swift message
+	 * @return the mt family
+	 */
+	public static MtFamily detectFamily(final byte[] swiftMessage) {
+		final int end = Math.min(swiftMessage.length, HEADER_SCAN_LENGTH) - 6;
+		for (int i = 0; i < end; i++) {
+			if (swiftMessage[i] == '{' && swiftMessage[i + 1] == '2' && swiftMessage[i + 2] == ':'
+					&& (swiftMessage[i + 3] == 'I' || swiftMessage[i + 3] == 'O')) {
+				final int category = swiftMessage[i + 4] - '0';
+				return category >= 0 && category <= 9 ? MtFamily.fromCategory(category) : MtFamily.GENERIC;
+			}
+		}
+		return MtFamily.GENERIC;
+	}
+
+	/**
+	 * Gets the dictionary in use for a family.
+	 *
+	 * @param family the family
+	 * @return the dictionary
+	 */
+	public static byte[] getDictionary(final MtFamily family) {
+		return DICTIONARIES[family.getCode()].clone();
+	}
+
+	/**
+	 * Loads the dictionary of a family from the directory or the classpath.
+	 *
+	 * @param family the family
+	 * @param dir the dictionary directory, may be null
+	 * @return the dictionary
+	 */
+	private static byte[] loadDictionary(final MtFamily family, final String dir) {
+		try {
+			if (dir != null) {
+				final File file = new File(dir, family.getDictionaryFileName());
+				if (file.isFile()) {
+					return limit(Files.readAllBytes(file.toPath()));
+				}
+			}
+
+			try (InputStream in = SwiftDictionaryCodec.class.getClassLoader()
+					.getResourceAsStream("dictionaries/" + family.getDictionaryFileName())) {
+				if (in == null) {
+					LOGGER.warning(String.format("no dictionary found for %s", family));
+					return new byte[0];
+				}
+				final ByteArrayOutputStream out = new ByteArrayOutputStream();
+				final byte[] buffer = new byte[4096];
+				int read;
+				while ((read = in.read(buffer)) > 0) {
+					out.write(buffer, 0, read);
+				}
+				return limit(out.toByteArray());
+			}
+		} catch (IOException e) {
+			LOGGER.warning(String.format("could not load dictionary for %s: %s", family, e.getMessage()));
+			return new byte[0];
+		}
+	}
+
+	/**
+	 * Keeps the tail of a dictionary that exceeds the deflate window.
+	 *
+	 * @param dictionary the dictionary
+	 * @return the usable dictionary
+	 */
+	private static byte[] limit(final byte[] dictionary) {
+		return dictionary.length <= MAX_DICTIONARY_SIZE ? dictionary
+				: Arrays.copyOfRange(dictionary, dictionary.length - MAX_DICTIONARY_SIZE, dictionary.length);
+	}
+}
@@ -0,0 +1,226 @@
+package io.nem.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.nem.util.SwiftDictionaryCodec.MtFamily;
+
+
+
+/**
+ * The Class SwiftDictionaryTrainer.
+ *
+ * Builds preset dictionaries for {@link SwiftDictionaryCodec} from a directory
+ * of FIN files, one or more messages per file separated by the RJE
+ * <code>$</code> delimiter. Basic and application headers and field tags are
+ * counted per MT family and the ones saving the most bytes are kept, the most
+ * valuable last so deflate reaches them with the shortest distances. Field
+ * contents, such as account numbers, names and references, never go into a
+ * dictionary, which is shipped to every counterparty.
+ *
+ * Usage: <code>SwiftDictionaryTrainer &lt;input dir&gt; &lt;output dir&gt; [max size]</code>.
+ * Point <code>payload.dictionary.dir</code> at the output directory on both
+ * the sending and the receiving side.
+ */
+public class SwiftDictionaryTrainer {
+
+	/** The Constant DEFAULT_DICTIONARY_SIZE. */
+	public static final int DEFAULT_DICTIONARY_SIZE = 4 * 1024;
+
+	/** The Constant MIN_OCCURRENCES. */
+	private static final int MIN_OCCURRENCES = 2;
+
+	/** The segment counts per family. */
+	private final Map<MtFamily, Map<String, Integer>> counts = new EnumMap<>(MtFamily.class);
+
+	/** The max dictionary size. */
+	private final int maxSize;
+
+	/**
+	 * Instantiates a new swift dictionary trainer.
+	 *
+	 * @param maxSize the max dictionary size
+	 */
+	public SwiftDictionaryTrainer(int maxSize) {
+		if (maxSize <= 0 || maxSize > SwiftDictionaryCodec.MAX_DICTIONARY_SIZE) {
+			throw new IllegalArgumentException("dictionary size must be between 1 and "
+					+ SwiftDictionaryCodec.MAX_DICTIONARY_SIZE);
+		}
+		this.maxSize = maxSize;
+		for (final MtFamily family : MtFamily.values()) {
+			this.counts.put(family, new HashMap<>());
+		}
+	}
+
+	/**
+	 * Adds a FIN file, which may hold several RJE delimited messages.
+	 *
+	 * @param file the file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void addFile(Path file) throws IOException {
+		final String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		for (final String message : content.split("\\$")) {
+			if (!message.trim().isEmpty()) {
+				this.addMessage(message.trim());
+			}
+		}
+	}
+
+	/**
+	 * Adds a message to the family found in its block 2 and to the generic
+	 * dictionary.
+	 *
+	 * @param message the message
+	 */
+	public void addMessage(String message) {
+		final MtFamily family = SwiftDictionaryCodec.detectFamily(message.getBytes(StandardCharsets.UTF_8));
+		final List<String> segments = segments(message);
+		count(this.counts.get(family), segments);
+		if (family != MtFamily.GENERIC) {
+			count(this.counts.get(MtFamily.GENERIC), segments);
+		}
+	}
+
+	/**
+	 * Builds the dictionary of a family.
+	 *
+	 * @param family the family
+	 * @return the dictionary, empty when no segment repeats
+	 */
+	public byte[] build(MtFamily family) {
+		final List<Map.Entry<String, Integer>> ranked = this.counts.get(family).entrySet().stream()
+				.filter(e -> e.getValue() >= MIN_OCCURRENCES)
+				.sorted((a, b) -> Long.compare(score(b), score(a)))
+				.collect(Collectors.toList());
+
+		final List<String> selected = new ArrayList<>();
+		int size = 0;
+		for (final Map.Entry<String, Integer> entry : ranked) {
+			final int length = entry.getKey().length() + 2;
+			if (size + length > this.maxSize) {
+				continue;
+			}
+			selected.add(entry.getKey());
+			size += length;
+		}
+
+		final StringBuilder dictionary = new StringBuilder(size);
+		for (int i = selected.size() - 1; i >= 0; i--) {
+			dictionary.append(selected.get(i)).append("\r\n");
+		}
+		return dictionary.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes the dictionary of every family to a directory.
+	 *
+	 * @param outputDir the output dir
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void writeAll(Path outputDir) throws IOException {
+		Files.createDirectories(outputDir);
+		for (final MtFamily family : MtFamily.values()) {
+			final byte[] dictionary = this.build(family);
+			if (dictionary.length > 0) {
+				Files.write(outputDir.resolve(family.getDictionaryFileName()), dictionary);
+			}
+		}
+	}
+
+	/**
+	 * Splits a message into the segments worth keeping: the basic and
+	 * application header blocks, the openings of the other blocks and the
+	 * field tags. Field contents are left out.
+	 *
+	 * @param message the message
+	 * @return the segments
+	 */
+	static List<String> segments(String message) {
+		final List<String> segments = new ArrayList<>();
+		int blockStart = message.indexOf('{');
+		while (blockStart >= 0 && blockStart + 3 < message.length() && message.charAt(blockStart + 2) == ':') {
+			final char block = message.charAt(blockStart + 1);
+			final int blockEnd = message.indexOf('}', blockStart);
+			if (blockEnd < 0 || (block != '1' && block != '2')) {
+				segments.add(message.substring(blockStart, blockStart + 3));
+				if (blockEnd < 0 || block == '4') {
+					break;
+				}
+			} else {
+				segments.add(message.substring(blockStart, blockEnd + 1));
+			}
+			blockStart = message.indexOf('{', blockEnd);
+		}
+
+		for (final String line : message.split("\r?\n")) {
+			if (line.length() > 3 && line.charAt(0) == ':') {
+				final int tagEnd = line.indexOf(':', 1);
+				if (tagEnd > 0) {
+					segments.add(line.substring(0, tagEnd + 1));
+				}
+			}
+		}
+		return segments;
+	}
+
+	/**
+	 * Counts segments.
+	 *
+	 * @param familyCounts the family counts
+	 * @param segments the segments
+	 */
+	private static void count(Map<String, Integer> familyCounts, List<String> segments) {
+		for (final String segment : segments) {
+			familyCounts.merge(segment, 1, Integer::sum);
+		}
+	}
+
+	/**
+	 * Scores a segment by the bytes it would save.
+	 *
+	 * @param entry the entry
+	 * @return the score
+	 */
+	private static long score(Map.Entry<String, Integer> entry) {
+		return (long) entry.getValue() * entry.getKey().length();
+	}
+
+	/**
+	 * The main method.
+	 *
+	 * @param args the input dir, the output dir and an optional max size
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("usage: SwiftDictionaryTrainer <input dir> <output dir> [max size]");
+			System.exit(1);
+		}
+
+		final SwiftDictionaryTrainer trainer = new SwiftDictionaryTrainer(
+				args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_DICTIONARY_SIZE);
+		try (Stream<Path> files = Files.walk(Paths.get(args[0]))) {
+			for (final Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+				trainer.addFile(file);
+			}
+		}
+		trainer.writeAll(Paths.get(args[1]));
+
+		for (final MtFamily family : MtFamily.values()) {
+			final File file = new File(args[1], family.getDictionaryFileName());
+			System.out.println(family + ": " + (file.isFile() ? file.length() + " bytes" : "no dictionary"));
+		}
+	}
+}
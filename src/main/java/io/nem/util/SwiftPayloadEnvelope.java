@@ -0,0 +1,329 @@
+package io.nem.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.ZipException;
+
+import io.nem.metrics.Metrics;
+
+
+
+/**
+ * The Class SwiftPayloadEnvelope.
+ *
+ * A self-describing payload: one header byte naming the codec and the format
+ * version, followed by the encoded message. Header bytes are taken from
+ * 0xF8-0xFF, which never occur in UTF-8 text and are neither the gzip magic
+ * nor a {@link SwiftDictionaryCodec} id, so the decoder dispatches on the
+ * header instead of sniffing and still reads payloads written before the
+ * envelope existed.
+ *
+ * The encoder tries each codec in turn and keeps the smallest result. Trying
+ * stops once <code>payload.codec.budget.micros</code> is spent, after at
+ * least one compressed candidate.
+ */
+public class SwiftPayloadEnvelope {
+
+	/** The Constant FORMAT_VERSION. */
+	public static final int FORMAT_VERSION = 1;
+
+	/** The Constant HEADER_BASE, the first byte value no UTF-8 text contains. */
+	private static final int HEADER_BASE = 0xF8;
+
+	/** The Constant DEFAULT_BUDGET_MICROS. */
+	private static final long DEFAULT_BUDGET_MICROS = 500;
+
+	/** The Constant BUDGET_NANOS. */
+	private static final long BUDGET_NANOS = getBudgetMicros() * 1000L;
+
+	/** The codecs tried by {@link #encode(byte[])}, most effective on MT text first. */
+	private static final Codec[] CANDIDATES = { Codec.DICTIONARY, Codec.DEFLATE };
+
+	/**
+	 * The payload codecs.
+	 */
+	public enum Codec {
+
+		/** The message as is. */
+		RAW(0),
+
+		/** Raw deflate without dictionary or framing. */
+		DEFLATE(1),
+
+		/** Gzip, as written by {@link GzipUtils}. */
+		GZIP(2),
+
+		/** Raw deflate with the preset dictionary of the MT family. */
+		DICTIONARY(3);
+
+		/** The id. */
+		private final int id;
+
+		/**
+		 * Instantiates a new codec.
+		 *
+		 * @param id the id
+		 */
+		Codec(int id) {
+			this.id = id;
+		}
+
+		/**
+		 * Gets the header byte of this codec.
+		 *
+		 * @return the header byte
+		 */
+		public byte getHeader() {
+			return (byte) (HEADER_BASE | ((FORMAT_VERSION - 1) << 2) | this.id);
+		}
+
+		/**
+		 * Encodes a message without the header byte.
+		 *
+		 * @param message the message
+		 * @return the encoded message
+		 */
+		byte[] encode(byte[] message) {
+			switch (this) {
+			case DEFLATE:
+				return DeflateCodec.deflate(message, 0, message.length, null);
+			case GZIP:
+				return GzipUtils.compress(message);
+			case DICTIONARY:
+				return SwiftDictionaryCodec.compress(message);
+			default:
+				return message;
+			}
+		}
+
+		/**
+		 * Decodes a message following the header byte.
+		 *
+		 * @param payload the payload
+		 * @return the message
+		 * @throws IOException Signals that an I/O exception has occurred.
+		 */
+		byte[] decode(byte[] payload) throws IOException {
+			final byte[] body = Arrays.copyOfRange(payload, 1, payload.length);
+			switch (this) {
+			case DEFLATE:
+				try {
+					return DeflateCodec.inflate(body, 0, body.length, null, 0);
+				} catch (DataFormatException e) {
+					throw new ZipException(e.getMessage());
+				}
+			case GZIP:
+				return GzipUtils.decompressToBytes(body);
+			case DICTIONARY:
+				return SwiftDictionaryCodec.decompress(body);
+			default:
+				return body;
+			}
+		}
+
+		/**
+		 * Decodes the remaining bytes following the header byte into the
+		 * output, advancing both buffers.
+		 *
+		 * @param body the message after the header byte
+		 * @param output the output
+		 * @return the number of bytes written
+		 * @throws IOException Signals that an I/O exception has occurred.
+		 */
+		int decode(ByteBuffer body, ByteBuffer output) throws IOException {
+			switch (this) {
+			case DEFLATE:
+				try {
+					return DeflateCodec.inflate(body, null, output);
+				} catch (DataFormatException e) {
+					throw new ZipException(e.getMessage());
+				}
+			case GZIP:
+				return GzipUtils.decompress(body, output);
+			case DICTIONARY:
+				return SwiftDictionaryCodec.decompress(body, output);
+			default:
+				final int length = body.remaining();
+				output.put(body);
+				return length;
+			}
+		}
+
+		/**
+		 * Gets the codec of a header byte.
+		 *
+		 * @param header the header byte
+		 * @return the codec, null if the byte is no envelope header of this version
+		 */
+		static Codec fromHeader(byte header) {
+			for (final Codec codec : values()) {
+				if (codec.getHeader() == header) {
+					return codec;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Encodes a message with the smallest codec found within the budget.
+	 *
+	 * @param message the message
+	 * @return the payload
+	 */
+	public static byte[] encode(final String message) {
+		return encode(message.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Encodes a message with the smallest codec found within the budget.
+	 *
+	 * @param message the message
+	 * @return the payload
+	 */
+	public static byte[] encode(final byte[] message) {
+		final long start = Metrics.ADAPTIVE.start();
+		Codec best = Codec.RAW;
+		byte[] bestBody = message;
+		try {
+			for (final Codec codec : CANDIDATES) {
+				final byte[] body = codec.encode(message);
+				if (body.length < bestBody.length) {
+					best = codec;
+					bestBody = body;
+				}
+				if (System.nanoTime() - start > BUDGET_NANOS) {
+					break;
+				}
+			}
+		} catch (RuntimeException e) {
+			Metrics.ADAPTIVE.fail(start);
+			throw e;
+		}
+		Metrics.ADAPTIVE.stop(start);
+		return wrap(best, bestBody);
+	}
+
+	/**
+	 * Encodes a message with the given codec.
+	 *
+	 * @param message the message
+	 * @param codec the codec
+	 * @return the payload
+	 */
+	public static byte[] encode(final byte[] message, final Codec codec) {
+		return wrap(codec, codec.encode(message));
+	}
+
+	/**
+	 * Decodes a payload, reading payloads without envelope as gzip, dictionary
+	 * or raw ones.
+	 *
+	 * @param payload the payload
+	 * @return the message
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static byte[] decode(final byte[] payload) throws IOException {
+		if (payload == null) {
+			throw new ZipException("No payload");
+		}
+
+		final Codec codec = getCodec(payload);
+		if (codec != null) {
+			return codec.decode(payload);
+		}
+		if (GzipUtils.isCompressed(payload)) {
+			return GzipUtils.decompressToBytes(payload);
+		}
+		if (SwiftDictionaryCodec.isDictionaryCompressed(payload)) {
+			return SwiftDictionaryCodec.decompress(payload);
+		}
+		return payload;
+	}
+
+	/**
+	 * Decodes the remaining bytes of a payload into the output, advancing
+	 * both buffers. Payloads without envelope are read as gzip, dictionary
+	 * or raw ones. No intermediate copy of the message is made.
+	 *
+	 * @param payload the payload
+	 * @param output the output
+	 * @return the number of bytes written
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws java.nio.BufferOverflowException if the output is too small
+	 */
+	public static int decode(final ByteBuffer payload, final ByteBuffer output) throws IOException {
+		if (!payload.hasRemaining()) {
+			throw new ZipException("No payload");
+		}
+
+		final int header = payload.get(payload.position()) & 0xFF;
+		final Codec codec = header < HEADER_BASE ? null : Codec.fromHeader((byte) header);
+		if (codec != null) {
+			final ByteBuffer body = payload.duplicate();
+			body.position(body.position() + 1);
+			final int written = codec.decode(body, output);
+			payload.position(payload.limit());
+			return written;
+		}
+		if (GzipUtils.isCompressed(payload)) {
+			return GzipUtils.decompress(payload, output);
+		}
+		if (SwiftDictionaryCodec.isDictionaryCompressed(payload)) {
+			return SwiftDictionaryCodec.decompress(payload, output);
+		}
+		final int length = payload.remaining();
+		output.put(payload);
+		return length;
+	}
+
+	/**
+	 * Decodes a payload to string.
+	 *
+	 * @param payload the payload
+	 * @return the message
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static String decodeToString(final byte[] payload) throws IOException {
+		return new String(decode(payload), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Gets the codec named in the header of a payload.
+	 *
+	 * @param payload the payload
+	 * @return the codec, null if the payload has no envelope
+	 */
+	public static Codec getCodec(final byte[] payload) {
+		if (payload == null || payload.length == 0 || (payload[0] & 0xFF) < HEADER_BASE) {
+			return null;
+		}
+		return Codec.fromHeader(payload[0]);
+	}
+
+	/**
+	 * Prefixes the header byte of a codec.
+	 *
+	 * @param codec the codec
+	 * @param body the body
+	 * @return the payload
+	 */
+	private static byte[] wrap(final Codec codec, final byte[] body) {
+		final byte[] payload = new byte[body.length + 1];
+		payload[0] = codec.getHeader();
+		System.arraycopy(body, 0, payload, 1, body.length);
+		return payload;
+	}
+
+	/**
+	 * Gets the budget micros.
+	 *
+	 * @return the budget micros
+	 */
+	private static long getBudgetMicros() {
+		return AppPropertiesUtil.getLongProperty("payload.codec.budget.micros", DEFAULT_BUDGET_MICROS);
+	}
+}
@@ -1,75 +1,357 @@
 package io.nem.util;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
-import org.nem.core.connect.HttpJsonPostRequest;
+import org.nem.core.connect.InactivePeerException;
 import org.nem.core.connect.client.NisApiId;
-import org.nem.core.model.NetworkInfos;
+import org.nem.core.crypto.Hash;
 import org.nem.core.model.Transaction;
 import org.nem.core.model.ncc.NemAnnounceResult;
 import org.nem.core.model.ncc.RequestAnnounce;
 import org.nem.core.node.NodeEndpoint;
-import org.nem.core.serialization.BinaryDeserializer;
-import org.nem.core.serialization.BinarySerializer;
 import org.nem.core.serialization.Deserializer;
 
+import io.nem.connect.AnnounceRequest;
+import io.nem.metrics.Metrics;
+import io.nem.model.SignedTransaction;
+import io.nem.model.SwiftAnnounceResult;
 import io.nem.service.Globals;
+import io.nem.service.NodeEndpointPool;
+import io.nem.service.OutboxJournal;
 
 
 
 /**
  * The Class TransactionSenderUtil.
+ *
+ * Announces are retried according to the {@link RetryPolicy} on the node the
+ * pool selects for each attempt. Retries wait on a scheduler rather than on a
+ * thread, and a node whose circuit breaker is open is not tried at all.
  */
 public class TransactionSenderUtil {
-	
+
 	/** The Constant LOGGER. */
 	private static final Logger LOGGER = Logger.getLogger(TransactionSenderUtil.class.getName());
 
+	/** Runs the result handling on the thread that completes the announce. */
+	private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+	/** The Constant RETRY_POLICY. */
+	private static final RetryPolicy RETRY_POLICY = RetryPolicy.fromProperties();
+
+	/** Schedules the retries, so no thread waits out a backoff. */
+	private static final ScheduledExecutorService RETRY_SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+		final Thread thread = new Thread(r, "nem-announce-retry");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/** The retries. */
+	private static final AtomicLong RETRIES = new AtomicLong();
+
+	/** The failed attempts that were retriable. */
+	private static final AtomicLong RETRIABLE_FAILURES = new AtomicLong();
+
+	/** The failed attempts that were permanent. */
+	private static final AtomicLong PERMANENT_FAILURES = new AtomicLong();
+
+	/** The attempts rejected because every node circuit breaker was open. */
+	private static final AtomicLong BREAKER_REJECTIONS = new AtomicLong();
+
 	/**
 	 * Send transaction.
 	 *
 	 * @param transaction the transaction
 	 */
 	public static void sendTransaction(Transaction transaction) {
-		
-		final byte[] data = BinarySerializer.serializeToBytes(transaction.asNonVerifiable());
-
-		final RequestAnnounce request = new RequestAnnounce(data, transaction.getSignature().getBytes());
-		final CompletableFuture<Deserializer> future = send(Globals.NODE_ENDPOINT, request);
 		try {
-			future.thenAcceptAsync(d -> {
-				final NemAnnounceResult result = new NemAnnounceResult(d);
-
-				switch (result.getCode()) {
-				case 1:
-					LOGGER.info(String.format("successfully send xem " + result.getMessage()));
-					break;
-				default:
-					LOGGER.warning(String.format("could not send xem " + result.getMessage()));
-				}
-			}).exceptionally(e -> {
-				LOGGER.warning(String.format("could not send xem:" + e.getMessage()));
-				
-				return null;
-			}).get();
-		} catch (InterruptedException | ExecutionException e) {
-			e.printStackTrace();
+			sendTransactionAsync(transaction, DIRECT_EXECUTOR).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.warning(String.format("could not send xem: %s", e.getMessage()));
+		} catch (ExecutionException e) {
+			LOGGER.warning(String.format("could not send xem: %s", e.getCause().getMessage()));
+		}
+	}
+
+	/**
+	 * Send transaction without blocking the calling thread. The announce
+	 * result is parsed on the given executor.
+	 *
+	 * @param transaction the signed transaction
+	 * @param executor the executor that parses the node response
+	 * @return the future announce result
+	 */
+	public static CompletableFuture<SwiftAnnounceResult> sendTransactionAsync(final Transaction transaction,
+			final Executor executor) {
+		return sendTransactionAsync(new SignedTransaction(transaction), executor);
+	}
+
+	/**
+	 * Send a transaction serialized and hashed up front, without blocking the
+	 * calling thread. The announce result is parsed on the given executor.
+	 * With an outbox journal configured, the transaction is journaled before
+	 * it is announced, see {@link #replayOutbox(Executor)}.
+	 *
+	 * @param signedTransaction the signed transaction
+	 * @param executor the executor that parses the node response
+	 * @return the future announce result
+	 */
+	public static CompletableFuture<SwiftAnnounceResult> sendTransactionAsync(
+			final SignedTransaction signedTransaction, final Executor executor) {
+		return sendTransactionAsync(signedTransaction, Globals.getOutboxJournal(), Globals.NODE_ENDPOINT_POOL,
+				RETRY_POLICY, executor);
+	}
+
+	/**
+	 * Send a transaction serialized and hashed up front through the given
+	 * journal, nodes and retry policy instead of the configured ones.
+	 *
+	 * @param signedTransaction the signed transaction
+	 * @param journal the outbox journal, null for none
+	 * @param endpoints the nodes
+	 * @param retryPolicy the retry policy
+	 * @param executor the executor that parses the node response
+	 * @return the future announce result
+	 */
+	public static CompletableFuture<SwiftAnnounceResult> sendTransactionAsync(
+			final SignedTransaction signedTransaction, final OutboxJournal journal, final NodeEndpointPool endpoints,
+			final RetryPolicy retryPolicy, final Executor executor) {
+
+		final AnnounceRequest request = signedTransaction.toAnnounceRequest();
+		if (journal == null) {
+			return announce(signedTransaction.getHash(), request, endpoints, retryPolicy, executor);
+		}
+		return journal.append(signedTransaction.getHash(), signedTransaction.toRequestAnnounce())
+				.thenCompose(sequence -> announceJournaled(journal, sequence, signedTransaction.getHash(), request,
+						endpoints, retryPolicy, executor));
+	}
+
+	/**
+	 * Announces again every transaction of the outbox journal that was
+	 * journaled but never answered by a node, e.g. after a crash. Call once
+	 * at startup, before sending new transactions.
+	 *
+	 * @param executor the executor that parses the node responses
+	 * @return the results in journal order, null for those that failed again
+	 */
+	public static CompletableFuture<List<SwiftAnnounceResult>> replayOutbox(final Executor executor) {
+		return replayOutbox(Globals.getOutboxJournal(), Globals.NODE_ENDPOINT_POOL, RETRY_POLICY, executor);
+	}
+
+	/**
+	 * Announces again every pending transaction of the given journal through
+	 * the given nodes and retry policy, see {@link #replayOutbox(Executor)}.
+	 *
+	 * @param journal the outbox journal, null for none
+	 * @param endpoints the nodes
+	 * @param retryPolicy the retry policy
+	 * @param executor the executor that parses the node responses
+	 * @return the results in journal order, null for those that failed again
+	 */
+	public static CompletableFuture<List<SwiftAnnounceResult>> replayOutbox(final OutboxJournal journal,
+			final NodeEndpointPool endpoints, final RetryPolicy retryPolicy, final Executor executor) {
+		if (journal == null) {
+			return CompletableFuture.completedFuture(Collections.emptyList());
+		}
+
+		final List<CompletableFuture<SwiftAnnounceResult>> results = new ArrayList<>();
+		for (final OutboxJournal.Entry entry : journal.getPending()) {
+			LOGGER.info(String.format("replaying journaled transaction %s", entry.getHash()));
+			results.add(announceJournaled(journal, entry.getSequence(), entry.getHash(),
+					new AnnounceRequest(entry.toRequestAnnounce()), endpoints, retryPolicy, executor)
+							.handle((result, e) -> result));
+		}
+		return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+				.thenApply(v -> results.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+	}
+
+	/**
+	 * Announces a journaled transaction and acknowledges it once it is on
+	 * its way to the chain (success or an already known hash) or rejected for
+	 * good, see {@link RetryPolicy#isDefinitiveRejection}. Transport failures
+	 * and retriable answers left after the last attempt, such as a full
+	 * transaction cache, leave it pending for the next replay.
+	 *
+	 * @param journal the journal
+	 * @param sequence the journal sequence
+	 * @param transactionHash the transaction hash
+	 * @param request the request
+	 * @param endpoints the nodes
+	 * @param retryPolicy the retry policy
+	 * @param executor the executor that parses the node response
+	 * @return the future announce result
+	 */
+	private static CompletableFuture<SwiftAnnounceResult> announceJournaled(final OutboxJournal journal,
+			final long sequence, final Hash transactionHash, final AnnounceRequest request,
+			final NodeEndpointPool endpoints, final RetryPolicy retryPolicy, final Executor executor) {
+		return announce(transactionHash, request, endpoints, retryPolicy, executor).thenApply(result -> {
+			if (result.isSuccessful() || result.isAlreadyKnown()
+					|| RetryPolicy.isDefinitiveRejection(result.getAnnounceResult())) {
+				journal.acknowledge(sequence);
+			}
+			return result;
+		});
+	}
+
+	/**
+	 * Announces a request and parses the node response on the executor,
+	 * retrying retriable failures. Once the attempts are used up, the future
+	 * completes with the last node answer or failure.
+	 *
+	 * @param transactionHash the transaction hash
+	 * @param request the request
+	 * @param endpoints the nodes
+	 * @param retryPolicy the retry policy
+	 * @param executor the executor that parses the node response
+	 * @return the future announce result
+	 */
+	private static CompletableFuture<SwiftAnnounceResult> announce(final Hash transactionHash,
+			final AnnounceRequest request, final NodeEndpointPool endpoints, final RetryPolicy retryPolicy,
+			final Executor executor) {
+		final CompletableFuture<SwiftAnnounceResult> future = new CompletableFuture<>();
+		attempt(transactionHash, request, endpoints, retryPolicy, executor, 0, future);
+		return future;
+	}
+
+	/**
+	 * Makes one announce attempt and either completes the future or schedules
+	 * the next attempt.
+	 *
+	 * @param transactionHash the transaction hash
+	 * @param request the request
+	 * @param endpoints the nodes
+	 * @param retryPolicy the retry policy
+	 * @param executor the executor that parses the node response
+	 * @param attempt the attempt, 0 for the first
+	 * @param future the future announce result
+	 */
+	private static void attempt(final Hash transactionHash, final AnnounceRequest request,
+			final NodeEndpointPool endpoints, final RetryPolicy retryPolicy, final Executor executor,
+			final int attempt, final CompletableFuture<SwiftAnnounceResult> future) {
+		final NodeEndpoint endpoint = endpoints.acquire();
+		final CompletableFuture<Deserializer> response;
+		if (endpoint == null) {
+			BREAKER_REJECTIONS.incrementAndGet();
+			response = new CompletableFuture<>();
+			response.completeExceptionally(new InactivePeerException("circuit breaker of every node is open"));
+		} else {
+			response = send(endpoints, endpoint, request);
 		}
+
+		response.thenApplyAsync(NemAnnounceResult::new, executor).whenComplete((result, e) -> {
+			if (e == null) {
+				Metrics.ANNOUNCE_RESULTS.record(result.getCode());
+			}
+			if (e == null && result.getCode() == SwiftAnnounceResult.SUCCESS_CODE) {
+				LOGGER.info(String.format("successfully send xem %s", result.getMessage()));
+				future.complete(new SwiftAnnounceResult(transactionHash, result));
+				return;
+			}
+			if (e == null && result.getCode() == SwiftAnnounceResult.ALREADY_KNOWN_CODE) {
+				LOGGER.info(String.format("xem %s already known to the node", transactionHash));
+				future.complete(new SwiftAnnounceResult(transactionHash, result));
+				return;
+			}
+
+			final boolean retriable = e == null ? retryPolicy.isRetriable(result) : retryPolicy.isRetriable(e);
+			(retriable ? RETRIABLE_FAILURES : PERMANENT_FAILURES).incrementAndGet();
+			final String message = e == null ? result.getMessage() : RetryPolicy.unwrap(e).getMessage();
+			if (retriable && retryPolicy.hasAttemptsLeft(attempt)) {
+				final long delay = retryPolicy.getDelayMillis(attempt);
+				RETRIES.incrementAndGet();
+				LOGGER.info(String.format("retrying xem %s in %d ms after: %s", transactionHash, delay, message));
+				RETRY_SCHEDULER.schedule(() -> attempt(transactionHash, request, endpoints, retryPolicy, executor,
+						attempt + 1, future), delay, TimeUnit.MILLISECONDS);
+			} else if (e == null) {
+				LOGGER.warning(String.format("could not send xem %s", message));
+				future.complete(new SwiftAnnounceResult(transactionHash, result));
+			} else {
+				future.completeExceptionally(RetryPolicy.unwrap(e));
+			}
+		});
+	}
+
+	/**
+	 * Gets the number of announce retries.
+	 *
+	 * @return the retries
+	 */
+	public static long getRetries() {
+		return RETRIES.get();
+	}
+
+	/**
+	 * Gets the number of failed announce attempts that were retriable.
+	 *
+	 * @return the retriable failures
+	 */
+	public static long getRetriableFailures() {
+		return RETRIABLE_FAILURES.get();
+	}
+
+	/**
+	 * Gets the number of failed announce attempts that were permanent.
+	 *
+	 * @return the permanent failures
+	 */
+	public static long getPermanentFailures() {
+		return PERMANENT_FAILURES.get();
+	}
+
+	/**
+	 * Gets the number of announce attempts failed fast because every node
+	 * circuit breaker was open.
+	 *
+	 * @return the breaker rejections
+	 */
+	public static long getBreakerRejections() {
+		return BREAKER_REJECTIONS.get();
 	}
-	
+
 	/**
 	 * Send.
 	 *
+	 * @param endpoints
+	 *            the nodes, which record the outcome
 	 * @param endpoint
 	 *            the endpoint
 	 * @param request
 	 *            the request
 	 * @return the completable future
 	 */
-	private static CompletableFuture<Deserializer> send(final NodeEndpoint endpoint, final RequestAnnounce request) {
-		return Globals.CONNECTOR.postAsync(endpoint, NisApiId.NIS_REST_TRANSACTION_ANNOUNCE,
-				new HttpJsonPostRequest(request));
+	private static CompletableFuture<Deserializer> send(final NodeEndpointPool endpoints, final NodeEndpoint endpoint,
+			final AnnounceRequest request) {
+		final long start = Metrics.ANNOUNCE.start();
+		final CompletableFuture<Deserializer> response;
+		try {
+			response = Globals.TRANSPORT.post(endpoint, NisApiId.NIS_REST_TRANSACTION_ANNOUNCE, request);
+		} catch (RuntimeException e) {
+			Metrics.ANNOUNCE.fail(start);
+			endpoints.recordFailure(endpoint);
+			final CompletableFuture<Deserializer> failed = new CompletableFuture<>();
+			failed.completeExceptionally(e);
+			return failed;
+		}
+		return response.whenComplete((d, e) -> {
+			if (e == null) {
+				Metrics.ANNOUNCE.stop(start);
+				endpoints.recordSuccess(endpoint, System.nanoTime() - start);
+			} else {
+				Metrics.ANNOUNCE.fail(start);
+				endpoints.recordFailure(endpoint);
+			}
+		});
 	}
 }
@@ -0,0 +1,52 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.nem.core.connect.HttpJsonPostRequest;
+import org.nem.core.model.ValidationResult;
+import org.nem.core.model.ncc.NemAnnounceResult;
+
+import io.nem.connect.AnnounceRequest;
+import io.nem.model.SignedTransaction;
+import io.nem.service.MockNisNode;
+import net.minidev.json.JSONValue;
+
+/**
+ * The Class AnnounceRequestTest.
+ */
+public class AnnounceRequestTest {
+
+	/**
+	 * Test encodes the same body as the json request.
+	 */
+	@Test
+	public void testEncodesTheSameBodyAsTheJsonRequest() {
+		final SignedTransaction transfer = TestFixtures.transfers(1, null).get(0);
+		final AnnounceRequest request = transfer.toAnnounceRequest();
+		final byte[] expected = new HttpJsonPostRequest(transfer.toRequestAnnounce()).getPayload();
+
+		assertEquals(JSONValue.parse(new String(expected, StandardCharsets.UTF_8)),
+				JSONValue.parse(new String(request.getPayload(), StandardCharsets.UTF_8)));
+		assertSame(request.getPayload(), request.getPayload());
+	}
+
+	/**
+	 * Test is accepted by a node.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testIsAcceptedByANode() throws IOException {
+		final SignedTransaction transfer = TestFixtures.transfers(1, null).get(0);
+		try (MockNisNode node = new MockNisNode(0, 0, 0, 0, 0, 0)) {
+			final NemAnnounceResult result = TestFixtures.announce(node, transfer);
+			assertEquals(ValidationResult.SUCCESS.getValue(), result.getCode());
+			assertEquals(transfer.getHash(), result.getTransactionHash());
+		}
+	}
+}
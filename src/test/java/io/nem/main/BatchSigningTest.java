@@ -0,0 +1,65 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+import org.nem.core.crypto.Hash;
+import org.nem.core.crypto.Hashes;
+import org.nem.core.model.TransferTransaction;
+import org.nem.core.serialization.BinarySerializer;
+
+import io.nem.model.SignedTransaction;
+import io.nem.model.SwiftTransaction;
+import io.nem.service.BlockchainTransactionService;
+
+/**
+ * The Class BatchSigningTest.
+ */
+public class BatchSigningTest {
+
+	/**
+	 * Test signs in order with precomputed hashes.
+	 */
+	@Test
+	public void testSignsInOrderWithPrecomputedHashes() {
+		final List<SwiftTransaction> tBlocks = TestFixtures.tBlocks(200, null);
+		final List<SignedTransaction> signed = BlockchainTransactionService.createSignedTransactions(tBlocks);
+
+		assertEquals(tBlocks.size(), signed.size());
+		for (int i = 0; i < tBlocks.size(); i++) {
+			final TransferTransaction transaction = (TransferTransaction) signed.get(i).getTransaction();
+			assertEquals(tBlocks.get(i).getRecipientAccount(), transaction.getRecipient());
+			assertTrue(transaction.verify());
+			assertEquals(new Hash(Hashes.sha3_256(BinarySerializer.serializeToBytes(transaction.asNonVerifiable()))),
+					signed.get(i).getHash());
+		}
+	}
+
+	/**
+	 * Test signs the same transactions at every pool size.
+	 */
+	@Test
+	public void testSignsTheSameAtEveryPoolSize() {
+		final List<SwiftTransaction> tBlocks = TestFixtures.tBlocks(200, null);
+		final ForkJoinPool single = new ForkJoinPool(1);
+		final List<SignedTransaction> expected = BlockchainTransactionService.signAll(tBlocks,
+				BlockchainTransactionService::createSignedTransaction, single);
+		single.shutdown();
+
+		for (final int parallelism : new int[] { 2, 4, 8 }) {
+			final ForkJoinPool pool = new ForkJoinPool(parallelism);
+			final List<SignedTransaction> signed = BlockchainTransactionService.signAll(tBlocks,
+					BlockchainTransactionService::createSignedTransaction, pool);
+			pool.shutdown();
+			assertEquals(expected.size(), signed.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(expected.get(i).getHash(), signed.get(i).getHash());
+				assertTrue(signed.get(i).getTransaction().verify());
+			}
+		}
+	}
+}
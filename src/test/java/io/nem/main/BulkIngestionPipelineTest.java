@@ -0,0 +1,129 @@
+package io.nem.main;
+
+import static io.nem.main.TestFixtures.mt103;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.Test;
+import org.nem.core.connect.client.NisApiId;
+import org.nem.core.crypto.KeyPair;
+import org.nem.core.model.Account;
+import org.nem.core.model.ncc.NemAnnounceResult;
+
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import io.nem.model.SignedTransaction;
+import io.nem.model.SwiftAnnounceResult;
+import io.nem.service.BulkIngestionPipeline;
+import io.nem.service.BulkIngestionPipeline.Stage;
+import io.nem.service.Globals;
+import io.nem.service.MockNisNode;
+import io.nem.service.SwiftDuplicateFilter;
+
+/**
+ * The Class BulkIngestionPipelineTest.
+ */
+public class BulkIngestionPipelineTest {
+
+	/** The sender. */
+	private final Account sender = new Account(new KeyPair());
+
+	/** The recipient. */
+	private final Account recipient = new Account(new KeyPair());
+
+	/**
+	 * Test reports every stage failure in file order.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws InterruptedException the interrupted exception
+	 */
+	@Test
+	public void testReportsEveryStageFailureInFileOrder() throws IOException, InterruptedException {
+		final List<String> file = Arrays.asList(mt103("TRN0001"), "not a swift message", mt103("TRN0002"),
+				mt103("TRN0001"), mt103("UNKNOWN0001"), mt103("TRN0003"));
+		final boolean[] resolvable = { false };
+		final Function<AbstractMT, Account> resolver = mt -> {
+			if (!resolvable[0] && mt.getSwiftMessage().getBlock4().getTagValue("20").startsWith("UNKNOWN")) {
+				throw new IllegalArgumentException("no account for the receiver");
+			}
+			return this.recipient;
+		};
+
+		try (MockNisNode node = new MockNisNode(0, 0, 0, 0, 0, 0);
+				SwiftDuplicateFilter filter = new SwiftDuplicateFilter(
+						Files.createTempDirectory("dedup").resolve("index"), 1000, TimeUnit.DAYS.toMillis(1))) {
+			final BulkIngestionPipeline pipeline = new BulkIngestionPipeline(this.sender, resolver, 1, 4, 2, 0,
+					announcer(node));
+			pipeline.setDuplicateFilter(filter);
+
+			final BulkIngestionPipeline.Summary summary = pipeline.run(file.iterator());
+			final List<BulkIngestionPipeline.Outcome> outcomes = summary.getOutcomes();
+			assertEquals(file.size(), outcomes.size());
+			for (int i = 0; i < outcomes.size(); i++) {
+				assertEquals(i, outcomes.get(i).getIndex());
+			}
+			assertAccepted(outcomes.get(0), "TRN0001");
+			assertEquals(Stage.PARSE, outcomes.get(1).getFailedStage());
+			assertNull(outcomes.get(1).getMessageType());
+			assertAccepted(outcomes.get(2), "TRN0002");
+			assertEquals(Stage.DEDUP, outcomes.get(3).getFailedStage());
+			assertEquals("TRN0001", outcomes.get(3).getReference());
+			assertNull(outcomes.get(3).getTransactionHash());
+			assertEquals(Stage.ENCODE, outcomes.get(4).getFailedStage());
+			assertTrue(outcomes.get(4).getError() instanceof IllegalArgumentException);
+			assertAccepted(outcomes.get(5), "TRN0003");
+
+			assertEquals(3, summary.getSucceeded());
+			assertEquals(3, node.getLedgerSize());
+			assertEquals(3, pipeline.getFailed());
+			assertEquals(file.size(), pipeline.getPassed(Stage.READ));
+			assertEquals(3, pipeline.getPassed(Stage.ANNOUNCE));
+
+			resolvable[0] = true;
+			final List<BulkIngestionPipeline.Outcome> rerun = pipeline.run(file.iterator()).getOutcomes();
+			assertEquals(Stage.DEDUP, rerun.get(0).getFailedStage());
+			assertEquals(Stage.DEDUP, rerun.get(2).getFailedStage());
+			assertEquals(Stage.DEDUP, rerun.get(3).getFailedStage());
+			assertAccepted(rerun.get(4), "UNKNOWN0001");
+			assertEquals(Stage.DEDUP, rerun.get(5).getFailedStage());
+			assertEquals(4, node.getLedgerSize());
+		}
+	}
+
+	/**
+	 * Asserts the node accepted a message.
+	 *
+	 * @param outcome the outcome
+	 * @param reference the reference of the message
+	 */
+	private static void assertAccepted(BulkIngestionPipeline.Outcome outcome, String reference) {
+		assertTrue(String.valueOf(outcome.getError()), outcome.isSuccessful());
+		assertNull(outcome.getFailedStage());
+		assertEquals("103", outcome.getMessageType());
+		assertEquals(reference, outcome.getReference());
+		assertNotNull(outcome.getTransactionHash());
+		assertEquals(outcome.getTransactionHash(), outcome.getResult().getTransactionHash());
+	}
+
+	/**
+	 * Creates an announcer posting to the mock node.
+	 *
+	 * @param node the node
+	 * @return the announcer
+	 */
+	private static Function<SignedTransaction, CompletableFuture<SwiftAnnounceResult>> announcer(MockNisNode node) {
+		return signed -> Globals.TRANSPORT
+				.post(node.getEndpoint(), NisApiId.NIS_REST_TRANSACTION_ANNOUNCE, signed.toAnnounceRequest())
+				.thenApply(response -> new SwiftAnnounceResult(signed.getHash(), new NemAnnounceResult(response)));
+	}
+}
@@ -0,0 +1,107 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.nem.core.model.ValidationResult;
+import org.nem.core.model.ncc.NemAnnounceResult;
+
+import io.nem.model.SwiftAnnounceResult;
+import io.nem.util.CircuitBreaker;
+import io.nem.util.RetryPolicy;
+
+/**
+ * The Class CircuitBreakerTest.
+ */
+public class CircuitBreakerTest {
+
+	/** The time seen by the breaker. */
+	private long now = 1000;
+
+	/**
+	 * Test opens after consecutive failures.
+	 */
+	@Test
+	public void testOpensAfterConsecutiveFailures() {
+		final CircuitBreaker breaker = new CircuitBreaker(3, 500, () -> now);
+		breaker.recordFailure();
+		breaker.recordFailure();
+		breaker.recordSuccess();
+		breaker.recordFailure();
+		breaker.recordFailure();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+		breaker.recordFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquire());
+		assertFalse(breaker.tryAcquire());
+		assertEquals(2, breaker.getRejected());
+		assertEquals(5, breaker.getFailures());
+	}
+
+	/**
+	 * Test lets one trial through after the open period.
+	 */
+	@Test
+	public void testLetsOneTrialThroughAfterTheOpenPeriod() {
+		final CircuitBreaker breaker = new CircuitBreaker(1, 500, () -> now);
+		breaker.recordFailure();
+
+		now += 500;
+		assertTrue(breaker.isAvailable());
+		assertTrue(breaker.tryAcquire());
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquire());
+
+		breaker.recordFailure();
+		now += 500;
+		assertFalse(breaker.tryAcquire());
+		now += 500;
+		assertTrue(breaker.tryAcquire());
+
+		breaker.recordSuccess();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		assertTrue(breaker.tryAcquire());
+		assertEquals(2, breaker.getOpened());
+	}
+
+	/**
+	 * Test retry delays are jittered below the exponential bound.
+	 */
+	@Test
+	public void testRetryDelaysAreJitteredBelowTheExponentialBound() {
+		final RetryPolicy policy = new RetryPolicy(4, 100, 1000);
+		for (int attempt = 0; attempt < 40; attempt++) {
+			final long bound = Math.min(1000, 100L << Math.min(attempt, 20));
+			long max = 0;
+			for (int i = 0; i < 1000; i++) {
+				final long delay = policy.getDelayMillis(attempt);
+				assertTrue(delay >= 0 && delay <= bound);
+				max = Math.max(max, delay);
+			}
+			assertTrue(max > bound / 2);
+		}
+		assertTrue(policy.hasAttemptsLeft(2));
+		assertFalse(policy.hasAttemptsLeft(3));
+	}
+
+	/**
+	 * Test an already known transaction is not retried and counts as sent.
+	 */
+	@Test
+	public void testAnAlreadyKnownTransactionIsNotRetriedAndCountsAsSent() {
+		final RetryPolicy policy = new RetryPolicy(4, 100, 1000);
+		final NemAnnounceResult neutral = new NemAnnounceResult(ValidationResult.NEUTRAL);
+		assertFalse(policy.isRetriable(neutral));
+		assertTrue(policy.isRetriable(new NemAnnounceResult(ValidationResult.FAILURE_TRANSACTION_CACHE_TOO_FULL)));
+
+		final SwiftAnnounceResult result = new SwiftAnnounceResult(null, neutral);
+		assertTrue(result.isSuccessful());
+		assertTrue(result.isAlreadyKnown());
+		assertFalse(new SwiftAnnounceResult(null, new NemAnnounceResult(ValidationResult.SUCCESS)).isAlreadyKnown());
+		assertFalse(new SwiftAnnounceResult(null, new NemAnnounceResult(ValidationResult.FAILURE_PAST_DEADLINE))
+				.isSuccessful());
+	}
+}
@@ -0,0 +1,210 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.nem.core.crypto.KeyPair;
+import org.nem.core.messages.PlainMessage;
+import org.nem.core.model.Account;
+import org.nem.core.model.MultisigTransaction;
+import org.nem.core.model.Transaction;
+import org.nem.core.model.TransactionFactory;
+import org.nem.core.model.ValidationResult;
+import org.nem.core.model.primitive.Quantity;
+import org.nem.core.test.Utils;
+
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import io.nem.factories.AttachmentFactory;
+import io.nem.model.SignedTransaction;
+import io.nem.model.SwiftApiId;
+import io.nem.model.SwiftMultisigTransaction;
+import io.nem.service.ApprovalPolicy;
+import io.nem.service.BlockchainTransactionService;
+import io.nem.service.CosignerApprovalEngine;
+import io.nem.service.Globals;
+import io.nem.service.MockNisNode;
+import io.nem.util.SwiftPayloadEnvelope;
+
+/**
+ * The Class CosignerApprovalEngineTest.
+ */
+public class CosignerApprovalEngineTest {
+
+	/** The multisig account. */
+	private final Account multisig = new Account(new KeyPair(new KeyPair().getPublicKey()));
+
+	/** The cosigner. */
+	private final Account cosigner = new Account(new KeyPair());
+
+	/**
+	 * Builds an MT202 of the given amount.
+	 *
+	 * @param amount the amount field
+	 * @return the message text
+	 */
+	private static String mt202(String amount) {
+		return "{1:F01BANKBEBBAXXX2222123456}{2:I202BANKDEFFXXXXN}{4:\r\n:20:TRN0001202\r\n:21:RELREF0001\r\n"
+				+ ":32A:170315EUR" + amount + "\r\n:52A:BANKBEBB\r\n:58A:BANKDEFF\r\n-}";
+	}
+
+	/**
+	 * Initiates and signs a multisig transfer carrying a SWIFT message.
+	 *
+	 * @param initiator the initiator
+	 * @param swiftMessage the swift message
+	 * @return the multisig transaction
+	 */
+	private MultisigTransaction initiate(Account initiator, String swiftMessage) {
+		return this.initiate(initiator, swiftMessage, 0L, false);
+	}
+
+	/**
+	 * Initiates and signs a multisig transfer carrying a SWIFT message and
+	 * moving XEM or a mosaic.
+	 *
+	 * @param initiator the initiator
+	 * @param swiftMessage the swift message
+	 * @param microXem the micro xem, the mosaic multiplier with a mosaic
+	 * @param withMosaic whether the transfer moves a mosaic
+	 * @return the multisig transaction
+	 */
+	private MultisigTransaction initiate(Account initiator, String swiftMessage, long microXem, boolean withMosaic) {
+		final SwiftMultisigTransaction tBlock = new SwiftMultisigTransaction();
+		tBlock.setSenderAccount(initiator);
+		tBlock.setMultisigAccount(this.multisig);
+		tBlock.setRecipientAccount(new Account(new KeyPair()));
+		tBlock.setAmount(microXem);
+		tBlock.setAttachment(AttachmentFactory
+				.createTransferTransactionAttachment(new PlainMessage(SwiftPayloadEnvelope.encode(swiftMessage))));
+		if (withMosaic) {
+			tBlock.getAttachment().addMosaic(Utils.createMosaic(1).getMosaicId(), new Quantity(1));
+		}
+		tBlock.setTimeInstant(Globals.TIME_PROVIDER.getCurrentTime());
+		return (MultisigTransaction) BlockchainTransactionService.createSignedMultisigTransaction(tBlock);
+	}
+
+	/**
+	 * Creates the pending transaction, as the engine reads it.
+	 *
+	 * @param multisigTransaction the multisig transaction
+	 * @param swiftMessage the swift message
+	 * @return the pending transaction
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static CosignerApprovalEngine.Pending pending(MultisigTransaction multisigTransaction,
+			String swiftMessage) throws IOException {
+		return new CosignerApprovalEngine.Pending(multisigTransaction, null, swiftMessage,
+				AbstractMT.parse(swiftMessage));
+	}
+
+	/**
+	 * Test reports the outcome of every pending transaction.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testReportsTheOutcomeOfEveryPendingTransaction() throws IOException {
+		final String large = mt202("5000000,50");
+		final String dollars = mt202("100,").replace("EUR", "USD");
+		final String own = mt202("100,");
+		final List<CosignerApprovalEngine.Pending> pending = Arrays.asList(
+				pending(initiate(new Account(new KeyPair()), large), large),
+				pending(initiate(new Account(new KeyPair()), dollars), dollars),
+				pending(initiate(this.cosigner, own), own));
+		assertEquals(new BigDecimal("5000000.50"), pending.get(0).getAmount());
+		assertEquals("EUR", pending.get(0).getCurrency());
+
+		final ApprovalPolicy policy = ApprovalPolicy.messageTypes("202")
+				.and(ApprovalPolicy.amountLimits(Collections.singletonMap("EUR", new BigDecimal("1000000"))));
+		final List<CosignerApprovalEngine.Outcome> outcomes = new CosignerApprovalEngine(this.cosigner, null, policy)
+				.approve(pending, Runnable::run).join();
+
+		assertEquals(3, outcomes.size());
+		assertEquals(CosignerApprovalEngine.Status.POLICY_REJECTED, outcomes.get(0).getStatus());
+		assertEquals("EUR 5000000.50 is over the limit of 1000000", outcomes.get(0).getReason());
+		assertEquals(CosignerApprovalEngine.Status.POLICY_REJECTED, outcomes.get(1).getStatus());
+		assertEquals("no limit for USD", outcomes.get(1).getReason());
+		assertEquals(CosignerApprovalEngine.Status.ALREADY_SIGNED, outcomes.get(2).getStatus());
+		assertEquals(pending.get(2).getInnerHash(), outcomes.get(2).getInnerHash());
+		assertNull(outcomes.get(2).getResult());
+	}
+
+	/**
+	 * Test rejects inner transfers moving XEM or mosaics beyond the limits.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testRejectsInnerTransfersMovingXemOrMosaics() throws IOException {
+		final String message = mt202("100,");
+		final Map<String, BigDecimal> limits = new HashMap<>();
+		limits.put("EUR", new BigDecimal("1000000"));
+		final ApprovalPolicy withoutXem = ApprovalPolicy.amountLimits(limits);
+		limits.put(ApprovalPolicy.XEM, new BigDecimal("10"));
+		final ApprovalPolicy withXem = ApprovalPolicy.amountLimits(limits);
+
+		final Account initiator = new Account(new KeyPair());
+		final CosignerApprovalEngine.Pending noXem = pending(initiate(initiator, message), message);
+		final CosignerApprovalEngine.Pending someXem = pending(initiate(initiator, message, 5_000_000L, false),
+				message);
+		final CosignerApprovalEngine.Pending muchXem = pending(initiate(initiator, message, 50_500_000L, false),
+				message);
+		final CosignerApprovalEngine.Pending mosaic = pending(initiate(initiator, message, 1_000_000L, true), message);
+		assertEquals(5_000_000L, someXem.getMicroXem());
+		assertTrue(mosaic.hasMosaics());
+
+		assertNull(withoutXem.check(noXem));
+		assertEquals("the transfer moves 5 XEM, no limit for XEM", withoutXem.check(someXem));
+		assertNull(withXem.check(someXem));
+		assertEquals("XEM 50.5 is over the limit of 10", withXem.check(muchXem));
+		assertEquals("the transfer moves mosaics", withXem.check(mosaic));
+
+		final List<CosignerApprovalEngine.Outcome> outcomes = new CosignerApprovalEngine(this.cosigner, null,
+				withoutXem).approve(Arrays.asList(someXem, mosaic), Runnable::run).join();
+		assertEquals(CosignerApprovalEngine.Status.POLICY_REJECTED, outcomes.get(0).getStatus());
+		assertEquals(CosignerApprovalEngine.Status.POLICY_REJECTED, outcomes.get(1).getStatus());
+	}
+
+	/**
+	 * Test cosigns a multisig transaction listed by a node.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testCosignsAMultisigTransactionListedByANode() throws IOException {
+		final MultisigTransaction initiated = initiate(new Account(new KeyPair()), mt202("100,"));
+		try (MockNisNode node = new MockNisNode(0, 0, 0, 0, 0, 0)) {
+			final SignedTransaction announce = new SignedTransaction(initiated);
+			assertEquals(ValidationResult.SUCCESS.getValue(), TestFixtures.announce(node, announce).getCode());
+			assertEquals(0, node.getLedgerSize());
+
+			final List<Transaction> listed = Globals.TRANSPORT
+					.get(node.getEndpoint(), SwiftApiId.ACCOUNT_UNCONFIRMED_TRANSACTIONS,
+							"address=" + this.cosigner.getAddress().getEncoded())
+					.join().readObjectArray("data", d -> d.readObject("transaction", TransactionFactory.VERIFIABLE));
+			assertEquals(1, listed.size());
+			final MultisigTransaction pending = (MultisigTransaction) listed.get(0);
+			assertEquals(initiated.getOtherTransactionHash(), pending.getOtherTransactionHash());
+
+			final SignedTransaction cosignature = new SignedTransaction(BlockchainTransactionService
+					.createSignedMultisigSignatureTransaction(Globals.TIME_PROVIDER.getCurrentTime(), this.cosigner,
+							pending));
+			assertEquals(ValidationResult.SUCCESS.getValue(), TestFixtures.announce(node, cosignature).getCode());
+			assertEquals(0, node.getUnconfirmedSize());
+			assertEquals(announce.getHash(), node.getTransaction(announce.getHash()).getMetaData().getHash());
+			assertEquals(ValidationResult.FAILURE_MULTISIG_NO_MATCHING_MULTISIG.getValue(),
+					TestFixtures.announce(node, cosignature).getCode());
+		}
+	}
+}
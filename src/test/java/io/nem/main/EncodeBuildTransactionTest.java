@@ -1,5 +1,10 @@
 package io.nem.main;
 
+import static org.junit.Assert.assertNotNull;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.junit.Test;
 import org.nem.core.messages.SecureMessage;
 import org.nem.core.model.MultisigTransaction;
@@ -12,6 +17,7 @@ import io.nem.builders.SwiftMultisigTransactionBuilder;
 import io.nem.builders.SwiftSecureMessageAttachmentBuilder;
 import io.nem.builders.SwiftTransactionBuilder;
 import io.nem.factories.AttachmentFactory;
+import io.nem.model.SwiftAnnounceResult;
 import io.nem.swift.crypto.SecureMessageSwiftPayloadEncoder;
 import io.nem.util.TransactionSenderUtil;
 
@@ -51,6 +57,29 @@ public class EncodeBuildTransactionTest extends TransactionUnitTest {
 
 	}
 
+	/**
+	 * Test cb build and send transaction async.
+	 */
+	@Test
+	public void testCbBuildAndSendSwiftStringTransactionAsync() {
+
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			final SecureMessage message = SecureMessage.fromDecodedPayload(this.senderPrivateAccount,
+					this.recipientPublicAccount, sampleSwiftMsg.getBytes());
+
+			final SwiftAnnounceResult result = SwiftTransactionBuilder.sender(this.senderPrivateAccount)
+					.recipient(this.recipientPublicAccount).amount(0l)
+					.attachment(AttachmentFactory.createTransferTransactionAttachment(message))
+					.buildAndSendTransactionAsync(executor).get();
+			assertNotNull(result.getTransactionHash());
+		} catch (Exception e) {
+			e.printStackTrace();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
 	/**
 	 * Test cb build and send transaction.
 	 */
@@ -0,0 +1,48 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.nem.core.crypto.KeyPair;
+import org.nem.core.model.Account;
+
+import io.nem.factories.EntityFactory;
+
+/**
+ * The Class EntityFactoryTest.
+ */
+public class EntityFactoryTest {
+
+	/**
+	 * Test repeated key is served from cache.
+	 */
+	@Test
+	public void testRepeatedKeyIsServedFromCache() {
+		final String publicKey = new KeyPair().getPublicKey().toString();
+		final long hits = EntityFactory.getKeyCacheHits();
+
+		final Account first = EntityFactory.buildAccountFromPublicKey(publicKey);
+		final Account second = EntityFactory.buildAccountFromPublicKey(publicKey.toUpperCase());
+
+		assertSame(first, second);
+		assertEquals(hits + 1, EntityFactory.getKeyCacheHits());
+		assertEquals(first.getAddress(), EntityFactory.getCachedPublicKey(publicKey).getAddress());
+	}
+
+	/**
+	 * Test evicted key is rebuilt.
+	 */
+	@Test
+	public void testEvictedKeyIsRebuilt() {
+		final String privateKey = new KeyPair().getPrivateKey().toString();
+
+		final Account first = EntityFactory.buildAccountFromPrivateKey(privateKey);
+		EntityFactory.evictKey(privateKey);
+		final Account second = EntityFactory.buildAccountFromPrivateKey(privateKey);
+
+		assertNotSame(first, second);
+		assertEquals(first.getAddress(), second.getAddress());
+	}
+}
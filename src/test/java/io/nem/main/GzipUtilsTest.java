@@ -0,0 +1,137 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import org.junit.Test;
+
+import io.nem.util.GzipUtils;
+
+/**
+ * The Class GzipUtilsTest.
+ */
+public class GzipUtilsTest {
+
+	/** The sample swift msg, with the CR/LF separators of FIN text. */
+	final String sampleSwiftMsg = "{1:F01FOOLHKH0AXXX0304009999}{2:O9401609160814FOOLHKH0AXXX03040027341608141609N}{4:\r\n"
+			+ ":20:USD940NO1\r\n" + ":21:123456/DEV\r\n" + ":25:USD234567\r\n" + ":28C:1/1\r\n"
+			+ ":60F:C160418USD672,\r\n" + ":61:160827C642,S1032\r\n" + ":86:ANDY\r\n" + "-}";
+
+	/**
+	 * Test round trip keeps line separators.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testRoundTripKeepsLineSeparators() throws IOException {
+		assertEquals(sampleSwiftMsg, GzipUtils.decompress(GzipUtils.compress(sampleSwiftMsg)));
+	}
+
+	/**
+	 * Test interoperates with java gzip streams.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testInteroperatesWithJavaGzipStreams() throws IOException {
+		final byte[] data = sampleSwiftMsg.getBytes(StandardCharsets.UTF_8);
+
+		final ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(streamed)) {
+			gzip.write(data);
+		}
+		assertArrayEquals(data, GzipUtils.decompressToBytes(streamed.toByteArray()));
+
+		final ByteArrayOutputStream read = new ByteArrayOutputStream();
+		try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(GzipUtils.compress(data)))) {
+			final byte[] buffer = new byte[256];
+			int n;
+			while ((n = gzip.read(buffer)) > 0) {
+				read.write(buffer, 0, n);
+			}
+		}
+		assertArrayEquals(data, read.toByteArray());
+	}
+
+	/**
+	 * Test byte buffer round trip with reusable buffers.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testByteBufferRoundTripWithReusableBuffers() throws IOException {
+		final byte[] data = sampleSwiftMsg.getBytes(StandardCharsets.UTF_8);
+		final ByteBuffer compressed = ByteBuffer.allocateDirect(GzipUtils.maxCompressedLength(data.length));
+		final ByteBuffer restored = ByteBuffer.allocateDirect(data.length);
+
+		for (int i = 0; i < 3; i++) {
+			compressed.clear();
+			restored.clear();
+			GzipUtils.compress(ByteBuffer.wrap(data), compressed);
+			compressed.flip();
+			assertEquals(data.length, GzipUtils.decompress(compressed, restored));
+			restored.flip();
+
+			final byte[] result = new byte[restored.remaining()];
+			restored.get(result);
+			assertArrayEquals(data, result);
+		}
+	}
+
+	/**
+	 * Test a direct buffer larger than the scratch is filled in chunks.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testDirectBufferLargerThanTheScratchIsFilledInChunks() throws IOException {
+		final StringBuilder statement = new StringBuilder();
+		for (int i = 0; statement.length() < 3 << 20; i++) {
+			statement.append(":61:1608").append(i % 28 + 10).append("C").append(i).append(",S1032\r\n");
+		}
+		final byte[] data = statement.toString().getBytes(StandardCharsets.UTF_8);
+		final byte[] compressed = GzipUtils.compress(data);
+
+		final ByteBuffer restored = ByteBuffer.allocateDirect(data.length + 4096);
+		assertEquals(data.length, GzipUtils.decompress(ByteBuffer.wrap(compressed), restored));
+		restored.flip();
+		final byte[] result = new byte[restored.remaining()];
+		restored.get(result);
+		assertArrayEquals(data, result);
+
+		try {
+			GzipUtils.decompress(ByteBuffer.wrap(compressed), ByteBuffer.allocateDirect(data.length - 1));
+			fail("a too small output was accepted");
+		} catch (BufferOverflowException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Test corrupt trailer is rejected.
+	 */
+	@Test
+	public void testCorruptTrailerIsRejected() {
+		final byte[] compressed = GzipUtils.compress(sampleSwiftMsg.getBytes(StandardCharsets.UTF_8));
+		compressed[compressed.length - 5] ^= 1;
+		try {
+			GzipUtils.decompressToBytes(compressed);
+			fail("corrupt trailer was accepted");
+		} catch (ZipException e) {
+			// expected
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.nem.core.connect.BusyPeerException;
+import org.nem.core.connect.HttpJsonPostRequest;
+import org.nem.core.connect.client.NisApiId;
+import org.nem.core.model.ValidationResult;
+import org.nem.core.model.ncc.NemAnnounceResult;
+import org.nem.core.node.NodeEndpoint;
+import org.nem.core.serialization.Deserializer;
+
+import io.nem.connect.Http2Transport;
+import io.nem.metrics.TransportMetrics;
+import io.nem.model.SignedTransaction;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * The Class Http2TransportTest.
+ */
+public class Http2TransportTest {
+
+	/** The Constant SUCCESS, the node answer to an accepted announce. */
+	private static final String SUCCESS = "{\"type\":1,\"code\":1,\"message\":\"SUCCESS\"}";
+
+	/**
+	 * Test multiplexes concurrent announces over one connection.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testMultiplexesConcurrentAnnouncesOverOneConnection() throws IOException {
+		final TransportMetrics metrics = new TransportMetrics();
+		try (MockWebServer server = startServer();
+				Http2Transport transport = new Http2Transport(new Http2Transport.Settings().priorKnowledge(true),
+						metrics)) {
+			final List<SignedTransaction> transfers = TestFixtures.transfers(20, null);
+			for (int i = 0; i < transfers.size(); i++) {
+				server.enqueue(new MockResponse().setBody(SUCCESS).setHeadersDelay(i == 0 ? 0 : 200,
+						TimeUnit.MILLISECONDS));
+			}
+			final NodeEndpoint endpoint = new NodeEndpoint("http", server.getHostName(), server.getPort());
+			assertSuccess(announce(transport, endpoint, transfers.get(0)).join());
+
+			// the node holds every answer, so all of them are in flight at once
+			final List<CompletableFuture<Deserializer>> announces = new ArrayList<>();
+			for (final SignedTransaction transfer : transfers.subList(1, transfers.size())) {
+				announces.add(announce(transport, endpoint, transfer));
+			}
+			for (final CompletableFuture<Deserializer> announce : announces) {
+				assertSuccess(announce.join());
+			}
+
+			assertEquals(20, server.getRequestCount());
+			assertEquals(1, metrics.getConnectionsOpened());
+			assertEquals(19, metrics.getConnectionsReused());
+		}
+	}
+
+	/**
+	 * Test reports HTTP 503 as a busy node.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testReportsHttp503AsABusyNode() throws IOException {
+		try (MockWebServer server = startServer();
+				Http2Transport transport = new Http2Transport(new Http2Transport.Settings().priorKnowledge(true),
+						new TransportMetrics())) {
+			server.enqueue(new MockResponse().setResponseCode(503));
+			announce(transport, new NodeEndpoint("http", server.getHostName(), server.getPort()),
+					TestFixtures.transfers(1, null).get(0)).join();
+		} catch (CompletionException e) {
+			assertTrue(e.getCause() instanceof BusyPeerException);
+			return;
+		}
+		throw new AssertionError("expected a busy node");
+	}
+
+	/**
+	 * Starts a node stand-in speaking HTTP/2 without negotiation.
+	 *
+	 * @return the server
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static MockWebServer startServer() throws IOException {
+		final MockWebServer server = new MockWebServer();
+		server.setProtocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+		server.start();
+		return server;
+	}
+
+	/**
+	 * Announces a transaction.
+	 *
+	 * @param transport the transport
+	 * @param endpoint the node
+	 * @param transfer the transaction
+	 * @return the future answer
+	 */
+	private static CompletableFuture<Deserializer> announce(Http2Transport transport, NodeEndpoint endpoint,
+			SignedTransaction transfer) {
+		return transport.post(endpoint, NisApiId.NIS_REST_TRANSACTION_ANNOUNCE,
+				new HttpJsonPostRequest(transfer.toRequestAnnounce()));
+	}
+
+	/**
+	 * Asserts the node accepted an announce.
+	 *
+	 * @param answer the answer
+	 */
+	private static void assertSuccess(Deserializer answer) {
+		assertEquals(ValidationResult.SUCCESS.getValue(), new NemAnnounceResult(answer).getCode());
+	}
+}
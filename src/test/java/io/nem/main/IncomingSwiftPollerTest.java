@@ -0,0 +1,227 @@
+package io.nem.main;
+
+import static io.nem.main.TestFixtures.mt103;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+import org.nem.core.crypto.KeyPair;
+import org.nem.core.messages.MessageTypes;
+import org.nem.core.model.Account;
+import org.nem.core.model.ValidationResult;
+
+import io.nem.model.IncomingSwiftMessage;
+import io.nem.service.IncomingSwiftPoller;
+import io.nem.service.MockNisNode;
+import io.nem.service.NodeEndpointPool;
+import io.nem.swift.transport.SwiftPayloadChunker;
+import io.nem.swift.transport.SwiftPayloadFragment;
+import io.nem.util.SwiftPayloadEnvelope;
+
+/**
+ * The Class IncomingSwiftPollerTest.
+ */
+public class IncomingSwiftPollerTest {
+
+	/** The sender. */
+	private final Account sender = new Account(new KeyPair());
+
+	/** The recipient. */
+	private final Account recipient = new Account(new KeyPair());
+
+	/**
+	 * Test resumes from the cursor file.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testResumesFromTheCursorFile() throws IOException {
+		final Path cursorFile = Files.createTempFile("incoming", ".cursor");
+		cursorFile.toFile().deleteOnExit();
+		Files.write(cursorFile, "4711".getBytes(StandardCharsets.UTF_8));
+
+		final IncomingSwiftPoller poller = new IncomingSwiftPoller(new Account(new KeyPair()), cursorFile,
+				message -> {
+				}, ForkJoinPool.commonPool(), 100, 1000);
+		assertEquals(4711L, poller.getCursor());
+	}
+
+	/**
+	 * Test starts from the beginning without a cursor file.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testStartsFromTheBeginningWithoutACursorFile() throws IOException {
+		final Path cursorFile = Files.createTempFile("incoming", ".cursor");
+		Files.delete(cursorFile);
+
+		final IncomingSwiftPoller poller = new IncomingSwiftPoller(new Account(new KeyPair()), cursorFile,
+				message -> {
+				}, ForkJoinPool.commonPool(), 100, 1000);
+		assertEquals(0L, poller.getCursor());
+		assertEquals(0L, poller.getDelivered());
+	}
+
+	/**
+	 * Test delivers every page oldest first.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testDeliversEveryPageOldestFirst() throws IOException {
+		final Path cursorFile = tempCursorFile();
+		try (MockNisNode node = new MockNisNode(0, 0, 0, 0, 0, 0)) {
+			final List<String> sent = new ArrayList<>();
+			for (int i = 0; i < 60; i++) {
+				sent.add(mt103(String.format("TRN%04d", i)));
+				this.announce(node, SwiftPayloadEnvelope.encode(sent.get(i)));
+			}
+
+			final List<IncomingSwiftMessage> received = new ArrayList<>();
+			final IncomingSwiftPoller poller = this.poller(node, cursorFile, received::add);
+			assertEquals(60, poller.pollOnce());
+			assertEquals(60, poller.getDelivered());
+			assertEquals(sent.size(), received.size());
+			for (int i = 0; i < sent.size(); i++) {
+				assertEquals(sent.get(i), received.get(i).getSwiftMessage());
+			}
+			assertEquals(received.get(59).getId(), readCursor(cursorFile));
+
+			this.announce(node, SwiftPayloadEnvelope.encode(mt103("TRN0060")));
+			assertEquals(1, poller.pollOnce());
+			assertEquals(61, received.size());
+			assertEquals(0, poller.pollOnce());
+		}
+	}
+
+	/**
+	 * Test reassembles fragments across a restart.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testReassemblesFragmentsAcrossARestart() throws IOException {
+		final Path cursorFile = tempCursorFile();
+		final String chunked = mt103("CHUNKED0001");
+		final String whole = mt103("WHOLE0001");
+		final List<SwiftPayloadFragment> fragments = SwiftPayloadChunker.split(SwiftPayloadEnvelope.encode(chunked),
+				MessageTypes.PLAIN, SwiftPayloadFragment.HEADER_LENGTH + 16);
+		assertTrue(fragments.size() >= 3);
+
+		try (MockNisNode node = new MockNisNode(0, 0, 0, 0, 0, 0)) {
+			this.announce(node, fragments.get(0).toBytes());
+			this.announce(node, SwiftPayloadEnvelope.encode(whole));
+			for (int i = 1; i < fragments.size() - 1; i++) {
+				this.announce(node, fragments.get(i).toBytes());
+			}
+
+			final List<IncomingSwiftMessage> received = new ArrayList<>();
+			this.poller(node, cursorFile, received::add).pollOnce();
+			assertEquals(1, received.size());
+			assertEquals(whole, received.get(0).getSwiftMessage());
+			assertEquals(received.get(0).getId() - 2, readCursor(cursorFile));
+
+			final List<IncomingSwiftMessage> afterRestart = new ArrayList<>();
+			final IncomingSwiftPoller restarted = this.poller(node, cursorFile, afterRestart::add);
+			this.announce(node, fragments.get(fragments.size() - 1).toBytes());
+			restarted.pollOnce();
+			assertEquals(2, afterRestart.size());
+			assertEquals(whole, afterRestart.get(0).getSwiftMessage());
+			assertEquals(chunked, afterRestart.get(1).getSwiftMessage());
+			assertEquals(restarted.getCursor(), readCursor(cursorFile));
+		}
+	}
+
+	/**
+	 * Test retries a message the callback failed on before later ones.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testRetriesAMessageTheCallbackFailedOn() throws IOException {
+		final Path cursorFile = tempCursorFile();
+		try (MockNisNode node = new MockNisNode(0, 0, 0, 0, 0, 0)) {
+			this.announce(node, SwiftPayloadEnvelope.encode(mt103("TRN0001")));
+			this.announce(node, SwiftPayloadEnvelope.encode(mt103("TRN0002")));
+
+			final List<String> received = new ArrayList<>();
+			final boolean[] failing = { true };
+			final IncomingSwiftPoller poller = this.poller(node, cursorFile, message -> {
+				if (failing[0]) {
+					throw new IllegalStateException("store unavailable");
+				}
+				received.add(message.getSwiftMessage());
+			});
+			poller.pollOnce();
+			assertEquals(0, poller.getDelivered());
+			assertEquals(poller.getCursor() - 1, readCursor(cursorFile));
+
+			failing[0] = false;
+			poller.pollOnce();
+			assertEquals(2, poller.getDelivered());
+			assertEquals(mt103("TRN0001"), received.get(0));
+			assertEquals(mt103("TRN0002"), received.get(1));
+			assertEquals(poller.getCursor(), readCursor(cursorFile));
+		}
+	}
+
+	/**
+	 * Creates a poller reading from the mock node.
+	 *
+	 * @param node the node
+	 * @param cursorFile the cursor file
+	 * @param callback the callback
+	 * @return the incoming swift poller
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private IncomingSwiftPoller poller(MockNisNode node, Path cursorFile, Consumer<IncomingSwiftMessage> callback)
+			throws IOException {
+		return new IncomingSwiftPoller(this.recipient, cursorFile, callback,
+				NodeEndpointPool.forEndpoint(node.getEndpoint()), Runnable::run, 100, 1000);
+	}
+
+	/**
+	 * Announces a transfer with a plain message to the recipient.
+	 *
+	 * @param node the node
+	 * @param message the message bytes
+	 */
+	private void announce(MockNisNode node, byte[] message) {
+		assertEquals(ValidationResult.SUCCESS.getValue(),
+				TestFixtures.announce(node, TestFixtures.transfer(this.sender, this.recipient, message)).getCode());
+	}
+
+	/**
+	 * Creates a path for a cursor file that does not exist yet.
+	 *
+	 * @return the path
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static Path tempCursorFile() throws IOException {
+		final Path cursorFile = Files.createTempFile("incoming", ".cursor");
+		Files.delete(cursorFile);
+		cursorFile.toFile().deleteOnExit();
+		return cursorFile;
+	}
+
+	/**
+	 * Reads the cursor file.
+	 *
+	 * @param cursorFile the cursor file
+	 * @return the cursor
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static long readCursor(Path cursorFile) throws IOException {
+		return Long.parseLong(new String(Files.readAllBytes(cursorFile), StandardCharsets.UTF_8).trim());
+	}
+}
@@ -0,0 +1,106 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import io.nem.util.MappedRjeSplitter;
+
+/**
+ * The Class MappedRjeSplitterTest.
+ */
+public class MappedRjeSplitterTest {
+
+	/**
+	 * Writes an RJE file of generated messages.
+	 *
+	 * @param messages the messages written
+	 * @return the path
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private Path writeRje(List<String> messages) throws IOException {
+		final StringBuilder rje = new StringBuilder();
+		for (int i = 0; i < 2000; i++) {
+			final StringBuilder message = new StringBuilder("{1:F01BANKBEBBAXXX0000000000}{2:I940BANKDEFFXXXXN}{4:\r\n")
+					.append(":20:REF").append(i).append("\r\n");
+			for (int line = 0; line < i % 40; line++) {
+				message.append(":61:170315C").append(line).append(",S103REF\r\n");
+			}
+			message.append("-}");
+			messages.add(message.toString());
+			rje.append(message).append("\r\n$\r\n");
+		}
+
+		final Path file = Files.createTempFile("mapped", ".rje");
+		file.toFile().deleteOnExit();
+		Files.write(file, rje.toString().getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	/**
+	 * Test reads the sample file.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testReadsTheSampleFile() throws IOException {
+		try (MappedRjeSplitter splitter = new MappedRjeSplitter(Paths.get("src/test/resources/mt103.rje"))) {
+			final List<AbstractMT> messages = new ArrayList<>();
+			for (final MappedRjeSplitter.Message message : (Iterable<MappedRjeSplitter.Message>) splitter::iterator) {
+				messages.add(message.toMT());
+			}
+			assertEquals(2, messages.size());
+			assertTrue(messages.get(0).isType(103));
+			assertTrue(messages.get(1).isType(103));
+		}
+	}
+
+	/**
+	 * Test small windows keep messages whole.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testSmallWindowsKeepMessagesWhole() throws IOException {
+		final List<String> expected = new ArrayList<>();
+		final Path file = writeRje(expected);
+		try (MappedRjeSplitter splitter = new MappedRjeSplitter(file, 512)) {
+			final List<String> messages = new ArrayList<>();
+			splitter.iterator().forEachRemaining(message -> messages.add(message.toString()));
+			assertEquals(expected, messages);
+		}
+	}
+
+	/**
+	 * Test parallel ranges cover every message once.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testParallelRangesCoverEveryMessageOnce() throws IOException {
+		final List<String> expected = new ArrayList<>();
+		final Path file = writeRje(expected);
+		try (MappedRjeSplitter splitter = new MappedRjeSplitter(file, 4096)) {
+			final Set<String> messages = ConcurrentHashMap.newKeySet();
+			final ForkJoinPool pool = new ForkJoinPool(4);
+			splitter.parallelForEach(8, message -> assertTrue(messages.add(message.toString())), pool);
+			pool.shutdown();
+			assertEquals(expected.size(), messages.size());
+			assertTrue(messages.containsAll(expected));
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.junit.Test;
+
+import io.nem.metrics.LatencyHistogram;
+import io.nem.metrics.MetricsRegistry;
+import io.nem.metrics.StageMetrics;
+
+/**
+ * The Class MetricsTest.
+ */
+public class MetricsTest {
+
+	/**
+	 * Test percentiles are within the bucket precision.
+	 */
+	@Test
+	public void testPercentilesAreWithinTheBucketPrecision() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		for (long value = 1; value <= 1_000_000; value++) {
+			histogram.record(value * 1000);
+		}
+
+		assertEquals(1_000_000, histogram.getCount());
+		assertEquals(1_000_000_000, histogram.getMax());
+		for (final double percentile : new double[] { 50, 90, 99, 99.9 }) {
+			final double expected = percentile * 10_000_000;
+			final long actual = histogram.getValueAtPercentile(percentile);
+			assertTrue(percentile + "th: " + actual, actual >= expected && actual <= expected * 1.04);
+		}
+		assertEquals(500_000_500, histogram.getMean(), 1);
+	}
+
+	/**
+	 * Test records concurrently without losing counts.
+	 *
+	 * @throws InterruptedException the interrupted exception
+	 */
+	@Test
+	public void testRecordsConcurrentlyWithoutLosingCounts() throws InterruptedException {
+		final StageMetrics stage = new StageMetrics("test");
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int t = 0; t < 8; t++) {
+			executor.execute(() -> {
+				for (int i = 0; i < 100_000; i++) {
+					final long start = stage.start();
+					if (ThreadLocalRandom.current().nextInt(10) == 0) {
+						stage.fail(start);
+					} else {
+						stage.stop(start);
+					}
+				}
+			});
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+		assertEquals(800_000, stage.getCount());
+		assertEquals(0, stage.getInFlight());
+		assertEquals(0.1, stage.getErrorRate(), 0.01);
+	}
+
+	/**
+	 * Test publishes stages and result codes as MX beans.
+	 *
+	 * @throws Exception the exception
+	 */
+	@Test
+	public void testPublishesStagesAndResultCodesAsMXBeans() throws Exception {
+		final MBeanServer server = MBeanServerFactory.newMBeanServer();
+		final MetricsRegistry registry = new MetricsRegistry(server);
+		final StageMetrics encrypt = registry.stage("encrypt");
+		encrypt.stop(encrypt.start());
+		registry.getAnnounceResults().record(1);
+		registry.getAnnounceResults().record(1);
+		registry.getAnnounceResults().record(5000);
+
+		final ObjectName stageName = new ObjectName(MetricsRegistry.DOMAIN + ":type=Stage,name=\"encrypt\"");
+		assertEquals(1L, server.getAttribute(stageName, "Count"));
+		assertEquals(0L, server.getAttribute(stageName, "InFlight"));
+
+		final ObjectName resultsName = new ObjectName(MetricsRegistry.DOMAIN + ":type=AnnounceResults");
+		assertEquals(3L, server.getAttribute(resultsName, "Total"));
+		assertEquals(1 / 3.0, (Double) server.getAttribute(resultsName, "ErrorRate"), 1e-9);
+		final TabularData counts = (TabularData) server.getAttribute(resultsName, "Counts");
+		assertEquals(2, counts.size());
+		for (final Object row : counts.values()) {
+			final CompositeData entry = (CompositeData) row;
+			assertEquals("OTHER".equals(entry.get("key")) ? 1L : 2L, entry.get("value"));
+		}
+
+		registry.unregister();
+		assertTrue(server.queryNames(new ObjectName(MetricsRegistry.DOMAIN + ":*"), null).isEmpty());
+	}
+}
@@ -0,0 +1,148 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.nem.core.connect.HttpJsonPostRequest;
+import org.nem.core.connect.client.NisApiId;
+import org.nem.core.crypto.KeyPair;
+import org.nem.core.model.Account;
+import org.nem.core.model.ValidationResult;
+import org.nem.core.model.ncc.NemAnnounceResult;
+import org.nem.core.model.ncc.RequestAnnounce;
+import org.nem.core.model.ncc.TransactionMetaDataPair;
+
+import io.nem.model.SignedTransaction;
+import io.nem.model.SwiftApiId;
+import io.nem.service.Globals;
+import io.nem.service.MockNisNode;
+import io.nem.service.NodeEndpointPool;
+import io.nem.util.RetryPolicy;
+import io.nem.util.TransactionSenderUtil;
+
+/**
+ * The Class MockNisNodeTest.
+ */
+public class MockNisNodeTest {
+
+	/** The mock node. */
+	private MockNisNode node;
+
+	/** The recipient. */
+	private final Account recipient = new Account(new KeyPair());
+
+	/**
+	 * Starts the mock node.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Before
+	public void setUp() throws IOException {
+		this.node = new MockNisNode(0, 0, 0, 0, 0, 0);
+	}
+
+	/**
+	 * Stops the mock node.
+	 */
+	@After
+	public void tearDown() {
+		this.node.close();
+	}
+
+	/**
+	 * Announces a request to the mock node.
+	 *
+	 * @param request the request
+	 * @return the result
+	 */
+	private NemAnnounceResult announce(RequestAnnounce request) {
+		return new NemAnnounceResult(Globals.CONNECTOR.postAsync(this.node.getEndpoint(),
+				NisApiId.NIS_REST_TRANSACTION_ANNOUNCE, new HttpJsonPostRequest(request)).join());
+	}
+
+	/**
+	 * Test accepts signed transfers and rejects duplicates.
+	 */
+	@Test
+	public void testAcceptsSignedTransfersAndRejectsDuplicates() {
+		final SignedTransaction transfer = TestFixtures.transfers(1, this.recipient).get(0);
+
+		final NemAnnounceResult result = announce(transfer.toRequestAnnounce());
+		assertEquals(ValidationResult.SUCCESS.getValue(), result.getCode());
+		assertEquals(transfer.getHash(), result.getTransactionHash());
+		assertEquals(ValidationResult.NEUTRAL.getValue(), announce(transfer.toRequestAnnounce()).getCode());
+
+		final TransactionMetaDataPair pair = new TransactionMetaDataPair(Globals.CONNECTOR
+				.getAsync(this.node.getEndpoint(), SwiftApiId.TRANSACTION_GET, "hash=" + transfer.getHash()).join());
+		assertEquals(transfer.getHash(), pair.getMetaData().getHash());
+		assertEquals(1, this.node.getLedgerSize());
+	}
+
+	/**
+	 * Test retries recover injected server errors.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testRetriesRecoverInjectedServerErrors() throws IOException {
+		final RetryPolicy noWait = new RetryPolicy(20, 0, 0);
+		try (MockNisNode failing = new MockNisNode(0, 0, 0, 0.3, 0, 0)) {
+			// neither ejection nor the circuit breaker may stop the retries
+			final NodeEndpointPool endpoints = new NodeEndpointPool(Collections.singletonList(failing.getEndpoint()),
+					0, Integer.MAX_VALUE, 0.5, Integer.MAX_VALUE, 0);
+			for (final SignedTransaction transfer : TestFixtures.transfers(20, this.recipient)) {
+				assertTrue(TransactionSenderUtil.sendTransactionAsync(transfer, null, endpoints, noWait, Runnable::run)
+						.join().isSuccessful());
+			}
+			assertEquals(20, failing.getLedgerSize());
+			assertTrue(failing.getInjectedErrors() > 0);
+		}
+	}
+
+	/**
+	 * Test rejects a signature of other data.
+	 */
+	@Test
+	public void testRejectsASignatureOfOtherData() {
+		final List<SignedTransaction> transfers = TestFixtures.transfers(2, this.recipient);
+		final RequestAnnounce forged = new RequestAnnounce(transfers.get(0).getData(),
+				transfers.get(1).getTransaction().getSignature().getBytes());
+
+		assertEquals(ValidationResult.FAILURE_SIGNATURE_NOT_VERIFIABLE.getValue(), announce(forged).getCode());
+		assertEquals(0, this.node.getLedgerSize());
+		assertEquals(1, this.node.getRejected());
+	}
+
+	/**
+	 * Test pages incoming transfers newest first.
+	 */
+	@Test
+	public void testPagesIncomingTransfersNewestFirst() {
+		final List<SignedTransaction> transfers = TestFixtures.transfers(30, this.recipient);
+		for (final SignedTransaction transfer : transfers) {
+			assertEquals(ValidationResult.SUCCESS.getValue(), announce(transfer.toRequestAnnounce()).getCode());
+		}
+
+		final String address = "address=" + this.recipient.getAddress().getEncoded();
+		final List<TransactionMetaDataPair> first = Globals.CONNECTOR
+				.getAsync(this.node.getEndpoint(), SwiftApiId.ACCOUNT_TRANSFERS_INCOMING, address).join()
+				.readObjectArray("data", TransactionMetaDataPair::new);
+		assertEquals(25, first.size());
+		assertEquals(transfers.get(29).getHash(), first.get(0).getMetaData().getHash());
+
+		final Long last = first.get(24).getMetaData().getId();
+		final List<TransactionMetaDataPair> second = Globals.CONNECTOR
+				.getAsync(this.node.getEndpoint(), SwiftApiId.ACCOUNT_TRANSFERS_INCOMING, address + "&id=" + last)
+				.join().readObjectArray("data", TransactionMetaDataPair::new);
+		assertEquals(5, second.size());
+		assertEquals(transfers.get(0).getHash(), second.get(4).getMetaData().getHash());
+		assertTrue(second.get(0).getMetaData().getId() < last);
+	}
+}
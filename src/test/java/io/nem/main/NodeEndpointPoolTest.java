@@ -0,0 +1,121 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.nem.core.node.NodeEndpoint;
+
+import io.nem.service.NodeEndpointPool;
+import io.nem.util.CircuitBreaker;
+
+/**
+ * The Class NodeEndpointPoolTest.
+ */
+public class NodeEndpointPoolTest {
+
+	/** The first node. */
+	private final NodeEndpoint first = new NodeEndpoint("http", "node1", 7890);
+
+	/** The second node. */
+	private final NodeEndpoint second = new NodeEndpoint("http", "node2", 7890);
+
+	/**
+	 * Test select routes to fastest node.
+	 */
+	@Test
+	public void testSelectRoutesToFastestNode() {
+		final NodeEndpointPool pool = new NodeEndpointPool(Arrays.asList(first, second), 0, 3, 0.5);
+		pool.recordSuccess(first, 50_000_000);
+		pool.recordSuccess(second, 10_000_000);
+
+		assertEquals(second, pool.select());
+	}
+
+	/**
+	 * Test failing node is ejected and re-admitted.
+	 */
+	@Test
+	public void testFailingNodeIsEjectedAndReadmitted() {
+		final NodeEndpointPool pool = new NodeEndpointPool(Arrays.asList(first, second), 0, 2, 0.5);
+		pool.recordSuccess(first, 10_000_000);
+		pool.recordSuccess(second, 50_000_000);
+
+		pool.recordFailure(first);
+		assertTrue(pool.isHealthy(first));
+		pool.recordFailure(first);
+		assertFalse(pool.isHealthy(first));
+		assertEquals(second, pool.select());
+
+		pool.recordSuccess(first, 10_000_000);
+		assertTrue(pool.isHealthy(first));
+		assertEquals(first, pool.select());
+	}
+
+	/**
+	 * Test acquire skips nodes with an open circuit breaker.
+	 */
+	@Test
+	public void testAcquireSkipsNodesWithAnOpenCircuitBreaker() {
+		final NodeEndpointPool pool = new NodeEndpointPool(Arrays.asList(first, second), 0, 10, 0.5, 2, 60_000);
+		pool.recordSuccess(first, 10_000_000);
+		pool.recordSuccess(second, 50_000_000);
+
+		pool.recordFailure(first);
+		pool.recordFailure(first);
+		assertTrue(pool.isHealthy(first));
+		assertEquals(second, pool.acquire());
+
+		pool.recordFailure(second);
+		pool.recordFailure(second);
+		assertNull(pool.acquire());
+		assertEquals(1, pool.getCircuitBreaker(first).getRejected() + pool.getCircuitBreaker(second).getRejected());
+	}
+
+	/**
+	 * Test select keeps sampling slower nodes.
+	 */
+	@Test
+	public void testSelectKeepsSamplingSlowerNodes() {
+		final NodeEndpoint third = new NodeEndpoint("http", "node3", 7890);
+		final NodeEndpointPool pool = new NodeEndpointPool(Arrays.asList(first, second, third), 0, 3, 0.5);
+		pool.recordSuccess(first, 10_000_000);
+		pool.recordSuccess(second, 20_000_000);
+		pool.recordSuccess(third, 30_000_000);
+
+		final Set<NodeEndpoint> selected = new HashSet<>();
+		for (int i = 0; i < 1000; i++) {
+			selected.add(pool.select());
+		}
+		assertTrue(selected.contains(first));
+		assertTrue(selected.contains(second));
+	}
+
+	/**
+	 * Test probes refresh the latency and leave the circuit breaker alone.
+	 */
+	@Test
+	public void testProbesRefreshTheLatencyAndLeaveTheCircuitBreakerAlone() {
+		final NodeEndpointPool pool = new NodeEndpointPool(Arrays.asList(first, second), 0, 2, 0.5, 1, 60_000);
+		pool.recordSuccess(first, 10_000_000);
+		pool.recordProbeSuccess(first, 30_000_000);
+		assertEquals(20_000_000, pool.getAverageLatencyNanos(first));
+
+		pool.recordProbeFailure(second);
+		pool.recordProbeFailure(second);
+		assertFalse(pool.isHealthy(second));
+		assertEquals(2, pool.getProbeFailures(second));
+		assertEquals(CircuitBreaker.State.CLOSED, pool.getCircuitBreaker(second).getState());
+		assertEquals(0, pool.getCircuitBreaker(second).getFailures());
+
+		pool.recordProbeSuccess(second, 5_000_000);
+		assertTrue(pool.isHealthy(second));
+		assertEquals(second, pool.acquire());
+	}
+}
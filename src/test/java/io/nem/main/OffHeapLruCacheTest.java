@@ -0,0 +1,138 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Test;
+
+import io.nem.util.OffHeapLruCache;
+
+/**
+ * The Class OffHeapLruCacheTest.
+ */
+public class OffHeapLruCacheTest {
+
+	/**
+	 * Creates a value.
+	 *
+	 * @param size the size
+	 * @param seed the seed
+	 * @return the value
+	 */
+	private byte[] value(int size, int seed) {
+		final byte[] value = new byte[size];
+		new Random(seed).nextBytes(value);
+		return value;
+	}
+
+	/**
+	 * Test returns what was put across blocks.
+	 */
+	@Test
+	public void testReturnsWhatWasPutAcrossBlocks() {
+		final OffHeapLruCache cache = new OffHeapLruCache(64 * 1024, 100, null, 0);
+		for (int i = 0; i < 50; i++) {
+			cache.put("k" + i, value(i * 37, i));
+		}
+		for (int i = 0; i < 50; i++) {
+			assertArrayEquals(value(i * 37, i), cache.get("k" + i));
+		}
+		assertEquals(50, cache.getHits());
+	}
+
+	/**
+	 * Test evicts least recently used.
+	 */
+	@Test
+	public void testEvictsLeastRecentlyUsed() {
+		final OffHeapLruCache cache = new OffHeapLruCache(1024, 256, null, 0);
+		cache.put("a", value(256, 1));
+		cache.put("b", value(256, 2));
+		cache.put("c", value(256, 3));
+		cache.put("d", value(256, 4));
+		cache.get("a");
+		cache.put("e", value(500, 5));
+
+		assertArrayEquals(value(256, 1), cache.get("a"));
+		assertNull(cache.get("b"));
+		assertNull(cache.get("c"));
+		assertArrayEquals(value(256, 4), cache.get("d"));
+		assertArrayEquals(value(500, 5), cache.get("e"));
+		assertEquals(1024, cache.getUsedBytes());
+		assertEquals(2, cache.getEvictions());
+	}
+
+	/**
+	 * Test evicted entries come back from the spill directory.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testEvictedEntriesComeBackFromTheSpillDirectory() throws IOException {
+		final Path spill = Files.createTempDirectory("spill");
+		final OffHeapLruCache cache = new OffHeapLruCache(1024, 256, spill, 1024);
+		for (int i = 0; i < 8; i++) {
+			cache.put("k" + i, value(256, i));
+		}
+		assertEquals(4, cache.size());
+		assertEquals(1024, cache.getSpilledBytes());
+
+		assertArrayEquals(value(256, 0), cache.get("k0"));
+		assertEquals(1, cache.getSpillHits());
+		assertTrue(cache.getSpilledBytes() <= 1024);
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getSpilledBytes());
+		assertEquals(0, Files.list(spill).count());
+		Files.delete(spill);
+	}
+
+	/**
+	 * Test entries that may not be spilled never reach the disk.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testEntriesThatMayNotBeSpilledNeverReachTheDisk() throws IOException {
+		final Path spill = Files.createTempDirectory("spill");
+		final OffHeapLruCache cache = new OffHeapLruCache(1024, 256, spill, 4096);
+		cache.put("secret", value(256, 0), false);
+		cache.put("huge", value(2048, 1), false);
+		for (int i = 0; i < 4; i++) {
+			cache.put("k" + i, value(256, i + 2));
+		}
+		assertEquals(0, cache.getSpilledBytes());
+		assertEquals(0, Files.list(spill).count());
+		assertNull(cache.get("secret"));
+		assertNull(cache.get("huge"));
+
+		cache.put("k4", value(256, 6));
+		assertEquals(256, cache.getSpilledBytes());
+		assertArrayEquals(value(256, 2), cache.get("k0"));
+
+		cache.clear();
+		Files.delete(spill);
+	}
+
+	/**
+	 * Test loader result is cached.
+	 */
+	@Test
+	public void testLoaderResultIsCached() {
+		final OffHeapLruCache cache = new OffHeapLruCache(4096);
+		assertArrayEquals(value(10, 7), cache.get("x", key -> value(10, 7)));
+		assertArrayEquals(value(10, 7), cache.get("x", key -> {
+			throw new AssertionError("loaded twice");
+		}));
+		assertNull(cache.get("y", key -> null));
+		assertEquals(1, cache.size());
+	}
+}
@@ -0,0 +1,159 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+import org.nem.core.crypto.Hash;
+import org.nem.core.crypto.Hashes;
+import org.nem.core.model.ValidationResult;
+import org.nem.core.model.ncc.RequestAnnounce;
+
+import io.nem.model.SignedTransaction;
+import io.nem.model.SwiftAnnounceResult;
+import io.nem.service.MockNisNode;
+import io.nem.service.NodeEndpointPool;
+import io.nem.service.OutboxJournal;
+import io.nem.util.RetryPolicy;
+import io.nem.util.TransactionSenderUtil;
+
+/**
+ * The Class OutboxJournalTest.
+ */
+public class OutboxJournalTest {
+
+	/**
+	 * Appends transactions from concurrent producers.
+	 *
+	 * @param journal the journal
+	 * @param count the count
+	 * @return the sequences
+	 */
+	private List<Long> appendConcurrently(OutboxJournal journal, int count) {
+		final ExecutorService producers = Executors.newFixedThreadPool(8);
+		final List<CompletableFuture<Long>> futures = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			final byte[] data = ("transaction " + i).getBytes();
+			futures.add(CompletableFuture.supplyAsync(
+					() -> journal.append(new Hash(Hashes.sha3_256(data)), new RequestAnnounce(data, new byte[64])),
+					producers).thenCompose(f -> f));
+		}
+		final List<Long> sequences = new ArrayList<>();
+		futures.forEach(f -> sequences.add(f.join()));
+		producers.shutdown();
+		return sequences;
+	}
+
+	/**
+	 * Test group commits concurrent appends.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testGroupCommitsConcurrentAppends() throws IOException {
+		final Path directory = Files.createTempDirectory("outbox");
+		try (OutboxJournal journal = new OutboxJournal(directory, OutboxJournal.DEFAULT_SEGMENT_SIZE)) {
+			final List<Long> sequences = appendConcurrently(journal, 2000);
+			assertEquals(2000, journal.getAppends());
+			assertEquals(2000, journal.getPendingCount());
+			assertEquals(2000, new HashSet<>(sequences).size());
+			assertTrue(journal.getCommits() >= 1);
+			assertTrue(journal.getCommits() <= journal.getAppends());
+		}
+	}
+
+	/**
+	 * Test keeps a transaction the node had no room for.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testKeepsATransactionTheNodeHadNoRoomFor() throws IOException {
+		final Path directory = Files.createTempDirectory("outbox");
+		final RetryPolicy noWait = new RetryPolicy(3, 0, 0);
+		final List<SignedTransaction> transfers = TestFixtures.transfers(2, null);
+		// one announce per second and no queue: the second gets a full cache on every attempt
+		try (MockNisNode node = new MockNisNode(0, 0, 0, 0, 1, 0);
+				OutboxJournal journal = new OutboxJournal(directory, OutboxJournal.DEFAULT_SEGMENT_SIZE)) {
+			final NodeEndpointPool endpoints = NodeEndpointPool.forEndpoint(node.getEndpoint());
+			assertTrue(TransactionSenderUtil
+					.sendTransactionAsync(transfers.get(0), journal, endpoints, noWait, Runnable::run).join()
+					.isSuccessful());
+			final SwiftAnnounceResult full = TransactionSenderUtil
+					.sendTransactionAsync(transfers.get(1), journal, endpoints, noWait, Runnable::run).join();
+			assertEquals(ValidationResult.FAILURE_TRANSACTION_CACHE_TOO_FULL.getValue(),
+					full.getAnnounceResult().getCode());
+		}
+
+		try (MockNisNode node = new MockNisNode(0, 0, 0, 0, 0, 0);
+				OutboxJournal journal = new OutboxJournal(directory, OutboxJournal.DEFAULT_SEGMENT_SIZE)) {
+			final List<OutboxJournal.Entry> pending = journal.getPending();
+			assertEquals(1, pending.size());
+			assertEquals(transfers.get(1).getHash(), pending.get(0).getHash());
+
+			final List<SwiftAnnounceResult> replayed = TransactionSenderUtil.replayOutbox(journal,
+					NodeEndpointPool.forEndpoint(node.getEndpoint()), noWait, Runnable::run).join();
+			assertEquals(1, replayed.size());
+			assertTrue(replayed.get(0).isSuccessful());
+		}
+
+		try (OutboxJournal journal = new OutboxJournal(directory, OutboxJournal.DEFAULT_SEGMENT_SIZE)) {
+			assertEquals(0, journal.getPendingCount());
+		}
+	}
+
+	/**
+	 * Test replays unacknowledged entries after a torn write.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testReplaysUnacknowledgedEntriesAfterATornWrite() throws IOException {
+		final Path directory = Files.createTempDirectory("outbox");
+		final List<Long> sequences;
+		try (OutboxJournal journal = new OutboxJournal(directory, 4096)) {
+			sequences = appendConcurrently(journal, 1000);
+			for (final long sequence : sequences.subList(0, 900)) {
+				journal.acknowledge(sequence).join();
+			}
+			assertTrue(journal.getSegmentCount() < 50);
+		}
+
+		final Path[] segments = Files.list(directory).sorted().toArray(Path[]::new);
+		final Path last = segments[segments.length - 1];
+		final byte[] content = Files.readAllBytes(last);
+		Files.write(last, Arrays.copyOf(content, content.length + 7), StandardOpenOption.TRUNCATE_EXISTING);
+
+		try (OutboxJournal journal = new OutboxJournal(directory, 4096)) {
+			final List<OutboxJournal.Entry> pending = journal.getPending();
+			assertEquals(100, pending.size());
+			for (final OutboxJournal.Entry entry : pending) {
+				assertTrue(sequences.subList(900, 1000).contains(entry.getSequence()));
+				assertEquals(new Hash(Hashes.sha3_256(entry.toRequestAnnounce().getData())), entry.getHash());
+			}
+
+			final long next = journal.append(pending.get(0).getHash(), pending.get(0).toRequestAnnounce()).join();
+			assertTrue(next > sequences.stream().mapToLong(Long::longValue).max().getAsLong());
+			for (final OutboxJournal.Entry entry : journal.getPending()) {
+				journal.acknowledge(entry.getSequence()).join();
+			}
+			assertEquals(1, journal.getSegmentCount());
+		}
+
+		try (OutboxJournal journal = new OutboxJournal(directory, 4096)) {
+			assertEquals(0, journal.getPendingCount());
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+
+import org.junit.Test;
+import org.nem.core.connect.HttpJsonPostRequest;
+import org.nem.core.connect.InactivePeerException;
+import org.nem.core.connect.client.NisApiId;
+import org.nem.core.model.ValidationResult;
+import org.nem.core.model.ncc.NemAnnounceResult;
+
+import io.nem.connect.PooledHttpTransport;
+import io.nem.metrics.TransportMetrics;
+import io.nem.model.SignedTransaction;
+import io.nem.service.MockNisNode;
+
+/**
+ * The Class PooledHttpTransportTest.
+ */
+public class PooledHttpTransportTest {
+
+	/**
+	 * Test announces over kept-alive connections.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testAnnouncesOverKeptAliveConnections() throws IOException {
+		final TransportMetrics metrics = new TransportMetrics();
+		try (MockNisNode node = new MockNisNode(0, 0, 0, 0, 0, 0);
+				PooledHttpTransport transport = new PooledHttpTransport(
+						new PooledHttpTransport.Settings().maxConnectionsPerNode(2), metrics)) {
+			for (final SignedTransaction transfer : TestFixtures.transfers(20, null)) {
+				final NemAnnounceResult result = new NemAnnounceResult(transport.post(node.getEndpoint(),
+						NisApiId.NIS_REST_TRANSACTION_ANNOUNCE, new HttpJsonPostRequest(transfer.toRequestAnnounce()))
+						.join());
+				assertEquals(ValidationResult.SUCCESS.getValue(), result.getCode());
+			}
+
+			assertEquals(20, node.getAccepted());
+			assertEquals(20, metrics.getConnectionsOpened() + metrics.getConnectionsReused());
+			assertTrue(metrics.getReuseRatio() >= 0.9);
+			assertEquals(0, metrics.getLeasedConnections());
+		}
+	}
+
+	/**
+	 * Test reports server errors as an inactive node.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testReportsServerErrorsAsAnInactiveNode() throws IOException {
+		try (MockNisNode node = new MockNisNode(0, 0, 0, 1, 0, 0);
+				PooledHttpTransport transport = new PooledHttpTransport(new PooledHttpTransport.Settings(),
+						new TransportMetrics())) {
+			transport.post(node.getEndpoint(), NisApiId.NIS_REST_TRANSACTION_ANNOUNCE,
+					new HttpJsonPostRequest(TestFixtures.transfers(1, null).get(0).toRequestAnnounce())).join();
+		} catch (CompletionException e) {
+			assertTrue(e.getCause() instanceof InactivePeerException);
+			return;
+		}
+		throw new AssertionError("expected an inactive node");
+	}
+}
@@ -1,5 +1,12 @@
 package io.nem.main;
 
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.junit.Test;
 import org.nem.core.messages.SecureMessage;
 import org.nem.core.model.Account;
@@ -9,6 +16,9 @@ import org.nem.core.test.Utils;
 import com.prowidesoftware.swift.io.ConversionService;
 import io.nem.builders.SwiftTransactionBuilder;
 import io.nem.factories.AttachmentFactory;
+import io.nem.model.SwiftTransaction;
+import io.nem.service.BulkIngestionPipeline;
+import io.nem.service.TransactionAnnouncePipeline;
 
 /**
  * The Class BuildTransactionTest.
@@ -86,4 +96,51 @@ public class StressTransactionTest extends TransactionUnitTest {
 		}
 	}
 
+	/**
+	 * Test cb pipeline send swift transactions.
+	 */
+	@Test
+	public void testCbPipelineSendSwiftTransactions() {
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final TransactionAnnouncePipeline pipeline = new TransactionAnnouncePipeline(64, executor);
+			for (int i = 0; i < 500; i++) {
+				final SecureMessage message = SecureMessage.fromDecodedPayload(this.senderPrivateAccount,
+						this.recipientPublicAccount, this.sampleSwiftMsg.getBytes());
+
+				final SwiftTransaction tBlock = new SwiftTransaction();
+				tBlock.setSenderAccount(this.senderPrivateAccount);
+				tBlock.setRecipientAccount(this.recipientPublicAccount);
+				tBlock.setAttachment(AttachmentFactory.createTransferTransactionAttachment(message));
+				pipeline.submit(tBlock);
+			}
+
+			final List<TransactionAnnouncePipeline.Outcome> outcomes = pipeline.awaitResults();
+			assertEquals(500, outcomes.size());
+		} catch (Exception e) {
+			e.printStackTrace();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Test cb ingest rje file.
+	 */
+	@Test
+	public void testCbIngestRjeFile() {
+
+		try {
+			final BulkIngestionPipeline pipeline = new BulkIngestionPipeline(this.senderPrivateAccount,
+					mt -> this.recipientPublicAccount, 4, 8, 64, 1000);
+			final BulkIngestionPipeline.Summary summary = pipeline
+					.ingestRje(new File("src/test/resources/mt103.rje"));
+			assertEquals(2, summary.getOutcomes().size());
+			assertEquals("103", summary.getOutcomes().get(0).getMessageType());
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
 }
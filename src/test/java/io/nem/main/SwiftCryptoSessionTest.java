@@ -0,0 +1,145 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.nem.core.crypto.KeyPair;
+import org.nem.core.messages.SecureMessage;
+import org.nem.core.model.Account;
+
+import io.nem.swift.crypto.SecureMessageSwiftPayloadDecoder;
+import io.nem.swift.crypto.SecureMessageSwiftPayloadEncoder;
+import io.nem.swift.crypto.SwiftCryptoSession;
+
+/**
+ * The Class SwiftCryptoSessionTest.
+ */
+public class SwiftCryptoSessionTest {
+
+	/** The sample swift msg. */
+	final byte[] sampleSwiftMsg = ("{1:F01FOOLHKH0AXXX0304009999}{2:O9401609160814FOOLHKH0AXXX03040027341608141609N}{4:\n"
+			+ ":20:USD940NO1\n" + ":21:123456/DEV\n" + ":25:USD234567\n" + ":28C:1/1\n" + "-}").getBytes();
+
+	/** The sender. */
+	final KeyPair sender = new KeyPair();
+
+	/** The recipient. */
+	final KeyPair recipient = new KeyPair();
+
+	/**
+	 * Test session payload is readable by secure message.
+	 */
+	@Test
+	public void testSessionPayloadIsReadableBySecureMessage() {
+		final SecureMessage message = SwiftCryptoSession
+				.get(new Account(sender), new Account(new KeyPair(recipient.getPublicKey()))).encrypt(sampleSwiftMsg);
+
+		final SecureMessage received = SecureMessage.fromEncodedPayload(
+				new Account(new KeyPair(sender.getPublicKey())), new Account(recipient), message.getEncodedPayload());
+		assertArrayEquals(sampleSwiftMsg, received.getDecodedPayload());
+	}
+
+	/**
+	 * Test secure message payload is readable by session.
+	 */
+	@Test
+	public void testSecureMessagePayloadIsReadableBySession() {
+		final SecureMessage message = SecureMessage.fromDecodedPayload(new Account(sender),
+				new Account(new KeyPair(recipient.getPublicKey())), sampleSwiftMsg);
+
+		final byte[] decoded = SwiftCryptoSession
+				.get(new Account(recipient), new Account(new KeyPair(sender.getPublicKey())))
+				.decrypt(message.getEncodedPayload());
+		assertArrayEquals(sampleSwiftMsg, decoded);
+	}
+
+	/**
+	 * Test session is reused and evictable.
+	 */
+	@Test
+	public void testSessionIsReusedAndEvictable() {
+		final Account local = new Account(sender);
+		final Account counterparty = new Account(new KeyPair(recipient.getPublicKey()));
+
+		assertSame(SwiftCryptoSession.get(local, counterparty), SwiftCryptoSession.get(local, counterparty));
+		SwiftCryptoSession.evict(local, counterparty);
+		assertNull(SwiftCryptoSession.get(local, counterparty).decrypt(new byte[10]));
+	}
+
+	/**
+	 * Test a public key only account never gets a cached session.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testAPublicKeyOnlyAccountNeverGetsACachedSession() {
+		final Account counterparty = new Account(new KeyPair(recipient.getPublicKey()));
+		SwiftCryptoSession.get(new Account(sender), counterparty);
+		SwiftCryptoSession.get(new Account(new KeyPair(sender.getPublicKey())), counterparty);
+	}
+
+	/**
+	 * Test raw payloads decode into caller buffers.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testRawPayloadsDecodeIntoCallerBuffers() throws IOException {
+		final Account senderAccount = new Account(sender);
+		final Account recipientPublic = new Account(new KeyPair(recipient.getPublicKey()));
+		final Account senderPublic = new Account(new KeyPair(sender.getPublicKey()));
+		final Account recipientAccount = new Account(recipient);
+		final String text = new String(sampleSwiftMsg, StandardCharsets.UTF_8);
+
+		for (final SecureMessage message : new SecureMessage[] {
+				SecureMessageSwiftPayloadEncoder.encodeAndGzipCompress(senderAccount, recipientPublic, text),
+				SecureMessageSwiftPayloadEncoder.encodeAndDictionaryCompress(senderAccount, recipientPublic, text),
+				SecureMessageSwiftPayloadEncoder.encodeAndCompress(senderAccount, recipientPublic, text) }) {
+			final byte[] payload = message.getEncodedPayload();
+			assertEquals(text, SecureMessageSwiftPayloadDecoder.decodeAndUncompress(senderPublic, recipientAccount,
+					payload));
+
+			for (final ByteBuffer output : new ByteBuffer[] { ByteBuffer.allocate(1024),
+					ByteBuffer.allocateDirect(1024) }) {
+				final ByteBuffer slice = ByteBuffer.allocateDirect(payload.length + 8);
+				slice.position(8);
+				slice.put(payload).position(8);
+				output.position(16);
+
+				final int written = SecureMessageSwiftPayloadDecoder.decodeAndUncompress(senderPublic,
+						recipientAccount, slice, output);
+				assertEquals(sampleSwiftMsg.length, written);
+				assertEquals(16 + written, output.position());
+				assertEquals(0, slice.remaining());
+				final byte[] decoded = new byte[written];
+				output.position(16);
+				output.get(decoded);
+				assertArrayEquals(sampleSwiftMsg, decoded);
+			}
+		}
+	}
+
+	/**
+	 * Test too small output is left unchanged.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test(expected = BufferOverflowException.class)
+	public void testTooSmallOutputIsRejected() throws IOException {
+		final SecureMessage message = SecureMessageSwiftPayloadEncoder.encodeAndCompress(new Account(sender),
+				new Account(new KeyPair(recipient.getPublicKey())), new String(sampleSwiftMsg, StandardCharsets.UTF_8));
+		final ByteBuffer output = ByteBuffer.allocate(16);
+		try {
+			SecureMessageSwiftPayloadDecoder.decodeAndUncompress(new Account(new KeyPair(sender.getPublicKey())),
+					new Account(recipient), message.getEncodedPayload(), output);
+		} finally {
+			assertEquals(0, output.position());
+		}
+	}
+}
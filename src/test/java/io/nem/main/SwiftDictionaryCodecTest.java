@@ -0,0 +1,136 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipException;
+
+import org.junit.Test;
+
+import io.nem.util.DeflateCodec;
+import io.nem.util.GzipUtils;
+import io.nem.util.SwiftDictionaryCodec;
+import io.nem.util.SwiftDictionaryCodec.MtFamily;
+import io.nem.util.SwiftDictionaryTrainer;
+
+/**
+ * The Class SwiftDictionaryCodecTest.
+ */
+public class SwiftDictionaryCodecTest {
+
+	/** The sample swift msg. */
+	final String sampleSwiftMsg = "{1:F01FOOLHKH0AXXX0304009999}{2:O9401609160814FOOLHKH0AXXX03040027341608141609N}{4:\r\n"
+			+ ":20:USD940NO1\r\n" + ":21:123456/DEV\r\n" + ":25:USD234567\r\n" + ":28C:1/1\r\n"
+			+ ":60F:C160418USD672,\r\n" + ":61:160827C642,S1032\r\n" + ":86:ANDY\r\n" + "-}";
+
+	/** The sample mt 103. */
+	final String sampleMt103 = "{1:F01BICFOOYYAXXX8683497519}{2:O1031535051028ESPBESMMAXXX54237522470510281535N}{3:{113:ROMF}{108:0510280182794665}{119:STP}}{4:\r\n"
+			+ ":20:0061350113089908\r\n" + ":13C:/RNCTIME/1534+0000\r\n" + ":23B:CRED\r\n" + ":23E:SDVA\r\n"
+			+ ":32A:061028EUR100000,\r\n" + ":33B:EUR100000,\r\n" + ":50K:/12345678\r\n" + "AGENTES DE BOLSA FOO AGENCIA\r\n"
+			+ ":52A:/2337\r\n" + "FOOAESMMXXX\r\n" + ":53A:FOOAESMMXXX\r\n" + ":57A:BICFOOYYXXX\r\n" + ":59:/ES0123456789012345671234\r\n"
+			+ "FOO AGENTES DE BOLSA ASOC\r\n" + ":71A:OUR\r\n" + ":72:/BNF/TRANSF. BCO. FOO\r\n" + "-}";
+
+	/**
+	 * Test round trip.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testRoundTrip() throws IOException {
+		assertEquals(sampleSwiftMsg, SwiftDictionaryCodec.decompressToString(SwiftDictionaryCodec.compress(sampleSwiftMsg)));
+		assertEquals(sampleMt103, SwiftDictionaryCodec.decompressToString(SwiftDictionaryCodec.compress(sampleMt103)));
+	}
+
+	/**
+	 * Test payload carries version and family.
+	 */
+	@Test
+	public void testPayloadCarriesVersionAndFamily() {
+		final byte[] payload = SwiftDictionaryCodec.compress(sampleSwiftMsg);
+		assertEquals((SwiftDictionaryCodec.FORMAT_VERSION << 4) | MtFamily.MT9XX.getCode(), payload[0] & 0xFF);
+		assertTrue(SwiftDictionaryCodec.isDictionaryCompressed(payload));
+		assertFalse(SwiftDictionaryCodec.isDictionaryCompressed(GzipUtils.compress(sampleSwiftMsg.getBytes(StandardCharsets.UTF_8))));
+	}
+
+	/**
+	 * Test detect family.
+	 */
+	@Test
+	public void testDetectFamily() {
+		assertEquals(MtFamily.MT9XX, SwiftDictionaryCodec.detectFamily(sampleSwiftMsg.getBytes(StandardCharsets.UTF_8)));
+		assertEquals(MtFamily.MT1XX, SwiftDictionaryCodec.detectFamily(sampleMt103.getBytes(StandardCharsets.UTF_8)));
+		assertEquals(MtFamily.GENERIC, SwiftDictionaryCodec.detectFamily("{1:F01FOO}{2:I798BAR}".getBytes(StandardCharsets.UTF_8)));
+		assertEquals(MtFamily.GENERIC, SwiftDictionaryCodec.detectFamily(new byte[0]));
+	}
+
+	/**
+	 * Test smaller than gzip.
+	 */
+	@Test
+	public void testSmallerThanGzip() {
+		final byte[] data = sampleMt103.getBytes(StandardCharsets.UTF_8);
+		final int dictionary = SwiftDictionaryCodec.compress(data).length;
+		final int gzip = GzipUtils.compress(data).length;
+		assertTrue(dictionary < gzip);
+	}
+
+	/**
+	 * Test rejects unknown payload.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test(expected = ZipException.class)
+	public void testRejectsUnknownPayload() throws IOException {
+		SwiftDictionaryCodec.decompress(new byte[] { (byte) 0x7F, 1, 2, 3 });
+	}
+
+	/**
+	 * Test rejects a payload of another dictionary.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test(expected = ZipException.class)
+	public void testRejectsAPayloadOfAnotherDictionary() throws IOException {
+		final byte[] payload = SwiftDictionaryCodec.compress(sampleMt103);
+		payload[4] ^= 1;
+		SwiftDictionaryCodec.decompress(payload);
+	}
+
+	/**
+	 * Test reads version 1 payloads without dictionary id.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testReadsVersion1Payloads() throws IOException {
+		final byte[] data = sampleMt103.getBytes(StandardCharsets.UTF_8);
+		final byte[] deflated = DeflateCodec.deflate(data, 0, data.length,
+				SwiftDictionaryCodec.getDictionary(MtFamily.MT1XX));
+		final byte[] payload = new byte[1 + deflated.length];
+		payload[0] = (byte) ((1 << 4) | MtFamily.MT1XX.getCode());
+		System.arraycopy(deflated, 0, payload, 1, deflated.length);
+
+		assertTrue(SwiftDictionaryCodec.isDictionaryCompressed(payload));
+		assertEquals(sampleMt103, SwiftDictionaryCodec.decompressToString(payload));
+	}
+
+	/**
+	 * Test trainer keeps repeated segments.
+	 */
+	@Test
+	public void testTrainerKeepsRepeatedSegments() {
+		final SwiftDictionaryTrainer trainer = new SwiftDictionaryTrainer(512);
+		trainer.addMessage(sampleMt103);
+		trainer.addMessage(sampleMt103.replace("0061350113089908", "0061350113089909"));
+
+		final String dictionary = new String(trainer.build(MtFamily.MT1XX), StandardCharsets.UTF_8);
+		assertTrue(dictionary.length() <= 512);
+		assertTrue(dictionary.contains(":32A:"));
+		assertFalse(dictionary.contains("0061350113089908"));
+		assertFalse(dictionary.contains("AGENTES DE BOLSA"));
+		assertFalse(dictionary.contains("ES0123456789012345671234"));
+	}
+}
@@ -0,0 +1,207 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+import org.nem.core.model.ValidationResult;
+import org.nem.core.model.ncc.NemAnnounceResult;
+
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import io.nem.model.SwiftAnnounceResult;
+import io.nem.service.SwiftDuplicateFilter;
+
+/**
+ * The Class SwiftDuplicateFilterTest.
+ */
+public class SwiftDuplicateFilterTest {
+
+	/** The Constant DAY. */
+	private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+	/**
+	 * A clock moved by the test.
+	 */
+	private static class TestClock extends Clock {
+
+		/** The millis. */
+		private long millis = 1_500_000_000_000L;
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(this.millis);
+		}
+
+		@Override
+		public long millis() {
+			return this.millis;
+		}
+	}
+
+	/**
+	 * Creates a reference.
+	 *
+	 * @param i the i
+	 * @return the reference
+	 */
+	private byte[] reference(int i) {
+		return SwiftDuplicateFilter.referenceOf("BANKBEBBAXXX", "103", "REF" + i, new byte[] { (byte) i });
+	}
+
+	/**
+	 * Test keys on field 20 and text.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testKeysOnField20AndText() throws IOException {
+		final String mt103 = "{1:F01BANKBEBBAXXX0000000000}{2:I103BANKDEFFXXXXN}{4:\n:20:REF1\n:23B:CRED\n:32A:170315EUR1,\n-}";
+		final AbstractMT first = AbstractMT.parse(mt103);
+		final AbstractMT resent = AbstractMT.parse(mt103.replace("0000000000", "0001000042"));
+		final AbstractMT amended = AbstractMT.parse(mt103.replace("EUR1,", "EUR2,"));
+
+		assertArrayEquals(SwiftDuplicateFilter.referenceOf(first), SwiftDuplicateFilter.referenceOf(resent));
+		assertFalse(
+				Arrays.equals(SwiftDuplicateFilter.referenceOf(first), SwiftDuplicateFilter.referenceOf(amended)));
+	}
+
+	/**
+	 * Test keeps the reference unless the node rejects the message for good
+	 * or it is never sent.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testKeepsTheReferenceUnlessTheNodeRejectsTheMessage() throws IOException {
+		final Path index = Files.createTempDirectory("dedup").resolve("index");
+		final String mt103 = "{1:F01BANKBEBBAXXX0000000000}{2:I103BANKDEFFXXXXN}{4:\n:20:REF%d\n:23B:CRED\n:32A:170315EUR1,\n-}";
+		try (SwiftDuplicateFilter filter = new SwiftDuplicateFilter(index, 1000, 30 * DAY)) {
+			final AbstractMT timedOut = AbstractMT.parse(String.format(mt103, 1));
+			final CompletableFuture<SwiftAnnounceResult> timeout = new CompletableFuture<>();
+			timeout.completeExceptionally(new TimeoutException("read timed out"));
+			filter.sendIfNew(timedOut, () -> timeout).handle((r, e) -> r);
+			assertTrue(filter.isDuplicate(SwiftDuplicateFilter.referenceOf(timedOut)));
+
+			final AbstractMT known = AbstractMT.parse(String.format(mt103, 2));
+			filter.sendIfNew(known, () -> answer(ValidationResult.NEUTRAL)).join();
+			assertTrue(filter.isDuplicate(SwiftDuplicateFilter.referenceOf(known)));
+
+			final AbstractMT cacheFull = AbstractMT.parse(String.format(mt103, 3));
+			filter.sendIfNew(cacheFull, () -> answer(ValidationResult.FAILURE_TRANSACTION_CACHE_TOO_FULL)).join();
+			assertTrue(filter.isDuplicate(SwiftDuplicateFilter.referenceOf(cacheFull)));
+
+			final AbstractMT rejected = AbstractMT.parse(String.format(mt103, 4));
+			filter.sendIfNew(rejected, () -> answer(ValidationResult.FAILURE_PAST_DEADLINE)).join();
+			assertFalse(filter.isDuplicate(SwiftDuplicateFilter.referenceOf(rejected)));
+
+			final AbstractMT unsigned = AbstractMT.parse(String.format(mt103, 5));
+			try {
+				filter.sendIfNew(unsigned, () -> {
+					throw new IllegalArgumentException("no account for the sender");
+				});
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertFalse(filter.isDuplicate(SwiftDuplicateFilter.referenceOf(unsigned)));
+			}
+		}
+	}
+
+	/**
+	 * Creates a node answer.
+	 *
+	 * @param result the validation result
+	 * @return the completed announce result
+	 */
+	private static CompletableFuture<SwiftAnnounceResult> answer(ValidationResult result) {
+		return CompletableFuture.completedFuture(new SwiftAnnounceResult(null, new NemAnnounceResult(result)));
+	}
+
+	/**
+	 * Test marks and checks many references.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testMarksAndChecksManyReferences() throws IOException {
+		final Path index = Files.createTempDirectory("dedup").resolve("index");
+		final int count = 100_000;
+		try (SwiftDuplicateFilter filter = new SwiftDuplicateFilter(index, count, 30 * DAY)) {
+			final byte[][] references = new byte[2 * count][];
+			for (int i = 0; i < references.length; i++) {
+				references[i] = reference(i);
+			}
+
+			for (int i = 0; i < count; i++) {
+				assertTrue(filter.markIfNew(references[i]));
+			}
+			for (int i = count; i < 2 * count; i++) {
+				assertFalse(filter.isDuplicate(references[i]));
+			}
+			for (int i = 0; i < count; i++) {
+				assertFalse(filter.markIfNew(references[i]));
+			}
+
+			assertTrue(filter.getFilterNegatives() > 0);
+			assertEquals(count, filter.size());
+			assertEquals(count, filter.getDuplicates());
+		}
+	}
+
+	/**
+	 * Test persists, forgets and expires.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testPersistsForgetsAndExpires() throws IOException {
+		final Path index = Files.createTempDirectory("dedup").resolve("index");
+		final TestClock clock = new TestClock();
+		try (SwiftDuplicateFilter filter = new SwiftDuplicateFilter(index, 1000, 30 * DAY, 4, clock)) {
+			for (int i = 0; i < 100; i++) {
+				filter.markIfNew(reference(i));
+			}
+			filter.forget(reference(5));
+			assertTrue(filter.markIfNew(reference(5)));
+			filter.forget(reference(6));
+		}
+
+		try (SwiftDuplicateFilter filter = new SwiftDuplicateFilter(index, 1000, 30 * DAY, 4, clock)) {
+			assertEquals(99, filter.size());
+			assertTrue(filter.isDuplicate(reference(5)));
+			assertFalse(filter.isDuplicate(reference(6)));
+
+			clock.millis += 20 * DAY;
+			assertTrue(filter.markIfNew(reference(1000)));
+			clock.millis += 11 * DAY;
+			assertFalse(filter.isDuplicate(reference(5)));
+			assertTrue(filter.isDuplicate(reference(1000)));
+			assertEquals(1, filter.size());
+		}
+	}
+}
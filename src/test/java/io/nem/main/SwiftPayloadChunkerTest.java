@@ -0,0 +1,122 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.nem.core.messages.MessageTypes;
+
+import io.nem.swift.transport.SwiftFragmentReassembler;
+import io.nem.swift.transport.SwiftPayloadChunker;
+import io.nem.swift.transport.SwiftPayloadFragment;
+
+/**
+ * The Class SwiftPayloadChunkerTest.
+ */
+public class SwiftPayloadChunkerTest {
+
+	/** The sender. */
+	final String sender = "TBPAMDQCBCCBIGYSUHCKZ5A6JFKFPE4NLBICQ4CN";
+
+	/**
+	 * Creates a payload.
+	 *
+	 * @param length the length
+	 * @return the payload
+	 */
+	private byte[] payload(int length) {
+		final byte[] payload = new byte[length];
+		new Random(length).nextBytes(payload);
+		return payload;
+	}
+
+	/**
+	 * Test split respects message size.
+	 */
+	@Test
+	public void testSplitRespectsMessageSize() {
+		final List<SwiftPayloadFragment> fragments = SwiftPayloadChunker.split(payload(5000), MessageTypes.SECURE, 1024);
+		assertEquals(5, fragments.size());
+		for (final SwiftPayloadFragment fragment : fragments) {
+			assertTrue(fragment.toBytes().length <= 1024);
+			assertEquals(MessageTypes.SECURE, fragment.getMessageType());
+			assertEquals(fragments.get(0).getMessageId(), fragment.getMessageId());
+		}
+	}
+
+	/**
+	 * Test reassembles out of order with duplicates.
+	 */
+	@Test
+	public void testReassemblesOutOfOrderWithDuplicates() {
+		final byte[] payload = payload(7000);
+		final List<byte[]> messages = new ArrayList<>();
+		for (final SwiftPayloadFragment fragment : SwiftPayloadChunker.split(payload, MessageTypes.SECURE, 1024)) {
+			messages.add(fragment.toBytes());
+		}
+		messages.add(messages.get(2));
+		Collections.shuffle(messages, new Random(42));
+
+		final SwiftFragmentReassembler reassembler = new SwiftFragmentReassembler(16, 60000);
+		byte[] result = null;
+		for (final byte[] message : messages) {
+			assertTrue(SwiftPayloadFragment.isFragment(message));
+			final byte[] complete = reassembler.offer(sender, message);
+			if (complete != null) {
+				result = complete;
+			}
+		}
+		assertArrayEquals(payload, result);
+		assertEquals(1, reassembler.getCompleted());
+		assertEquals(0, reassembler.getPending());
+	}
+
+	/**
+	 * Test rejects corrupt fragment.
+	 */
+	@Test
+	public void testRejectsCorruptFragment() {
+		final byte[] message = SwiftPayloadChunker.split(payload(2000), MessageTypes.SECURE, 1024).get(0).toBytes();
+		message[message.length - 1] ^= 1;
+
+		final SwiftFragmentReassembler reassembler = new SwiftFragmentReassembler(16, 60000);
+		assertNull(reassembler.offer(sender, message));
+		assertEquals(1, reassembler.getRejected());
+		assertEquals(0, reassembler.getPending());
+	}
+
+	/**
+	 * Test bounds incomplete messages.
+	 */
+	@Test
+	public void testBoundsIncompleteMessages() {
+		final SwiftFragmentReassembler reassembler = new SwiftFragmentReassembler(2, 60000);
+		for (int i = 0; i < 3; i++) {
+			reassembler.offer(sender, SwiftPayloadChunker.split(payload(2000 + i), MessageTypes.SECURE, 1024).get(0));
+		}
+		assertEquals(2, reassembler.getPending());
+		assertEquals(1, reassembler.getDropped());
+	}
+
+	/**
+	 * Test drops timed out messages.
+	 *
+	 * @throws InterruptedException the interrupted exception
+	 */
+	@Test
+	public void testDropsTimedOutMessages() throws InterruptedException {
+		final SwiftFragmentReassembler reassembler = new SwiftFragmentReassembler(16, 10);
+		reassembler.offer(sender, SwiftPayloadChunker.split(payload(2000), MessageTypes.SECURE, 1024).get(0));
+		Thread.sleep(20);
+		reassembler.expire();
+		assertEquals(0, reassembler.getPending());
+		assertEquals(1, reassembler.getDropped());
+	}
+}
@@ -0,0 +1,116 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.nem.util.GzipUtils;
+import io.nem.util.SwiftDictionaryCodec;
+import io.nem.util.SwiftPayloadEnvelope;
+import io.nem.util.SwiftPayloadEnvelope.Codec;
+
+/**
+ * The Class SwiftPayloadEnvelopeTest.
+ */
+public class SwiftPayloadEnvelopeTest {
+
+	/** The sample messages by MT type. */
+	final Map<String, String> samples = new LinkedHashMap<>();
+
+	/**
+	 * Instantiates a new swift payload envelope test.
+	 */
+	public SwiftPayloadEnvelopeTest() {
+		samples.put("MT103", "{1:F01BICFOOYYAXXX8683497519}{2:O1031535051028ESPBESMMAXXX54237522470510281535N}{3:{113:ROMF}{108:0510280182794665}{119:STP}}{4:\r\n"
+				+ ":20:0061350113089908\r\n" + ":13C:/RNCTIME/1534+0000\r\n" + ":23B:CRED\r\n" + ":23E:SDVA\r\n"
+				+ ":32A:061028EUR100000,\r\n" + ":33B:EUR100000,\r\n" + ":50K:/12345678\r\n" + "AGENTES DE BOLSA FOO AGENCIA\r\n"
+				+ ":52A:/2337\r\n" + "FOOAESMMXXX\r\n" + ":53A:FOOAESMMXXX\r\n" + ":57A:BICFOOYYXXX\r\n"
+				+ ":59:/ES0123456789012345671234\r\n" + "FOO AGENTES DE BOLSA ASOC\r\n" + ":71A:OUR\r\n"
+				+ ":72:/BNF/TRANSF. BCO. FOO\r\n" + "-}");
+		samples.put("MT202", "{1:F01BANKBEBBAXXX2222123456}{2:I202BANKDEFFXXXXN}{3:{108:MUR0001}}{4:\r\n"
+				+ ":20:TRN0001202\r\n" + ":21:RELREF0001\r\n" + ":32A:170315EUR1250000,\r\n" + ":52A:BANKBEBB\r\n"
+				+ ":57A:BANKDEFF\r\n" + ":58A:BANKGB2L\r\n" + ":72:/INS/BANKBEBB\r\n" + "-}");
+		samples.put("MT940", "{1:F01FOOLHKH0AXXX0304009999}{2:O9401609160814FOOLHKH0AXXX03040027341608141609N}{4:\r\n"
+				+ ":20:USD940NO1\r\n" + ":21:123456/DEV\r\n" + ":25:USD234567\r\n" + ":28C:1/1\r\n"
+				+ ":60F:C160418USD672,\r\n" + ":61:160827C642,S1032\r\n" + ":86:ANDY\r\n" + ":61:160827D42,S1032\r\n"
+				+ ":86:BANK CHARGES\r\n" + ":62F:C160418USD1872,\r\n" + ":64:C160418USD1872,\r\n" + "-}");
+		samples.put("MT950", "{1:F01BANKBEBBAXXX2222123456}{2:O9501200170315BANKDEFFAXXX00000000001703151200N}{4:\r\n"
+				+ ":20:STMT0001\r\n" + ":25:123456789\r\n" + ":28C:102/1\r\n" + ":60F:C170314EUR1000000,\r\n"
+				+ ":61:170315D250000,S202TRN0001202\r\n" + ":61:170315C125000,S103REF2\r\n" + ":62F:C170315EUR875000,\r\n" + "-}");
+		samples.put("MT535", "{1:F01CUSTGB2LAXXX0000000000}{2:I535INVEBEBBXXXXN}{4:\r\n"
+				+ ":16R:GENL\r\n" + ":28E:1/ONLY\r\n" + ":20C::SEME//STMT535A\r\n" + ":23G:NEWM\r\n"
+				+ ":98A::STAT//20170315\r\n" + ":22F::SFRE//DAIL\r\n" + ":97A::SAFE//1234567\r\n" + ":17B::ACTI//Y\r\n"
+				+ ":16S:GENL\r\n" + ":16R:FIN\r\n" + ":35B:ISIN BE0003470755\r\n" + ":93B::AGGR//UNIT/1500,\r\n"
+				+ ":16S:FIN\r\n" + "-}");
+	}
+
+	/**
+	 * Test round trip with every codec.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testRoundTripWithEveryCodec() throws IOException {
+		for (final String sample : samples.values()) {
+			final byte[] message = sample.getBytes(StandardCharsets.UTF_8);
+			for (final Codec codec : Codec.values()) {
+				final byte[] payload = SwiftPayloadEnvelope.encode(message, codec);
+				assertEquals(codec, SwiftPayloadEnvelope.getCodec(payload));
+				assertArrayEquals(message, SwiftPayloadEnvelope.decode(payload));
+			}
+			assertEquals(sample, SwiftPayloadEnvelope.decodeToString(SwiftPayloadEnvelope.encode(sample)));
+		}
+	}
+
+	/**
+	 * Test adaptive encode keeps the smallest.
+	 */
+	@Test
+	public void testAdaptiveEncodeKeepsTheSmallest() {
+		final byte[] message = samples.get("MT103").getBytes(StandardCharsets.UTF_8);
+		final byte[] payload = SwiftPayloadEnvelope.encode(message);
+		assertTrue(payload.length < GzipUtils.compress(message).length);
+		assertTrue(payload.length <= SwiftPayloadEnvelope.encode(message, Codec.RAW).length);
+
+		final byte[] tiny = "{4:-}".getBytes(StandardCharsets.UTF_8);
+		assertEquals(Codec.RAW, SwiftPayloadEnvelope.getCodec(SwiftPayloadEnvelope.encode(tiny)));
+	}
+
+	/**
+	 * Test reads payloads without envelope.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testReadsPayloadsWithoutEnvelope() throws IOException {
+		final String sample = samples.get("MT940");
+		final byte[] message = sample.getBytes(StandardCharsets.UTF_8);
+		assertNull(SwiftPayloadEnvelope.getCodec(message));
+		assertArrayEquals(message, SwiftPayloadEnvelope.decode(message));
+		assertArrayEquals(message, SwiftPayloadEnvelope.decode(GzipUtils.compress(message)));
+		assertArrayEquals(message, SwiftPayloadEnvelope.decode(SwiftDictionaryCodec.compress(message)));
+	}
+
+	/**
+	 * Test never larger than gzip for any MT type.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testNeverLargerThanGzipForAnyMtType() throws IOException {
+		for (final Map.Entry<String, String> sample : samples.entrySet()) {
+			final byte[] message = sample.getValue().getBytes(StandardCharsets.UTF_8);
+			final byte[] envelope = SwiftPayloadEnvelope.encode(message);
+			assertTrue(sample.getKey(), envelope.length <= GzipUtils.compress(message).length);
+			assertArrayEquals(sample.getKey(), message, SwiftPayloadEnvelope.decode(envelope));
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package io.nem.main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.nem.core.connect.client.NisApiId;
+import org.nem.core.crypto.KeyPair;
+import org.nem.core.messages.PlainMessage;
+import org.nem.core.model.Account;
+import org.nem.core.model.ncc.NemAnnounceResult;
+
+import io.nem.factories.AttachmentFactory;
+import io.nem.model.SignedTransaction;
+import io.nem.model.SwiftTransaction;
+import io.nem.service.BlockchainTransactionService;
+import io.nem.service.Globals;
+import io.nem.service.MockNisNode;
+
+/**
+ * Sample SWIFT messages and signed transfers shared by the tests.
+ */
+final class TestFixtures {
+
+	/**
+	 * Instantiates a new test fixtures.
+	 */
+	private TestFixtures() {
+	}
+
+	/**
+	 * Builds an MT103 with the given reference, which is also in its field 70.
+	 *
+	 * @param reference the reference
+	 * @return the message text
+	 */
+	static String mt103(String reference) {
+		return "{1:F01BANKBEBBAXXX0000000000}{2:I103BANKDEFFXXXXN}{4:\r\n:20:" + reference
+				+ "\r\n:23B:CRED\r\n:32A:170315EUR1,\r\n:70:" + reference + " INVOICE SETTLEMENT\r\n-}";
+	}
+
+	/**
+	 * Describes transfers from one new sender, of micro XEM amounts 0, 1, 2
+	 * and so on.
+	 *
+	 * @param count the count
+	 * @param recipient the recipient, null for a new one per transfer
+	 * @return the t blocks
+	 */
+	static List<SwiftTransaction> tBlocks(int count, Account recipient) {
+		final Account sender = new Account(new KeyPair());
+		final List<SwiftTransaction> tBlocks = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			final SwiftTransaction tBlock = new SwiftTransaction();
+			tBlock.setSenderAccount(sender);
+			tBlock.setRecipientAccount(recipient != null ? recipient : new Account(new KeyPair()));
+			tBlock.setAmount((long) i);
+			tBlock.setTimeInstant(Globals.TIME_PROVIDER.getCurrentTime());
+			tBlocks.add(tBlock);
+		}
+		return tBlocks;
+	}
+
+	/**
+	 * Signs transfers, see {@link #tBlocks(int, Account)}.
+	 *
+	 * @param count the count
+	 * @param recipient the recipient, null for a new one per transfer
+	 * @return the signed transactions
+	 */
+	static List<SignedTransaction> transfers(int count, Account recipient) {
+		return BlockchainTransactionService.createSignedTransactions(tBlocks(count, recipient));
+	}
+
+	/**
+	 * Signs a transfer carrying a plain message.
+	 *
+	 * @param sender the sender
+	 * @param recipient the recipient
+	 * @param message the message bytes
+	 * @return the signed transaction
+	 */
+	static SignedTransaction transfer(Account sender, Account recipient, byte[] message) {
+		final SwiftTransaction tBlock = new SwiftTransaction();
+		tBlock.setSenderAccount(sender);
+		tBlock.setRecipientAccount(recipient);
+		tBlock.setAmount(0L);
+		tBlock.setAttachment(AttachmentFactory.createTransferTransactionAttachment(new PlainMessage(message)));
+		tBlock.setTimeInstant(Globals.TIME_PROVIDER.getCurrentTime());
+		return new SignedTransaction(BlockchainTransactionService.createSignedTransaction(tBlock));
+	}
+
+	/**
+	 * Announces a transaction to the mock node.
+	 *
+	 * @param node the node
+	 * @param transaction the transaction
+	 * @return the result
+	 */
+	static NemAnnounceResult announce(MockNisNode node, SignedTransaction transaction) {
+		return new NemAnnounceResult(Globals.TRANSPORT
+				.post(node.getEndpoint(), NisApiId.NIS_REST_TRANSACTION_ANNOUNCE, transaction.toAnnounceRequest())
+				.join());
+	}
+}
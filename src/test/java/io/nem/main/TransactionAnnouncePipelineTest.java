@@ -0,0 +1,132 @@
+package io.nem.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+import org.nem.core.model.ValidationResult;
+import org.nem.core.model.ncc.NemAnnounceResult;
+
+import io.nem.model.SwiftAnnounceResult;
+import io.nem.service.TransactionAnnouncePipeline;
+
+/**
+ * The Class TransactionAnnouncePipelineTest.
+ */
+public class TransactionAnnouncePipelineTest {
+
+	/**
+	 * Creates a successful announce result.
+	 *
+	 * @return the announce result
+	 */
+	private static SwiftAnnounceResult success() {
+		return new SwiftAnnounceResult(null, new NemAnnounceResult(ValidationResult.SUCCESS));
+	}
+
+	/**
+	 * Test reports outcomes in submission order.
+	 *
+	 * @throws InterruptedException the interrupted exception
+	 */
+	@Test
+	public void testReportsOutcomesInSubmissionOrder() throws InterruptedException {
+		final List<Integer> reported = new ArrayList<>();
+		final TransactionAnnouncePipeline pipeline = new TransactionAnnouncePipeline(3, Runnable::run,
+				outcome -> reported.add(outcome.getIndex()));
+		final List<CompletableFuture<SwiftAnnounceResult>> sends = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			final CompletableFuture<SwiftAnnounceResult> send = new CompletableFuture<>();
+			sends.add(send);
+			pipeline.announce(() -> send);
+		}
+
+		sends.get(2).complete(success());
+		sends.get(1).completeExceptionally(new IOException("connection reset"));
+		assertTrue(reported.isEmpty());
+
+		sends.get(0).complete(success());
+		assertEquals(3, reported.size());
+		for (int i = 0; i < 3; i++) {
+			assertEquals(i, reported.get(i).intValue());
+		}
+		assertTrue(pipeline.awaitResults().isEmpty());
+	}
+
+	/**
+	 * Test blocks producers while the window is full.
+	 *
+	 * @throws Exception the exception
+	 */
+	@Test
+	public void testBlocksProducersWhileTheWindowIsFull() throws Exception {
+		final TransactionAnnouncePipeline pipeline = new TransactionAnnouncePipeline(2, Runnable::run);
+		final CompletableFuture<SwiftAnnounceResult> first = new CompletableFuture<>();
+		pipeline.announce(() -> first);
+		pipeline.announce(() -> new CompletableFuture<>());
+		assertEquals(2, pipeline.getInFlight());
+
+		final CompletableFuture<SwiftAnnounceResult> third = new CompletableFuture<>();
+		final CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> {
+			try {
+				pipeline.announce(() -> third);
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		}, ForkJoinPool.commonPool());
+		assertBlocked(producer);
+
+		first.complete(success());
+		producer.get(10, TimeUnit.SECONDS);
+		assertEquals(2, pipeline.getInFlight());
+	}
+
+	/**
+	 * Test drops outcomes once collected.
+	 *
+	 * @throws InterruptedException the interrupted exception
+	 */
+	@Test
+	public void testDropsOutcomesOnceCollected() throws InterruptedException {
+		final TransactionAnnouncePipeline pipeline = new TransactionAnnouncePipeline(4, Runnable::run);
+		pipeline.announce(() -> CompletableFuture.completedFuture(success()));
+		pipeline.announce(() -> CompletableFuture.completedFuture(success()));
+
+		final List<TransactionAnnouncePipeline.Outcome> outcomes = pipeline.awaitResults();
+		assertEquals(2, outcomes.size());
+		assertTrue(outcomes.get(1).isSuccessful());
+		assertTrue(pipeline.awaitResults().isEmpty());
+
+		pipeline.announce(() -> CompletableFuture.completedFuture(success()));
+		final List<TransactionAnnouncePipeline.Outcome> next = pipeline.awaitResults();
+		assertEquals(1, next.size());
+		assertEquals(2, next.get(0).getIndex());
+	}
+
+	/**
+	 * Asserts a producer stays blocked.
+	 *
+	 * @param producer the producer
+	 * @throws InterruptedException the interrupted exception
+	 * @throws ExecutionException the execution exception
+	 */
+	private static void assertBlocked(CompletableFuture<Void> producer)
+			throws InterruptedException, ExecutionException {
+		try {
+			producer.get(200, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			return;
+		}
+		assertFalse("the producer was not blocked", producer.isDone());
+	}
+}